@@ -131,4 +131,21 @@ public class ParameterConfigKeys {
      * For the original (non-normalized) value, see {@link #TOPIC_DISTANCE}.
      */
     public static final String TOPIC_DISTANCE_NORMALIZED = "http://oaei.ontologymatching.org/topicDistanceNormalized";
+    
+    /**
+     * A cache for extracted texts which is shared between all matchers of one pipeline.
+     * The value has to be an object of type TextExtractorCache (in module matching-jena) and not a string.
+     * It is only used within one JVM and should thus not be set when calling external matchers.
+     * If not given, no cache is used and all texts are extracted again by each matcher.
+     */
+    public static final String TEXT_EXTRACTOR_CACHE = "http://oaei.ontologymatching.org/textExtractorCache";
+    
+    /**
+     * A cache for features of individuals (e.g. tokens, types, properties, or hierarchy levels) which is shared between
+     * all instance filters of one pipeline.
+     * The value has to be an object of type InstanceFeatureCache (in module matching-jena-matchers) and not a string.
+     * It is only used within one JVM and should thus not be set when calling external matchers.
+     * If not given, the features are computed again by each filter.
+     */
+    public static final String INSTANCE_FEATURE_CACHE = "http://oaei.ontologymatching.org/instanceFeatureCache";
 }
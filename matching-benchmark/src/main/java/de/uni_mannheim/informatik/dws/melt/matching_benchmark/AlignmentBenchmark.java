@@ -0,0 +1,100 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmark;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the creation of the indices of an {@link Alignment} and the lookups which use them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlignmentBenchmark {
+
+    private static final int NUMBER_OF_LOOKUPS = 1_000;
+
+    /**
+     * The number of correspondences (use e.g. {@code -p size=10000000} for larger alignments).
+     */
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<Correspondence> correspondences;
+    private Alignment alignment;
+    private String[] sources;
+    private String[] targets;
+    private Correspondence[] probes;
+
+    @Setup
+    public void setup() {
+        this.correspondences = SyntheticData.createCorrespondences(this.size, 0.2, SyntheticData.SEED);
+        this.alignment = new Alignment(this.correspondences);
+        Random random = new Random(SyntheticData.SEED);
+        this.sources = new String[NUMBER_OF_LOOKUPS];
+        this.targets = new String[NUMBER_OF_LOOKUPS];
+        this.probes = new Correspondence[NUMBER_OF_LOOKUPS];
+        for(int i = 0; i < NUMBER_OF_LOOKUPS; i++){
+            int entity = random.nextInt(this.size);
+            this.sources[i] = SyntheticData.source(entity);
+            this.targets[i] = SyntheticData.target(entity);
+            this.probes[i] = new Correspondence(SyntheticData.source(entity), SyntheticData.target(random.nextInt(this.size)));
+        }
+    }
+
+    @Benchmark
+    public Alignment build() {
+        Alignment result = new Alignment();
+        for(Correspondence correspondence : this.correspondences){
+            result.add(correspondence);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Alignment copy() {
+        return new Alignment(this.alignment);
+    }
+
+    @Benchmark
+    public void lookupSource(Blackhole blackhole) {
+        for(String source : this.sources){
+            for(Correspondence correspondence : this.alignment.getCorrespondencesSource(source)){
+                blackhole.consume(correspondence);
+            }
+        }
+    }
+
+    @Benchmark
+    public void lookupTarget(Blackhole blackhole) {
+        for(String target : this.targets){
+            for(Correspondence correspondence : this.alignment.getCorrespondencesTarget(target)){
+                blackhole.consume(correspondence);
+            }
+        }
+    }
+
+    @Benchmark
+    public void contains(Blackhole blackhole) {
+        for(Correspondence probe : this.probes){
+            blackhole.consume(this.alignment.contains(probe));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmark;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentParser;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentSerializer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+/**
+ * Benchmarks {@link AlignmentParser} and {@link AlignmentSerializer} in memory (no disk access).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlignmentSerializationBenchmark {
+
+    /**
+     * The number of correspondences (use e.g. {@code -p size=10000000} for larger alignments).
+     */
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Alignment alignment;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws IOException {
+        this.alignment = new Alignment(SyntheticData.createCorrespondences(this.size, 0.2, SyntheticData.SEED));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AlignmentSerializer.serialize(this.alignment, out);
+        this.serialized = out.toByteArray();
+    }
+
+    @Benchmark
+    public int serialize() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(this.serialized.length);
+        AlignmentSerializer.serialize(this.alignment, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public Alignment parse() throws SAXException, IOException {
+        return AlignmentParser.parse(new ByteArrayInputStream(this.serialized));
+    }
+}
@@ -0,0 +1,27 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler such that the throughput as well as the allocation rate is reported.
+ * All JMH command line options can be used, e.g.
+ * <pre>{@code
+ * java -jar matching-benchmark/target/benchmarks.jar AlignmentBenchmark -p size=1000,10000000 -jvmArgs -Xmx16g -rf json
+ * }</pre>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,57 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmark;
+
+import de.uni_mannheim.informatik.dws.melt.matching_data.GoldStandardCompleteness;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the computation of the confusion matrix for complete and partial gold standards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfusionMatrixMetricBenchmark {
+
+    /**
+     * The number of correspondences in the reference and system alignment (use e.g. {@code -p size=10000000} for larger alignments).
+     */
+    @Param({"1000", "100000"})
+    public int size;
+
+    private ConfusionMatrixMetric metric;
+    private Alignment reference;
+    private Alignment system;
+
+    @Setup
+    public void setup() {
+        this.metric = new ConfusionMatrixMetric();
+        this.reference = SyntheticData.createReference(this.size);
+        this.system = SyntheticData.createSystem(this.size, 0.2);
+    }
+
+    @Benchmark
+    public ConfusionMatrix complete() {
+        return this.metric.compute(this.reference, this.system, GoldStandardCompleteness.COMPLETE);
+    }
+
+    @Benchmark
+    public ConfusionMatrix partialSourceCompleteTargetComplete() {
+        return this.metric.compute(this.reference, this.system, GoldStandardCompleteness.PARTIAL_SOURCE_COMPLETE_TARGET_COMPLETE);
+    }
+}
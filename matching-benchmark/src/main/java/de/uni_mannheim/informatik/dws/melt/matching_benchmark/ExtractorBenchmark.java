@@ -0,0 +1,73 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmark;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.extraction.HungarianExtractor;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.extraction.MaxWeightBipartiteExtractor;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.extraction.NaiveDescendingExtractor;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the one to one extractors on a many to many candidate alignment.
+ * The extractors modify their input, thus a fresh copy is created before each invocation (not measured).
+ * The Hungarian extractor builds a dense matrix (quadratic memory, cubic runtime) and should only be used with small sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractorBenchmark {
+
+    /**
+     * The number of source (and target) entities.
+     */
+    @Param({"100", "1000"})
+    public int entities;
+
+    /**
+     * The number of candidates per source entity.
+     */
+    @Param({"10"})
+    public int candidatesPerEntity;
+
+    private Alignment candidates;
+    private Alignment input;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        this.candidates = SyntheticData.createCandidates(this.entities, this.candidatesPerEntity);
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        this.input = new Alignment(this.candidates);
+    }
+
+    @Benchmark
+    public Alignment naiveDescending() {
+        return NaiveDescendingExtractor.filter(this.input);
+    }
+
+    @Benchmark
+    public Alignment maxWeightBipartite() {
+        return MaxWeightBipartiteExtractor.filter(this.input);
+    }
+
+    @Benchmark
+    public Alignment hungarian() {
+        return HungarianExtractor.filter(this.input);
+    }
+}
@@ -0,0 +1,68 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmark;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers.MergeExecutor;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.util.concurrent.TimeUnit;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the bulk merge of {@link MergeExecutor} with the per triple merge.
+ * Half of the source instances are mapped to a target instance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MergeExecutorBenchmark {
+
+    /**
+     * The number of instances in the source (four triples per instance).
+     */
+    @Param({"10000", "100000"})
+    public int instances;
+
+    private Model source;
+    private Alignment alignment;
+    private Model target;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        this.source = SyntheticData.createModel(SyntheticData.SOURCE_NAMESPACE, this.instances);
+        this.alignment = new Alignment();
+        for(int i = 0; i < this.instances; i += 2){
+            this.alignment.add(SyntheticData.source(i), SyntheticData.target(i));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        this.target = ModelFactory.createDefaultModel();
+    }
+
+    @Benchmark
+    public Model bulk() {
+        MergeExecutor.mergeSourceIntoTargetBulk(this.source, this.target, this.alignment, false, MergeExecutor.DEFAULT_PARTITION_SIZE);
+        return this.target;
+    }
+
+    @Benchmark
+    public Model perTriple() {
+        MergeExecutor.mergeSourceIntoTargetPerTriple(this.source, this.target, this.alignment, false);
+        return this.target;
+    }
+}
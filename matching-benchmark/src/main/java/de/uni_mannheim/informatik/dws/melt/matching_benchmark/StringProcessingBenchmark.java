@@ -0,0 +1,63 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmark;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.StringProcessing;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the label normalization of {@link StringProcessing}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringProcessingBenchmark {
+
+    /**
+     * The number of labels which are normalized in one invocation.
+     */
+    @Param({"10000"})
+    public int size;
+
+    private List<String> labels;
+
+    @Setup
+    public void setup() {
+        this.labels = SyntheticData.createLabels(this.size);
+    }
+
+    @Benchmark
+    public void normalize(Blackhole blackhole) {
+        for(String label : this.labels){
+            blackhole.consume(StringProcessing.normalize(label));
+        }
+    }
+
+    @Benchmark
+    public void normalizeAndRemoveStopwords(Blackhole blackhole) {
+        for(String label : this.labels){
+            blackhole.consume(StringProcessing.normalizeAndRemoveStopwords(label));
+        }
+    }
+
+    @Benchmark
+    public void normalizeOnlyCamelCaseAndUnderscore(Blackhole blackhole) {
+        for(String label : this.labels){
+            blackhole.consume(StringProcessing.normalizeOnlyCamelCaseAndUnderscore(label));
+        }
+    }
+}
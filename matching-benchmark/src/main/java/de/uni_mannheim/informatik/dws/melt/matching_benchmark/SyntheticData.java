@@ -0,0 +1,172 @@
+package de.uni_mannheim.informatik.dws.melt.matching_benchmark;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+/**
+ * Generates deterministic synthetic alignments, labels, and knowledge graphs for the benchmarks.
+ * The same size and seed always result in the same data. Thus the benchmarks can be compared between runs and no
+ * download (e.g. of a track) is necessary.
+ */
+public final class SyntheticData {
+
+    /**
+     * The seed which is used by all benchmarks.
+     */
+    public static final long SEED = 1234;
+
+    /**
+     * Namespace of the source entities.
+     */
+    public static final String SOURCE_NAMESPACE = "http://source.example.com/entity/";
+
+    /**
+     * Namespace of the target entities.
+     */
+    public static final String TARGET_NAMESPACE = "http://target.example.com/entity/";
+
+    private static final String[] WORDS = {
+        "conference", "paper", "author", "review", "person", "organization", "member", "chair", "committee", "event",
+        "has", "is", "of", "the", "and", "first", "last", "name", "email", "address", "date", "accepted", "rejected",
+        "submitted", "program", "session", "track", "workshop", "tutorial", "invited", "talk", "abstract", "a", "in"
+    };
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Returns the URI of the i-th source entity.
+     * @param i the number of the entity
+     * @return the source URI
+     */
+    public static String source(int i) {
+        return SOURCE_NAMESPACE + i;
+    }
+
+    /**
+     * Returns the URI of the i-th target entity.
+     * @param i the number of the entity
+     * @return the target URI
+     */
+    public static String target(int i) {
+        return TARGET_NAMESPACE + i;
+    }
+
+    /**
+     * Creates a one to one reference alignment of the given size where source i is mapped to target i.
+     * @param size the number of correspondences
+     * @return the reference alignment
+     */
+    public static Alignment createReference(int size) {
+        return new Alignment(createCorrespondences(size, 0.0, SEED));
+    }
+
+    /**
+     * Creates a list of one to one correspondences with random confidences. A fraction of them is wrong (mapped to
+     * another target than the reference).
+     * @param size the number of correspondences
+     * @param errorRate the fraction of wrong correspondences (between zero and one)
+     * @param seed the seed
+     * @return the list of correspondences
+     */
+    public static List<Correspondence> createCorrespondences(int size, double errorRate, long seed) {
+        Random random = new Random(seed);
+        List<Correspondence> correspondences = new ArrayList<>(size);
+        for(int i = 0; i < size; i++){
+            int target = random.nextDouble() < errorRate ? random.nextInt(size) : i;
+            correspondences.add(new Correspondence(source(i), target(target), errorRate == 0.0 ? 1.0 : random.nextDouble()));
+        }
+        return correspondences;
+    }
+
+    /**
+     * Creates a system alignment for {@link #createReference(int) } where the given fraction of the correspondences is wrong.
+     * @param size the number of correspondences
+     * @param errorRate the fraction of wrong correspondences (between zero and one)
+     * @return the system alignment
+     */
+    public static Alignment createSystem(int size, double errorRate) {
+        return new Alignment(createCorrespondences(size, errorRate, SEED + 1));
+    }
+
+    /**
+     * Creates a many to many alignment which is the input of the extractors.
+     * Each source has a given number of candidates (the correct target and random other targets).
+     * @param entities the number of source (and target) entities
+     * @param candidatesPerEntity the number of candidates per source entity
+     * @return the candidate alignment
+     */
+    public static Alignment createCandidates(int entities, int candidatesPerEntity) {
+        Random random = new Random(SEED);
+        Alignment alignment = new Alignment();
+        for(int i = 0; i < entities; i++){
+            alignment.add(source(i), target(i), 0.5 + random.nextDouble() / 2);
+            for(int j = 1; j < candidatesPerEntity; j++){
+                alignment.add(source(i), target(random.nextInt(entities)), random.nextDouble());
+            }
+        }
+        return alignment;
+    }
+
+    /**
+     * Creates labels as they are found in ontologies (camel case, underscores, spaces, and numbers).
+     * @param count the number of labels
+     * @return the labels
+     */
+    public static List<String> createLabels(int count) {
+        Random random = new Random(SEED);
+        List<String> labels = new ArrayList<>(count);
+        for(int i = 0; i < count; i++){
+            int length = 1 + random.nextInt(5);
+            StringBuilder sb = new StringBuilder();
+            int style = random.nextInt(3);
+            for(int j = 0; j < length; j++){
+                String word = WORDS[random.nextInt(WORDS.length)];
+                if(j > 0){
+                    if(style == 0){
+                        word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+                    }else{
+                        sb.append(style == 1 ? '_' : ' ');
+                    }
+                }
+                sb.append(word);
+            }
+            if(random.nextInt(10) == 0)
+                sb.append(random.nextInt(100));
+            labels.add(sb.toString());
+        }
+        return labels;
+    }
+
+    /**
+     * Creates a knowledge graph with the given number of instances. Each instance has a type, a label, and a link
+     * to another instance (four triples per instance).
+     * @param namespace the namespace of the instances
+     * @param instances the number of instances
+     * @return the model
+     */
+    public static Model createModel(String namespace, int instances) {
+        Random random = new Random(SEED);
+        Model model = ModelFactory.createDefaultModel();
+        Resource type = model.createResource(namespace + "Type");
+        Property link = model.createProperty(namespace + "link");
+        Property value = model.createProperty(namespace + "value");
+        for(int i = 0; i < instances; i++){
+            Resource instance = model.createResource(namespace + i);
+            instance.addProperty(RDF.type, type);
+            instance.addProperty(RDFS.label, "instance " + i);
+            instance.addProperty(link, model.createResource(namespace + random.nextInt(instances)));
+            instance.addLiteral(value, random.nextInt(1000));
+        }
+        return model;
+    }
+}
@@ -0,0 +1,243 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval;
+
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
+import de.uni_mannheim.informatik.dws.melt.matching_data.Track;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A journal of finished matcher executions which allows to resume a long running {@link Executor} or
+ * {@link ExecutorParallel} run (e.g. after a crash or an OutOfMemoryError).
+ * <p>
+ * Each completed {@link ExecutionResult} is appended to the file {@value #JOURNAL_FILE_NAME} in the checkpoint directory
+ * as soon as it finishes (track, test case, matcher name, runtime, and system alignment).
+ * The system alignment is copied to the checkpoint directory because the original one is usually a temporary file which
+ * is deleted on exit.
+ * <p>
+ * In resume mode, the journal is read and the executors skip all (matcher name, test case) pairs which are already
+ * completed. The persisted results are added to the returned {@link ExecutionResultSet} instead.
+ * Thus only the remaining work is executed.
+ * <pre>{@code
+ * ExecutionCheckpoint checkpoint = new ExecutionCheckpoint(new File("checkpoint"), true);
+ * ExecutionResultSet results = Executor.runTracks(tracks, matchers, checkpoint);
+ * }</pre>
+ */
+public class ExecutionCheckpoint {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionCheckpoint.class);
+
+    /**
+     * The file name of the journal in the checkpoint directory.
+     */
+    public static final String JOURNAL_FILE_NAME = "journal.csv";
+
+    private static final String[] HEADER = {"Track", "Track Version", "Test Case", "Matcher", "Runtime", "Alignment"};
+
+    private final File directory;
+    private final File journal;
+    private final Map<String, Entry> completed;
+    private int alignmentCounter;
+
+    /**
+     * Constructor
+     * @param directory the directory where the journal and the system alignments are stored.
+     * @param resume true if the results of the existing journal should be reused. If false, the existing journal is
+     * cleared.
+     */
+    public ExecutionCheckpoint(File directory, boolean resume) {
+        this.directory = directory;
+        this.journal = new File(directory, JOURNAL_FILE_NAME);
+        this.completed = new HashMap<>();
+        this.alignmentCounter = 0;
+        directory.mkdirs();
+        if(resume){
+            readJournal();
+        }else if(this.journal.exists() && !this.journal.delete()){
+            LOGGER.warn("Could not delete the existing journal {}.", this.journal);
+        }
+    }
+
+    /**
+     * Returns the persisted result of the given matcher on the given test case.
+     * @param testCase the test case
+     * @param matcherName the name of the matcher
+     * @param matcher the matcher instance which is set in the returned result (can be null).
+     * @return the completed execution result or null if the matcher was not yet executed on the test case.
+     */
+    public synchronized ExecutionResult getCompleted(TestCase testCase, String matcherName, Object matcher) {
+        Entry entry = this.completed.get(getKey(testCase, matcherName));
+        if(entry == null)
+            return null;
+        try {
+            return new ExecutionResult(testCase, matcherName, entry.alignment.toURI().toURL(), entry.runtime, matcher, null);
+        } catch (MalformedURLException ex) {
+            LOGGER.warn("Cannot convert the checkpointed alignment {} to a URL. The matcher will be executed again.", entry.alignment, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the given matcher was already executed on the given test case.
+     * @param testCase the test case
+     * @param matcherName the name of the matcher
+     * @return true if the result is available in the checkpoint.
+     */
+    public synchronized boolean isCompleted(TestCase testCase, String matcherName) {
+        return this.completed.containsKey(getKey(testCase, matcherName));
+    }
+
+    /**
+     * Appends a completed execution result to the journal. The system alignment is copied to the checkpoint directory
+     * before the journal entry is written. Thus every journal entry points to a complete alignment.
+     * @param result the execution result to persist
+     */
+    public synchronized void add(ExecutionResult result) {
+        if(result == null)
+            return;
+        URL originalSystemAlignment = result.getOriginalSystemAlignment();
+        if(originalSystemAlignment == null){
+            LOGGER.warn("The execution result of matcher {} on test case {} has no original system alignment and is not checkpointed.",
+                    result.getMatcherName(), result.getTestCase().getName());
+            return;
+        }
+        File alignmentFile = new File(this.directory, "alignment_" + this.alignmentCounter + ".rdf");
+        try(InputStream in = originalSystemAlignment.openStream()){
+            Files.copy(in, alignmentFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            LOGGER.warn("Could not copy the system alignment {} to the checkpoint directory. The result is not checkpointed.",
+                    originalSystemAlignment, ex);
+            return;
+        }
+        this.alignmentCounter++;
+
+        boolean writeHeader = !this.journal.exists() || this.journal.length() == 0;
+        try(Writer writer = new OutputStreamWriter(new FileOutputStream(this.journal, true), StandardCharsets.UTF_8);
+            CSVPrinter printer = new CSVPrinter(writer, writeHeader ? CSVFormat.DEFAULT.withHeader(HEADER) : CSVFormat.DEFAULT)){
+            Track track = result.getTestCase().getTrack();
+            printer.printRecord(
+                    track == null ? "" : track.getName(),
+                    track == null ? "" : track.getVersion(),
+                    result.getTestCase().getName(),
+                    result.getMatcherName(),
+                    result.getRuntime(),
+                    alignmentFile.getName());
+        } catch (IOException ex) {
+            LOGGER.warn("Could not write to the checkpoint journal {}.", this.journal, ex);
+            return;
+        }
+        this.completed.put(getKey(result.getTestCase(), result.getMatcherName()), new Entry(result.getRuntime(), alignmentFile));
+    }
+
+    /**
+     * Returns the number of completed executions in this checkpoint.
+     * @return number of completed executions
+     */
+    public synchronized int size() {
+        return this.completed.size();
+    }
+
+    /**
+     * Returns the directory of this checkpoint.
+     * @return the checkpoint directory
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    private void readJournal() {
+        if(!this.journal.exists())
+            return;
+        truncateIncompleteLastLine();
+        try(BufferedReader reader = Files.newBufferedReader(this.journal.toPath(), StandardCharsets.UTF_8)){
+            for(CSVRecord record : CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(reader)){
+                if(!record.isConsistent()){
+                    //the last line might be incomplete if the JVM was killed while writing
+                    LOGGER.warn("Skip incomplete line {} of checkpoint journal {}.", record.getRecordNumber(), this.journal);
+                    continue;
+                }
+                File alignmentFile = new File(this.directory, record.get("Alignment"));
+                this.alignmentCounter++;
+                if(!alignmentFile.isFile()){
+                    LOGGER.warn("The checkpointed alignment {} does not exist. The matcher will be executed again.", alignmentFile);
+                    continue;
+                }
+                long runtime;
+                try {
+                    runtime = Long.parseLong(record.get("Runtime"));
+                } catch (NumberFormatException ex) {
+                    LOGGER.warn("Skip line {} of checkpoint journal {} because the runtime is not a number.", record.getRecordNumber(), this.journal);
+                    continue;
+                }
+                this.completed.put(getKey(record.get("Track"), record.get("Track Version"), record.get("Test Case"), record.get("Matcher")),
+                        new Entry(runtime, alignmentFile));
+            }
+        } catch (IOException | IllegalStateException ex) {
+            LOGGER.warn("Could not read the whole checkpoint journal {} - the remaining lines are ignored.", this.journal, ex);
+        }
+        LOGGER.info("Resume from checkpoint {} with {} completed executions.", this.directory, this.completed.size());
+    }
+
+    /**
+     * Removes the last line of the journal if it does not end with a line break (the JVM was killed while writing it).
+     * Otherwise the next record would be appended to the incomplete line and would be lost as well.
+     */
+    private void truncateIncompleteLastLine() {
+        try(RandomAccessFile file = new RandomAccessFile(this.journal, "rw")){
+            long length = file.length();
+            long position = length;
+            while(position > 0){
+                file.seek(position - 1);
+                if(file.read() == '\n')
+                    break;
+                position--;
+            }
+            if(position < length){
+                LOGGER.warn("Remove the incomplete last line of checkpoint journal {}.", this.journal);
+                file.setLength(position);
+            }
+        } catch (IOException ex) {
+            LOGGER.warn("Could not remove the incomplete last line of checkpoint journal {}.", this.journal, ex);
+        }
+    }
+
+    private static String getKey(TestCase testCase, String matcherName) {
+        Track track = testCase.getTrack();
+        return getKey(track == null ? "" : track.getName(), track == null ? "" : track.getVersion(), testCase.getName(), matcherName);
+    }
+
+    private static String getKey(String trackName, String trackVersion, String testCaseName, String matcherName) {
+        return trackName + "\u0000" + trackVersion + "\u0000" + testCaseName + "\u0000" + matcherName;
+    }
+
+    /**
+     * One completed execution.
+     */
+    private static class Entry {
+        private final long runtime;
+        private final File alignment;
+
+        Entry(long runtime, File alignment) {
+            this.runtime = runtime;
+            this.alignment = alignment;
+        }
+    }
+}
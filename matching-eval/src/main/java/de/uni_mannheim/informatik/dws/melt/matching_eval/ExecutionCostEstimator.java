@@ -0,0 +1,131 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval;
+
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
+import java.io.File;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Estimates the cost of running a matcher on a test case. It is used by {@link ExecutorParallel} to start the most
+ * expensive jobs first and to limit the number of concurrently running large jobs.
+ * <ul>
+ * <li>The runtime is the runtime of a previous execution of the same matcher on the same test case (if available).
+ * Otherwise it is estimated by the size of the source and target file (multiplied with the average runtime per byte
+ * of the previous executions if available).</li>
+ * <li>The heap usage is estimated by the size of the source and target file multiplied with a heap factor.</li>
+ * </ul>
+ */
+public class ExecutionCostEstimator {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionCostEstimator.class);
+
+    /**
+     * The default factor between the file size and the used heap (in memory representation of the ontologies/knowledge graphs).
+     */
+    public static final double DEFAULT_HEAP_FACTOR = 10.0;
+
+    private final ExecutionResultSet previousResults;
+    private final double runtimePerByte;
+    private final Map<URI, Long> fileSizes;
+    private double heapFactor;
+
+    /**
+     * Constructor which estimates the cost only based on the file sizes.
+     */
+    public ExecutionCostEstimator() {
+        this(null);
+    }
+
+    /**
+     * Constructor
+     * @param previousResults the results of a previous run (e.g. with the same matchers) or null.
+     * The runtimes are used as estimates.
+     */
+    public ExecutionCostEstimator(ExecutionResultSet previousResults) {
+        this.previousResults = previousResults;
+        this.fileSizes = new HashMap<>();
+        this.heapFactor = DEFAULT_HEAP_FACTOR;
+        long runtime = 0;
+        long size = 0;
+        if(previousResults != null){
+            for(ExecutionResult result : previousResults){
+                if(result.getRefinements() != null && !result.getRefinements().isEmpty())
+                    continue;
+                long testCaseSize = getSize(result.getTestCase());
+                if(testCaseSize > 0){
+                    runtime += result.getRuntime();
+                    size += testCaseSize;
+                }
+            }
+        }
+        this.runtimePerByte = size == 0 ? 1.0 : (double) runtime / size;
+    }
+
+    /**
+     * Estimates the runtime of the given matcher on the test case.
+     * The unit is nanoseconds if previous results are available (otherwise it is only comparable between test cases).
+     * @param testCase the test case
+     * @param matcherName the name of the matcher
+     * @return the estimated runtime
+     */
+    public double estimateRuntime(TestCase testCase, String matcherName) {
+        if(this.previousResults != null){
+            ExecutionResult previous = this.previousResults.get(testCase, matcherName);
+            if(previous != null)
+                return previous.getRuntime();
+        }
+        return getSize(testCase) * this.runtimePerByte;
+    }
+
+    /**
+     * Estimates the heap (in bytes) which is needed to run a matcher on the test case.
+     * @param testCase the test case
+     * @return the estimated heap in bytes
+     */
+    public long estimateHeap(TestCase testCase) {
+        return (long) (getSize(testCase) * this.heapFactor);
+    }
+
+    /**
+     * Returns the size of the source and target file of the test case.
+     * @param testCase the test case
+     * @return the size in bytes (files which are not available locally count as zero)
+     */
+    public synchronized long getSize(TestCase testCase) {
+        return getFileSize(testCase.getSource()) + getFileSize(testCase.getTarget());
+    }
+
+    private long getFileSize(URI uri) {
+        if(uri == null)
+            return 0;
+        return this.fileSizes.computeIfAbsent(uri, u -> {
+            try {
+                File file = new File(u);
+                return file.isFile() ? file.length() : 0L;
+            } catch (IllegalArgumentException ex) {
+                LOGGER.debug("URI {} does not point to a local file - the size is not used for the estimation.", u);
+                return 0L;
+            }
+        });
+    }
+
+    /**
+     * Returns the factor between the file size and the used heap.
+     * @return the heap factor
+     */
+    public double getHeapFactor() {
+        return heapFactor;
+    }
+
+    /**
+     * Sets the factor between the file size and the used heap. Default is {@link #DEFAULT_HEAP_FACTOR}.
+     * @param heapFactor the heap factor
+     */
+    public void setHeapFactor(double heapFactor) {
+        this.heapFactor = heapFactor;
+    }
+}
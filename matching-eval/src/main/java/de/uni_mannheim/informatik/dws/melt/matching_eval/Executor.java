@@ -101,6 +101,19 @@ public class Executor {
      * @return The matching result as {@link ExecutionResultSet} instance.
      */
     public static ExecutionResultSet runTracks(List<Track> tracks, Map<String, Object> matchers) {
+        return runTracks(tracks, matchers, (ExecutionCheckpoint) null);
+    }
+    
+    /**
+     * Run multiple matchers on multiple tracks and persist each result in the given checkpoint.
+     * In case the checkpoint is resumed, already completed executions are loaded from the checkpoint and not executed again.
+     *
+     * @param tracks The tracks on which the matchers shall be run.
+     * @param matchers The matchers that shall be run. The values in the map (matchers) should implement either IMatcher or IOntologyMatchingToolBridge is some way.
+     * @param checkpoint The checkpoint which stores the completed executions (can be null).
+     * @return The matching result as {@link ExecutionResultSet} instance.
+     */
+    public static ExecutionResultSet runTracks(List<Track> tracks, Map<String, Object> matchers, ExecutionCheckpoint checkpoint) {
         if(tracks == null){
             LOGGER.error("The tracks list is null. Resolution: Returning empty resultSet.");
             return new ExecutionResultSet();
@@ -113,7 +126,7 @@ public class Executor {
             }
             testCases.addAll(track.getTestCases());
         }
-        return run(testCases, matchers);
+        return run(testCases, matchers, checkpoint);
     }
     
     /**
@@ -217,6 +230,18 @@ public class Executor {
      * @return The matching result as {@link ExecutionResultSet} instance.
      */
     public static ExecutionResultSet run(List<TestCase> testCases, Map<String, Object> matchers) {
+        return run(testCases, matchers, (ExecutionCheckpoint) null);
+    }
+    
+    /**
+     * This method runs the specified matchers on the specified test cases and persists each result in the given checkpoint.
+     * In case the checkpoint is resumed, already completed executions are loaded from the checkpoint and not executed again.
+     * @param testCases The test cases on which all the specified matchers shall be run.
+     * @param matchers  A map of matchers from unique_name to matcher instance. The matcher class should implement either IMatcher or IOntologyMatchingToolBridge is some way.
+     * @param checkpoint The checkpoint which stores the completed executions (can be null).
+     * @return The matching result as {@link ExecutionResultSet} instance.
+     */
+    public static ExecutionResultSet run(List<TestCase> testCases, Map<String, Object> matchers, ExecutionCheckpoint checkpoint) {
         if(testCases == null){
             LOGGER.error("The testCases list is null. Resolution: Returning empty resultSet.");
             return new ExecutionResultSet();
@@ -233,9 +258,19 @@ public class Executor {
                             + "This matcher will be skipped.");
                     continue;
                 }
+                if(checkpoint != null){
+                    ExecutionResult completed = checkpoint.getCompleted(tc, matcher.getKey(), matcher.getValue());
+                    if(completed != null){
+                        r.add(completed);
+                        continue;
+                    }
+                }
                 ExecutionResult er = ExecutionRunner.runMatcher(tc, matcher.getValue(), matcher.getKey());
-                if(er != null)
+                if(er != null){
                     r.add(er);
+                    if(checkpoint != null)
+                        checkpoint.add(er);
+                }
             }
         }
         return r;
@@ -3,17 +3,30 @@ package de.uni_mannheim.informatik.dws.melt.matching_eval;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_data.Track;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Executor to run matchers in parallel.
+ * <p>
+ * By default, the jobs (matcher and test case combinations) are started in the order of their estimated cost
+ * (longest first, see {@link ExecutionCostEstimator}). Each thread takes the next job as soon as it is idle.
+ * Thus large test cases do not start last and dominate the overall runtime.
+ * Optionally the sum of the estimated heap of all running jobs can be limited ({@link #setMaximumHeap(long) }).
+ * The returned {@link ExecutionResultSet} is independent of the execution order.
+ * <p>
+ * With a {@link ExecutionCheckpoint} ({@link #setCheckpoint(ExecutionCheckpoint) }), each finished result is persisted
+ * immediately and a resumed run only executes the jobs which are not yet completed.
  */
 public class ExecutorParallel {
 
@@ -21,13 +34,21 @@ public class ExecutorParallel {
     private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorParallel.class);
     
     private int numberOfThreads;
+    private boolean longestJobFirst;
+    private ExecutionCostEstimator costEstimator;
+    private long maximumHeap;
+    private ExecutionCheckpoint checkpoint;
     
     public ExecutorParallel(){
-        this.numberOfThreads = Runtime.getRuntime().availableProcessors();
+        this(Runtime.getRuntime().availableProcessors());
     }
     
     public ExecutorParallel(int numberOfThreads){
         this.numberOfThreads = numberOfThreads;
+        this.longestJobFirst = true;
+        this.costEstimator = new ExecutionCostEstimator();
+        this.maximumHeap = 0;
+        this.checkpoint = null;
     }
 
     /**
@@ -38,24 +59,79 @@ public class ExecutorParallel {
      * @return ExecutionResultSet
      */
     public ExecutionResultSet run(List<TestCase> testCases, Map<String, Object> matchers) {
-        ExecutorService exec = Executors.newFixedThreadPool(numberOfThreads);
-
-        List<Future<ExecutionResult>> futures = new ArrayList<>(testCases.size() * matchers.size());
+        List<Job> jobs = new ArrayList<>(testCases.size() * matchers.size());
+        List<ExecutionResult> completed = new ArrayList<>(testCases.size() * matchers.size());
         for (TestCase tc : testCases) {
             for (Map.Entry<String, Object> matcher : matchers.entrySet()) {
-                futures.add(exec.submit(new ExecutionRunner(tc, matcher.getValue(), matcher.getKey())));
+                ExecutionResult completedResult = this.checkpoint == null ? null : this.checkpoint.getCompleted(tc, matcher.getKey(), matcher.getValue());
+                completed.add(completedResult);
+                if(completedResult == null)
+                    jobs.add(new Job(completed.size() - 1, tc, matcher.getKey(), matcher.getValue()));
             }
         }
-
-        ExecutionResultSet results = new ExecutionResultSet();
-        for (Future<ExecutionResult> f : futures) {
-            try {
-                results.add(f.get());// wait for a MatcherRunner to complete
-            } catch (InterruptedException | ExecutionException ex) {
-                LOGGER.warn("Error when waiting for parallel results of matcher execution.", ex);
+        if(this.checkpoint != null)
+            LOGGER.info("{} executions are loaded from the checkpoint and {} executions remain.", completed.size() - jobs.size(), jobs.size());
+        
+        List<Job> schedule = new ArrayList<>(jobs);
+        if(this.longestJobFirst){
+            for(Job job : jobs){
+                job.cost = this.costEstimator.estimateRuntime(job.testCase, job.matcherName);
+            }
+            // stable sort: jobs with the same cost keep the original order
+            schedule.sort(Comparator.comparingDouble((Job job) -> job.cost).reversed());
+        }
+        if(this.maximumHeap > 0){
+            for(Job job : jobs){
+                job.heap = Math.min(this.costEstimator.estimateHeap(job.testCase), this.maximumHeap);
             }
         }
+        
+        JobQueue queue = new JobQueue(schedule, this.maximumHeap);
+        ExecutionResult[] executionResults = completed.toArray(new ExecutionResult[0]);
+        ExecutionCheckpoint journal = this.checkpoint;
+        int threads = Math.max(1, Math.min(this.numberOfThreads, jobs.size()));
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>(threads);
+        for(int i = 0; i < threads; i++){
+            workers.add(exec.submit(() -> {
+                Job job;
+                while((job = queue.take()) != null){
+                    try {
+                        ExecutionResult result = new ExecutionRunner(job.testCase, job.matcher, job.matcherName).call();
+                        executionResults[job.index] = result;
+                        if(journal != null && result != null)
+                            journal.add(result);
+                    } catch (Throwable ex) {
+                        // also errors (like OutOfMemoryError) such that this worker continues with the remaining jobs
+                        LOGGER.error("Error during parallel matcher execution of matcher {} on test case {}.", 
+                                job.matcherName, job.testCase.getName(), ex);
+                    } finally {
+                        queue.release(job);
+                    }
+                }
+            }));
+        }
         exec.shutdown();
+        try {
+            // wait for all MatcherRunners to complete
+            for(Future<?> worker : workers){
+                try {
+                    worker.get();
+                } catch (ExecutionException ex) {
+                    LOGGER.error("A worker of the parallel matcher execution failed. Not all results might be available.", ex.getCause());
+                }
+            }
+            exec.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            LOGGER.warn("Error when waiting for parallel results of matcher execution.", ex);
+            Thread.currentThread().interrupt();
+        }
+
+        ExecutionResultSet results = new ExecutionResultSet();
+        for (ExecutionResult result : executionResults) {
+            if(result != null)
+                results.add(result);
+        }
         return results;
     }
     
@@ -70,6 +146,148 @@ public class ExecutorParallel {
         }
         return run(testCases, matchers);
     }
+
+    /**
+     * Returns true if the jobs with the highest estimated runtime are started first.
+     * @return true if the longest jobs are started first.
+     */
+    public boolean isLongestJobFirst() {
+        return longestJobFirst;
+    }
+
+    /**
+     * If set to true (default), the jobs with the highest estimated runtime are started first.
+     * Otherwise the jobs are started in the order of the test cases.
+     * @param longestJobFirst true if the longest jobs should be started first.
+     */
+    public void setLongestJobFirst(boolean longestJobFirst) {
+        this.longestJobFirst = longestJobFirst;
+    }
+
+    /**
+     * Returns the estimator of the runtime and heap usage of each job.
+     * @return the cost estimator
+     */
+    public ExecutionCostEstimator getCostEstimator() {
+        return costEstimator;
+    }
+
+    /**
+     * Sets the estimator of the runtime and heap usage of each job.
+     * Use {@link ExecutionCostEstimator#ExecutionCostEstimator(ExecutionResultSet) } to use the runtimes of a previous run.
+     * @param costEstimator the cost estimator
+     */
+    public void setCostEstimator(ExecutionCostEstimator costEstimator) {
+        if(costEstimator == null)
+            throw new IllegalArgumentException("The cost estimator cannot be null.");
+        this.costEstimator = costEstimator;
+    }
+
+    /**
+     * Returns the maximum sum of the estimated heap (in bytes) of all concurrently running jobs.
+     * @return the maximum heap in bytes (zero if unlimited)
+     */
+    public long getMaximumHeap() {
+        return maximumHeap;
+    }
+
+    /**
+     * Sets the maximum sum of the estimated heap (in bytes) of all concurrently running jobs.
+     * A job is only started if its estimated heap fits. Otherwise the next smaller job which fits is started.
+     * A job which is larger than the maximum is started when no other job is running.
+     * Zero (default) means unlimited. A good value is e.g. {@code Runtime.getRuntime().maxMemory()}.
+     * @param maximumHeap the maximum heap in bytes (zero if unlimited)
+     */
+    public void setMaximumHeap(long maximumHeap) {
+        this.maximumHeap = maximumHeap;
+    }
+    
+    /**
+     * Returns the checkpoint which persists every finished execution.
+     * @return the checkpoint or null if no checkpoint is used.
+     */
+    public ExecutionCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Sets the checkpoint which persists every finished execution (null to disable it, which is the default).
+     * Executions which are already completed in the checkpoint are not executed again.
+     * @param checkpoint the checkpoint or null
+     */
+    public void setCheckpoint(ExecutionCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+    
+    /**
+     * One matcher which should be executed on one test case.
+     */
+    private static class Job {
+        private final int index;
+        private final TestCase testCase;
+        private final String matcherName;
+        private final Object matcher;
+        private double cost;
+        private long heap;
+
+        Job(int index, TestCase testCase, String matcherName, Object matcher) {
+            this.index = index;
+            this.testCase = testCase;
+            this.matcherName = matcherName;
+            this.matcher = matcher;
+        }
+    }
+    
+    /**
+     * The jobs which are not yet started (in the order in which they should be started).
+     * An idle thread takes the first job which fits into the remaining heap.
+     */
+    private static class JobQueue {
+        private final List<Job> pending;
+        private final long maximumHeap;
+        private long usedHeap;
+        private int running;
+
+        JobQueue(List<Job> pending, long maximumHeap) {
+            this.pending = new LinkedList<>(pending);
+            this.maximumHeap = maximumHeap;
+            this.usedHeap = 0;
+            this.running = 0;
+        }
+
+        /**
+         * Returns the next job to run and blocks if no job fits into the remaining heap.
+         * @return the next job or null if all jobs are started.
+         */
+        synchronized Job take() {
+            while(true){
+                if(this.pending.isEmpty())
+                    return null;
+                Iterator<Job> iterator = this.pending.iterator();
+                while(iterator.hasNext()){
+                    Job job = iterator.next();
+                    if(this.maximumHeap <= 0 || this.running == 0 || this.usedHeap + job.heap <= this.maximumHeap){
+                        iterator.remove();
+                        this.usedHeap += job.heap;
+                        this.running++;
+                        return job;
+                    }
+                }
+                try {
+                    wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+
+        synchronized void release(Job job) {
+            this.usedHeap -= job.heap;
+            this.running--;
+            notifyAll();
+        }
+    }
 }
 //to run in parallel use ExecutorService 
 //https://stackoverflow.com/questions/21156599/javas-fork-join-vs-executorservice-when-to-use-which
@@ -10,6 +10,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,10 +33,11 @@ public class EvaluatorAlignmentAnalyzer extends Evaluator {
     
     @Override
     protected void writeResultsToDirectory(File baseDirectory) {        
-        //write file for each macther and testcase
+        //analyze all results once (test cases in parallel) and write file for each macther and testcase
         AlignmentAnalyzerMetric metric = new AlignmentAnalyzerMetric();
+        Map<ExecutionResult, AlignmentAnalyzerResult> analyzerResults = metric.computeAll(this.results);
         for (ExecutionResult r : this.results) {
-            AlignmentAnalyzerResult analyzerResult = metric.compute(r);
+            AlignmentAnalyzerResult analyzerResult = analyzerResults.get(r);
             File analyzeFile = new File(getResultsFolderTrackTestcaseMatcher(baseDirectory, r), "alignmentAnalysis.txt");
             analyzeFile.getParentFile().mkdirs();
             try(BufferedWriter out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(analyzeFile), StandardCharsets.UTF_8))){
@@ -46,6 +48,6 @@ public class EvaluatorAlignmentAnalyzer extends Evaluator {
         }
         //write overview file
         if(!this.results.isEmpty())
-            AlignmentAnalyzerMetric.writeAnalysisFile(results, new File(baseDirectory, "alignmentAnalysisOverview.csv"));
+            AlignmentAnalyzerMetric.writeAnalysisFile(results, new File(baseDirectory, "alignmentAnalysisOverview.csv"), metric);
     }
 }
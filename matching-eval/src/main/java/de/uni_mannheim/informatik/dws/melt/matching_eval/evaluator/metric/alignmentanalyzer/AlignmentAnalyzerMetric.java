@@ -2,12 +2,12 @@ package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.align
 
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
-import de.uni_mannheim.informatik.dws.melt.matching_eval.ResourceType;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.Metric;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.ConceptType;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentParser;
 
 import java.io.BufferedWriter;
@@ -17,17 +17,19 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.text.StringEscapeUtils;
 import org.apache.jena.ontology.OntModel;
-import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.rdf.model.ResourceFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
@@ -42,6 +44,12 @@ public class AlignmentAnalyzerMetric extends Metric<AlignmentAnalyzerResult> {
     private static Logger LOGGER = LoggerFactory.getLogger(AlignmentAnalyzerMetric.class);
     
     private static final String newline = System.getProperty("line.separator");
+    
+    /**
+     * The entity tables per ontology (weak keys such that ontologies can be garbage collected - the tables do not
+     * reference the ontology).
+     */
+    private final Map<OntModel, OntologyEntityTable> entityTables = Collections.synchronizedMap(new WeakHashMap<>());
 
     @Override
     public AlignmentAnalyzerResult compute(ExecutionResult executionResult) {
@@ -62,15 +70,24 @@ public class AlignmentAnalyzerMetric extends Metric<AlignmentAnalyzerResult> {
         
         double minimumConfidence = 1.0; // needs to be 1.0 for analyze() method
         double maximumConfidence = 0.0; // needs to be 0.0 for analyze() method
+        double confidenceSum = 0.0;
         boolean isHomogenousAlingment = true; // needs to be true for analyze() to work
         HashMap<CorrespondenceRelation, Integer> frequenciesOfRelations = new HashMap<>();
         OntModel sourceOntology = executionResult.getSourceOntology(OntModel.class);
         OntModel targetOntology = executionResult.getTargetOntology(OntModel.class);
+        OntologyEntityTable sourceTable = getEntityTable(sourceOntology);
+        OntologyEntityTable targetTable = getEntityTable(targetOntology);
         HashMap<String, Integer> frequenciesOfMappingTypes = new HashMap<>();
         int urisCorrectPosition = 0;
         int urisIncorrectPosition = 0;
         List<String> urisNotFound = new ArrayList<>();
-        Map<Arity, Integer> arityCounts = new HashMap<>();
+        
+        // ids of source and target of each cell for the arity analysis
+        Map<String, Integer> sourceIds = new HashMap<>();
+        Map<String, Integer> targetIds = new HashMap<>();
+        int[] cellSources = new int[alignment.size()];
+        int[] cellTargets = new int[alignment.size()];
+        int numberOfCells = 0;
 
         for (Correspondence cell : alignment) {
 
@@ -78,88 +95,148 @@ public class AlignmentAnalyzerMetric extends Metric<AlignmentAnalyzerResult> {
             double currentConfidence = cell.getConfidence();
             if (currentConfidence > maximumConfidence) {
                 maximumConfidence = currentConfidence;
-            } else if (currentConfidence < minimumConfidence) {
+            }
+            if (currentConfidence < minimumConfidence) {
                 minimumConfidence = currentConfidence;
             }
+            confidenceSum += currentConfidence;
 
             // relations
-            CorrespondenceRelation relation = cell.getRelation();
-            if (frequenciesOfRelations.containsKey(relation)) {
-                frequenciesOfRelations.put(relation, frequenciesOfRelations.get(relation) + 1);
-            } else {
-                frequenciesOfRelations.put(relation, 1);
-            }
+            frequenciesOfRelations.merge(cell.getRelation(), 1, Integer::sum);
 
             // types
-            ResourceType entity1type = ResourceType.analyze(sourceOntology, cell.getEntityOne());
-            ResourceType entity2type = ResourceType.analyze(targetOntology, cell.getEntityTwo());
-            String key = entity1type.toString() + " - " + entity2type.toString();
-            if (frequenciesOfMappingTypes.containsKey(key)) {
-                frequenciesOfMappingTypes.put(key, frequenciesOfMappingTypes.get(key) + 1);
-            } else {
-                frequenciesOfMappingTypes.put(key, 1);
-            }
+            ConceptType entity1type = sourceTable.getType(sourceOntology, cell.getEntityOne());
+            ConceptType entity2type = targetTable.getType(targetOntology, cell.getEntityTwo());
+            frequenciesOfMappingTypes.merge(entity1type.toString() + " - " + entity2type.toString(), 1, Integer::sum);
 
             // homogeneity
             if (isHomogenousAlingment && entity1type != entity2type) {
                 isHomogenousAlingment = false;
             }
             
-            Resource entityOne = ResourceFactory.createResource(cell.getEntityOne());
-            if(sourceOntology.containsResource(entityOne)){
+            if(sourceTable.contains(sourceOntology, cell.getEntityOne())){
                 urisCorrectPosition++;
             }
-            else if(targetOntology.containsResource(entityOne)){
+            else if(targetTable.contains(targetOntology, cell.getEntityOne())){
                 urisIncorrectPosition++;
             }else{
                 urisNotFound.add(cell.getEntityOne());
             }
 
-            Resource entityTwo = ResourceFactory.createResource(cell.getEntityTwo());
-            if(targetOntology.containsResource(entityTwo)){
+            if(targetTable.contains(targetOntology, cell.getEntityTwo())){
                 urisCorrectPosition++;
             }
-            else if(sourceOntology.containsResource(entityTwo)){
+            else if(sourceTable.contains(sourceOntology, cell.getEntityTwo())){
                 urisIncorrectPosition++;
             }else{
                 urisNotFound.add(cell.getEntityTwo());
             }
             
-            //arity
-            List<String> targets = new ArrayList<>();
-            for(Correspondence c : alignment.getCorrespondencesSource(cell.getEntityOne())){
-                targets.add(c.getEntityTwo());
-            }
-            Arity arity = Arity.OneToOne;
-            if(targets.size() == 1){
-                if(size(alignment.getCorrespondencesTarget(targets.get(0))) > 1){
-                    arity = Arity.OneToMany;
-                }else{
-                    arity = Arity.OneToOne;
-                }
-            }else{
-                arity = Arity.ManyToOne;
-                for(String target : targets){
-                    if(size(alignment.getCorrespondencesTarget(target)) > 1){
-                        //n:m
-                        arity = Arity.ManyToMany;
-                        break;
-                    }
-                }
+            //arity (evaluated after the loop)
+            if(numberOfCells == cellSources.length){
+                cellSources = Arrays.copyOf(cellSources, numberOfCells * 2 + 1);
+                cellTargets = Arrays.copyOf(cellTargets, numberOfCells * 2 + 1);
             }
-            arityCounts.put(arity, arityCounts.getOrDefault(arity, 0) + 1);
+            cellSources[numberOfCells] = sourceIds.computeIfAbsent(cell.getEntityOne(), k -> sourceIds.size());
+            cellTargets[numberOfCells] = targetIds.computeIfAbsent(cell.getEntityTwo(), k -> targetIds.size());
+            numberOfCells++;
         } // end of loop over cells
+        
+        Map<Arity, Integer> arityCounts = countArities(cellSources, cellTargets, numberOfCells, sourceIds.size(), targetIds.size());
 
         AlignmentAnalyzerResult result = new AlignmentAnalyzerResult(
                 executionResult, minimumConfidence, maximumConfidence, frequenciesOfRelations, 
                 isHomogenousAlingment, frequenciesOfMappingTypes, urisCorrectPosition, urisIncorrectPosition, urisNotFound, 
                 arityCounts, parsingErrorMessage);
+        result.setAverageConfidence(numberOfCells == 0 ? 0.0 : confidenceSum / numberOfCells);
         return result;
     }
     
+    /**
+     * Counts the arity of each cell given the source and target ids of all cells.
+     * A cell is 1:1 if its source has one target which has one source, 1:n (OneToMany) if the only target of the source
+     * has multiple sources, n:1 (ManyToOne) if the source has multiple targets which all have one source,
+     * and n:m otherwise.
+     */
+    private static Map<Arity, Integer> countArities(int[] cellSources, int[] cellTargets, int numberOfCells, int numberOfSources, int numberOfTargets){
+        int[] sourceDegree = new int[numberOfSources];
+        int[] targetDegree = new int[numberOfTargets];
+        for(int i = 0; i < numberOfCells; i++){
+            sourceDegree[cellSources[i]]++;
+            targetDegree[cellTargets[i]]++;
+        }
+        boolean[] sourceHasSharedTarget = new boolean[numberOfSources];
+        for(int i = 0; i < numberOfCells; i++){
+            if(targetDegree[cellTargets[i]] > 1)
+                sourceHasSharedTarget[cellSources[i]] = true;
+        }
+        Map<Arity, Integer> arityCounts = new HashMap<>();
+        for(int i = 0; i < numberOfCells; i++){
+            int source = cellSources[i];
+            Arity arity;
+            if(sourceDegree[source] == 1){
+                arity = sourceHasSharedTarget[source] ? Arity.OneToMany : Arity.OneToOne;
+            }else{
+                arity = sourceHasSharedTarget[source] ? Arity.ManyToMany : Arity.ManyToOne;
+            }
+            arityCounts.merge(arity, 1, Integer::sum);
+        }
+        return arityCounts;
+    }
+    
+    /**
+     * Returns the entity table of the given ontology which is shared by all execution results evaluated with this metric.
+     * @param ontology the ontology
+     * @return the entity table
+     */
+    protected OntologyEntityTable getEntityTable(OntModel ontology){
+        return this.entityTables.computeIfAbsent(ontology, o -> new OntologyEntityTable());
+    }
+    
+    /**
+     * Analyzes all given execution results and caches the results in this metric.
+     * The results are grouped by test case and the groups are processed in parallel.
+     * The results of one test case are analyzed one after the other because they share the entity tables of the
+     * source and target ontology.
+     * @param results the execution results to analyze
+     * @return map of execution result to its analysis
+     */
+    public Map<ExecutionResult, AlignmentAnalyzerResult> computeAll(Collection<ExecutionResult> results){
+        Map<String, List<ExecutionResult>> groups = new LinkedHashMap<>();
+        for (ExecutionResult result : results) {
+            String key = result.getTrack().getName() + "\t" + result.getTestCase().getName();
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(result);
+        }
+        Map<ExecutionResult, AlignmentAnalyzerResult> analyzed = new ConcurrentHashMap<>();
+        groups.values().parallelStream().forEach(group -> {
+            for (ExecutionResult result : group) {
+                AlignmentAnalyzerResult cached;
+                synchronized (this.cache) {
+                    cached = this.cache.get(result);
+                }
+                analyzed.put(result, cached == null ? compute(result) : cached);
+            }
+        });
+        synchronized (this.cache) {
+            this.cache.putAll(analyzed);
+        }
+        return analyzed;
+    }
+    
     
     public static void writeAnalysisFile(ExecutionResultSet resultSet, File outFile){
-        AlignmentAnalyzerMetric metric = new AlignmentAnalyzerMetric();
+        writeAnalysisFile(resultSet, outFile, new AlignmentAnalyzerMetric());
+    }
+    
+    /**
+     * Writes an overview of all matchers and test cases to a CSV file.
+     * All results are analyzed in parallel with the given metric (results which are already computed by the metric are reused).
+     * @param resultSet the results to analyze
+     * @param outFile the CSV file to write
+     * @param metric the metric to use
+     */
+    public static void writeAnalysisFile(ExecutionResultSet resultSet, File outFile, AlignmentAnalyzerMetric metric){
+        metric.computeAll(resultSet);
         
         List<TestCase> testCases = resultSet.getDistinctTestCasesSorted();
         
@@ -214,18 +291,4 @@ public class AlignmentAnalyzerMetric extends Metric<AlignmentAnalyzerResult> {
             LOGGER.error("Could not write analysis file", ex);
         }
     }
-    
-    private static int size(Iterable<?> iterable) {
-    return (iterable instanceof Collection)
-            ? ((Collection<?>) iterable).size()
-        : size(iterable.iterator());
-  }
-    private static int size(Iterator<?> iterator) {
-        int count = 0;
-        while (iterator.hasNext()) {
-          iterator.next();
-          count++;
-        }
-        return count;
-   }
-}
\ No newline at end of file
+}
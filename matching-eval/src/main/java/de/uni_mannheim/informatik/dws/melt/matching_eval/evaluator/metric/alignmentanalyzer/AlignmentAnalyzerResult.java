@@ -37,6 +37,11 @@ public class AlignmentAnalyzerResult {
      */
     private double maximumConfidence;
 
+    /**
+     * The average confidence score of the given alignment.
+     */
+    private double averageConfidence;
+
     /**
      * The distribution of relations in the given mapping.
      * Example: EQUIVALENCE → 40
@@ -198,7 +203,8 @@ public class AlignmentAnalyzerResult {
             result.append(String.format("The confidence of all correspondences is 1.0%n%n"));
         } else {
             result.append(String.format("The minimum confidence is %f%n",this.getMinimumConfidence()));
-            result.append(String.format("The maximum confidence is %f%n%n", this.getMaximumConfidence()));
+            result.append(String.format("The maximum confidence is %f%n", this.getMaximumConfidence()));
+            result.append(String.format("The average confidence is %f%n%n", this.getAverageConfidence()));
         }
         
         if(this.urisNotFound.isEmpty()){
@@ -239,6 +245,18 @@ public class AlignmentAnalyzerResult {
         return this.maximumConfidence;
     }
 
+    /**
+     * Get the average confidence score of the alignment.
+     * @return Average confidence as double.
+     */
+    public double getAverageConfidence() {
+        return this.averageConfidence;
+    }
+
+    void setAverageConfidence(double averageConfidence) {
+        this.averageConfidence = averageConfidence;
+    }
+
     /**
      * Checks whether the confidence scores of the given mapping are all equal to 1.0.
      * @return True if confidence scores = 1.0; else false.
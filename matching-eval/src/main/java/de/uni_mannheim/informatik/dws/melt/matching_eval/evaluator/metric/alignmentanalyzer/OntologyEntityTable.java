@@ -0,0 +1,79 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.alignmentanalyzer;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.ConceptType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ResourceFactory;
+
+/**
+ * A table which stores for each URI of an alignment the {@link ConceptType} and whether it is contained in an ontology.
+ * Each URI is resolved only once against the ontology, such that all alignments of all matchers which are evaluated on
+ * the same ontology share the lookups.
+ * The table does not hold a reference to the ontology (it is passed to each lookup) such that it can be stored as the
+ * value of a weak map keyed by the ontology. Always pass the same ontology to one table.
+ * The table is thread safe; the lookups in the ontology are synchronized on the model because Jena models are not
+ * guaranteed to be thread safe.
+ */
+public class OntologyEntityTable {
+
+
+    private static final ConceptType[] TYPES = ConceptType.values();
+    private static final byte CONTAINED = (byte) 0x80;
+
+    /**
+     * Per URI the ordinal of the resource type (lower bits) and the {@link #CONTAINED} flag.
+     */
+    private final Map<String, Byte> entities;
+
+    /**
+     * Constructor
+     */
+    public OntologyEntityTable() {
+        this.entities = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the concept type of the given URI (see {@link ConceptType#analyze(Model, String)}).
+     * @param model the ontology of this table
+     * @param uri the URI
+     * @return the concept type
+     */
+    public ConceptType getType(Model model, String uri) {
+        return TYPES[resolve(model, uri) & ~CONTAINED];
+    }
+
+    /**
+     * Returns true if the ontology contains the resource with the given URI.
+     * @param model the ontology of this table
+     * @param uri the URI
+     * @return true if the resource is contained in the ontology
+     */
+    public boolean contains(Model model, String uri) {
+        return (resolve(model, uri) & CONTAINED) != 0;
+    }
+
+    /**
+     * Returns the number of resolved URIs.
+     * @return number of resolved URIs
+     */
+    public int size() {
+        return this.entities.size();
+    }
+
+    private byte resolve(Model model, String uri) {
+        Byte entry = this.entities.get(uri);
+        if (entry == null) {
+            byte value;
+            synchronized (model) {
+                value = (byte) ConceptType.analyze(model, uri).ordinal();
+                if (model.containsResource(ResourceFactory.createResource(uri))) {
+                    value |= CONTAINED;
+                }
+            }
+            entry = value;
+            this.entities.put(uri, entry);
+        }
+        return entry;
+    }
+}
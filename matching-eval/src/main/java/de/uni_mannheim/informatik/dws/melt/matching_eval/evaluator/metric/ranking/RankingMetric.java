@@ -1,12 +1,9 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.ranking;
 
-import de.uni_mannheim.informatik.dws.melt.matching_data.GoldStandardCompleteness;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.Metric;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
-import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -16,6 +13,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * A metric which computes multiple rank metrics such as the NDCG and average precision for an execution result.
+ * The ranking of the system alignment is computed once per execution result and shared with other ranking metrics
+ * (see {@link SortedRun}).
  */
 public class RankingMetric extends Metric<RankingResult> {
 
@@ -62,12 +61,7 @@ public class RankingMetric extends Metric<RankingResult> {
 
     @Override
     protected RankingResult compute(ExecutionResult executionResult) {
-
-        Alignment systemAlignment = executionResult.getSystemAlignment();
-        if (executionResult.getTestCase() != null &&
-                executionResult.getTestCase().getGoldStandardCompleteness() != GoldStandardCompleteness.COMPLETE) {
-            systemAlignment = getSystemResultReducedToGoldStandardEntities(executionResult);
-        }
+        SortedRun run = SortedRun.get(executionResult, this.sameConfidenceRanking);
         Alignment referenceAlignment = executionResult.getReferenceAlignment();
 
         // determine kOfHitsAtK
@@ -82,88 +76,22 @@ public class RankingMetric extends Metric<RankingResult> {
             }
         }
 
-        List<Correspondence> correspondenceRanking = sameConfidenceRanking.sortAlignment(systemAlignment, referenceAlignment);
-
-        if (correspondenceRanking.isEmpty()) {
+        if (run.size() == 0) {
             LOGGER.info("List of System result is empty. Rank metrics are zero.");
-            return new RankingResult(0, 0, 0, 0, 0, 0, 0, 0, this.kOfHitsAtK);
         }
+        return run.evaluate(this.kOfHitsAtK);
+    }
 
-        //average precision
-        List<Double> precision = new ArrayList<>();
-        int truePositive = 0;
-
-        //NDCG
-        double dcg = 0;
-        double idcg = computeIDCG(correspondenceRanking.size());
-
-        // HITS@K
-        double hitsAtK = 0.0;
-
-        // Reciprocal Rank
-        int firstCorrectOccurrence = 1;
-        boolean firstCorrectOccurrenceAppeared = false;
-
-        // R-Precision
-        int cutOffForRprecision = referenceAlignment.size();
-        int numberOfTPatCutOffForRprecision = 0;
-
-        // actual calculation
-        for (int i = 0; i < correspondenceRanking.size(); i++) {
-            Correspondence correspondence = correspondenceRanking.get(i);
-            if (!referenceAlignment.contains(correspondence))
-                continue;
-            truePositive++;
-
-            // Reciprocal Rank
-            if(firstCorrectOccurrenceAppeared == false) {
-                firstCorrectOccurrence = i + 1;
-                firstCorrectOccurrenceAppeared = true;
-            }
-
-            // R Precision
-            if(i < cutOffForRprecision){
-                numberOfTPatCutOffForRprecision++;
-            }
-
-            // average precision
-            precision.add((double) truePositive / (double) (i + 1));
-
-            // DCG/NDCG
-            dcg += LOG_OF_2 / Math.log(i + 2); //because rank = i + 1;
-
-            // HITS@K
-            if(i < this.kOfHitsAtK){
-                hitsAtK++;
-            }
-        }
-
-        // Reciprocal Rank
-        double reciprocalRank = 1.0 / (double) firstCorrectOccurrence;
-
-        // NDCG
-        double ndcg = dcg / idcg;
-
-        // P@K
-        double precisionAtK = hitsAtK / kOfHitsAtK;
-
-        // R@K
-        double recallAtK = hitsAtK / referenceAlignment.size();
-
-        // R Precision
-        double rPrecision = (double) numberOfTPatCutOffForRprecision / cutOffForRprecision;
-
-        RankingResult result = new RankingResult();
-        result.dcg = dcg;
-        result.ndcg = ndcg;
-        result.averagePrecision = getAverage(precision);
-        result.reciprocalRank = reciprocalRank;
-        result.rPrecision = rPrecision;
-        result.hitsAtK = hitsAtK;
-        result.precisionAtK = precisionAtK;
-        result.kOfHitsAtK = this.kOfHitsAtK;
-        result.recallAtK = recallAtK;
-        return result;
+    /**
+     * Computes the ranking metrics for multiple values of K of HITS@K.
+     * The system alignment is sorted only once (see {@link SortedRun}) and all values of K are computed in one pass.
+     * The results are not cached by this metric.
+     * @param executionResult Execution result for which the calculation shall be performed.
+     * @param kValues The values of K for HITS@K.
+     * @return one ranking result for each value of K (in the same order)
+     */
+    public RankingResult[] getResults(ExecutionResult executionResult, int... kValues) {
+        return SortedRun.get(executionResult, this.sameConfidenceRanking).evaluate(kValues);
     }
 
 
@@ -184,19 +112,7 @@ public class RankingMetric extends Metric<RankingResult> {
      * @return reduced system alignment
      */
     protected Alignment getSystemResultReducedToGoldStandardEntities(ExecutionResult executionResult) {
-        Alignment systemAlignment = executionResult.getSystemAlignment();
-        Alignment referenceAlignment = executionResult.getReferenceAlignment();
-
-        Set<String> referenceSources = makeSet(referenceAlignment.getDistinctSources());
-        Set<String> referenceTargets = makeSet(referenceAlignment.getDistinctTargets());
-
-        Alignment reducedSystemAlignment = new Alignment(systemAlignment);
-        for (Correspondence c : systemAlignment) {
-            if (referenceSources.contains(c.getEntityOne()) == false && referenceTargets.contains(c.getEntityTwo())) {
-                reducedSystemAlignment.remove(c);
-            }
-        }
-        return reducedSystemAlignment;
+        return SortedRun.getSystemResultReducedToGoldStandardEntities(executionResult);
     }
 
 
@@ -1,9 +1,7 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.ranking;
 
-import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.Metric;
-import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 
 
 public class RankingMetricGroup extends Metric<RankingResult> {
@@ -31,44 +29,19 @@ public class RankingMetricGroup extends Metric<RankingResult> {
 
     @Override
     protected RankingResult compute(ExecutionResult executionResult) {
+        // the system alignment is sorted once; restricting this ranking to one source results in the same order of
+        // true and false positives as sorting the correspondences of this source (for random rankings it is also random)
+        return SortedRun.get(executionResult, this.sameConfidenceRanking).evaluatePerSource(this.kOfHitsAtK);
+    }
 
-        Alignment systemAlignment = executionResult.getSystemAlignment();
-        Alignment referenceAlignment = executionResult.getReferenceAlignment();
-        RankingResult overallResult = new RankingResult();
-        overallResult.kOfHitsAtK = this.kOfHitsAtK;
-        int numberOfDistinctSources = 0;
-
-        for (String sourceUri : referenceAlignment.getDistinctSources()) {
-            // Build ExecutionResult subset for rank evaluation
-            Alignment referenceAlignmentSubset = new Alignment(referenceAlignment.getCorrespondencesSource(sourceUri));
-            Alignment systemAlignmentSubset = new Alignment(systemAlignment.getCorrespondencesSource(sourceUri));
-
-            // We also create a subset test case so that various levels of completeness can also be evaluated
-            // We copy the testcase so that we can set a new name for better differentiation when debugging.
-            TestCase executionResultTestCase = executionResult.getTestCase();
-            TestCase localSubsetTestCase = new TestCase(executionResultTestCase.getName() + "_SUBSET",
-                    executionResultTestCase.getSource(),
-                    executionResultTestCase.getTarget(),
-                    executionResultTestCase.getReference(),
-                    executionResultTestCase.getTrack(),
-                    executionResultTestCase.getInputAlignment(),
-                    executionResultTestCase.getGoldStandardCompleteness(),
-                    executionResultTestCase.getParameters(),
-                    executionResultTestCase.getEvaluationExclusionAlignment()
-            );
-
-            ExecutionResult executionResultSubset = new ExecutionResult(localSubsetTestCase, executionResult.getMatcherName(),
-                    systemAlignmentSubset, referenceAlignmentSubset);
-
-            // let's add the scores to our overall result
-            RankingMetric singleMetric = new RankingMetric(this.sameConfidenceRanking, this.kOfHitsAtK);
-            RankingResult singleResult = singleMetric.get(executionResultSubset);
-            overallResult.addScores(singleResult);
-            numberOfDistinctSources++;
-        }
-
-        // lets normalize the overall result by the number of distinct sources
-        overallResult.normalizeAllScores(numberOfDistinctSources);
-        return overallResult;
+    /**
+     * Computes the grouped ranking metrics for multiple values of K of HITS@K in one pass.
+     * The results are not cached by this metric.
+     * @param executionResult Execution result for which the calculation shall be performed.
+     * @param kValues The values of K for HITS@K.
+     * @return one ranking result for each value of K (in the same order)
+     */
+    public RankingResult[] getResults(ExecutionResult executionResult, int... kValues) {
+        return SortedRun.get(executionResult, this.sameConfidenceRanking).evaluatePerSource(kValues);
     }
 }
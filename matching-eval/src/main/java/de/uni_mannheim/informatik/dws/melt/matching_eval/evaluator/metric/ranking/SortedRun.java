@@ -0,0 +1,370 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.ranking;
+
+import de.uni_mannheim.informatik.dws.melt.matching_data.GoldStandardCompleteness;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * The ranked system alignment of an execution result reduced to primitive arrays:
+ * for each rank it stores whether the correspondence is contained in the reference alignment and the
+ * (reference) source it belongs to.
+ * The system alignment is sorted only once per execution result and {@link SameConfidenceRanking};
+ * all ranking metrics (also for multiple values of K and grouped by source) are computed in one pass over the arrays.
+ * The runs are cached (see {@link #get(ExecutionResult, SameConfidenceRanking)}) such that {@link RankingMetric}
+ * and {@link RankingMetricGroup} share them.
+ */
+public class SortedRun {
+
+
+    private static final double LOG_OF_2 = Math.log(2);
+
+    /**
+     * Cache of sorted runs per execution result (weak keys such that removed results can be garbage collected).
+     */
+    private static final Map<ExecutionResult, Map<SameConfidenceRanking, CachedRun>> CACHE =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Number of ranked correspondences.
+     */
+    private final int size;
+
+    /**
+     * Bit i is set if the correspondence at rank i + 1 is contained in the reference alignment.
+     */
+    private final BitSet relevant;
+
+    /**
+     * The index of the source (in the distinct sources of the reference alignment) of the correspondence at rank i + 1
+     * or -1 if the source does not appear in the reference alignment.
+     */
+    private final int[] groups;
+
+    /**
+     * Number of reference correspondences per source.
+     */
+    private final int[] referenceSizePerGroup;
+
+    /**
+     * Number of ranked correspondences per source.
+     */
+    private final int[] sizePerGroup;
+
+    private final int referenceSize;
+
+    /**
+     * Constructor which sorts the system alignment once.
+     * @param systemAlignment The system alignment to rank.
+     * @param referenceAlignment The reference alignment.
+     * @param sameConfidenceRanking The strategy to use in case there are multiple correspondences with the same confidence.
+     */
+    public SortedRun(Alignment systemAlignment, Alignment referenceAlignment, SameConfidenceRanking sameConfidenceRanking) {
+        this.referenceSize = referenceAlignment.size();
+
+        Map<String, Integer> sourceIndex = new HashMap<>();
+        for (String source : referenceAlignment.getDistinctSources()) {
+            sourceIndex.put(source, sourceIndex.size());
+        }
+        this.referenceSizePerGroup = new int[sourceIndex.size()];
+        for (Correspondence c : referenceAlignment) {
+            this.referenceSizePerGroup[sourceIndex.get(c.getEntityOne())]++;
+        }
+
+        List<Correspondence> ranking = sameConfidenceRanking.sortAlignment(systemAlignment, referenceAlignment);
+        this.size = ranking.size();
+        this.relevant = new BitSet(this.size);
+        this.groups = new int[this.size];
+        this.sizePerGroup = new int[sourceIndex.size()];
+        for (int i = 0; i < this.size; i++) {
+            Correspondence c = ranking.get(i);
+            if (referenceAlignment.contains(c)) {
+                this.relevant.set(i);
+            }
+            Integer group = sourceIndex.get(c.getEntityOne());
+            this.groups[i] = group == null ? -1 : group;
+            if (group != null) {
+                this.sizePerGroup[group]++;
+            }
+        }
+    }
+
+    /**
+     * Returns the (cached) sorted run of the given execution result.
+     * If the gold standard of the test case is not complete, the system alignment is reduced to the correspondences
+     * whose entities also appear in the gold standard (see {@link #getSystemResultReducedToGoldStandardEntities(ExecutionResult)}).
+     * @param executionResult The execution result.
+     * @param sameConfidenceRanking The strategy to use in case there are multiple correspondences with the same confidence.
+     * @return the sorted run
+     */
+    public static SortedRun get(ExecutionResult executionResult, SameConfidenceRanking sameConfidenceRanking) {
+        Map<SameConfidenceRanking, CachedRun> runs = CACHE.computeIfAbsent(executionResult,
+                k -> Collections.synchronizedMap(new EnumMap<>(SameConfidenceRanking.class)));
+        CachedRun cached = runs.get(sameConfidenceRanking);
+        // execution results are equal if test case, matcher and refinements are equal, thus check the alignments
+        if (cached == null || cached.systemAlignment != executionResult.getSystemAlignment() ||
+                cached.referenceAlignment != executionResult.getReferenceAlignment()) {
+            Alignment systemAlignment = executionResult.getSystemAlignment();
+            if (executionResult.getTestCase() != null &&
+                    executionResult.getTestCase().getGoldStandardCompleteness() != GoldStandardCompleteness.COMPLETE) {
+                systemAlignment = getSystemResultReducedToGoldStandardEntities(executionResult);
+            }
+            cached = new CachedRun(executionResult.getSystemAlignment(), executionResult.getReferenceAlignment(),
+                    new SortedRun(systemAlignment, executionResult.getReferenceAlignment(), sameConfidenceRanking));
+            runs.put(sameConfidenceRanking, cached);
+        }
+        return cached.run;
+    }
+
+    /**
+     * Removes all cached runs.
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    /**
+     * Return the system alignment but only with correspondences where the source or the target appear also in the
+     * gold standard.
+     *
+     * @param executionResult execution result to use
+     * @return reduced system alignment
+     */
+    public static Alignment getSystemResultReducedToGoldStandardEntities(ExecutionResult executionResult) {
+        Alignment systemAlignment = executionResult.getSystemAlignment();
+        Alignment referenceAlignment = executionResult.getReferenceAlignment();
+
+        Set<String> referenceSources = makeSet(referenceAlignment.getDistinctSources());
+        Set<String> referenceTargets = makeSet(referenceAlignment.getDistinctTargets());
+
+        Alignment reducedSystemAlignment = new Alignment(systemAlignment);
+        for (Correspondence c : systemAlignment) {
+            if (referenceSources.contains(c.getEntityOne()) == false && referenceTargets.contains(c.getEntityTwo())) {
+                reducedSystemAlignment.remove(c);
+            }
+        }
+        return reducedSystemAlignment;
+    }
+
+    /**
+     * Computes all ranking metrics for one K of HITS@K.
+     * @param kOfHitsAtK The K of HITS@K.
+     * @return the ranking result
+     */
+    public RankingResult evaluate(int kOfHitsAtK) {
+        return evaluate(new int[]{kOfHitsAtK})[0];
+    }
+
+    /**
+     * Computes all ranking metrics for multiple values of K in one pass over the ranking.
+     * The K independent metrics (DCG, NDCG, average precision, reciprocal rank, R-precision) are the same in all results.
+     * @param kValues The values of K for HITS@K.
+     * @return one ranking result for each value of K (in the same order)
+     */
+    public RankingResult[] evaluate(int... kValues) {
+        RankingResult[] results = new RankingResult[kValues.length];
+        if (this.size == 0) {
+            for (int i = 0; i < kValues.length; i++) {
+                results[i] = new RankingResult(0, 0, 0, 0, 0, 0, 0, 0, kValues[i]);
+            }
+            return results;
+        }
+        int[] sortedK = sortedPositiveK(kValues);
+        int[] hitsAtSortedK = new int[sortedK.length];
+        int kPosition = 0;
+
+        int truePositive = 0;
+        double precisionSum = 0;
+        double dcg = 0;
+        int firstCorrectOccurrence = 1;
+        int numberOfTPatCutOffForRprecision = 0;
+        for (int i = 0; i < this.size; i++) {
+            while (kPosition < sortedK.length && sortedK[kPosition] <= i) {
+                hitsAtSortedK[kPosition++] = truePositive;
+            }
+            if (this.relevant.get(i) == false)
+                continue;
+            truePositive++;
+            if (truePositive == 1)
+                firstCorrectOccurrence = i + 1;
+            if (i < this.referenceSize)
+                numberOfTPatCutOffForRprecision++;
+            precisionSum += (double) truePositive / (double) (i + 1);
+            dcg += LOG_OF_2 / Math.log(i + 2); //because rank = i + 1;
+        }
+        while (kPosition < sortedK.length) {
+            hitsAtSortedK[kPosition++] = truePositive;
+        }
+
+        double ndcg = dcg / computeIDCG(this.size);
+        double averagePrecision = precisionSum / truePositive;
+        double reciprocalRank = 1.0 / (double) firstCorrectOccurrence;
+        double rPrecision = (double) numberOfTPatCutOffForRprecision / this.referenceSize;
+        for (int i = 0; i < kValues.length; i++) {
+            double hitsAtK = hitsAt(kValues[i], sortedK, hitsAtSortedK);
+            results[i] = new RankingResult(dcg, ndcg, averagePrecision, reciprocalRank, rPrecision,
+                    hitsAtK, hitsAtK / kValues[i], hitsAtK / this.referenceSize, kValues[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Computes all ranking metrics per source of the reference alignment and averages them over all sources
+     * (as done in {@link RankingMetricGroup}).
+     * @param kOfHitsAtK The K of HITS@K.
+     * @return the averaged ranking result
+     */
+    public RankingResult evaluatePerSource(int kOfHitsAtK) {
+        return evaluatePerSource(new int[]{kOfHitsAtK})[0];
+    }
+
+    /**
+     * Computes all ranking metrics per source of the reference alignment for multiple values of K in one pass over
+     * the ranking and averages them over all sources (as done in {@link RankingMetricGroup}).
+     * @param kValues The values of K for HITS@K.
+     * @return one averaged ranking result for each value of K (in the same order)
+     */
+    public RankingResult[] evaluatePerSource(int... kValues) {
+        int numberOfGroups = this.referenceSizePerGroup.length;
+        int[] sortedK = sortedPositiveK(kValues);
+        int[] hitsAtSortedK = new int[numberOfGroups * sortedK.length];
+        int[] kPosition = new int[numberOfGroups];
+        int[] rankInGroup = new int[numberOfGroups];
+        int[] truePositive = new int[numberOfGroups];
+        double[] precisionSum = new double[numberOfGroups];
+        double[] dcg = new double[numberOfGroups];
+        int[] firstCorrectOccurrence = new int[numberOfGroups];
+        int[] numberOfTPatCutOffForRprecision = new int[numberOfGroups];
+
+        for (int i = 0; i < this.size; i++) {
+            int group = this.groups[i];
+            if (group < 0)
+                continue;
+            int rank = rankInGroup[group]++;
+            int offset = group * sortedK.length;
+            while (kPosition[group] < sortedK.length && sortedK[kPosition[group]] <= rank) {
+                hitsAtSortedK[offset + kPosition[group]++] = truePositive[group];
+            }
+            if (this.relevant.get(i) == false)
+                continue;
+            truePositive[group]++;
+            if (truePositive[group] == 1)
+                firstCorrectOccurrence[group] = rank + 1;
+            if (rank < this.referenceSizePerGroup[group])
+                numberOfTPatCutOffForRprecision[group]++;
+            precisionSum[group] += (double) truePositive[group] / (double) (rank + 1);
+            dcg[group] += LOG_OF_2 / Math.log(rank + 2);
+        }
+
+        double[] idcgPrefix = new double[this.size + 1];
+        for (int i = 0; i < this.size; i++) {
+            idcgPrefix[i + 1] = idcgPrefix[i] + LOG_OF_2 / Math.log(i + 2);
+        }
+
+        RankingResult[] results = new RankingResult[kValues.length];
+        for (int i = 0; i < kValues.length; i++) {
+            results[i] = new RankingResult();
+            results[i].kOfHitsAtK = kValues[i];
+        }
+        int[] groupHits = new int[sortedK.length];
+        for (int group = 0; group < numberOfGroups; group++) {
+            if (this.sizePerGroup[group] == 0)
+                continue; // no system correspondences: all scores are zero
+            int offset = group * sortedK.length;
+            while (kPosition[group] < sortedK.length) {
+                hitsAtSortedK[offset + kPosition[group]++] = truePositive[group];
+            }
+            System.arraycopy(hitsAtSortedK, offset, groupHits, 0, sortedK.length);
+            int referenceSizeOfGroup = this.referenceSizePerGroup[group];
+            double ndcg = dcg[group] / idcgPrefix[this.sizePerGroup[group]];
+            double averagePrecision = precisionSum[group] / truePositive[group];
+            double reciprocalRank = 1.0 / (double) (truePositive[group] == 0 ? 1 : firstCorrectOccurrence[group]);
+            double rPrecision = (double) numberOfTPatCutOffForRprecision[group] / referenceSizeOfGroup;
+            for (int i = 0; i < kValues.length; i++) {
+                double hitsAtK = hitsAt(kValues[i], sortedK, groupHits);
+                results[i].addScores(new RankingResult(dcg[group], ndcg, averagePrecision, reciprocalRank, rPrecision,
+                        hitsAtK, hitsAtK / kValues[i], hitsAtK / referenceSizeOfGroup, kValues[i]));
+            }
+        }
+        for (RankingResult result : results) {
+            result.normalizeAllScores(numberOfGroups);
+        }
+        return results;
+    }
+
+    /**
+     * Returns the number of ranked correspondences.
+     * @return the number of ranked correspondences
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of reference correspondences.
+     * @return the number of reference correspondences
+     */
+    public int getReferenceSize() {
+        return referenceSize;
+    }
+
+    /**
+     * Returns true if the correspondence at the given rank is contained in the reference alignment.
+     * @param rank the rank (starting at 1)
+     * @return true if the correspondence is a true positive
+     */
+    public boolean isRelevant(int rank) {
+        return this.relevant.get(rank - 1);
+    }
+
+    private static int[] sortedPositiveK(int[] kValues) {
+        return Arrays.stream(kValues).filter(k -> k > 0).distinct().sorted().toArray();
+    }
+
+    private static double hitsAt(int k, int[] sortedK, int[] hitsAtSortedK) {
+        if (k <= 0)
+            return 0;
+        return hitsAtSortedK[Arrays.binarySearch(sortedK, k)];
+    }
+
+    private static double computeIDCG(int n) {
+        double idcg = 0;
+        for (int i = 0; i < n; i++) {
+            idcg += LOG_OF_2 / Math.log(i + 2);
+        }
+        return idcg;
+    }
+
+    private static <T> Set<T> makeSet(Iterable<T> iterable) {
+        Set<T> set = new HashSet<>();
+        for (T element : iterable) {
+            set.add(element);
+        }
+        return set;
+    }
+
+    /**
+     * A cached run together with the alignments of the execution result it is computed from.
+     */
+    private static class CachedRun {
+        private final Alignment systemAlignment;
+        private final Alignment referenceAlignment;
+        private final SortedRun run;
+
+        CachedRun(Alignment systemAlignment, Alignment referenceAlignment, SortedRun run) {
+            this.systemAlignment = systemAlignment;
+            this.referenceAlignment = referenceAlignment;
+            this.run = run;
+        }
+    }
+}
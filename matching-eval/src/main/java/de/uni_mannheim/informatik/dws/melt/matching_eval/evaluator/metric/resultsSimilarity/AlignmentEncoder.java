@@ -0,0 +1,99 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.resultsSimilarity;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodes alignments as {@link EncodedAlignment} (sorted arrays of longs).
+ * Each source and target URI is interned in a dictionary which maps it to an integer id.
+ * A correspondence (source, target, relation) is then represented by one long value
+ * (29 bits source id, 29 bits target id, 6 bits relation).
+ * The confidence and the extensions are not part of the encoding (same as in {@link Correspondence#equals(java.lang.Object) }).
+ * <p>
+ * Only alignments which are encoded with the same encoder can be compared.
+ * The encoder is thread safe and multiple alignments can be encoded in parallel (the dictionaries are concurrent maps).
+ * The ids depend on the order in which the URIs are first encoded. The exact similarity of two encoded alignments does
+ * not depend on the ids (only the MinHash approximation can vary slightly).
+ */
+public class AlignmentEncoder {
+
+
+    private static final int ID_BITS = 29;
+    private static final int RELATION_BITS = 6;
+    private static final int MAX_ID = (1 << ID_BITS) - 1;
+
+    private final Map<String, Integer> sourceIds;
+    private final Map<String, Integer> targetIds;
+    private final AtomicInteger nextSourceId;
+    private final AtomicInteger nextTargetId;
+
+    /**
+     * Constructor
+     */
+    public AlignmentEncoder() {
+        this.sourceIds = new ConcurrentHashMap<>();
+        this.targetIds = new ConcurrentHashMap<>();
+        this.nextSourceId = new AtomicInteger();
+        this.nextTargetId = new AtomicInteger();
+    }
+
+    /**
+     * Encodes the given alignment.
+     * @param alignment the alignment to encode (null is treated as an empty alignment). It should not be modified while it is encoded.
+     * @return the encoded alignment
+     */
+    public EncodedAlignment encode(Alignment alignment) {
+        if(alignment == null)
+            return new EncodedAlignment(new long[0]);
+        long[] values = new long[alignment.size()];
+        int i = 0;
+        for(Correspondence c : alignment){
+            values[i++] = encode(c);
+        }
+        return new EncodedAlignment(sortDistinct(values, i));
+    }
+
+    private long encode(Correspondence c) {
+        long source = getId(this.sourceIds, this.nextSourceId, c.getEntityOne());
+        long target = getId(this.targetIds, this.nextTargetId, c.getEntityTwo());
+        CorrespondenceRelation relation = c.getRelation();
+        long relationId = relation == null ? 0 : relation.ordinal() + 1;
+        return (source << (ID_BITS + RELATION_BITS)) | (target << RELATION_BITS) | relationId;
+    }
+
+    private static int getId(Map<String, Integer> dictionary, AtomicInteger nextId, String uri) {
+        Integer id = dictionary.get(uri); //lock free lookup for already known URIs
+        if(id == null){
+            id = dictionary.computeIfAbsent(uri, k -> {
+                int newId = nextId.getAndIncrement();
+                if(newId > MAX_ID)
+                    throw new IllegalStateException("The alignment encoder can only handle " + MAX_ID + " distinct URIs per side.");
+                return newId;
+            });
+        }
+        return id;
+    }
+
+    private static long[] sortDistinct(long[] values, int length) {
+        Arrays.sort(values, 0, length);
+        int distinct = 0;
+        for(int i = 0; i < length; i++){
+            if(distinct == 0 || values[distinct - 1] != values[i])
+                values[distinct++] = values[i];
+        }
+        return distinct == values.length ? values : Arrays.copyOf(values, distinct);
+    }
+
+    /**
+     * Returns the number of distinct URIs (source and target) which are interned in this encoder.
+     * @return number of distinct URIs
+     */
+    public int getDictionarySize() {
+        return this.sourceIds.size() + this.targetIds.size();
+    }
+}
@@ -0,0 +1,138 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.resultsSimilarity;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An alignment which is encoded as a sorted array of distinct long values (see {@link AlignmentEncoder}).
+ * The Jaccard similarity of two encoded alignments is computed with a merge intersection without creating any
+ * intermediate alignment. For very large alignments, the similarity can be approximated with MinHash signatures.
+ */
+public class EncodedAlignment {
+
+
+    private final long[] values;
+
+    /**
+     * The MinHash signature which is computed lazily (the number of hash functions is the array length).
+     */
+    private volatile long[] minHashSignature;
+
+    EncodedAlignment(long[] sortedDistinctValues) {
+        this.values = sortedDistinctValues;
+    }
+
+    /**
+     * Returns the number of correspondences.
+     * @return number of correspondences
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Computes the exact Jaccard similarity (size of intersection divided by size of union).
+     * @param other the other alignment (encoded by the same encoder)
+     * @return the Jaccard similarity (0.0 if both alignments are empty)
+     */
+    public double jaccard(EncodedAlignment other) {
+        int intersection = intersectionSize(this.values, other.values);
+        int union = this.values.length + other.values.length - intersection;
+        if(union == 0) return 0.0;
+        return (double) intersection / union;
+    }
+
+    /**
+     * Approximates the Jaccard similarity with MinHash signatures.
+     * The expected error is about 1 / sqrt(numberOfHashFunctions).
+     * @param other the other alignment (encoded by the same encoder)
+     * @param numberOfHashFunctions the number of hash functions (size of the signature)
+     * @return the approximated Jaccard similarity (0.0 if one of the alignments is empty)
+     */
+    public double jaccardMinHash(EncodedAlignment other, int numberOfHashFunctions) {
+        if(this.values.length == 0 || other.values.length == 0) return 0.0;
+        long[] signatureOne = this.getMinHashSignature(numberOfHashFunctions);
+        long[] signatureTwo = other.getMinHashSignature(numberOfHashFunctions);
+        int equal = 0;
+        for(int i = 0; i < numberOfHashFunctions; i++){
+            if(signatureOne[i] == signatureTwo[i])
+                equal++;
+        }
+        return (double) equal / numberOfHashFunctions;
+    }
+
+    private long[] getMinHashSignature(int numberOfHashFunctions) {
+        long[] signature = this.minHashSignature;
+        if(signature == null || signature.length != numberOfHashFunctions){
+            signature = new long[numberOfHashFunctions];
+            Arrays.fill(signature, Long.MAX_VALUE);
+            for(long value : this.values){
+                for(int i = 0; i < numberOfHashFunctions; i++){
+                    long hash = mix(value + i * 0x9E3779B97F4A7C15L);
+                    if(hash < signature[i])
+                        signature[i] = hash;
+                }
+            }
+            this.minHashSignature = signature;
+        }
+        return signature;
+    }
+
+    /**
+     * The finalizer of SplitMix64 which is used as a family of hash functions (different offsets of the input).
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int intersectionSize(long[] one, long[] two) {
+        int i = 0, j = 0, count = 0;
+        while(i < one.length && j < two.length){
+            if(one[i] < two[j]){
+                i++;
+            }else if(one[i] > two[j]){
+                j++;
+            }else{
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Creates the union of the given alignments (all encoded by the same encoder).
+     * @param alignments the alignments to merge
+     * @return the union as a new encoded alignment
+     */
+    public static EncodedAlignment union(List<EncodedAlignment> alignments) {
+        if(alignments.size() == 1)
+            return alignments.get(0);
+        long[] result = new long[0];
+        for(EncodedAlignment alignment : alignments){
+            result = mergeUnion(result, alignment.values);
+        }
+        return new EncodedAlignment(result);
+    }
+
+    private static long[] mergeUnion(long[] one, long[] two) {
+        long[] result = new long[one.length + two.length];
+        int i = 0, j = 0, k = 0;
+        while(i < one.length && j < two.length){
+            if(one[i] < two[j]){
+                result[k++] = one[i++];
+            }else if(one[i] > two[j]){
+                result[k++] = two[j++];
+            }else{
+                result[k++] = one[i++];
+                j++;
+            }
+        }
+        while(i < one.length) result[k++] = one[i++];
+        while(j < two.length) result[k++] = two[j++];
+        return k == result.length ? result : Arrays.copyOf(result, k);
+    }
+}
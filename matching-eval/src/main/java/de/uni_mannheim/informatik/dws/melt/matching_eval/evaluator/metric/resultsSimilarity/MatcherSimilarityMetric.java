@@ -6,12 +6,21 @@ import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.refinement.Refiner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This metric allows to compare system results similarity by calculating the jaccard overlap between
  * alignment results.
+ * <p>
+ * Each alignment is encoded only once (see {@link AlignmentEncoder}) and the pairwise similarities are computed
+ * in parallel with merge intersections on the encoded alignments. This allows to compare hundreds of matchers
+ * (e.g. configurations of a grid search). For very large alignments, the similarity can optionally be approximated
+ * with MinHash (see {@link #MatcherSimilarityMetric(int, int)}).
  *
  * @author Jan Portisch
  */
@@ -23,6 +32,41 @@ public class MatcherSimilarityMetric {
      */
     Logger LOGGER = LoggerFactory.getLogger(MatcherSimilarityMetric.class);
 
+    /**
+     * The default number of hash functions for the MinHash approximation.
+     */
+    public static final int DEFAULT_NUMBER_OF_HASH_FUNCTIONS = 128;
+
+    /**
+     * If one of the two alignments has more correspondences than this threshold, the similarity is approximated with MinHash.
+     */
+    private final int minHashThreshold;
+
+    /**
+     * The number of hash functions for the MinHash approximation.
+     */
+    private final int numberOfHashFunctions;
+
+    /**
+     * Constructor which always computes the exact similarity.
+     */
+    public MatcherSimilarityMetric() {
+        this(Integer.MAX_VALUE, DEFAULT_NUMBER_OF_HASH_FUNCTIONS);
+    }
+
+    /**
+     * Constructor which approximates the similarity with MinHash for large alignments.
+     * @param minHashThreshold if one of the two compared alignments has more correspondences than this threshold,
+     *                         the similarity is approximated with MinHash. Use {@link Integer#MAX_VALUE} to always compute the exact similarity.
+     * @param numberOfHashFunctions the number of hash functions for the MinHash approximation (the expected error is about 1/sqrt(numberOfHashFunctions)).
+     */
+    public MatcherSimilarityMetric(int minHashThreshold, int numberOfHashFunctions) {
+        if(numberOfHashFunctions < 1)
+            throw new IllegalArgumentException("The number of hash functions has to be at least one.");
+        this.minHashThreshold = minHashThreshold;
+        this.numberOfHashFunctions = numberOfHashFunctions;
+    }
+
     /**
      * Obtain the matcher similarity for the given {@link ExecutionResultSet}.
      *
@@ -33,15 +77,25 @@ public class MatcherSimilarityMetric {
      */
     public MatcherSimilarity get(ExecutionResultSet resultSet, TestCase testCase, Refiner... refiners) {
         if(refiners == null) refiners = new Refiner[0];
+        List<ExecutionResult> results = new ArrayList<>();
+        for (String matcherName : resultSet.getDistinctMatchers(testCase)) {
+            ExecutionResult result = resultSet.get(testCase, matcherName, refiners);
+            if(result != null)
+                results.add(result);
+        }
+        AlignmentEncoder encoder = new AlignmentEncoder();
+        List<EncodedAlignment> encoded = results.parallelStream()
+                .map(result -> encoder.encode(result.getSystemAlignment()))
+                .collect(Collectors.toList());
+
+        int[][] pairs = getPairs(results.size());
+        double[] similarities = new double[pairs.length];
+        IntStream.range(0, pairs.length).parallel().forEach(p ->
+                similarities[p] = computeSimilarity(encoded.get(pairs[p][0]), encoded.get(pairs[p][1])));
+
         MatcherSimilarity result = new MatcherSimilarity();
-        for (String outerMatcherName : resultSet.getDistinctMatchers(testCase)) {
-            ExecutionResult outerResult = resultSet.get(testCase, outerMatcherName, refiners);
-            for (String innerMatcherName : resultSet.getDistinctMatchers(testCase)) {
-                ExecutionResult innerResult = resultSet.get(testCase, innerMatcherName, refiners);
-                if (outerResult != null && innerResult != null) {
-                    result.add(outerResult, innerResult, computeSimilarity(outerResult, innerResult));
-                }
-            }
+        for(int p = 0; p < pairs.length; p++){
+            result.add(results.get(pairs[p][0]), results.get(pairs[p][1]), similarities[p]);
         }
         return result;
     }
@@ -58,119 +112,128 @@ public class MatcherSimilarityMetric {
      * @return The similarity between matchers.
      */
     public MatcherSimilarity get(CalculationMode mode, ExecutionResultSet resultSet, Track track, Refiner... refiners) {
-        switch (mode) {
-            case MICRO:
-                return microAverageMatcherSimilarity(resultSet, track, refiners);
-            case MACRO:
-                return macroAverageMatcherSimilarity(resultSet, track, refiners);
+        if(mode == null) return null;
+        if(refiners == null) refiners = new Refiner[0];
+        List<String> matcherNames = resultSet.getDistinctMatchersSorted(track);
+        List<TestCase> testCases = track.getTestCases();
+        ExecutionResult[][] results = new ExecutionResult[matcherNames.size()][testCases.size()];
+        for(int m = 0; m < matcherNames.size(); m++){
+            for(int t = 0; t < testCases.size(); t++){
+                results[m][t] = resultSet.get(testCases.get(t), matcherNames.get(m), refiners);
+            }
         }
-        return null;
-    }
 
+        // encode every alignment only once
+        AlignmentEncoder encoder = new AlignmentEncoder();
+        EncodedAlignment[][] encoded = new EncodedAlignment[matcherNames.size()][testCases.size()];
+        IntStream.range(0, matcherNames.size() * testCases.size()).parallel().forEach(i -> {
+            ExecutionResult executionResult = results[i / testCases.size()][i % testCases.size()];
+            if(executionResult != null)
+                encoded[i / testCases.size()][i % testCases.size()] = encoder.encode(executionResult.getSystemAlignment());
+        });
 
-    /**
-     * Obtain the aggregated matcher similarity for the given {@link ExecutionResultSet}.
-     * Results will be averaged in a micro-average fashion.
-     *
-     * @param resultSet The result set to be used.
-     * @param track    The track for which the matcher similarity shall be aggregated.
-     * @param refiners Refiners that apply.
-     * @return The similarity between matchers.
-     */
-    private MatcherSimilarity macroAverageMatcherSimilarity(ExecutionResultSet resultSet, Track track, Refiner... refiners) {
-        MatcherSimilarity result = new MatcherSimilarity();
+        // for micro average: the union of all test cases of one matcher (used if both matchers ran on the same test cases)
+        EncodedAlignment[] unionOfAllTestCases = new EncodedAlignment[matcherNames.size()];
+        if(mode == CalculationMode.MICRO){
+            IntStream.range(0, matcherNames.size()).parallel().forEach(m -> {
+                unionOfAllTestCases[m] = EncodedAlignment.union(getNonNull(encoded[m]));
+            });
+        }
 
-        for (String outerMatcherName : resultSet.getDistinctMatchers(track)) {
-            for (String innerMatcherName : resultSet.getDistinctMatchers(track)) {
-
-                ExecutionResult outerResultDummy = null;
-                ExecutionResult innerResultDummy = null;
-                double similarity = 0.0;
-                int comparisonCount = 0;
-
-                // loop over individual test cases
-                loopOverTestCases:
-                for (TestCase testCase : track.getTestCases()) {
-                    ExecutionResult outerExecutionResult = resultSet.get(testCase, outerMatcherName, refiners);
-                    ExecutionResult innerExecutionResult = resultSet.get(testCase, innerMatcherName, refiners);
-
-                    // making sure there are results for the test case
-                    if (outerExecutionResult == null && innerExecutionResult == null) continue loopOverTestCases;
-                    if (outerExecutionResult == null && innerExecutionResult != null) {
-                        LOGGER.info(outerMatcherName + " was run on test case " + testCase.getName() + " but " +
-                                innerMatcherName + " was not. This test case will be excluded from the similarity calculation.");
-                        continue loopOverTestCases;
-                    }
-                    if (outerExecutionResult != null && innerExecutionResult == null) {
-                        LOGGER.info(outerMatcherName + " was not run on test case " + testCase.getName() + " but " +
-                                innerMatcherName + " was. This test case will be excluded from the similarity calculation.");
-                        continue loopOverTestCases;
-                    }
+        int[][] pairs = getPairs(matcherNames.size());
+        PairResult[] pairResults = new PairResult[pairs.length];
+        IntStream.range(0, pairs.length).parallel().forEach(p -> {
+            int outer = pairs[p][0];
+            int inner = pairs[p][1];
+            List<Integer> commonTestCases = new ArrayList<>();
+            boolean allTestCasesInCommon = true;
+            for(int t = 0; t < testCases.size(); t++){
+                ExecutionResult outerExecutionResult = results[outer][t];
+                ExecutionResult innerExecutionResult = results[inner][t];
 
-                    // set dummy data structures if they have not been yet set
-                    if (outerResultDummy == null) outerResultDummy = outerExecutionResult;
-                    if (innerResultDummy == null) innerResultDummy = innerExecutionResult;
+                // making sure there are results for the test case
+                if (outerExecutionResult == null && innerExecutionResult == null) continue;
+                if (outerExecutionResult == null || innerExecutionResult == null) {
+                    allTestCasesInCommon = false;
+                    LOGGER.info(matcherNames.get(outer) + " was " + (outerExecutionResult == null ? "not " : "") +
+                            "run on test case " + testCases.get(t).getName() + " but " + matcherNames.get(inner) + " was" +
+                            (innerExecutionResult == null ? " not" : "") + ". This test case will be excluded from the similarity calculation.");
+                    continue;
+                }
+                commonTestCases.add(t);
+            }
+            if(commonTestCases.isEmpty())
+                return;
 
-                    similarity = similarity + computeSimilarity(outerExecutionResult.getSystemAlignment(), innerExecutionResult.getSystemAlignment());
-                    comparisonCount++;
+            double similarity;
+            if(mode == CalculationMode.MICRO){
+                if(allTestCasesInCommon){
+                    similarity = computeSimilarity(unionOfAllTestCases[outer], unionOfAllTestCases[inner]);
+                }else{
+                    List<EncodedAlignment> outerAlignments = new ArrayList<>();
+                    List<EncodedAlignment> innerAlignments = new ArrayList<>();
+                    for(int t : commonTestCases){
+                        outerAlignments.add(encoded[outer][t]);
+                        innerAlignments.add(encoded[inner][t]);
+                    }
+                    similarity = computeSimilarity(EncodedAlignment.union(outerAlignments), EncodedAlignment.union(innerAlignments));
+                }
+            }else{
+                similarity = 0.0;
+                for(int t : commonTestCases){
+                    similarity += computeSimilarity(encoded[outer][t], encoded[inner][t]);
                 }
-                result.add(outerResultDummy, innerResultDummy, (similarity / comparisonCount));
+                similarity = similarity / commonTestCases.size();
             }
+            int firstCommon = commonTestCases.get(0);
+            pairResults[p] = new PairResult(results[outer][firstCommon], results[inner][firstCommon], similarity);
+        });
+
+        MatcherSimilarity result = new MatcherSimilarity();
+        for(PairResult pairResult : pairResults){
+            if(pairResult != null)
+                result.add(pairResult.outer, pairResult.inner, pairResult.similarity);
         }
         return result;
     }
 
-
     /**
-     * Obtain the aggregated matcher similarity for the given {@link ExecutionResultSet}.
-     * Results will be averaged in a micro-average fashion.
+     * Computes the similarity between two encoded alignments. It is approximated with MinHash if one alignment is larger
+     * than the MinHash threshold.
      *
-     * @param resultSet The result set to be used.
-     * @param track The track for which the matcher similarity shall be aggregated.
-     * @param refiners Refiners that apply.
-     * @return The similarity between matchers.
+     * @param alignment_1 encoded alignment 1.
+     * @param alignment_2 encoded alignment 2.
+     * @return Similarity as double.
      */
-    private MatcherSimilarity microAverageMatcherSimilarity(ExecutionResultSet resultSet, Track track, Refiner... refiners) {
-        MatcherSimilarity result = new MatcherSimilarity();
-
-        for (String outerMatcherName : resultSet.getDistinctMatchers(track)) {
-            for (String innerMatcherName : resultSet.getDistinctMatchers(track)) {
-
-                Alignment outerAlignment = new Alignment();
-                Alignment innerAlignment = new Alignment();
-                ExecutionResult outerResultDummy = null;
-                ExecutionResult innerResultDummy = null;
-
-                // loop over individual test cases
-                loopOverTestCases:
-                for (TestCase testCase : track.getTestCases()) {
-                    ExecutionResult outerExecutionResult = resultSet.get(testCase, outerMatcherName, refiners);
-                    ExecutionResult innerExecutionResult = resultSet.get(testCase, innerMatcherName, refiners);
-
-                    // making sure there are results for the test case
-                    if (outerExecutionResult == null && innerExecutionResult == null) continue loopOverTestCases;
-                    if (outerExecutionResult == null && innerExecutionResult != null) {
-                        LOGGER.info(outerMatcherName + " was run on test case " + testCase.getName() + " but " +
-                                innerMatcherName + " was not. This test case will be excluded from the similarity calculation.");
-                        continue loopOverTestCases;
-                    }
-                    if (outerExecutionResult != null && innerExecutionResult == null) {
-                        LOGGER.info(outerMatcherName + " was not run on test case " + testCase.getName() + " but " +
-                                innerMatcherName + " was. This test case will be excluded from the similarity calculation.");
-                        continue loopOverTestCases;
-                    }
+    public double computeSimilarity(EncodedAlignment alignment_1, EncodedAlignment alignment_2) {
+        if (alignment_1 == null || alignment_2 == null) return 0;
+        if (Math.max(alignment_1.size(), alignment_2.size()) > this.minHashThreshold)
+            return alignment_1.jaccardMinHash(alignment_2, this.numberOfHashFunctions);
+        return alignment_1.jaccard(alignment_2);
+    }
 
-                    // set dummy data structures if they have not been yet set
-                    if (outerResultDummy == null) outerResultDummy = outerExecutionResult;
-                    if (innerResultDummy == null) innerResultDummy = innerExecutionResult;
+    /**
+     * Returns all unordered pairs (including self pairs) of the indices 0 to size-1.
+     * Computing one direction is sufficient because the Jaccard similarity is symmetric.
+     */
+    private static int[][] getPairs(int size) {
+        int[][] pairs = new int[size * (size + 1) / 2][];
+        int p = 0;
+        for(int i = 0; i < size; i++){
+            for(int j = i; j < size; j++){
+                pairs[p++] = new int[]{i, j};
+            }
+        }
+        return pairs;
+    }
 
-                    outerAlignment.addAll(outerExecutionResult.getSystemAlignment());
-                    innerAlignment.addAll(innerExecutionResult.getSystemAlignment());
-                }
-                result.add(outerResultDummy, innerResultDummy, computeSimilarity(outerAlignment, innerAlignment));
-            } // inner
-        } // outer
-        return result;
+    private static List<EncodedAlignment> getNonNull(EncodedAlignment[] alignments) {
+        List<EncodedAlignment> list = new ArrayList<>();
+        for(EncodedAlignment alignment : alignments){
+            if(alignment != null)
+                list.add(alignment);
+        }
+        return list;
     }
 
     /**
@@ -195,11 +258,23 @@ public class MatcherSimilarityMetric {
      */
     public static double computeSimilarity(Alignment alignment_1, Alignment alignment_2) {
         if (alignment_1 == null || alignment_2 == null) return 0;
-        if (alignment_1 == null || alignment_2 == null) return 0;
-        double numberOfSharedCorrespondences = Alignment.intersection(alignment_1, alignment_2).size();
-        double numberOfUniqueCorrespondences = Alignment.union(alignment_1, alignment_2).size();
-        if(numberOfUniqueCorrespondences == 0) return 0.0; // (denominator must not be 0)
-        return numberOfSharedCorrespondences / numberOfUniqueCorrespondences;
+        AlignmentEncoder encoder = new AlignmentEncoder();
+        return encoder.encode(alignment_1).jaccard(encoder.encode(alignment_2));
+    }
+
+    /**
+     * The similarity of one matcher pair (together with the execution results which represent the two matchers).
+     */
+    private static class PairResult {
+        private final ExecutionResult outer;
+        private final ExecutionResult inner;
+        private final double similarity;
+
+        PairResult(ExecutionResult outer, ExecutionResult inner, double similarity) {
+            this.outer = outer;
+            this.inner = inner;
+            this.similarity = similarity;
+        }
     }
 
 
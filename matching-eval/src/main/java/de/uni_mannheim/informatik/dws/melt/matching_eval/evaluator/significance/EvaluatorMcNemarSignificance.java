@@ -2,8 +2,6 @@ package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.significance
 
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.Evaluator;
-import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
-import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import org.apache.commons.math3.distribution.ChiSquaredDistribution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +10,7 @@ import java.io.*;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -49,6 +48,16 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
 
     public static final double DEFAULT_TRACK_SIGNIFICANCE_SHARE = 0.5;
 
+    /**
+     * Chi square distribution with one degree of freedom (used by the asymptotic tests).
+     */
+    private static final ChiSquaredDistribution CHI_SQUARED_DISTRIBUTION = new ChiSquaredDistribution(1);
+
+    /**
+     * The discordant counts of all matcher pairs (lazily computed, shared by all test types).
+     */
+    private volatile List<McNemarDiscordance> discordances;
+
 
     // Default file names (files will be created in baseDirectory.
 
@@ -364,78 +373,63 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
         }
     }
 
+    /**
+     * Calculates the p values for all pairs of matchers on each test case.
+     * The discordant counts are computed only once (see {@link #getDiscordances()}) and shared by all test types.
+     *
+     * @param alpha    The alpha which is stored in the keys of the result.
+     * @param testType The type of test to be used.
+     * @return Map from the individual result (matcher pair on one test case) to the p value.
+     */
     public Map<McNemarIndividualResult, Double> calculatePvalues(double alpha, TestType testType) {
         Map<McNemarIndividualResult, Double> result = new HashMap<>();
-        for (ExecutionResult result1 : results) {
-            if (result1.getRefinements().size() > 0) {
-                // for now we only work with raw results
-                continue;
-            }
-            for (ExecutionResult result2 : results) {
-                if (result2.getRefinements().size() > 0) {
-                    // for now we only work with raw results
-                    continue;
-                }
-                if (result1.getTestCase().getName().equals(result2.getTestCase().getName()) && result1.getTrack().getName().equals(result2.getTrack().getName())) {
-                    McNemarIndividualResult mr = new McNemarIndividualResult(result1.getMatcherName(), result2.getMatcherName(), result1.getTestCase().getName(), result1.getTrack().getName(), alpha);
-                    double pValue;
-                    try {
-                        pValue = pValueConsideringFalsePositives(result1, result2, testType);
-                        result.put(mr, pValue);
-                    } catch (ArithmeticException ae) {
-                        ae.printStackTrace();
-                    }
-                }
+        for (McNemarDiscordance discordance : getDiscordances()) {
+            try {
+                result.put(discordance.getIndividualResult(alpha), pValue(discordance, testType));
+            } catch (ArithmeticException ae) {
+                ae.printStackTrace();
             }
         }
         return result;
     }
 
     /**
-     * Given two execution results, it is determined whether the two results are significantly different (p &lt; alpha).
-     * The execution results must be from the same test case.
+     * Returns the discordant counts n01 and n10 for all pairs of matchers on each test case.
+     * They are computed in one pass over the results on the first call and cached afterwards.
      *
-     * @param executionResult1 Result 1.
-     * @param executionResult2 Result 2.
-     * @return p value
+     * @return The discordant counts.
      */
-    private double pValueConsideringFalsePositives(ExecutionResult executionResult1, ExecutionResult executionResult2) {
-        return pValueConsideringFalsePositives(executionResult1, executionResult2, TestType.ASYMPTOTIC_CONTINUITY_CORRECTION);
+    List<McNemarDiscordance> getDiscordances() {
+        List<McNemarDiscordance> discordances = this.discordances;
+        if (discordances == null) {
+            synchronized (this) {
+                discordances = this.discordances;
+                if (discordances == null) {
+                    discordances = McNemarDiscordance.countAll(results);
+                    this.discordances = discordances;
+                }
+            }
+        }
+        return discordances;
     }
 
     /**
-     * GGiven two execution results, it is determined whether the two results are significantly different (p &lt; alpha).
-     * The execution results must be from the same test case.
+     * Given the discordant counts of two execution results, it is determined whether the two results are
+     * significantly different (p &lt; alpha).
      *
-     * @param executionResult1 Result 1.
-     * @param executionResult2 Result 2.
-     * @param testType         The type of test to be used.
+     * @param discordance The discordant counts of the two results.
+     * @param testType    The type of test to be used.
      * @return p value. NaN if p cannot be calculated.
      */
-    private double pValueConsideringFalsePositives(ExecutionResult executionResult1, ExecutionResult executionResult2, TestType testType) {
-
-        // initialize the chi square distribution
-        ChiSquaredDistribution distribution = new ChiSquaredDistribution(1);
-
-        // n01
-        Alignment A2_intersects_R = Alignment.intersection(executionResult2.getSystemAlignment(), executionResult2.getReferenceAlignment());
-        Alignment A2_intersects_R_minus_A1 = Alignment.subtraction(A2_intersects_R, executionResult1.getSystemAlignment());
-        int summand_01a = A2_intersects_R_minus_A1.size();
-        int summand_01b = Alignment.subtraction(Alignment.subtraction(executionResult1.getSystemAlignment(), executionResult2.getSystemAlignment()), executionResult1.getReferenceAlignment()).size();
-        int n01 = summand_01a + summand_01b;
-
-        // n10
-        Alignment A1_intersects_R = Alignment.intersection(executionResult1.getSystemAlignment(), executionResult1.getReferenceAlignment());
-        Alignment A1_intersects_R_minus_A2 = Alignment.subtraction(A1_intersects_R, executionResult2.getSystemAlignment());
-        int summand_10a = A1_intersects_R_minus_A2.size();
-        int summand_10b = Alignment.subtraction(Alignment.subtraction(executionResult2.getSystemAlignment(), executionResult1.getSystemAlignment()), executionResult1.getReferenceAlignment()).size();
-        int n10 = summand_10a + summand_10b;
+    static double pValue(McNemarDiscordance discordance, TestType testType) {
+        int n01 = discordance.n01;
+        int n10 = discordance.n10;
 
         if (testType == TestType.ASYMPTOTIC) {
             if (n01 == 0 && n10 == 0) {
                 LOGGER.warn("Significance cannot be determined using McNemar's Asymptotic test because" +
-                        "n01 == 0 and n10 == 0. [Matchers: " + executionResult1.getMatcherName() + " | " +
-                        executionResult2.getMatcherName() + "]");
+                        "n01 == 0 and n10 == 0. [Matchers: " + discordance.matcherName1 + " | " +
+                        discordance.matcherName2 + "]");
                 // most likely this is the case for identical alignments
                 return 1.0;
             }
@@ -444,12 +438,12 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
                 return Double.NaN;
             }
             double chiSquare = Math.pow(n01 - n10, 2) / (n01 + n10);
-            return (1.0 - distribution.cumulativeProbability(chiSquare));
+            return (1.0 - CHI_SQUARED_DISTRIBUTION.cumulativeProbability(chiSquare));
         } else if (testType == TestType.ASYMPTOTIC_CONTINUITY_CORRECTION) {
             if (n01 == 0 && n10 == 0) {
                 LOGGER.warn("Significance cannot be determined using McNemar's Asymptotic test with continuity " +
-                        "correction because n01 == 0 and n10 == 0. [Matchers: " + executionResult1.getMatcherName() +
-                        " | " + executionResult2.getMatcherName() + "]");
+                        "correction because n01 == 0 and n10 == 0. [Matchers: " + discordance.matcherName1 +
+                        " | " + discordance.matcherName2 + "]");
                 // most likely this is the case for identical alignments
                 return 1.0;
             }
@@ -458,7 +452,7 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
                 return Double.NaN;
             }
             double chiSquare = Math.pow(Math.abs(n01 - n10) - 1, 2) / (n01 + n10);
-            return (1.0 - distribution.cumulativeProbability(chiSquare));
+            return (1.0 - CHI_SQUARED_DISTRIBUTION.cumulativeProbability(chiSquare));
         } else if (testType == TestType.EXACT) {
             int n = n01 + n10;
             int result = 0;
@@ -467,16 +461,14 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
             }
             return result;
         } else if (testType == TestType.ASYMPTOTIC_EXACT_FALLBACK) {
-            double resultAsymptotic = pValueConsideringFalsePositives(executionResult1, executionResult2,
-                    TestType.ASYMPTOTIC);
+            double resultAsymptotic = pValue(discordance, TestType.ASYMPTOTIC);
             if (Double.isNaN(resultAsymptotic)) {
-                return pValueConsideringFalsePositives(executionResult1, executionResult2, TestType.EXACT);
+                return pValue(discordance, TestType.EXACT);
             } else return resultAsymptotic;
         } else if (testType == ASYMPTOTIC_CONTINUITY_CORRECTION_EXACT_FALLBACK) {
-            double resultAsymptoticCCorrection = pValueConsideringFalsePositives(executionResult1, executionResult2,
-                    TestType.ASYMPTOTIC_CONTINUITY_CORRECTION);
+            double resultAsymptoticCCorrection = pValue(discordance, TestType.ASYMPTOTIC_CONTINUITY_CORRECTION);
             if (Double.isNaN(resultAsymptoticCCorrection)) {
-                return pValueConsideringFalsePositives(executionResult1, executionResult2, TestType.EXACT);
+                return pValue(discordance, TestType.EXACT);
             } else return resultAsymptoticCCorrection;
         }
 
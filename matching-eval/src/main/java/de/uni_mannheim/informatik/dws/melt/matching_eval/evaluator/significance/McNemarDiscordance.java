@@ -0,0 +1,157 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.significance;
+
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Local data structure holding the discordant counts n01 and n10 of McNemar's test for one (ordered) pair of matchers
+ * on one test case. The counts do not depend on the test type and alpha, so they are computed once and all p values
+ * are derived from them.
+ */
+class McNemarDiscordance {
+
+
+    public final String matcherName1;
+    public final String matcherName2;
+    public final String testCaseName;
+    public final String trackName;
+
+    /**
+     * Number of correspondences for which matcher 1 is wrong and matcher 2 is right.
+     */
+    public final int n01;
+
+    /**
+     * Number of correspondences for which matcher 1 is right and matcher 2 is wrong.
+     */
+    public final int n10;
+
+    public McNemarDiscordance(String matcherName1, String matcherName2, String testCaseName, String trackName,
+                              int n01, int n10) {
+        this.matcherName1 = matcherName1;
+        this.matcherName2 = matcherName2;
+        this.testCaseName = testCaseName;
+        this.trackName = trackName;
+        this.n01 = n01;
+        this.n10 = n10;
+    }
+
+    public McNemarIndividualResult getIndividualResult(double alpha) {
+        return new McNemarIndividualResult(matcherName1, matcherName2, testCaseName, trackName, alpha);
+    }
+
+    /**
+     * Computes the discordant counts for all ordered pairs of results (including the pair of a result with itself)
+     * which belong to the same track and test case. Refined results are ignored.
+     * The results are grouped by track and test case and each group is processed in parallel: every system and
+     * reference alignment of the group is encoded once as a bitset over the union of its correspondences so that
+     * the counts of one pair are obtained with bitwise operations.
+     *
+     * @param results The results for which the counts shall be computed.
+     * @return The counts for all ordered pairs of results on the same test case.
+     */
+    public static List<McNemarDiscordance> countAll(Collection<ExecutionResult> results) {
+        Map<String, List<ExecutionResult>> groups = new LinkedHashMap<>();
+        for (ExecutionResult result : results) {
+            if (result.getRefinements().size() > 0) {
+                // for now we only work with raw results
+                continue;
+            }
+            String key = result.getTrack().getName() + "\t" + result.getTestCase().getName();
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(result);
+        }
+        return groups.values().parallelStream()
+                .flatMap(group -> countGroup(group).stream())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Computes the discordant counts for all ordered pairs of the given results (all on the same test case).
+     * Given the system alignments A1, A2 and the reference alignments R1, R2:
+     * n01 = |(A2 ∩ R2) \ A1| + |(A1 \ A2) \ R1| and n10 = |(A1 ∩ R1) \ A2| + |(A2 \ A1) \ R1|.
+     *
+     * @param group Results of the same test case.
+     * @return The counts for all ordered pairs.
+     */
+    static List<McNemarDiscordance> countGroup(List<ExecutionResult> group) {
+        Map<Correspondence, Integer> index = new HashMap<>();
+        Map<Alignment, BitSet> encodedReferences = new IdentityHashMap<>();
+        BitSet[] systems = new BitSet[group.size()];
+        BitSet[] references = new BitSet[group.size()];
+        for (int i = 0; i < group.size(); i++) {
+            ExecutionResult result = group.get(i);
+            systems[i] = encode(result.getSystemAlignment(), index);
+            Alignment reference = result.getReferenceAlignment();
+            references[i] = reference == null ? new BitSet() :
+                    encodedReferences.computeIfAbsent(reference, r -> encode(r, index));
+        }
+
+        int words = (index.size() + 63) / 64;
+        long[][] systemWords = new long[group.size()][];
+        long[][] referenceWords = new long[group.size()][];
+        for (int i = 0; i < group.size(); i++) {
+            systemWords[i] = toWords(systems[i], words);
+            referenceWords[i] = toWords(references[i], words);
+        }
+
+        List<McNemarDiscordance> discordances = new ArrayList<>(group.size() * group.size());
+        for (int i = 0; i < group.size(); i++) {
+            long[] a1 = systemWords[i];
+            long[] r1 = referenceWords[i];
+            for (int j = 0; j < group.size(); j++) {
+                long[] a2 = systemWords[j];
+                long[] r2 = referenceWords[j];
+                int n01 = 0;
+                int n10 = 0;
+                for (int w = 0; w < words; w++) {
+                    n01 += Long.bitCount(a2[w] & r2[w] & ~a1[w]) + Long.bitCount(a1[w] & ~a2[w] & ~r1[w]);
+                    n10 += Long.bitCount(a1[w] & r1[w] & ~a2[w]) + Long.bitCount(a2[w] & ~a1[w] & ~r1[w]);
+                }
+                ExecutionResult result1 = group.get(i);
+                ExecutionResult result2 = group.get(j);
+                discordances.add(new McNemarDiscordance(result1.getMatcherName(), result2.getMatcherName(),
+                        result1.getTestCase().getName(), result1.getTrack().getName(), n01, n10));
+            }
+        }
+        return discordances;
+    }
+
+    private static BitSet encode(Alignment alignment, Map<Correspondence, Integer> index) {
+        BitSet bits = new BitSet();
+        if (alignment == null) {
+            return bits;
+        }
+        for (Correspondence correspondence : alignment) {
+            Integer position = index.get(correspondence);
+            if (position == null) {
+                position = index.size();
+                index.put(correspondence, position);
+            }
+            bits.set(position);
+        }
+        return bits;
+    }
+
+    private static long[] toWords(BitSet bits, int words) {
+        long[] array = bits.toLongArray();
+        return array.length == words ? array : Arrays.copyOf(array, words);
+    }
+
+    @Override
+    public String toString() {
+        return this.trackName + "," + this.testCaseName + "," + this.matcherName1 + "," + this.matcherName2 + ","
+                + n01 + "," + n10;
+    }
+}
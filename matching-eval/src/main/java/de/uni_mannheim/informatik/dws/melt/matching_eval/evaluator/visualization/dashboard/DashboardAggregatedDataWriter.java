@@ -0,0 +1,253 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.visualization.dashboard;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the data of a dashboard in aggregated form.
+ * The (possibly huge) alignment cube CSV is read as a stream and two kinds of files are written:
+ * <ul>
+ * <li>one gzipped columnar JSON file (aggregated.json.gz) which contains the number of correspondences for each distinct
+ * combination of the aggregation columns (e.g. matcher, test case, evaluation result, type). Each column is dictionary encoded.</li>
+ * <li>gzipped CSV files (in folder details) which contain all rows of one track, test case, and matcher.
+ * They are written while reading the input and only loaded by the dashboard when the user drills down.</li>
+ * </ul>
+ */
+public class DashboardAggregatedDataWriter {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardAggregatedDataWriter.class);
+
+    /**
+     * The name of the column which contains the number of aggregated rows.
+     * The dashboard uses this column as a weight for all groups.
+     */
+    public static final String COUNT_COLUMN = "Count";
+
+    /**
+     * The name of the file which contains the aggregated data.
+     */
+    public static final String AGGREGATED_FILE_NAME = "aggregated.json.gz";
+
+    /**
+     * The name of the column with the confidence which is rounded during aggregation.
+     */
+    private static final String CONFIDENCE_COLUMN = "Confidence (Matcher)";
+
+    /**
+     * The columns which are used by the default dashboard.
+     */
+    public static final List<String> DEFAULT_AGGREGATION_COLUMNS = Collections.unmodifiableList(Arrays.asList(
+            "Track", "TestCase", "Matcher", "Relation", CONFIDENCE_COLUMN, "Evaluation Result",
+            "Type Left", "Type Right", "Residual True Positive"
+    ));
+
+    private static final List<String> DETAIL_KEY_COLUMNS = Arrays.asList("Track", "TestCase", "Matcher");
+
+    /**
+     * The maximum number of detail files which are open at the same time.
+     * Only if the rows of more track, test case, and matcher combinations are interleaved in the input,
+     * the least recently used file is closed and a further file is written for its key
+     * (the dashboard loads all files of a key).
+     */
+    private static final int MAX_OPEN_DETAIL_FILES = 256;
+
+    private final List<String> aggregationColumns;
+    private final int confidenceDecimalPlaces;
+
+    /**
+     * Constructor
+     * @param aggregationColumns the columns which are used for grouping (columns which do not appear in the CSV are ignored).
+     * @param confidenceDecimalPlaces the number of decimal places to which the confidence is rounded before grouping.
+     */
+    public DashboardAggregatedDataWriter(List<String> aggregationColumns, int confidenceDecimalPlaces) {
+        this.aggregationColumns = aggregationColumns;
+        this.confidenceDecimalPlaces = confidenceDecimalPlaces;
+    }
+
+    /**
+     * Constructor with the default aggregation columns and a confidence which is rounded to two decimal places.
+     */
+    public DashboardAggregatedDataWriter() {
+        this(DEFAULT_AGGREGATION_COLUMNS, 2);
+    }
+
+    /**
+     * Reads the CSV from the given reader and writes the aggregated file as well as the detail files to the given directory.
+     * @param csv the reader of the alignment cube CSV (with header) - it is closed afterwards.
+     * @param dataDirectory the directory where all files are written to.
+     * @throws IOException in case reading or writing fails
+     */
+    public void write(Reader csv, File dataDirectory) throws IOException {
+        File detailDirectory = new File(dataDirectory, "details");
+        detailDirectory.mkdirs();
+
+        Map<List<String>, Long> counts = new HashMap<>();
+        List<Map<String, String>> detailFiles = new ArrayList<>();
+        List<String> usedColumns;
+        try(CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(csv)){
+            List<String> header = parser.getHeaderNames();
+            usedColumns = new ArrayList<>();
+            for(String column : this.aggregationColumns){
+                if(header.contains(column))
+                    usedColumns.add(column);
+            }
+            //open detail printers per detail key (in access order) such that unsorted input does not produce a file per row block
+            Map<List<String>, CSVPrinter> detailPrinters = new LinkedHashMap<>(16, 0.75f, true);
+            long rows = 0;
+            try{
+                for(CSVRecord record : parser){
+                    List<String> detailKey = getValues(record, DETAIL_KEY_COLUMNS);
+                    CSVPrinter detailPrinter = detailPrinters.get(detailKey);
+                    if(detailPrinter == null){
+                        if(detailPrinters.size() >= MAX_OPEN_DETAIL_FILES){
+                            Iterator<CSVPrinter> eldest = detailPrinters.values().iterator();
+                            eldest.next().close();
+                            eldest.remove();
+                        }
+                        File detailFile = new File(detailDirectory, detailFiles.size() + ".csv.gz");
+                        detailPrinter = new CSVPrinter(createGzipWriter(detailFile), CSVFormat.DEFAULT);
+                        detailPrinter.printRecord(header);
+                        Map<String, String> detailFileEntry = new LinkedHashMap<>();
+                        for(int i = 0; i < DETAIL_KEY_COLUMNS.size(); i++){
+                            detailFileEntry.put(DETAIL_KEY_COLUMNS.get(i), detailKey.get(i));
+                        }
+                        detailFileEntry.put("file", "details/" + detailFile.getName());
+                        detailFiles.add(detailFileEntry);
+                        detailPrinters.put(detailKey, detailPrinter);
+                    }
+                    detailPrinter.printRecord(record);
+                    counts.merge(getAggregationKey(record, usedColumns), 1L, Long::sum);
+                    rows++;
+                }
+            }finally{
+                for(CSVPrinter detailPrinter : detailPrinters.values()){
+                    detailPrinter.close();
+                }
+            }
+            LOGGER.info("Aggregated {} rows into {} rows and {} detail files.", rows, counts.size(), detailFiles.size());
+        }
+
+        try(Writer writer = createGzipWriter(new File(dataDirectory, AGGREGATED_FILE_NAME))){
+            writeColumnarJson(writer, usedColumns, counts, detailFiles);
+        }
+    }
+
+    private List<String> getAggregationKey(CSVRecord record, List<String> columns){
+        List<String> key = getValues(record, columns);
+        int confidenceIndex = columns.indexOf(CONFIDENCE_COLUMN);
+        if(confidenceIndex >= 0){
+            key.set(confidenceIndex, roundConfidence(key.get(confidenceIndex)));
+        }
+        return key;
+    }
+
+    private String roundConfidence(String confidence){
+        try{
+            return new BigDecimal(confidence).setScale(this.confidenceDecimalPlaces, RoundingMode.HALF_UP).toPlainString();
+        }catch(NumberFormatException ex){
+            return confidence;
+        }
+    }
+
+    private static List<String> getValues(CSVRecord record, List<String> columns){
+        List<String> values = new ArrayList<>(columns.size());
+        for(String column : columns){
+            values.add(record.isMapped(column) && record.isSet(column) ? record.get(column) : "");
+        }
+        return values;
+    }
+
+    /**
+     * Writes the aggregated data in a columnar way: each column is dictionary encoded
+     * (one array of distinct values and one array of indices).
+     */
+    private static void writeColumnarJson(Writer writer, List<String> columns, Map<List<String>, Long> counts, List<Map<String, String>> detailFiles) throws IOException{
+        List<Map<String, Integer>> dictionaries = new ArrayList<>();
+        for(int i = 0; i < columns.size(); i++){
+            dictionaries.add(new LinkedHashMap<>());
+        }
+        writer.write("{\"columns\":[");
+        writeJoined(writer, columns);
+        writer.write("],\"data\":{");
+        List<Entry<List<String>, Long>> entries = new ArrayList<>(counts.entrySet());
+        for(int i = 0; i < columns.size(); i++){
+            Map<String, Integer> dictionary = dictionaries.get(i);
+            writer.write(JSONObject.quote(columns.get(i)));
+            writer.write(":[");
+            boolean first = true;
+            for(Entry<List<String>, Long> entry : entries){
+                if(!first)
+                    writer.write(",");
+                first = false;
+                String value = entry.getKey().get(i);
+                writer.write(Integer.toString(dictionary.computeIfAbsent(value, k -> dictionary.size())));
+            }
+            writer.write("],");
+        }
+        writer.write(JSONObject.quote(COUNT_COLUMN));
+        writer.write(":[");
+        boolean first = true;
+        for(Entry<List<String>, Long> entry : entries){
+            if(!first)
+                writer.write(",");
+            first = false;
+            writer.write(Long.toString(entry.getValue()));
+        }
+        writer.write("]},\"dictionaries\":{");
+        for(int i = 0; i < columns.size(); i++){
+            if(i > 0)
+                writer.write(",");
+            writer.write(JSONObject.quote(columns.get(i)));
+            writer.write(":[");
+            writeJoined(writer, dictionaries.get(i).keySet());
+            writer.write("]");
+        }
+        writer.write("},\"details\":[");
+        for(int i = 0; i < detailFiles.size(); i++){
+            if(i > 0)
+                writer.write(",");
+            writer.write(new JSONObject(detailFiles.get(i)).toString());
+        }
+        writer.write("]}");
+    }
+
+    private static void writeJoined(Writer writer, Iterable<String> values) throws IOException{
+        boolean first = true;
+        for(String value : values){
+            if(!first)
+                writer.write(",");
+            first = false;
+            writer.write(JSONObject.quote(value));
+        }
+    }
+
+    private static Writer createGzipWriter(File file) throws IOException{
+        return new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)), StandardCharsets.UTF_8));
+    }
+}
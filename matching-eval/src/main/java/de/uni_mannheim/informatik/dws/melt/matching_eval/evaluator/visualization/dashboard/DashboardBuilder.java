@@ -8,6 +8,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -19,6 +21,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.zip.GZIPOutputStream;
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
@@ -47,6 +50,12 @@ public class DashboardBuilder extends Evaluator {
     
     protected Supplier<String> csvSupplier;
     
+    /**
+     * Supplier of a reader for the csv data. This is used when writing aggregated data such that the csv does not need to be in memory.
+     * It defaults to a reader over the string returned by {@link #csvSupplier}.
+     */
+    protected Supplier<Reader> csvReaderSupplier;
+    
     protected Template template;
     
     protected List<DcjsElement> currentRow;
@@ -67,6 +76,7 @@ public class DashboardBuilder extends Evaluator {
         Velocity.init();
         this.template = Velocity.getTemplate("templates/dashboard/dashboard.vm");
         this.csvSupplier = csvSupplier;
+        this.csvReaderSupplier = () -> new StringReader(this.csvSupplier.get());
         this.rows = new ArrayList<>();
         this.currentRow = new ArrayList<>();
         this.title = titleOfPage;
@@ -131,6 +141,14 @@ public class DashboardBuilder extends Evaluator {
                 return "";
             }
         },null, titleOfPage, additionalText);
+        this.csvReaderSupplier = () -> {
+            try{
+                return Files.newBufferedReader(csvFile.toPath(), StandardCharsets.UTF_8);
+            }catch(IOException ex){
+                LOGGER.error("Could not read csv file", ex);
+                return new StringReader("");
+            }
+        };
     } 
     
     public DashboardBuilder addDefaultDashboard(){
@@ -175,6 +193,7 @@ public class DashboardBuilder extends Evaluator {
         e.setGroup(groupConfidenceBoxPlot);       
         e.addJsMethod(
                 "elasticX(true)",
+                "valueAccessor(function(d){return sortedAttributeValues(d.value);})",
                 "y(d3.scaleLinear().domain([0.0,1.05]))",
                 "on(\"renderlet\", function(chart) { chart.select('.axis.x').attr(\"text-anchor\", \"end\").selectAll(\"text\").attr(\"transform\", \"rotate(-60)\").attr(\"dy\", \"0.1em\").attr(\"dx\", \"-1em\");})",
                 "margins({top: 10, right: 50, bottom: 80, left: 40})"
@@ -622,6 +641,47 @@ public class DashboardBuilder extends Evaluator {
         }
     }
     
+    /**
+     * Writes the HTML content to htmlFile and the data in aggregated form to a folder next to it (named like the html file with suffix _data).
+     * The data is grouped by matcher, test case, evaluation result, type etc (see {@link DashboardAggregatedDataWriter})
+     * and the correspondences of each track, test case and matcher are written to separate compressed files
+     * which are only loaded when the user clicks on a row of the data table (drill down).
+     * This is for large evaluations (e.g. many matchers on the knowledge graph track) where the whole csv file does not fit into the memory of the browser.
+     * To also avoid loading the whole csv into the JVM, use the constructor with a csv file (e.g. the alignmentCube.csv written by {@link EvaluatorCSV}).
+     * The files need to be served by a web server (a browser does not allow to load them from the local file system).
+     * @param htmlFile the file where all html code should be written to
+     */
+    public void writeToAggregatedFiles(File htmlFile){
+        writeToAggregatedFiles(htmlFile, new DashboardAggregatedDataWriter());
+    }
+    
+    /**
+     * Writes the HTML content to htmlFile and the data in aggregated form to a folder next to it (named like the html file with suffix _data).
+     * See {@link #writeToAggregatedFiles(java.io.File) }.
+     * @param htmlFile the file where all html code should be written to
+     * @param dataWriter the writer which defines how the data is aggregated
+     */
+    public void writeToAggregatedFiles(File htmlFile, DashboardAggregatedDataWriter dataWriter){
+        newRow();
+        
+        String dataDirectoryName = FilenameUtils.getBaseName(htmlFile.getName()) + "_data";
+        File dataDirectory = new File(htmlFile.getAbsoluteFile().getParentFile(), dataDirectoryName);
+        try{
+            dataWriter.write(this.csvReaderSupplier.get(), dataDirectory);
+        } catch (IOException ex) {
+            LOGGER.error("Could not write aggregated data.", ex);
+            return;
+        }
+        VelocityContext context = prepareVelocityContext();
+        context.put("aggregatedRemoteLocation", dataDirectoryName + "/");
+        context.put("aggregatedFileName", DashboardAggregatedDataWriter.AGGREGATED_FILE_NAME);
+        try(Writer writer = new FileWriter(htmlFile)){
+            template.merge( context, writer );
+        } catch (IOException ex) {
+            LOGGER.error("Could not write to file.", ex);
+        }
+    }
+    
     //Private helper methods
     
     private byte[] getGzippedByteArray(String text){
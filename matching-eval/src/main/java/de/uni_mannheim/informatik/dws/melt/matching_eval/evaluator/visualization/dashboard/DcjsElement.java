@@ -109,7 +109,8 @@ public class DcjsElement {
     }
     
     public String createGroupDefinitionBasedOnDimension(String dimensionName){
-        return createGroupDefinition(removeDimensionText(dimensionName) + "Group" ,dimensionName + ".group();");
+        //each record is weighted by the count column (only available for aggregated data, otherwise the weight is one)
+        return createGroupDefinition(removeDimensionText(dimensionName) + "Group" ,dimensionName + ".group().reduceSum(function(d) {return +d[\"Count\"] || 1;});");
     }
     
     public String createGroupDefinitionReduceField(String dimensionName, String reduceField){
@@ -1,11 +1,19 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.paramtuning;
 
+import de.uni_mannheim.informatik.dws.melt.matching_base.IMatcherCaller;
+import de.uni_mannheim.informatik.dws.melt.matching_base.ParameterConfigKeys;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AlignmentAndParameters;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.GenericMatcherCaller;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformerRegistry;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_data.Track;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.Executor;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutorParallel;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
+import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractorCache;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.DefaultExtensions;
 import eu.sealsproject.platform.res.domain.omt.IOntologyMatchingToolBridge;
 
@@ -14,10 +22,15 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
 import java.util.StringJoiner;
 
 import org.apache.commons.beanutils.PropertyUtilsBean;
@@ -28,6 +41,10 @@ import org.slf4j.LoggerFactory;
 /**
  * GridSearch for ontology matching with an arbitrary amount of parameter and values to optimize.
  * Important: when using parallel processing, ensure that the matcher does not write to the same results file.
+ * <p>
+ * Besides the full grid ({@code runGrid...} methods), an adaptive search mode is available
+ * ({@link #runSuccessiveHalving(java.util.List, int) }): all configurations are first evaluated on a small sample of
+ * the test cases and only the best ones (according to the F-measure) are evaluated on more test cases.
  *
  * @author Sven Hertling
  */
@@ -54,6 +71,27 @@ public class GridSearch {
 
     private List<Class<?>> paramTypes;
 
+    /**
+     * The factor by which the number of configurations is reduced (and the number of test cases is increased) in each
+     * round of the successive halving.
+     */
+    private int reductionFactor;
+
+    /**
+     * The number of test cases used in the first round of the successive halving.
+     */
+    private int minimumTestCases;
+
+    /**
+     * The seed for sampling the test cases in the successive halving.
+     */
+    private long randomSeed;
+
+    /**
+     * The cache for extracted texts which is shared by all configurations in the successive halving (or null).
+     */
+    private TextExtractorCache textExtractorCache;
+
     /**
      * Constructor
      * @param matcher The matcher for which the grid search shall be performed.
@@ -65,6 +103,10 @@ public class GridSearch {
         this.paramName = new ArrayList<>();
         this.paramValues = new ArrayList<>();
         this.paramTypes = new ArrayList<>();
+        this.reductionFactor = 3;
+        this.minimumTestCases = 1;
+        this.randomSeed = 1234;
+        this.textExtractorCache = null;
     }
 
     /**
@@ -349,6 +391,94 @@ public class GridSearch {
         return updateExecutionResultSet(Executor.runTracks(tracks, getMatcherConfigurations()));
     }
     
+    /**
+     * Run the successive halving search in parallel on the test cases of a {@link Track}.
+     * @param track The track to use.
+     * @return {@link ExecutionResultSet} instance with the results of all evaluated configurations.
+     * @see #runSuccessiveHalving(java.util.List, int)
+     */
+    public ExecutionResultSet runSuccessiveHalving(Track track){
+        return runSuccessiveHalving(track.getTestCases(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Run the successive halving search in parallel on multiple {@link TestCase}.
+     * @param testCases The test cases to use.
+     * @return {@link ExecutionResultSet} instance with the results of all evaluated configurations.
+     * @see #runSuccessiveHalving(java.util.List, int)
+     */
+    public ExecutionResultSet runSuccessiveHalving(List<TestCase> testCases){
+        return runSuccessiveHalving(testCases, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Run the successive halving search in parallel on multiple {@link TestCase}.
+     * Instead of evaluating all configurations on all test cases, the search runs in rounds:
+     * <ol>
+     * <li>All configurations are executed on a random sample of {@link #getMinimumTestCases() } test cases.</li>
+     * <li>The configurations are ranked by the micro averaged F-measure ({@link ConfusionMatrixMetric}) over all test
+     * cases they are executed on so far. Only the best 1/{@link #getReductionFactor() } of them is kept.</li>
+     * <li>The number of test cases is multiplied by the reduction factor and the remaining configurations are executed
+     * on the additional test cases (results of previous rounds are reused).</li>
+     * </ol>
+     * This is repeated until all test cases are used. Thus the best configuration is evaluated on all test cases and
+     * the returned set contains the results of all configurations on the test cases they reached.
+     * <p>
+     * The parsed ontologies are shared between the configurations by {@code OntologyCacheJena} (unless deactivated).
+     * In case a {@link TextExtractorCache} is set ({@link #setTextExtractorCache(TextExtractorCache) }), it is
+     * additionally given to all configurations in the parameters (key {@link ParameterConfigKeys#TEXT_EXTRACTOR_CACHE})
+     * such that the texts are only extracted once.
+     * @param testCases The test cases to use.
+     * @param numberOfThreads The number of threads to use.
+     * @return {@link ExecutionResultSet} instance with the results of all evaluated configurations.
+     */
+    public ExecutionResultSet runSuccessiveHalving(List<TestCase> testCases, int numberOfThreads){
+        List<TestCase> sample = new ArrayList<>(testCases);
+        Collections.shuffle(sample, new Random(this.randomSeed));
+
+        Map<String, Object> configurations = getMatcherConfigurations();
+        if(this.textExtractorCache != null){
+            for(Entry<String, Object> configuration : configurations.entrySet()){
+                configuration.setValue(new SharedTextExtractorCacheMatcher(configuration.getValue(), this.textExtractorCache));
+            }
+        }
+        
+        ConfusionMatrixMetric metric = new ConfusionMatrixMetric();
+        ExecutionResultSet results = new ExecutionResultSet();
+        int evaluatedTestCases = 0;
+        int budget = Math.max(1, Math.min(this.minimumTestCases, sample.size()));
+        while(evaluatedTestCases < sample.size()){
+            List<TestCase> newTestCases = sample.subList(evaluatedTestCases, budget);
+            LOGGER.info("Successive halving: run {} configurations on {} additional test cases ({} in total).",
+                    configurations.size(), newTestCases.size(), budget);
+            results.addAll(new ExecutorParallel(numberOfThreads).run(newTestCases, configurations));
+            evaluatedTestCases = budget;
+            if(evaluatedTestCases >= sample.size())
+                break;
+            
+            Map<String, Double> fMeasures = new HashMap<>();
+            for(String configuration : configurations.keySet()){
+                List<ConfusionMatrix> matrices = new ArrayList<>();
+                for(ExecutionResult result : results.getGroup(configuration)){
+                    matrices.add(metric.get(result));
+                }
+                fMeasures.put(configuration, matrices.isEmpty() ? 0.0 : metric.getMicroAverages(matrices).getF1measure());
+            }
+            List<String> ranking = new ArrayList<>(configurations.keySet());
+            Collections.sort(ranking);
+            ranking.sort(Comparator.comparingDouble((String configuration) -> fMeasures.get(configuration)).reversed());
+            int keep = Math.max(1, (int) Math.ceil((double) ranking.size() / this.reductionFactor));
+            Map<String, Object> remaining = new LinkedHashMap<>();
+            for(String configuration : ranking.subList(0, keep)){
+                remaining.put(configuration, configurations.get(configuration));
+                LOGGER.info("Successive halving: keep configuration {} (F-measure {}).", configuration, fMeasures.get(configuration));
+            }
+            configurations = remaining;
+            budget = (int) Math.min(sample.size(), (long) budget * this.reductionFactor);
+        }
+        return updateExecutionResultSet(results);
+    }
+    
     /**
      * Updates the execution result set with configuration attributes in the extension of the alignment.
      * @param set The execution result set to be updated.
@@ -441,6 +571,74 @@ public class GridSearch {
         return matcherInstance;
     }
     
+    /**
+     * Returns the factor by which the number of configurations is reduced in each round of the successive halving.
+     * @return the reduction factor
+     */
+    public int getReductionFactor() {
+        return reductionFactor;
+    }
+
+    /**
+     * Sets the factor by which the number of configurations is reduced (and the number of test cases is increased) in
+     * each round of the successive halving. Default is 3 (keep the best third of the configurations).
+     * @param reductionFactor the reduction factor (at least 2)
+     * @return GridSearch object (for builder pattern)
+     */
+    public GridSearch setReductionFactor(int reductionFactor) {
+        if(reductionFactor < 2)
+            throw new IllegalArgumentException("The reduction factor needs to be at least 2.");
+        this.reductionFactor = reductionFactor;
+        return this;
+    }
+
+    /**
+     * Returns the number of test cases used in the first round of the successive halving.
+     * @return the number of test cases in the first round
+     */
+    public int getMinimumTestCases() {
+        return minimumTestCases;
+    }
+
+    /**
+     * Sets the number of test cases used in the first round of the successive halving. Default is one.
+     * @param minimumTestCases the number of test cases in the first round
+     * @return GridSearch object (for builder pattern)
+     */
+    public GridSearch setMinimumTestCases(int minimumTestCases) {
+        this.minimumTestCases = minimumTestCases;
+        return this;
+    }
+
+    /**
+     * Sets the seed which is used to sample the test cases in the successive halving.
+     * @param randomSeed the random seed
+     * @return GridSearch object (for builder pattern)
+     */
+    public GridSearch setRandomSeed(long randomSeed) {
+        this.randomSeed = randomSeed;
+        return this;
+    }
+
+    /**
+     * Returns the cache for extracted texts which is shared by all configurations in the successive halving.
+     * @return the text extractor cache or null
+     */
+    public TextExtractorCache getTextExtractorCache() {
+        return textExtractorCache;
+    }
+
+    /**
+     * Sets the cache for extracted texts which is shared by all configurations in the successive halving.
+     * Only use it with matchers which run in the same JVM because the cache is added to the parameters.
+     * @param textExtractorCache the text extractor cache or null (default)
+     * @return GridSearch object (for builder pattern)
+     */
+    public GridSearch setTextExtractorCache(TextExtractorCache textExtractorCache) {
+        this.textExtractorCache = textExtractorCache;
+        return this;
+    }
+    
     private static boolean isConstructorParameter(String parameterName){
         return parameterName.toLowerCase().equals(CONSTRUCTOR);
     }
@@ -460,6 +658,32 @@ public class GridSearch {
         return result;
     }
         
+    /**
+     * Runs a configured matcher with a shared {@link TextExtractorCache} in the parameters.
+     */
+    private static class SharedTextExtractorCacheMatcher implements IMatcherCaller {
+        private final Object matcher;
+        private final TextExtractorCache cache;
+
+        SharedTextExtractorCacheMatcher(Object matcher, TextExtractorCache cache) {
+            this.matcher = matcher;
+            this.cache = cache;
+        }
+
+        @Override
+        public AlignmentAndParameters match(Set<Object> sourceRepresentations, Set<Object> targetRepresentations, Object inputAlignment, Object parameters) throws Exception {
+            Properties properties = new Properties();
+            properties.putAll(TypeTransformerRegistry.getTransformedPropertiesOrNewInstance(parameters));
+            properties.put(ParameterConfigKeys.TEXT_EXTRACTOR_CACHE, this.cache);
+            return GenericMatcherCaller.runMatcherMultipleRepresentations(this.matcher, sourceRepresentations, targetRepresentations, inputAlignment, properties);
+        }
+
+        @Override
+        public String toString() {
+            return this.matcher.toString();
+        }
+    }
+        
     //https://stackoverflow.com/questions/714108/cartesian-product-of-arbitrary-sets-in-java
     //https://stackoverflow.com/questions/23418855/how-to-get-cartesian-product-from-map-of-string-set
     //https://dzone.com/articles/java-cartesian-iterator-array
@@ -0,0 +1,64 @@
+            //loading of aggregated data and drill down to the correspondences (see DashboardAggregatedDataWriter)
+            function load_gzipped_text(url){
+                return fetch(url).then(function(response){
+                    return response.arrayBuffer();
+                }).then(function(buffer){
+                    var bytes = new Uint8Array(buffer);
+                    if(bytes.length > 1 && bytes[0] === 0x1f && bytes[1] === 0x8b){
+                        return pako.inflate(bytes, {to: 'string'});
+                    }
+                    //the web server already decompressed the file (content encoding gzip)
+                    return new TextDecoder("utf-8").decode(bytes);
+                });
+            }
+
+            function columnar_to_rows(aggregated){
+                var counts = aggregated.data["Count"];
+                var rows = new Array(counts.length);
+                for(var i = 0; i < counts.length; i++){
+                    var row = {};
+                    aggregated.columns.forEach(function(column){
+                        row[column] = aggregated.dictionaries[column][aggregated.data[column][i]];
+                    });
+                    row["Count"] = counts[i];
+                    rows[i] = row;
+                }
+                return rows;
+            }
+
+            var drill_down_location;
+            var drill_down_files;
+            function init_drill_down(location, details){
+                drill_down_location = location;
+                drill_down_files = details;
+                $('#meltDashboard').on('click', 'tr.dc-table-row', function(){
+                    load_details(d3.select(this).datum());
+                });
+            }
+
+            function load_details(row){
+                var files = drill_down_files.filter(function(f){
+                    return f["Track"] === row["Track"] && f["TestCase"] === row["TestCase"] && f["Matcher"] === row["Matcher"];
+                });
+                var container = d3.select('#details');
+                container.html('<p>Loading correspondences of ' + files.length + ' file(s)...</p>');
+                Promise.all(files.map(function(f){ return load_gzipped_text(drill_down_location + f.file); })).then(function(texts){
+                    var records = [];
+                    texts.forEach(function(text){ records = records.concat(d3.csvParse(text)); });
+                    records = records.filter(function(d){
+                        return Object.keys(row).every(function(key){
+                            if(key === "Count" || key === "Confidence (Matcher)")
+                                return true;
+                            return d[key] === undefined || d[key] === row[key];
+                        });
+                    });
+                    container.html('');
+                    container.append('strong').text(row["Matcher"] + ' | ' + row["TestCase"] + ': ' + records.length + ' correspondences');
+                    var table = container.append('table').attr('class', 'table').style('table-layout', 'fixed').style('word-wrap', 'break-word');
+                    var columns = records.length > 0 ? Object.keys(records[0]) : [];
+                    table.append('thead').append('tr').selectAll('th').data(columns).enter().append('th').text(function(c){ return c; });
+                    table.append('tbody').selectAll('tr').data(records.slice(0, 1000)).enter().append('tr')
+                        .selectAll('td').data(function(d){ return columns.map(function(c){ return d[c]; }); })
+                        .enter().append('td').text(function(v){ return v; });
+                });
+            }
@@ -1,19 +1,72 @@
             //reducer functions for crossfilter
+            //each group value is an array of [value, weight] entries sorted by value (weight is the Count column for aggregated data, otherwise one)
+            function bisectSortedAttribute(p, value) {
+                var lo = 0, hi = p.length;
+                while(lo < hi){
+                    var mid = (lo + hi) >>> 1;
+                    if(p[mid][0] < value) lo = mid + 1; else hi = mid;
+                }
+                return lo;
+            }
             function reduceSortedAttributeAdd(attr, evalResultAttr) {
               return function(p,v) {
                 // keep array sorted for efficiency
                 if(v[evalResultAttr] !== "false negative"){
-                    p.splice(d3.bisectLeft(p, +v[attr]), 0, +v[attr]);
+                    var value = +v[attr];
+                    var index = bisectSortedAttribute(p, value);
+                    if(index < p.length && p[index][0] === value){
+                        p[index][1] += (+v["Count"] || 1);
+                    }else{
+                        p.splice(index, 0, [value, (+v["Count"] || 1)]);
+                    }
                 }
                 return p;
               };
             }
             function reduceSortedAttributeRemove(attr) {
               return function(p,v) {
-                p.splice(d3.bisectLeft(p, +v[attr]), 1);
+                var value = +v[attr];
+                var index = bisectSortedAttribute(p, value);
+                if(index < p.length && p[index][0] === value){
+                    p[index][1] -= (+v["Count"] || 1);
+                    if(p[index][1] <= 0){
+                        p.splice(index, 1);
+                    }
+                }
                 return p;
               };
             }
             function reduceSortedAttributeInit() {
               return function(){return [];};
-            }
\ No newline at end of file
+            }
+            //value accessor for the box plot: returns all values if every weight is one (not aggregated data).
+            //Otherwise it returns the whisker ends and the quartiles of the weighted values (computed like d3.quantile)
+            //such that the box plot is the same without expanding the values - only the outliers are not drawn.
+            function sortedAttributeValues(p) {
+                var total = 0;
+                p.forEach(function(e){ total += e[1]; });
+                if(total === p.length){
+                    return p.map(function(e){ return e[0]; });
+                }
+                function valueAtPosition(position){
+                    var seen = 0;
+                    for(var i = 0; i < p.length; i++){
+                        seen += p[i][1];
+                        if(position < seen) return p[i][0];
+                    }
+                    return p[p.length - 1][0];
+                }
+                function quantile(q){
+                    var h = (total - 1) * q, lo = Math.floor(h);
+                    var low = valueAtPosition(lo);
+                    return low + (valueAtPosition(lo + 1) - low) * (h - lo);
+                }
+                var q1 = quantile(0.25), median = quantile(0.5), q3 = quantile(0.75);
+                var iqr = q3 - q1;
+                var lowerWhisker = q1, upperWhisker = q3;
+                p.forEach(function(e){
+                    if(e[0] >= q1 - 1.5 * iqr && e[0] < lowerWhisker) lowerWhisker = e[0];
+                    if(e[0] <= q3 + 1.5 * iqr && e[0] > upperWhisker) upperWhisker = e[0];
+                });
+                return [lowerWhisker, q1, median, q3, upperWhisker];
+            }
@@ -6,7 +6,7 @@
                     groupOne = {};
                     p[v[attrOne]] = groupOne;
                 }
-                groupOne[v[attrTwo]] = (groupOne[v[attrTwo]] || 0) + 1;
+                groupOne[v[attrTwo]] = (groupOne[v[attrTwo]] || 0) + (+v["Count"] || 1);
                 return p;
               };
             }
@@ -17,7 +17,7 @@
                     groupOne = {};
                     p[v[attrOne]] = groupOne;
                 }
-                groupOne[v[attrTwo]] = (groupOne[v[attrTwo]] || 0) - 1;
+                groupOne[v[attrTwo]] = (groupOne[v[attrTwo]] || 0) - (+v["Count"] || 1);
                 return p;
               };
             }
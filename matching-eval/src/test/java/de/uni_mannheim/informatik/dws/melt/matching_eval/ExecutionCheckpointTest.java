@@ -0,0 +1,159 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.MatcherURL;
+import de.uni_mannheim.informatik.dws.melt.matching_data.LocalTrack;
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionCheckpointTest {
+
+
+    @Test
+    void testResume(@TempDir File directory) throws IOException {
+        List<TestCase> testCases = createTestCases(directory, 3);
+        File checkpointDirectory = new File(directory, "checkpoint");
+
+        //the first run fails on the last test case (e.g. OutOfMemoryError)
+        CountingMatcher failing = new CountingMatcher(directory, "testcase2");
+        ExecutionResultSet first = Executor.run(testCases, matchers(failing), new ExecutionCheckpoint(checkpointDirectory, true));
+        assertEquals(4, first.size());
+        assertEquals(6, failing.getCalls());
+
+        //the resumed run only executes the remaining work
+        CountingMatcher matcher = new CountingMatcher(directory, null);
+        ExecutionCheckpoint checkpoint = new ExecutionCheckpoint(checkpointDirectory, true);
+        assertEquals(4, checkpoint.size());
+        ExecutionResultSet resumed = Executor.run(testCases, matchers(matcher), checkpoint);
+        assertEquals(6, resumed.size());
+        assertEquals(2, matcher.getCalls());
+        assertEquals(6, checkpoint.size());
+
+        ExecutionResult loaded = resumed.get(testCases.get(0), "one");
+        assertEquals(first.get(testCases.get(0), "one").getRuntime(), loaded.getRuntime());
+        assertTrue(loaded.getOriginalSystemAlignment().getPath().contains("checkpoint"));
+        assertEquals(1, loaded.getSystemAlignment().size());
+
+        //without resume the journal is cleared
+        matcher = new CountingMatcher(directory, null);
+        Executor.run(testCases, matchers(matcher), new ExecutionCheckpoint(checkpointDirectory, false));
+        assertEquals(6, matcher.getCalls());
+    }
+
+    @Test
+    void testResumeParallel(@TempDir File directory) throws IOException {
+        List<TestCase> testCases = createTestCases(directory, 4);
+        File checkpointDirectory = new File(directory, "checkpoint");
+
+        CountingMatcher failing = new CountingMatcher(directory, "testcase3");
+        ExecutorParallel executor = new ExecutorParallel(3);
+        executor.setCheckpoint(new ExecutionCheckpoint(checkpointDirectory, true));
+        assertEquals(6, executor.run(testCases, matchers(failing)).size());
+
+        CountingMatcher matcher = new CountingMatcher(directory, null);
+        executor.setCheckpoint(new ExecutionCheckpoint(checkpointDirectory, true));
+        ExecutionResultSet resumed = executor.run(testCases, matchers(matcher));
+        assertEquals(8, resumed.size());
+        assertEquals(2, matcher.getCalls());
+    }
+
+    @Test
+    void testIncompleteJournal(@TempDir File directory) throws IOException {
+        List<TestCase> testCases = createTestCases(directory, 3);
+        File checkpointDirectory = new File(directory, "checkpoint");
+        Executor.run(testCases.subList(0, 2), matchers(new CountingMatcher(directory, null)), new ExecutionCheckpoint(checkpointDirectory, false));
+
+        //simulate a crash while the last line is written
+        Files.write(new File(checkpointDirectory, ExecutionCheckpoint.JOURNAL_FILE_NAME).toPath(),
+                "track,1.0,testcase1".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        ExecutionCheckpoint checkpoint = new ExecutionCheckpoint(checkpointDirectory, true);
+        assertEquals(4, checkpoint.size());
+        assertTrue(checkpoint.isCompleted(testCases.get(1), "two"));
+        assertFalse(checkpoint.isCompleted(testCases.get(1), "three"));
+
+        //the records written after the resume are not appended to the incomplete line
+        CountingMatcher matcher = new CountingMatcher(directory, null);
+        assertEquals(6, Executor.run(testCases, matchers(matcher), checkpoint).size());
+        assertEquals(2, matcher.getCalls());
+        checkpoint = new ExecutionCheckpoint(checkpointDirectory, true);
+        assertEquals(6, checkpoint.size());
+        assertTrue(checkpoint.isCompleted(testCases.get(2), "one"));
+    }
+
+    private static Map<String, Object> matchers(CountingMatcher matcher) {
+        Map<String, Object> matchers = new HashMap<>();
+        matchers.put("one", matcher);
+        matchers.put("two", matcher);
+        return matchers;
+    }
+
+    private static List<TestCase> createTestCases(File directory, int count) throws IOException {
+        List<TestCase> testCases = new ArrayList<>();
+        for(int i = 0; i < count; i++){
+            File ontology = new File(directory, "testcase" + i + ".rdf");
+            Files.write(ontology.toPath(), new byte[0]);
+            testCases.add(new TestCase("testcase" + i, ontology.toURI(), ontology.toURI(), ontology.toURI(), null));
+        }
+        new LocalTrack("track", "1.0", testCases);
+        return testCases;
+    }
+
+    /**
+     * Counts the calls and returns an alignment with one correspondence (or fails for the given test case).
+     */
+    private static class CountingMatcher extends MatcherURL {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final File directory;
+        private final String failingTestCase;
+
+        CountingMatcher(File directory, String failingTestCase) {
+            this.directory = directory;
+            this.failingTestCase = failingTestCase;
+        }
+
+        @Override
+        public URL match(URL source, URL target, URL inputAlignment) throws Exception {
+            this.calls.incrementAndGet();
+            if(this.failingTestCase != null && source.getPath().endsWith(this.failingTestCase + ".rdf"))
+                throw new IllegalStateException("Simulated crash");
+            File alignment = File.createTempFile("alignment", ".rdf", this.directory);
+            Files.write(alignment.toPath(), ALIGNMENT.getBytes(StandardCharsets.UTF_8));
+            return alignment.toURI().toURL();
+        }
+
+        int getCalls() {
+            return calls.get();
+        }
+    }
+
+    private static final String ALIGNMENT = "<?xml version='1.0' encoding='utf-8' standalone='no'?>\n"
+            + "<rdf:RDF xmlns='http://knowledgeweb.semanticweb.org/heterogeneity/alignment#'\n"
+            + "         xmlns:rdf='http://www.w3.org/1999/02/22-rdf-syntax-ns#'>\n"
+            + "<Alignment>\n"
+            + "  <xml>yes</xml>\n"
+            + "  <level>0</level>\n"
+            + "  <type>??</type>\n"
+            + "  <map>\n"
+            + "    <Cell>\n"
+            + "      <entity1 rdf:resource='http://source/a'/>\n"
+            + "      <entity2 rdf:resource='http://target/a'/>\n"
+            + "      <relation>=</relation>\n"
+            + "      <measure rdf:datatype='http://www.w3.org/2001/XMLSchema#float'>1.0</measure>\n"
+            + "    </Cell>\n"
+            + "  </map>\n"
+            + "</Alignment>\n"
+            + "</rdf:RDF>\n";
+}
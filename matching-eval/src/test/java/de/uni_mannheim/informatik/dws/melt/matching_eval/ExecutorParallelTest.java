@@ -0,0 +1,150 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.MatcherURL;
+import de.uni_mannheim.informatik.dws.melt.matching_data.LocalTrack;
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutorParallelTest {
+
+
+    @Test
+    void testLongestJobFirst(@TempDir File directory) throws IOException {
+        List<TestCase> testCases = createTestCases(directory);
+        RecordingMatcher matcher = new RecordingMatcher(directory, 0);
+        ExecutionResultSet results = new ExecutorParallel(1).run(testCases, Collections.singletonMap("matcher", matcher));
+        assertEquals(3, results.size());
+        assertEquals(Arrays.asList("large", "medium", "small"), matcher.getStarted());
+
+        //without scheduling the order of the test cases is used
+        matcher = new RecordingMatcher(directory, 0);
+        ExecutorParallel executor = new ExecutorParallel(1);
+        executor.setLongestJobFirst(false);
+        results = executor.run(testCases, Collections.singletonMap("matcher", matcher));
+        assertEquals(3, results.size());
+        assertEquals(Arrays.asList("small", "medium", "large"), matcher.getStarted());
+    }
+
+    @Test
+    void testPreviousRuntimes(@TempDir File directory) throws IOException {
+        List<TestCase> testCases = createTestCases(directory);
+        ExecutionResultSet previous = new ExecutionResultSet();
+        previous.add(new ExecutionResult(testCases.get(0), "matcher", null, 3_000L, null, null));
+        previous.add(new ExecutionResult(testCases.get(1), "matcher", null, 1_000L, null, null));
+        previous.add(new ExecutionResult(testCases.get(2), "matcher", null, 2_000L, null, null));
+
+        RecordingMatcher matcher = new RecordingMatcher(directory, 0);
+        ExecutorParallel executor = new ExecutorParallel(1);
+        executor.setCostEstimator(new ExecutionCostEstimator(previous));
+        executor.run(testCases, Collections.singletonMap("matcher", matcher));
+        assertEquals(Arrays.asList("small", "large", "medium"), matcher.getStarted());
+    }
+
+    @Test
+    void testMaximumHeap(@TempDir File directory) throws IOException {
+        List<TestCase> testCases = createTestCases(directory);
+        Map<String, Object> matchers = new HashMap<>();
+        RecordingMatcher matcherOne = new RecordingMatcher(directory, 300);
+        RecordingMatcher matcherTwo = new RecordingMatcher(directory, 300);
+        matchers.put("one", matcherOne);
+        matchers.put("two", matcherTwo);
+
+        ExecutorParallel executor = new ExecutorParallel(4);
+        ExecutionCostEstimator estimator = new ExecutionCostEstimator();
+        executor.setCostEstimator(estimator);
+        //only one large test case at a time (the medium and small ones can run in parallel)
+        executor.setMaximumHeap(estimator.estimateHeap(testCases.get(2)) + estimator.estimateHeap(testCases.get(1)));
+        ExecutionResultSet results = executor.run(testCases, matchers);
+        assertEquals(6, results.size());
+        assertEquals(1, RecordingMatcher.MAX_CONCURRENT_LARGE.size());
+    }
+
+    @Test
+    void testErrorDoesNotStopWorker(@TempDir File directory) throws IOException {
+        List<TestCase> testCases = createTestCases(directory);
+        //the large test case is started first and the matcher throws an error (not an exception)
+        RecordingMatcher matcher = new RecordingMatcher(directory, 0){
+            @Override
+            public URL match(URL source, URL target, URL inputAlignment) throws Exception {
+                URL alignment = super.match(source, target, inputAlignment);
+                if(source.toString().endsWith("large.rdf"))
+                    throw new StackOverflowError("test error");
+                return alignment;
+            }
+        };
+        ExecutionResultSet results = new ExecutorParallel(1).run(testCases, Collections.singletonMap("matcher", matcher));
+        assertEquals(Arrays.asList("large", "medium", "small"), matcher.getStarted());
+        assertEquals(2, results.size());
+    }
+
+    private static List<TestCase> createTestCases(File directory) throws IOException {
+        List<TestCase> testCases = new ArrayList<>();
+        testCases.add(createTestCase(directory, "small", 10));
+        testCases.add(createTestCase(directory, "medium", 1_000));
+        testCases.add(createTestCase(directory, "large", 100_000));
+        new LocalTrack("track", "1.0", testCases);
+        return testCases;
+    }
+
+    private static TestCase createTestCase(File directory, String name, int size) throws IOException {
+        File file = new File(directory, name + ".rdf");
+        Files.write(file.toPath(), new byte[size]);
+        return new TestCase(name, file.toURI(), file.toURI(), file.toURI(), null);
+    }
+
+    /**
+     * Records the order in which the test cases are started.
+     */
+    private static class RecordingMatcher extends MatcherURL {
+        private static final Set<Integer> MAX_CONCURRENT_LARGE = ConcurrentHashMap.newKeySet();
+        private static int runningLarge = 0;
+
+        private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+        private final File directory;
+        private final long sleep;
+
+        RecordingMatcher(File directory, long sleep) {
+            this.directory = directory;
+            this.sleep = sleep;
+        }
+
+        @Override
+        public URL match(URL source, URL target, URL inputAlignment) throws Exception {
+            String name = new File(source.toURI()).getName().replace(".rdf", "");
+            this.started.add(name);
+            if(name.equals("large")){
+                synchronized(RecordingMatcher.class){
+                    runningLarge++;
+                    MAX_CONCURRENT_LARGE.add(runningLarge);
+                }
+            }
+            Thread.sleep(this.sleep);
+            if(name.equals("large")){
+                synchronized(RecordingMatcher.class){
+                    runningLarge--;
+                }
+            }
+            File alignment = File.createTempFile("alignment", ".rdf", this.directory);
+            return alignment.toURI().toURL();
+        }
+
+        List<String> getStarted() {
+            return new ArrayList<>(started);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.alignmentanalyzer;
+
+import de.uni_mannheim.informatik.dws.melt.matching_data.LocalTrack;
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.jena.ontology.OntModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class AlignmentAnalyzerMetricTest {
+
+
+    private static TestCase createTestCase(){
+        TestCase testCase = new TestCase("cmt-conference",
+                new File("src/test/resources/cmt.owl").toURI(),
+                new File("src/test/resources/conference.owl").toURI(),
+                new File("src/test/resources/cmt-conference.rdf").toURI(), null);
+        new LocalTrack("track", "1.0", Collections.singletonList(testCase));
+        return testCase;
+    }
+
+    private static Alignment createAlignment(){
+        Alignment alignment = new Alignment();
+        alignment.add("http://cmt#Paper", "http://conference#Paper", 1.0);
+        alignment.add("http://cmt#Author", "http://conference#Paper", 0.5);
+        alignment.add("http://cmt#writePaper", "http://conference#Committee", 0.6);
+        alignment.add("http://cmt#writePaper", "http://unknown#x", 0.3);
+        alignment.add("http://conference#Committee", "http://cmt#Paper", 0.8, CorrespondenceRelation.SUBSUMED);
+        return alignment;
+    }
+
+    @Test
+    void testCompute(){
+        TestCase testCase = createTestCase();
+        AlignmentAnalyzerMetric metric = new AlignmentAnalyzerMetric();
+        AlignmentAnalyzerResult result = metric.get(new ExecutionResult(testCase, "Matcher", createAlignment(), null));
+
+        assertEquals(0.3, result.getMinimumConfidence());
+        assertEquals(1.0, result.getMaximumConfidence());
+        assertEquals(3.2 / 5, result.getAverageConfidence(), 0.0000001);
+        assertEquals(4, result.getFrequenciesOfRelations().get(CorrespondenceRelation.EQUIVALENCE));
+        assertEquals(1, result.getFrequenciesOfRelations().get(CorrespondenceRelation.SUBSUMED));
+        assertEquals(2, result.getFrequenciesOfMappingTypes().get("CLASS - CLASS"));
+        assertTrue(result.isHeterogenousAlignment());
+        assertEquals(7, result.getUrisCorrectPosition());
+        assertEquals(2, result.getUrisIncorrectPosition());
+        assertEquals(Arrays.asList("http://unknown#x"), result.getUrisNotFound());
+
+        Map<Arity, Integer> arities = result.getArityCounts();
+        assertEquals(2, arities.get(Arity.OneToMany));
+        assertEquals(2, arities.get(Arity.ManyToOne));
+        assertEquals(1, arities.get(Arity.OneToOne));
+        assertNull(arities.get(Arity.ManyToMany));
+    }
+
+    @Test
+    void testComputeAllSharesEntityTables(@TempDir File directory) throws Exception {
+        TestCase testCase = createTestCase();
+        ExecutionResultSet resultSet = new ExecutionResultSet();
+        resultSet.add(new ExecutionResult(testCase, "Matcher_1", createAlignment(), null));
+        Alignment other = new Alignment();
+        other.add("http://cmt#Paper", "http://conference#Paper");
+        other.add("http://cmt#Review", "http://conference#Paper");
+        resultSet.add(new ExecutionResult(testCase, "Matcher_2", other, null));
+
+        AlignmentAnalyzerMetric metric = new AlignmentAnalyzerMetric();
+        Map<ExecutionResult, AlignmentAnalyzerResult> results = metric.computeAll(resultSet);
+        assertEquals(2, results.size());
+        assertSame(results.get(resultSet.get(testCase, "Matcher_2")), metric.get(resultSet.get(testCase, "Matcher_2")));
+        assertEquals(2, results.get(resultSet.get(testCase, "Matcher_2")).getArityCounts().get(Arity.OneToMany));
+
+        //each URI is resolved once per ontology: 6 distinct source URIs and 5 distinct target URIs
+        OntologyEntityTable sourceTable = metric.getEntityTable(testCase.getSourceOntology(OntModel.class));
+        assertEquals(6, sourceTable.size());
+        assertSame(sourceTable, metric.getEntityTable(testCase.getSourceOntology(OntModel.class)));
+
+        File outFile = new File(directory, "overview.csv");
+        AlignmentAnalyzerMetric.writeAnalysisFile(resultSet, outFile, metric);
+        List<String> lines = Files.readAllLines(outFile.toPath());
+        assertEquals("matcher,cmt-conference", lines.get(0));
+        assertEquals("Matcher_1,1 URIs not found,", lines.get(1));
+        assertEquals("Matcher_2,OK,", lines.get(2));
+    }
+}
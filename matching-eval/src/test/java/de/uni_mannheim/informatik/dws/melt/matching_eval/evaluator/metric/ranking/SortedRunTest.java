@@ -0,0 +1,118 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.ranking;
+
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class SortedRunTest {
+
+
+    private static Alignment createSystem(){
+        Alignment system = new Alignment();
+        for(String source : new String[]{"a", "c", "e", "g", "i", "k", "m", "o", "q", "s"}){
+            system.add(new Correspondence(source, source + "_target"));
+        }
+        return system;
+    }
+
+    private static Alignment createReference(){
+        Alignment reference = new Alignment();
+        for(String source : new String[]{"a", "e", "k", "q", "s"}){
+            reference.add(new Correspondence(source, source + "_target"));
+        }
+        return reference;
+    }
+
+    @Test
+    void testEvaluate(){
+        SortedRun run = new SortedRun(createSystem(), createReference(), SameConfidenceRanking.ALPHABETICALLY);
+        assertEquals(10, run.size());
+        assertTrue(run.isRelevant(1));
+        assertFalse(run.isRelevant(2));
+
+        RankingResult result = run.evaluate(5);
+        assertEquals(2.44, result.getDcg(), 0.1d);
+        assertEquals(0.53, result.getNdcg(), 0.1d);
+        assertEquals(0.62, result.getAveragePrecision(), 0.1d);
+        assertEquals(2.0 / 5.0, result.getrPrecision());
+        assertEquals(2.0 / 5.0, result.getPrecisionAtK());
+        assertEquals(2.0 / 5.0, result.getRecallAtK());
+        assertEquals(2, result.getHitsAtK());
+        assertEquals(1.0, result.getReciprocalRank());
+    }
+
+    @Test
+    void testMultipleK(){
+        SortedRun run = new SortedRun(createSystem(), createReference(), SameConfidenceRanking.ALPHABETICALLY);
+        int[] kValues = {10, 1, 5, 20, 3, 5};
+        RankingResult[] results = run.evaluate(kValues);
+        double[] expectedHits = {5, 1, 2, 5, 2, 2};
+        for(int i = 0; i < kValues.length; i++){
+            RankingResult single = run.evaluate(kValues[i]);
+            assertEquals(expectedHits[i], results[i].getHitsAtK());
+            assertEquals(single.getHitsAtK(), results[i].getHitsAtK());
+            assertEquals(single.getPrecisionAtK(), results[i].getPrecisionAtK());
+            assertEquals(single.getRecallAtK(), results[i].getRecallAtK());
+            assertEquals(single.getNdcg(), results[i].getNdcg());
+            assertEquals(kValues[i], results[i].getkOfHitsAtK());
+        }
+    }
+
+    @Test
+    void testEvaluatePerSource(){
+        Alignment system = new Alignment();
+        system.add("a", "a");
+        system.add("a", "b");
+        system.add("b", "b");
+        system.add("b", "c");
+        system.add("b", "d");
+        system.add("x", "y"); // source not in reference
+        Alignment reference = new Alignment();
+        reference.add("a", "b");
+        reference.add("b", "c");
+        reference.add("b", "d");
+        reference.add("c", "c"); // source without system correspondences
+
+        SortedRun run = new SortedRun(system, reference, SameConfidenceRanking.ALPHABETICALLY);
+        RankingResult[] results = run.evaluatePerSource(2, 1);
+
+        //the average of the ranking of each source on its own
+        double ndcg = 0;
+        double reciprocalRank = 0;
+        for(String source : new String[]{"a", "b"}){
+            RankingResult single = new SortedRun(new Alignment(system.getCorrespondencesSource(source)),
+                    new Alignment(reference.getCorrespondencesSource(source)), SameConfidenceRanking.ALPHABETICALLY).evaluate(2);
+            ndcg += single.getNdcg();
+            reciprocalRank += single.getReciprocalRank();
+        }
+        assertEquals(ndcg / 3, results[0].getNdcg(), 0.0000001);
+        assertEquals(reciprocalRank / 3, results[0].getReciprocalRank(), 0.0000001);
+        assertEquals((1.0 + 1.0) / 3, results[0].getHitsAtK(), 0.0000001);
+        assertEquals(0.0, results[1].getHitsAtK(), 0.0000001);
+        assertEquals((0.5 + 0.5) / 3, results[0].getPrecisionAtK(), 0.0000001);
+    }
+
+    @Test
+    void testCache(){
+        Alignment system = createSystem();
+        Alignment reference = createReference();
+        ExecutionResult executionResult = new ExecutionResult(null, "TestMatcher", system, reference);
+        SortedRun run = SortedRun.get(executionResult, SameConfidenceRanking.TOP);
+        assertSame(run, SortedRun.get(executionResult, SameConfidenceRanking.TOP));
+        assertNotSame(run, SortedRun.get(executionResult, SameConfidenceRanking.BOTTOM));
+
+        //an equal execution result with other alignments does not use the cached run
+        Alignment otherSystem = new Alignment(system);
+        otherSystem.add("u", "v");
+        SortedRun otherRun = SortedRun.get(new ExecutionResult(null, "TestMatcher", otherSystem, reference), SameConfidenceRanking.TOP);
+        assertEquals(11, otherRun.size());
+
+        RankingResult metricResult = new RankingMetric(SameConfidenceRanking.ALPHABETICALLY, 5)
+                .get(new ExecutionResult(null, "TestMatcher", system, reference));
+        assertEquals(2, metricResult.getHitsAtK());
+        SortedRun.clearCache();
+    }
+}
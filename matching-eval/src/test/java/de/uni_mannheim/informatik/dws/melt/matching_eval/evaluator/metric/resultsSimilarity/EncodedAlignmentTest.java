@@ -0,0 +1,87 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.resultsSimilarity;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncodedAlignmentTest {
+
+    @Test
+    void jaccard() {
+        Alignment alignment_1 = new Alignment();
+        alignment_1.add("http://www.left.com/e1", "http://www.right.com/e1");
+        alignment_1.add("http://www.left.com/e2", "http://www.right.com/e2");
+        alignment_1.add("http://www.left.com/e3", "http://www.right.com/e3", CorrespondenceRelation.SUBSUMED);
+
+        Alignment alignment_2 = new Alignment();
+        alignment_2.add("http://www.left.com/e1", "http://www.right.com/e1", 0.3);
+        alignment_2.add("http://www.left.com/e3", "http://www.right.com/e3");
+        alignment_2.add("http://www.left.com/e4", "http://www.right.com/e4");
+
+        AlignmentEncoder encoder = new AlignmentEncoder();
+        EncodedAlignment encoded_1 = encoder.encode(alignment_1);
+        EncodedAlignment encoded_2 = encoder.encode(alignment_2);
+
+        // only e1 is shared (confidence is ignored, relation is not)
+        assertEquals(1.0 / 5.0, encoded_1.jaccard(encoded_2));
+        assertEquals(1.0, encoded_1.jaccard(encoded_1));
+        assertEquals(MatcherSimilarityMetric.computeSimilarity(alignment_1, alignment_2), encoded_1.jaccard(encoded_2));
+        assertEquals(0.0, encoder.encode(new Alignment()).jaccard(encoder.encode(null)));
+
+        EncodedAlignment union = EncodedAlignment.union(Arrays.asList(encoded_1, encoded_2));
+        assertEquals(5, union.size());
+    }
+
+    @Test
+    void jaccardMinHash() {
+        Alignment alignment_1 = new Alignment();
+        Alignment alignment_2 = new Alignment();
+        for(int i = 0; i < 2000; i++){
+            alignment_1.add("http://www.left.com/e" + i, "http://www.right.com/e" + i);
+            alignment_2.add("http://www.left.com/e" + (i + 1000), "http://www.right.com/e" + (i + 1000));
+        }
+        AlignmentEncoder encoder = new AlignmentEncoder();
+        EncodedAlignment encoded_1 = encoder.encode(alignment_1);
+        EncodedAlignment encoded_2 = encoder.encode(alignment_2);
+
+        assertEquals(1.0 / 3.0, encoded_1.jaccard(encoded_2), 0.0001);
+        assertEquals(1.0 / 3.0, encoded_1.jaccardMinHash(encoded_2, 512), 0.1);
+        assertEquals(1.0, encoded_1.jaccardMinHash(encoded_1, 64));
+
+        MatcherSimilarityMetric metric = new MatcherSimilarityMetric(1000, 512);
+        assertEquals(1.0 / 3.0, metric.computeSimilarity(encoded_1, encoded_2), 0.1);
+    }
+
+    @Test
+    void encodeInParallel() {
+        List<Alignment> alignments = new ArrayList<>();
+        for(int a = 0; a < 16; a++){
+            Alignment alignment = new Alignment();
+            for(int i = 0; i < 1000; i++){
+                alignment.add("http://www.left.com/e" + (i + a * 100), "http://www.right.com/e" + (i + a * 100));
+            }
+            alignments.add(alignment);
+        }
+        AlignmentEncoder parallelEncoder = new AlignmentEncoder();
+        List<EncodedAlignment> parallel = alignments.parallelStream().map(parallelEncoder::encode).collect(Collectors.toList());
+        AlignmentEncoder sequentialEncoder = new AlignmentEncoder();
+        List<EncodedAlignment> sequential = alignments.stream().map(sequentialEncoder::encode).collect(Collectors.toList());
+
+        // every URI gets exactly one id
+        assertEquals(2 * (1000 + 15 * 100), parallelEncoder.getDictionarySize());
+        assertEquals(sequentialEncoder.getDictionarySize(), parallelEncoder.getDictionarySize());
+        IntStream.range(0, alignments.size()).forEach(i -> {
+            assertEquals(alignments.get(i).size(), parallel.get(i).size());
+            for(int j = 0; j < alignments.size(); j++){
+                assertEquals(sequential.get(i).jaccard(sequential.get(j)), parallel.get(i).jaccard(parallel.get(j)));
+            }
+        });
+    }
+}
@@ -1,10 +1,13 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.resultsSimilarity;
 
+import de.uni_mannheim.informatik.dws.melt.matching_data.LocalTrack;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TrackRepository;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
+import java.io.File;
+import java.util.Arrays;
 import org.junit.jupiter.api.Test;
 
 
@@ -70,4 +73,43 @@ class MatcherSimilarityMetricTest {
         assertEquals(1.0 / 3.0, similarity_1.getMatcherSimilarity(result_1, result_2));
         assertEquals(1.0 / 3.0, similarity_1.getMatcherSimilarity(result_2, result_1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void microAndMacro() {
+        File dummy = new File("dummy.rdf");
+        TestCase testCase_1 = new TestCase("tc1", dummy.toURI(), dummy.toURI(), dummy.toURI(), null);
+        TestCase testCase_2 = new TestCase("tc2", dummy.toURI(), dummy.toURI(), dummy.toURI(), null);
+        LocalTrack track = new LocalTrack("track", "1.0", Arrays.asList(testCase_1, testCase_2));
+
+        ExecutionResultSet resultSet = new ExecutionResultSet();
+        resultSet.add(result(testCase_1, "Matcher_1", "e1", "e2"));
+        resultSet.add(result(testCase_2, "Matcher_1", "e3", "e4"));
+        resultSet.add(result(testCase_1, "Matcher_2", "e1", "e5"));
+        resultSet.add(result(testCase_2, "Matcher_2", "e3", "e4"));
+        // only run on the first test case
+        resultSet.add(result(testCase_1, "Matcher_3", "e1", "e2"));
+
+        MatcherSimilarityMetric metric = new MatcherSimilarityMetric();
+
+        MatcherSimilarity micro = metric.get(MatcherSimilarityMetric.CalculationMode.MICRO, resultSet, track);
+        assertEquals(3.0 / 5.0, micro.getMatcherSimilarity(resultSet.get(testCase_1, "Matcher_1"), resultSet.get(testCase_1, "Matcher_2")));
+        assertEquals(1.0, micro.getMatcherSimilarity(resultSet.get(testCase_1, "Matcher_1"), resultSet.get(testCase_1, "Matcher_3")));
+        assertEquals(1.0, micro.getMatcherSimilarity(resultSet.get(testCase_1, "Matcher_2"), resultSet.get(testCase_1, "Matcher_2")));
+
+        MatcherSimilarity macro = metric.get(MatcherSimilarityMetric.CalculationMode.MACRO, resultSet, track);
+        assertEquals((1.0 / 3.0 + 1.0) / 2.0, macro.getMatcherSimilarity(resultSet.get(testCase_1, "Matcher_1"), resultSet.get(testCase_1, "Matcher_2")));
+        assertEquals(1.0 / 3.0, macro.getMatcherSimilarity(resultSet.get(testCase_1, "Matcher_2"), resultSet.get(testCase_1, "Matcher_3")));
+
+        MatcherSimilarity single = metric.get(resultSet, testCase_1);
+        assertEquals(6, single.getMatcherSimilaritySet().size());
+        assertEquals(1.0 / 3.0, single.getMatcherSimilarity(resultSet.get(testCase_1, "Matcher_3"), resultSet.get(testCase_1, "Matcher_2")));
+    }
+
+    private static ExecutionResult result(TestCase testCase, String matcherName, String... entities) {
+        Alignment alignment = new Alignment();
+        for(String entity : entities){
+            alignment.add("http://www.left.com/" + entity, "http://www.right.com/" + entity);
+        }
+        return new ExecutionResult(testCase, matcherName, null, 1L, alignment, null, null, null, null);
+    }
+}
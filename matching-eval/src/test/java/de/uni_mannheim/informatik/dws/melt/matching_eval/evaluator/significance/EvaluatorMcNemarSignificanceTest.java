@@ -1,8 +1,10 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.significance;
 
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.Executor;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.stringOperations.StringOperations;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.math3.distribution.ChiSquaredDistribution;
 import org.junit.jupiter.api.AfterAll;
@@ -65,6 +67,57 @@ class EvaluatorMcNemarSignificanceTest {
         }
     }
 
+    /**
+     * The discordant counts obtained with bitwise operations have to be the same as the ones obtained with alignment
+     * operations: n01 = |(A2 ∩ R) \ A1| + |(A1 \ A2) \ R| and n10 = |(A1 ∩ R) \ A2| + |(A2 \ A1) \ R|.
+     */
+    @Test
+    void discordancesEqualAlignmentOperations() {
+        ExecutionResultSet ers = Executor.loadFromConferenceResultsFolder("./src/test/resources" +
+                "/2019_conference_shortened/");
+        EvaluatorMcNemarSignificance evaluator = new EvaluatorMcNemarSignificance(ers);
+        List<McNemarDiscordance> discordances = evaluator.getDiscordances();
+        assertSame(discordances, evaluator.getDiscordances());
+
+        int pairs = 0;
+        for (ExecutionResult result1 : ers) {
+            for (ExecutionResult result2 : ers) {
+                if (!result1.getTestCase().getName().equals(result2.getTestCase().getName())) {
+                    continue;
+                }
+                pairs++;
+                Alignment a1 = result1.getSystemAlignment();
+                Alignment a2 = result2.getSystemAlignment();
+                Alignment reference = result1.getReferenceAlignment();
+                int n01 = Alignment.subtraction(Alignment.intersection(a2, reference), a1).size() +
+                        Alignment.subtraction(Alignment.subtraction(a1, a2), reference).size();
+                int n10 = Alignment.subtraction(Alignment.intersection(a1, reference), a2).size() +
+                        Alignment.subtraction(Alignment.subtraction(a2, a1), reference).size();
+                McNemarDiscordance discordance = discordances.stream()
+                        .filter(d -> d.matcherName1.equals(result1.getMatcherName()) &&
+                                d.matcherName2.equals(result2.getMatcherName()) &&
+                                d.testCaseName.equals(result1.getTestCase().getName()))
+                        .findFirst().orElse(null);
+                assertNotNull(discordance);
+                assertEquals(n01, discordance.n01, discordance.toString());
+                assertEquals(n10, discordance.n10, discordance.toString());
+            }
+        }
+        assertEquals(pairs, discordances.size());
+
+        // all test types are derived from the same counts
+        assertEquals(pairs, evaluator.calculatePvalues(0.05, TestType.ASYMPTOTIC).size());
+        for (McNemarDiscordance discordance : discordances) {
+            double asymptotic = EvaluatorMcNemarSignificance.pValue(discordance, TestType.ASYMPTOTIC);
+            double fallback = EvaluatorMcNemarSignificance.pValue(discordance, TestType.ASYMPTOTIC_EXACT_FALLBACK);
+            if (Double.isNaN(asymptotic)) {
+                assertEquals(EvaluatorMcNemarSignificance.pValue(discordance, TestType.EXACT), fallback);
+            } else {
+                assertEquals(asymptotic, fallback);
+            }
+        }
+    }
+
     /**
      * Simple test making sure that there is no error when writing and that something is written.
      * Uses the anatomy track (contains 1 test case).
@@ -0,0 +1,81 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.visualization.dashboard;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardAggregatedDataWriterTest {
+
+    @Test
+    void write() throws IOException {
+        String csv = "Track,TestCase,Matcher,URI Left,Relation,Confidence (Matcher),URI Right,Evaluation Result\n" +
+                "conference,cmt-conference,A,http://a1,=,0.901,http://b1,true positive\n" +
+                "conference,cmt-conference,A,http://a2,=,0.899,http://b2,true positive\n" +
+                "conference,cmt-conference,A,http://a3,=,0.5,http://b3,false positive\n" +
+                "conference,cmt-conference,B,http://a1,=,0.9,http://b1,true positive\n";
+        File directory = new File("./dashboard_aggregated_test");
+        try{
+            new DashboardAggregatedDataWriter().write(new StringReader(csv), directory);
+
+            JSONObject aggregated = new JSONObject(readGzip(new File(directory, DashboardAggregatedDataWriter.AGGREGATED_FILE_NAME)));
+            JSONArray counts = aggregated.getJSONObject("data").getJSONArray("Count");
+            assertEquals(3, counts.length());
+            long sum = 0;
+            for(int i = 0; i < counts.length(); i++){
+                sum += counts.getLong(i);
+            }
+            assertEquals(4, sum);
+            assertEquals(2, aggregated.getJSONObject("dictionaries").getJSONArray("Matcher").length());
+            assertEquals(2, aggregated.getJSONObject("dictionaries").getJSONArray("Confidence (Matcher)").length());
+
+            JSONArray details = aggregated.getJSONArray("details");
+            assertEquals(2, details.length());
+            String detailA = readGzip(new File(directory, details.getJSONObject(0).getString("file")));
+            assertEquals(4, detailA.trim().split("\n").length); //header and three rows
+        }finally{
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    void writeUnsorted() throws IOException {
+        String csv = "Track,TestCase,Matcher,URI Left,Relation,Confidence (Matcher),URI Right,Evaluation Result\n" +
+                "conference,cmt-conference,A,http://a1,=,0.9,http://b1,true positive\n" +
+                "conference,cmt-conference,B,http://a1,=,0.9,http://b1,true positive\n" +
+                "conference,cmt-conference,A,http://a2,=,0.8,http://b2,true positive\n" +
+                "conference,cmt-conference,B,http://a2,=,0.8,http://b2,false positive\n" +
+                "conference,cmt-conference,A,http://a3,=,0.5,http://b3,false positive\n";
+        File directory = new File("./dashboard_aggregated_unsorted_test");
+        try{
+            new DashboardAggregatedDataWriter().write(new StringReader(csv), directory);
+
+            JSONObject aggregated = new JSONObject(readGzip(new File(directory, DashboardAggregatedDataWriter.AGGREGATED_FILE_NAME)));
+            JSONArray details = aggregated.getJSONArray("details");
+            //one file per track, test case, and matcher even if the rows are not sorted
+            assertEquals(2, details.length());
+            assertEquals("A", details.getJSONObject(0).getString("Matcher"));
+            assertEquals(4, readGzip(new File(directory, details.getJSONObject(0).getString("file"))).trim().split("\n").length);
+            assertEquals("B", details.getJSONObject(1).getString("Matcher"));
+            assertEquals(3, readGzip(new File(directory, details.getJSONObject(1).getString("file"))).trim().split("\n").length);
+        }finally{
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    private static String readGzip(File file) throws IOException{
+        try(InputStream in = new GZIPInputStream(new FileInputStream(file))){
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.paramtuning;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.MatcherFile;
+import de.uni_mannheim.informatik.dws.melt.matching_base.ParameterConfigKeys;
+import de.uni_mannheim.informatik.dws.melt.matching_data.LocalTrack;
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
+import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
+import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractorCache;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentSerializer;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.jena.ontology.OntModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GridSearchTest {
+
+
+    @Test
+    void testSuccessiveHalving(@TempDir File directory) throws IOException {
+        List<TestCase> testCases = createTestCases(directory, 9);
+        GridSearch gridSearch = new GridSearch(QualityMatcher.class, "QualityMatcher");
+        gridSearch.addParameter("quality", 1, 2, 3, 4, 5, 6, 7, 8, 9);
+
+        ExecutionResultSet results = gridSearch.runSuccessiveHalving(testCases, 2);
+        //9 configurations on 1 test case, 3 on 2 additional ones, and the best one on the remaining 6
+        assertEquals(9 + 3 * 2 + 6, results.size());
+        String best = "QualityMatcher (quality=9)";
+        assertEquals(9, results.getGroup(best).size());
+        assertEquals(3, results.getGroup("QualityMatcher (quality=8)").size());
+        assertEquals(1, results.getGroup("QualityMatcher (quality=6)").size());
+        //configuration is added to the alignment extensions
+        assertNotNull(results.getGroup(best).iterator().next().getSystemAlignment().getExtensionValue(
+                "http://melt.dws.uni-mannheim.de/configuration#quality"));
+    }
+
+    @Test
+    void testSuccessiveHalvingSmallTrack(@TempDir File directory) throws IOException {
+        //with only one test case, successive halving is a grid search
+        List<TestCase> testCases = createTestCases(directory, 1);
+        GridSearch gridSearch = new GridSearch(QualityMatcher.class, "QualityMatcher");
+        gridSearch.addParameter("quality", 1, 2, 3);
+        assertEquals(3, gridSearch.runSuccessiveHalving(testCases, 1).size());
+    }
+
+    @Test
+    void testSharedTextExtractorCache(@TempDir File directory) throws IOException {
+        List<TestCase> testCases = createTestCases(directory, 2);
+        CacheCheckingMatcher.CALLS_WITH_CACHE.set(0);
+        TextExtractorCache cache = new TextExtractorCache();
+        GridSearch gridSearch = new GridSearch(CacheCheckingMatcher.class, "CacheCheckingMatcher")
+                .addParameter("value", 1, 2)
+                .setMinimumTestCases(2)
+                .setTextExtractorCache(cache);
+        assertSame(cache, gridSearch.getTextExtractorCache());
+        assertEquals(4, gridSearch.runSuccessiveHalving(testCases, 1).size());
+        assertEquals(4, CacheCheckingMatcher.CALLS_WITH_CACHE.get());
+    }
+
+    private static List<TestCase> createTestCases(File directory, int count) throws IOException {
+        Alignment reference = new Alignment();
+        for(int i = 0; i < 9; i++){
+            reference.add("http://source/" + i, "http://target/" + i);
+        }
+        File referenceFile = new File(directory, "reference.rdf");
+        AlignmentSerializer.serialize(reference, referenceFile);
+        File ontology = new File(directory, "ontology.ttl");
+        Files.write(ontology.toPath(), "<http://source/0> a <http://www.w3.org/2002/07/owl#Class> .".getBytes());
+
+        List<TestCase> testCases = new ArrayList<>();
+        for(int i = 0; i < count; i++){
+            testCases.add(new TestCase("testcase" + i, ontology.toURI(), ontology.toURI(), referenceFile.toURI(), null));
+        }
+        new LocalTrack("track", "1.0", testCases);
+        return testCases;
+    }
+
+    /**
+     * Returns as many correct correspondences as the quality parameter.
+     */
+    public static class QualityMatcher extends MatcherFile {
+        private int quality;
+
+        @Override
+        public void match(URL source, URL target, URL inputAlignment, File alignmentFile) throws Exception {
+            Alignment alignment = new Alignment();
+            for(int i = 0; i < quality; i++){
+                alignment.add("http://source/" + i, "http://target/" + i);
+            }
+            AlignmentSerializer.serialize(alignment, alignmentFile);
+        }
+
+        public int getQuality() {
+            return quality;
+        }
+
+        public void setQuality(int quality) {
+            this.quality = quality;
+        }
+    }
+
+    /**
+     * Counts the calls which receive a text extractor cache in the parameters.
+     */
+    public static class CacheCheckingMatcher extends MatcherYAAAJena {
+        private static final AtomicInteger CALLS_WITH_CACHE = new AtomicInteger();
+        private int value;
+
+        @Override
+        public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
+            if(properties.get(ParameterConfigKeys.TEXT_EXTRACTOR_CACHE) instanceof TextExtractorCache)
+                CALLS_WITH_CACHE.incrementAndGet();
+            Alignment alignment = new Alignment();
+            alignment.add("http://source/0", "http://target/0");
+            return alignment;
+        }
+
+        public int getValue() {
+            return value;
+        }
+
+        public void setValue(int value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A compiled synonym dictionary which maps a text to its synset id.
+ * It is a sorted string table stored in a binary file which is memory mapped (and not loaded into the heap).
+ * Thus opening the dictionary is nearly instant and the memory is shared (via the page cache of the operating system)
+ * between all matchers and processes which use the same file. Each lookup is a binary search over the UTF-8 encoded texts.
+ * <p>
+ * The file is created with one of the compile methods, e.g. {@link #compile(File, File)} which converts the CSV format of
+ * {@link SynonymTextMatcher} (each line is a synset and each cell is a text). The texts are normalized during compilation,
+ * thus the lookup texts have to be normalized in the same way (by default lowercased and trimmed like
+ * {@link SynonymTextMatcher#processString(String)}).
+ * <p>
+ * The file layout (big endian) is: magic number, version, number of texts n, number of text bytes, n synset ids (long),
+ * n+1 offsets (int) into the text bytes, and the text bytes (sorted by unsigned byte order).
+ * The size of the file is restricted to 2 GB. The dictionary is read only and thread safe.
+ */
+public class CompiledSynonymDictionary {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompiledSynonymDictionary.class);
+
+    private static final int MAGIC = 0x4D53594E; // MSYN
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * Opened dictionaries which are shared between all users of the same file.
+     */
+    private static final Map<String, CompiledSynonymDictionary> OPENED = new ConcurrentHashMap<>();
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int offsetsStart;
+    private final int dataStart;
+
+    private CompiledSynonymDictionary(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if(buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new IOException("The file is not a compiled synonym dictionary.");
+        if(buffer.getInt(4) != VERSION)
+            throw new IOException("The compiled synonym dictionary has an unsupported version: " + buffer.getInt(4));
+        this.size = buffer.getInt(8);
+        this.offsetsStart = HEADER_SIZE + 8 * this.size;
+        this.dataStart = this.offsetsStart + 4 * (this.size + 1);
+        if((long) this.dataStart + buffer.getInt(12) != buffer.capacity())
+            throw new IOException("The compiled synonym dictionary is truncated or corrupt.");
+    }
+
+    /**
+     * Opens (memory maps) the given compiled dictionary. If the same file was already opened (and not modified since then),
+     * the already opened dictionary is returned.
+     * @param file the compiled dictionary file
+     * @return the dictionary
+     * @throws IOException if the file can not be read or is not a compiled dictionary
+     */
+    public static CompiledSynonymDictionary open(File file) throws IOException {
+        String key = file.getCanonicalPath() + "\t" + file.lastModified() + "\t" + file.length();
+        CompiledSynonymDictionary dictionary = OPENED.get(key);
+        if(dictionary != null)
+            return dictionary;
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException("The compiled synonym dictionary is larger than 2 GB.");
+            dictionary = new CompiledSynonymDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        CompiledSynonymDictionary previous = OPENED.putIfAbsent(key, dictionary);
+        return previous == null ? dictionary : previous;
+    }
+
+    /**
+     * Checks if the given file is a compiled synonym dictionary (based on the magic number at the beginning of the file).
+     * @param file the file to check
+     * @return true if the file is a compiled synonym dictionary
+     */
+    public static boolean isCompiled(File file) {
+        if(file == null || file.isFile() == false || file.length() < HEADER_SIZE)
+            return false;
+        try(DataInputStream in = new DataInputStream(new FileInputStream(file))){
+            return in.readInt() == MAGIC;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the synset id of the given (already normalized) text.
+     * @param text the text
+     * @return the synset id or null if the text is not contained
+     */
+    public Long get(String text) {
+        byte[] key = text.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = this.size - 1;
+        while(low <= high){
+            int middle = (low + high) >>> 1;
+            int comparison = compare(middle, key);
+            if(comparison < 0){
+                low = middle + 1;
+            }else if(comparison > 0){
+                high = middle - 1;
+            }else{
+                return this.buffer.getLong(HEADER_SIZE + 8 * middle);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of texts in this dictionary.
+     * @return number of texts
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private int compare(int index, byte[] key) {
+        int start = this.dataStart + this.buffer.getInt(this.offsetsStart + 4 * index);
+        int end = this.dataStart + this.buffer.getInt(this.offsetsStart + 4 * (index + 1));
+        int length = Math.min(end - start, key.length);
+        for(int i = 0; i < length; i++){
+            int comparison = Integer.compare(this.buffer.get(start + i) & 0xFF, key[i] & 0xFF);
+            if(comparison != 0)
+                return comparison;
+        }
+        return Integer.compare(end - start, key.length);
+    }
+
+    /**
+     * Compiles the given synonym CSV file (each line is a synset and each cell is a text) with the default normalization
+     * (lowercase and trim) into the given output file.
+     * @param csvFile the synonym CSV file
+     * @param output the file to write the compiled dictionary to
+     * @throws IOException if the files can not be read or written
+     */
+    public static void compile(File csvFile, File output) throws IOException {
+        compile(csvFile, output, text -> text.toLowerCase().trim());
+    }
+
+    /**
+     * Compiles the given synonym CSV file (each line is a synset and each cell is a text) into the given output file.
+     * The synset ids are the line numbers (starting with one). If a text appears in multiple lines, the last one is used.
+     * @param csvFile the synonym CSV file
+     * @param output the file to write the compiled dictionary to
+     * @param normalization the normalization which is applied to each text
+     * @throws IOException if the files can not be read or written
+     */
+    public static void compile(File csvFile, File output, Function<String, String> normalization) throws IOException {
+        LOGGER.info("Start compiling synonym file {}", csvFile);
+        Map<String, Long> map = new HashMap<>();
+        long synsetIndex = 0;
+        try(Reader in = new FileReader(csvFile)){
+            for (CSVRecord row : CSVFormat.DEFAULT.parse(in)) {
+                synsetIndex++;
+                for(String text : row){
+                    map.put(normalization.apply(text), synsetIndex);
+                }
+            }
+        }
+        compile(map, output);
+        LOGGER.info("Finished compiling synonym file {} ({} texts)", csvFile, map.size());
+    }
+
+    /**
+     * Compiles the given map from text to synset id into the given output file.
+     * @param synonyms map from (normalized) text to synset id
+     * @param output the file to write the compiled dictionary to
+     * @throws IOException if the file can not be written
+     */
+    public static void compile(Map<String, Long> synonyms, File output) throws IOException {
+        byte[][] keys = new byte[synonyms.size()][];
+        long[] values = new long[synonyms.size()];
+        Integer[] order = new Integer[synonyms.size()];
+        int i = 0;
+        long dataLength = 0;
+        for(Map.Entry<String, Long> entry : synonyms.entrySet()){
+            keys[i] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            values[i] = entry.getValue();
+            order[i] = i;
+            dataLength += keys[i].length;
+            i++;
+        }
+        long fileLength = HEADER_SIZE + 12L * keys.length + 4 + dataLength;
+        if(fileLength > Integer.MAX_VALUE)
+            throw new IOException("The compiled synonym dictionary would be larger than 2 GB.");
+        Arrays.sort(order, (a, b) -> compareUnsigned(keys[a], keys[b]));
+
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)))){
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(keys.length);
+            out.writeInt((int) dataLength);
+            for(int index : order){
+                out.writeLong(values[index]);
+            }
+            int offset = 0;
+            out.writeInt(offset);
+            for(int index : order){
+                offset += keys[index].length;
+                out.writeInt(offset);
+            }
+            for(int index : order){
+                out.write(keys[index]);
+            }
+        }
+    }
+
+    private static int compareUnsigned(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for(int i = 0; i < length; i++){
+            int comparison = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+            if(comparison != 0)
+                return comparison;
+        }
+        return Integer.compare(a.length, b.length);
+    }
+}
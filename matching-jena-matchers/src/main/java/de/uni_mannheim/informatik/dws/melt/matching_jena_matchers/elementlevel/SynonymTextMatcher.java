@@ -15,6 +15,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVRecord;
@@ -34,11 +35,14 @@ import org.slf4j.LoggerFactory;
  * Matches resource A (source) to B (target) iff they have at least one label in the same synset.
  * The text used for the resources can be defined (e.g. rdfs:label etc).
  * The processing can also be adjusted by subclassing this class and override method processString.
+ * The synonyms can be given as a map, a CSV file, or a {@link CompiledSynonymDictionary} (which is memory mapped and
+ * shared between matchers). The texts of source and target are looked up concurrently.
  */
 public class SynonymTextMatcher extends MatcherYAAAJena {
     private static final Logger LOGGER = LoggerFactory.getLogger(SynonymTextMatcher.class);
     
     private Map<String, Long> synonymSet;
+    private CompiledSynonymDictionary dictionary;
     private Collection<Property> properties;
     
     
@@ -52,8 +56,32 @@ public class SynonymTextMatcher extends MatcherYAAAJena {
         this.properties = Arrays.asList(properties);
     }
     
+    public SynonymTextMatcher(CompiledSynonymDictionary dictionary, Collection<Property> properties){
+        this.dictionary = dictionary;
+        this.properties = properties;
+    }
+    
+    public SynonymTextMatcher(CompiledSynonymDictionary dictionary, Property... properties){
+        this(dictionary, Arrays.asList(properties));
+    }
+    
+    /**
+     * Constructor
+     * @param csvFile the synonym file: either a CSV file (see {@link #parseSynonymCsvFile(java.io.File) }) or a compiled synonym dictionary
+     * (see {@link CompiledSynonymDictionary#compile(java.io.File, java.io.File) }) which is opened instead of parsed.
+     * @param properties the properties which are used to get the texts of a resource.
+     */
     public SynonymTextMatcher(File csvFile, Collection<Property> properties){
-        this.synonymSet = parseSynonymCsvFile(csvFile);
+        if(CompiledSynonymDictionary.isCompiled(csvFile)){
+            try {
+                this.dictionary = CompiledSynonymDictionary.open(csvFile);
+            } catch (IOException ex) {
+                LOGGER.warn("Could not open compiled synonym file. Continue with empty synonym map.", ex);
+                this.synonymSet = new HashMap<>();
+            }
+        }else{
+            this.synonymSet = parseSynonymCsvFile(csvFile);
+        }
         this.properties = properties;
     }
 
@@ -68,17 +96,18 @@ public class SynonymTextMatcher extends MatcherYAAAJena {
     
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
+        boolean concurrent = source != target;
         if(OaeiOptions.isMatchingClassesRequired()){
             LOGGER.info("SynonymMatcher - match classes");
-            matchResources(source.listClasses(), target.listClasses(), inputAlignment);    
+            matchResources(source.listClasses(), target.listClasses(), inputAlignment, concurrent);    
         }                
         if(OaeiOptions.isMatchingDataPropertiesRequired() || OaeiOptions.isMatchingObjectPropertiesRequired()){
             LOGGER.info("SynonymMatcher - match properties");
-            matchResources(source.listAllOntProperties(), target.listAllOntProperties(), inputAlignment);      
+            matchResources(source.listAllOntProperties(), target.listAllOntProperties(), inputAlignment, concurrent);      
         }              
         if(OaeiOptions.isMatchingInstancesRequired()){
             LOGGER.info("SynonymMatcher - match instances");
-            matchResources(source.listIndividuals(), target.listIndividuals(), inputAlignment);
+            matchResources(source.listIndividuals(), target.listIndividuals(), inputAlignment, concurrent);
         }
         LOGGER.info("SynonymMatcher - finished matching");
         return inputAlignment;
@@ -86,37 +115,49 @@ public class SynonymTextMatcher extends MatcherYAAAJena {
     
     
     
-    private void matchResources(ExtendedIterator<? extends OntResource> sourceResources, ExtendedIterator<? extends OntResource> targetResources, Alignment alignment) {
-        Map<Long, Set<String>> synID2URI = new HashMap<>();
-        while (sourceResources.hasNext()) {
-            OntResource source = sourceResources.next();
-            String sourceURI = source.getURI();
-            for(String sourceText : getStringRepresentations(source)){
-                Long synID = this.synonymSet.get(sourceText);
-                if(synID != null){
-                    Set<String> uris = synID2URI.get(synID);
-                    if(uris == null){
-                        uris = new HashSet<>();
-                        synID2URI.put(synID, uris);
-                    }
-                    uris.add(sourceURI);
+    private void matchResources(ExtendedIterator<? extends OntResource> sourceResources, ExtendedIterator<? extends OntResource> targetResources, Alignment alignment, boolean concurrent) {
+        Map<Long, Set<String>> sourceSynID2URI;
+        Map<Long, Set<String>> targetSynID2URI;
+        if(concurrent){
+            //source and target are different models, thus they can be read concurrently
+            CompletableFuture<Map<Long, Set<String>>> sourceFuture = CompletableFuture.supplyAsync(() -> getSynID2URI(sourceResources));
+            targetSynID2URI = getSynID2URI(targetResources);
+            sourceSynID2URI = sourceFuture.join();
+        }else{
+            sourceSynID2URI = getSynID2URI(sourceResources);
+            targetSynID2URI = getSynID2URI(targetResources);
+        }
+        for(Map.Entry<Long, Set<String>> target : targetSynID2URI.entrySet()){
+            Set<String> sourceURIs = sourceSynID2URI.get(target.getKey());
+            if(sourceURIs == null)
+                continue;
+            for(String sourceURI : sourceURIs){
+                for(String targetURI : target.getValue()){
+                    alignment.add(sourceURI, targetURI);
                 }
             }
         }
-        while (targetResources.hasNext()) {
-            OntResource target = targetResources.next();
-            for(String targetText : getStringRepresentations(target)){
-                Long targetsynID = this.synonymSet.get(targetText);
-                if(targetsynID != null){
-                    Set<String> sourceURIs = synID2URI.get(targetsynID);
-                    if(sourceURIs != null){
-                        for(String sourceURI : sourceURIs){
-                            alignment.add(sourceURI, target.getURI());
-                        }
-                    }
+    }
+    
+    private Map<Long, Set<String>> getSynID2URI(ExtendedIterator<? extends OntResource> resources){
+        Map<Long, Set<String>> synID2URI = new HashMap<>();
+        while (resources.hasNext()) {
+            OntResource resource = resources.next();
+            String uri = resource.getURI();
+            for(String text : getStringRepresentations(resource)){
+                Long synID = getSynsetID(text);
+                if(synID != null){
+                    synID2URI.computeIfAbsent(synID, k -> new HashSet<>()).add(uri);
                 }
             }
         }
+        return synID2URI;
+    }
+    
+    private Long getSynsetID(String text){
+        if(this.dictionary != null)
+            return this.dictionary.get(text);
+        return this.synonymSet.get(text);
     }
     
     protected Set<String> getStringRepresentations(Resource r){
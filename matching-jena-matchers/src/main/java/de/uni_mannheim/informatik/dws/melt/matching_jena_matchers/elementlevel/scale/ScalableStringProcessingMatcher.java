@@ -23,6 +23,7 @@ import org.apache.jena.rdf.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractor;
+import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractorCache;
 
 /**
  * Matcher which uses different String Matching approaches (stored in PropertySpecificStringProcessing) with a specific confidence.
@@ -81,20 +82,21 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
     
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
+        TextExtractorCache cache = TextExtractorCache.fromProperties(properties);
         if(OaeiOptions.isMatchingClassesRequired() && matchClasses){
             LOGGER.debug("Match classes");
-            matchResources(source.listClasses(), target.listClasses(), inputAlignment);  
+            matchResources(source.listClasses(), target.listClasses(), inputAlignment, cache);  
         }
         if((OaeiOptions.isMatchingDataPropertiesRequired() || OaeiOptions.isMatchingObjectPropertiesRequired()) && matchProperties){
             LOGGER.debug("Match properties");
-            matchResources(source.listAllOntProperties(), target.listAllOntProperties(), inputAlignment);
+            matchResources(source.listAllOntProperties(), target.listAllOntProperties(), inputAlignment, cache);
         }
         if(OaeiOptions.isMatchingInstancesRequired() && matchInstances){
             LOGGER.debug("Match instances");
-            matchResources(source.listIndividuals(), target.listIndividuals(), inputAlignment);
+            matchResources(source.listIndividuals(), target.listIndividuals(), inputAlignment, cache);
         }
         for(Function<OntModel, Iterator<? extends Resource>> f : this.matchableResourceIterators){
-            matchResources(f.apply(source), f.apply(target), inputAlignment);
+            matchResources(f.apply(source), f.apply(target), inputAlignment, cache);
         }
         LOGGER.debug("Finished");
         return inputAlignment;
@@ -102,6 +104,17 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
     
     
     public void matchResources(Iterator<? extends Resource> sourceResources, Iterator<? extends Resource> targetResources, Alignment alignment) {
+        matchResources(sourceResources, targetResources, alignment, null);
+    }
+    
+    /**
+     * Match the given resources and add the correspondences to the given alignment.
+     * @param sourceResources the source resources
+     * @param targetResources the target resources
+     * @param alignment the alignment to which the correspondences are added
+     * @param cache the cache for extracted texts - can be null
+     */
+    public void matchResources(Iterator<? extends Resource> sourceResources, Iterator<? extends Resource> targetResources, Alignment alignment, TextExtractorCache cache) {
         //processing -> tokens/ids -> (list of resources)
         Map<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> index = new HashMap<>();
         
@@ -112,7 +125,7 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
             if(source.isURIResource() == false)
                 continue;
             String sourceURI = source.getURI();            
-            Map<TextExtractor, Set<String>> valueMap = extractAllValues(source);
+            Map<TextExtractor, Set<String>> valueMap = extractAllValues(source, cache);
             for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
                 Map<Object, Set<String>> tokenIndex = index.computeIfAbsent(processing, k->new HashMap<>());
                 for(String sourceLabels : getLiterals(processing, valueMap)){
@@ -134,7 +147,7 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
                 continue;
             String targetURI = target.getURI();
             
-            Map<TextExtractor, Set<String>> valueMap = extractAllValues(target);
+            Map<TextExtractor, Set<String>> valueMap = extractAllValues(target, cache);
             for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
                 Map<Object, Set<String>> tokenIndex = index.get(processing);
                 if(tokenIndex == null)
@@ -235,9 +248,13 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
     }
     
     protected Map<TextExtractor,Set<String>> extractAllValues(Resource r){
+        return extractAllValues(r, null);
+    }
+    
+    protected Map<TextExtractor,Set<String>> extractAllValues(Resource r, TextExtractorCache cache){
         Map<TextExtractor, Set<String>> literals = new HashMap<>();
         for(TextExtractor p : this.usedValueExtractors){
-            literals.put(p, p.extract(r));
+            literals.put(p, cache == null ? p.extract(r) : cache.extract(p, r));
         }
         return literals;
     }
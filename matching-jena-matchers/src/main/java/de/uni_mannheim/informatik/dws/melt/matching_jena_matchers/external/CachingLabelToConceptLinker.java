@@ -0,0 +1,149 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A linker which caches the results of another linker (also the negative ones).
+ * The bulk methods only pass the labels which are not cached yet to the bulk methods of the wrapped linker such that
+ * the whole set of labels of an ontology is resolved in one set-oriented operation.
+ * The cache itself is thread safe; calls to the wrapped linker are synchronized on the wrapped linker because most
+ * linkers are not thread safe.
+ */
+public class CachingLabelToConceptLinker implements LabelToConceptLinker {
+
+
+    private final LabelToConceptLinker linker;
+    private final Map<String, Optional<String>> singleConceptCache;
+    private final Map<String, Optional<Set<String>>> multipleConceptsCache;
+
+    /**
+     * Constructor
+     * @param linker The linker whose results shall be cached.
+     */
+    public CachingLabelToConceptLinker(LabelToConceptLinker linker) {
+        this.linker = linker;
+        this.singleConceptCache = new ConcurrentHashMap<>();
+        this.multipleConceptsCache = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String linkToSingleConcept(String labelToBeLinked) {
+        if (labelToBeLinked == null) {
+            return null;
+        }
+        Optional<String> cached = singleConceptCache.get(labelToBeLinked);
+        if (cached == null) {
+            synchronized (linker) {
+                cached = Optional.ofNullable(linker.linkToSingleConcept(labelToBeLinked));
+            }
+            singleConceptCache.put(labelToBeLinked, cached);
+        }
+        return cached.orElse(null);
+    }
+
+    @Override
+    public Set<String> linkToPotentiallyMultipleConcepts(String labelToBeLinked) {
+        if (labelToBeLinked == null) {
+            return null;
+        }
+        Optional<Set<String>> cached = multipleConceptsCache.get(labelToBeLinked);
+        if (cached == null) {
+            synchronized (linker) {
+                cached = Optional.ofNullable(linker.linkToPotentiallyMultipleConcepts(labelToBeLinked));
+            }
+            multipleConceptsCache.put(labelToBeLinked, cached);
+        }
+        return cached.orElse(null);
+    }
+
+    @Override
+    public Map<String, String> linkToSingleConceptBulk(Collection<String> labelsToBeLinked) {
+        Set<String> labels = LabelToConceptLinker.distinctLabels(labelsToBeLinked);
+        List<String> missing = new ArrayList<>();
+        for (String label : labels) {
+            if (singleConceptCache.containsKey(label) == false) {
+                missing.add(label);
+            }
+        }
+        if (missing.isEmpty() == false) {
+            Map<String, String> links;
+            synchronized (linker) {
+                links = linker.linkToSingleConceptBulk(missing);
+            }
+            for (String label : missing) {
+                singleConceptCache.put(label, Optional.ofNullable(links.get(label)));
+            }
+        }
+        Map<String, String> result = new HashMap<>();
+        for (String label : labels) {
+            singleConceptCache.getOrDefault(label, Optional.empty()).ifPresent(link -> result.put(label, link));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Set<String>> linkToPotentiallyMultipleConceptsBulk(Collection<String> labelsToBeLinked) {
+        Set<String> labels = LabelToConceptLinker.distinctLabels(labelsToBeLinked);
+        List<String> missing = new ArrayList<>();
+        for (String label : labels) {
+            if (multipleConceptsCache.containsKey(label) == false) {
+                missing.add(label);
+            }
+        }
+        if (missing.isEmpty() == false) {
+            Map<String, Set<String>> links;
+            synchronized (linker) {
+                links = linker.linkToPotentiallyMultipleConceptsBulk(missing);
+            }
+            for (String label : missing) {
+                multipleConceptsCache.put(label, Optional.ofNullable(links.get(label)));
+            }
+        }
+        Map<String, Set<String>> result = new HashMap<>();
+        for (String label : labels) {
+            multipleConceptsCache.getOrDefault(label, Optional.empty()).ifPresent(links -> result.put(label, links));
+        }
+        return result;
+    }
+
+    /**
+     * Removes all cached links.
+     */
+    public void clear() {
+        singleConceptCache.clear();
+        multipleConceptsCache.clear();
+    }
+
+    /**
+     * Returns the number of cached labels (single and multiple concept links).
+     * @return number of cached labels
+     */
+    public int getCacheSize() {
+        return singleConceptCache.size() + multipleConceptsCache.size();
+    }
+
+    /**
+     * Returns the wrapped linker.
+     * @return the wrapped linker
+     */
+    public LabelToConceptLinker getLinker() {
+        return linker;
+    }
+
+    @Override
+    public String getNameOfLinker() {
+        return linker.getNameOfLinker();
+    }
+
+    @Override
+    public void setNameOfLinker(String nameOfLinker) {
+        linker.setNameOfLinker(nameOfLinker);
+    }
+}
@@ -1,5 +1,9 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -27,6 +31,64 @@ public interface LabelToConceptLinker {
      */
     Set<String> linkToPotentiallyMultipleConcepts(String labelToBeLinked);
 
+    /**
+     * Links all given labels to single concepts (see {@link #linkToSingleConcept(String)}) in one set-oriented operation.
+     * Duplicate labels are linked only once. The default implementation calls {@link #linkToSingleConcept(String)} for
+     * each distinct label; linkers with an expensive background source can override this method to resolve all labels
+     * (and their normalized variants) in bulk.
+     *
+     * @param labelsToBeLinked The labels which shall be linked.
+     * @return Map from label to concept. Labels which could not be linked are not contained.
+     */
+    default Map<String, String> linkToSingleConceptBulk(Collection<String> labelsToBeLinked) {
+        Map<String, String> result = new HashMap<>();
+        for (String label : distinctLabels(labelsToBeLinked)) {
+            String link = linkToSingleConcept(label);
+            if (link != null) {
+                result.put(label, link);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Links all given labels to potentially multiple concepts (see {@link #linkToPotentiallyMultipleConcepts(String)})
+     * in one set-oriented operation. Duplicate labels are linked only once. The default implementation calls
+     * {@link #linkToPotentiallyMultipleConcepts(String)} for each distinct label; linkers with an expensive background
+     * source can override this method to resolve all labels (and their normalized variants) in bulk.
+     *
+     * @param labelsToBeLinked The labels which shall be linked.
+     * @return Map from label to concepts. Labels which could not be (fully) linked are not contained.
+     */
+    default Map<String, Set<String>> linkToPotentiallyMultipleConceptsBulk(Collection<String> labelsToBeLinked) {
+        Map<String, Set<String>> result = new HashMap<>();
+        for (String label : distinctLabels(labelsToBeLinked)) {
+            Set<String> links = linkToPotentiallyMultipleConcepts(label);
+            if (links != null) {
+                result.put(label, links);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes duplicates, null values, and blank labels.
+     * @param labels The labels.
+     * @return The distinct labels (in the order of the given collection).
+     */
+    static Set<String> distinctLabels(Collection<String> labels) {
+        Set<String> result = new LinkedHashSet<>();
+        if (labels == null) {
+            return result;
+        }
+        for (String label : labels) {
+            if (label != null && label.trim().length() > 0) {
+                result.add(label);
+            }
+        }
+        return result;
+    }
+
     /**
      * Get instance specific name of the linker.
      *
@@ -58,12 +58,9 @@ public abstract class SemanticWordRelationDictionary implements ExternalResource
 			// only if both are null b/c one concept might not have synonyms but still be a synonym of the other concept
 			return false;
 		}
-		if(synonyms1 == null) {
-			synonyms1 = new HashSet<>();
-		}
-		if(synonyms2 == null) {
-			synonyms2 = new HashSet<>();
-		}
+		// copy the sets because they might be shared with a buffer of the knowledge source
+		synonyms1 = synonyms1 == null ? new HashSet<>() : new HashSet<>(synonyms1);
+		synonyms2 = synonyms2 == null ? new HashSet<>() : new HashSet<>(synonyms2);
 		
 		// add the words themselves
 		synonyms1.add(link1);
@@ -142,12 +139,9 @@ public abstract class SemanticWordRelationDictionary implements ExternalResource
 			// only if both are null b/c one concept might not have synonyms but still be a synonym of the other concept
 			return false;
 		}
-		if(synonyms1 == null) {
-			synonyms1 = new HashSet<>();
-		}
-		if(synonyms2 == null) {
-			synonyms2 = new HashSet<>();
-		}
+		// copy the sets because they might be shared with a buffer of the knowledge source
+		synonyms1 = synonyms1 == null ? new HashSet<>() : new HashSet<>(synonyms1);
+		synonyms2 = synonyms2 == null ? new HashSet<>() : new HashSet<>(synonyms2);
 
 		// add the words themselves
 		synonyms1.add(link1);
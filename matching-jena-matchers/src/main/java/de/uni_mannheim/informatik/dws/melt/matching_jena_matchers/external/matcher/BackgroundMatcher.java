@@ -2,6 +2,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.matc
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.ExternalResourceWithSynonymCapability;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.CachingLabelToConceptLinker;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SemanticWordRelationDictionary;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SynonymConfidenceCapability;
@@ -36,7 +37,7 @@ public class BackgroundMatcher extends MatcherYAAAJena {
 
 
     /**
-     * Linker used to link labels to concepts.
+     * Linker used to link labels to concepts (the linker of the knowledge source wrapped in a {@link CachingLabelToConceptLinker}).
      */
     private final LabelToConceptLinker linker;
 
@@ -110,7 +111,9 @@ public class BackgroundMatcher extends MatcherYAAAJena {
     public BackgroundMatcher(SemanticWordRelationDictionary knowledgeSourceToBeUsed, ImplementedBackgroundMatchingStrategies strategy, double threshold) {
         this.knowledgeSource = knowledgeSourceToBeUsed;
         this.isSynonymyConfidenceAvailable = this.knowledgeSource instanceof SynonymConfidenceCapability;
-        this.linker = this.knowledgeSource.getLinker();
+        // the links are cached because the same labels are linked multiple times (e.g. in both ontologies)
+        this.linker = this.knowledgeSource.getLinker() instanceof CachingLabelToConceptLinker ?
+                this.knowledgeSource.getLinker() : new CachingLabelToConceptLinker(this.knowledgeSource.getLinker());
         this.strategy = strategy;
         this.threshold = threshold;
         this.valueExtractor = new TextExtractorAllAnnotationProperties();
@@ -493,6 +496,8 @@ public class BackgroundMatcher extends MatcherYAAAJena {
      */
     private Map<String, List<Set<String>>> convertToUriLinksMap(Map<String, Set<String>> uris2labels, boolean isSourceOntology) {
         HashMap<String, List<Set<String>>> result = new HashMap<>();
+        List<Map.Entry<String, Set<String>>> entriesToLink = new ArrayList<>();
+        List<String> labelsToLink = new ArrayList<>();
         for (HashMap.Entry<String, Set<String>> uri2labels : uris2labels.entrySet()) {
 
             // filter out what has been mapped before
@@ -503,11 +508,21 @@ public class BackgroundMatcher extends MatcherYAAAJena {
                     continue;
                 }
             }
+            entriesToLink.add(uri2labels);
+            for (String label : uri2labels.getValue()) {
+                if (StringOperations.tokenizeBestGuess(label).length < multiConceptLinkerUpperLimit) {
+                    labelsToLink.add(label);
+                }
+            }
+        }
 
+        // link all labels of the ontology at once
+        Map<String, Set<String>> links = linker.linkToPotentiallyMultipleConceptsBulk(labelsToLink);
+        for (Map.Entry<String, Set<String>> uri2labels : entriesToLink) {
             List<Set<String>> list = new LinkedList<>();
             for (String label : uri2labels.getValue()) {
                 if (StringOperations.tokenizeBestGuess(label).length < multiConceptLinkerUpperLimit) {
-                    Set<String> linkedConcepts = linker.linkToPotentiallyMultipleConcepts(label);
+                    Set<String> linkedConcepts = links.get(label);
                     if (linkedConcepts != null) {
                         list.add(linkedConcepts);
                     }
@@ -549,6 +564,8 @@ public class BackgroundMatcher extends MatcherYAAAJena {
      */
     private HashMap<String, Set<String>> convertToUriLinkMap(Map<String, Set<String>> uri2labels, boolean isSourceOntology) {
         HashMap<String, Set<String>> result = new HashMap<>();
+        List<Map.Entry<String, Set<String>>> entriesToLink = new ArrayList<>();
+        List<String> labelsToLink = new ArrayList<>();
         for (Map.Entry<String, Set<String>> uri2label : uri2labels.entrySet()) {
 
             // check whether already mapped (intuition: do not map something that has been mapped before by more accurate algorithm)
@@ -559,13 +576,19 @@ public class BackgroundMatcher extends MatcherYAAAJena {
                     continue;
                 }
             }
+            entriesToLink.add(uri2label);
+            labelsToLink.addAll(uri2label.getValue());
+        }
 
+        // link all labels of the ontology at once
+        Map<String, String> allLinks = linker.linkToSingleConceptBulk(labelsToLink);
+        for (Map.Entry<String, Set<String>> uri2label : entriesToLink) {
             Set<String> links = new HashSet();
             for (String label : uri2label.getValue()) {
-                if (label == null && label.trim().length() == 0) {
+                if (label == null || label.trim().length() == 0) {
                     continue;
                 }
-                String linkedConcept = linker.linkToSingleConcept(label);
+                String linkedConcept = allLinks.get(label);
                 if (linkedConcept != null) {
                     links.add(linkedConcept);
                 }
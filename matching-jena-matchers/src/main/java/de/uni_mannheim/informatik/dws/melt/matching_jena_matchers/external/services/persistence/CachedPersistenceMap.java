@@ -0,0 +1,283 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent map which puts a size-bounded on-heap cache in front of a persistent (MapDB) map.
+ * <ul>
+ * <li>Reads are answered from the on-heap cache if possible (no deserialization). Keys which do not exist in the
+ * persistent map are also cached, such that repeated lookups of unknown keys do not hit the persistent map.</li>
+ * <li>Writes are applied to the cache and collected in a write-behind buffer. The buffer is written to the persistent map
+ * in one batch with {@link #flush()} (which is called periodically by the {@link PersistenceService}).</li>
+ * </ul>
+ * Values which are returned by this map are shared between all callers and should not be modified.
+ * Methods which iterate over the whole map (like {@link #size()} or {@link #entrySet()}) flush the buffer first
+ * and are answered by the persistent map.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public class CachedPersistenceMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+    /**
+     * Marker for keys which do not exist (in the cache) or which are removed (in the write-behind buffer).
+     */
+    private static final Object ABSENT = new Object();
+
+    private final ConcurrentMap<K, V> persistentMap;
+    private final Cache<K, Object> cache;
+    private final ConcurrentMap<K, Object> writeBehind;
+    private final Object writeLock = new Object();
+
+    /**
+     * Serializes the flushes: a flush which reads an old value of the buffer must not write it after
+     * a later flush already wrote the new value.
+     */
+    private final Object flushLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder persistentHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructor
+     * @param persistentMap the persistent map (usually a MapDB map)
+     * @param maximumCacheSize the maximum number of entries in the on-heap cache.
+     */
+    public CachedPersistenceMap(ConcurrentMap<K, V> persistentMap, long maximumCacheSize) {
+        this.persistentMap = persistentMap;
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximumCacheSize).build();
+        this.writeBehind = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if(key == null)
+            return null;
+        Object value = lookup((K) key);
+        return value == ABSENT ? null : (V) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(Object key) {
+        if(key == null)
+            return false;
+        return lookup((K) key) != ABSENT;
+    }
+
+    private Object lookup(K key) {
+        Object value = this.cache.getIfPresent(key);
+        if(value != null){
+            this.hits.increment();
+            return value;
+        }
+        try {
+            //the loader is executed only once per key even if multiple threads request it at the same time.
+            //A concurrent put replaces the loaded value.
+            return this.cache.get(key, () -> load(key));
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Could not load value from persistence.", ex.getCause());
+        }
+    }
+
+    private Object load(K key) {
+        //the write-behind buffer needs to be checked first because the entries are only removed from it after they are persisted.
+        Object value = this.writeBehind.get(key);
+        if(value != null){
+            this.hits.increment();
+            return value;
+        }
+        value = this.persistentMap.get(key);
+        if(value == null){
+            this.misses.increment();
+            return ABSENT;
+        }
+        this.persistentHits.increment();
+        return value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        synchronized(this.writeLock){
+            V previous = get(key);
+            this.writeBehind.put(key, value);
+            this.cache.put(key, value);
+            return previous;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if(key == null)
+            return null;
+        synchronized(this.writeLock){
+            V previous = get(key);
+            if(previous != null){
+                this.writeBehind.put((K) key, ABSENT);
+                this.cache.put((K) key, ABSENT);
+            }
+            return previous;
+        }
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        synchronized(this.writeLock){
+            V previous = get(key);
+            if(previous == null)
+                put(key, value);
+            return previous;
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        synchronized(this.writeLock){
+            V previous = get(key);
+            if(previous != null && previous.equals(value)){
+                remove(key);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        synchronized(this.writeLock){
+            V previous = get(key);
+            if(previous != null && previous.equals(oldValue)){
+                put(key, newValue);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        synchronized(this.writeLock){
+            V previous = get(key);
+            if(previous != null)
+                put(key, value);
+            return previous;
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized(this.flushLock){
+            synchronized(this.writeLock){
+                this.writeBehind.clear();
+                this.persistentMap.clear();
+                this.cache.invalidateAll();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        flush();
+        return this.persistentMap.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        flush();
+        return this.persistentMap.isEmpty();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        flush();
+        return Collections.unmodifiableSet(this.persistentMap.entrySet());
+    }
+
+    /**
+     * Writes all buffered changes to the persistent map.
+     * Concurrent flushes are serialized. This does not commit the persistent map.
+     * @return the number of written entries
+     */
+    @SuppressWarnings("unchecked")
+    public int flush() {
+        synchronized(this.flushLock){
+            int written = 0;
+            for(Map.Entry<K, Object> entry : this.writeBehind.entrySet()){
+                K key = entry.getKey();
+                Object value = entry.getValue();
+                if(value == ABSENT){
+                    this.persistentMap.remove(key);
+                }else{
+                    this.persistentMap.put(key, (V) value);
+                }
+                //only remove it from the buffer if it was not changed in the meantime
+                this.writeBehind.remove(key, value);
+                written++;
+            }
+            return written;
+        }
+    }
+
+    /**
+     * Returns the number of changes which are not yet written to the persistent map.
+     * @return number of buffered changes
+     */
+    public int getNumberOfBufferedChanges() {
+        return this.writeBehind.size();
+    }
+
+    /**
+     * Returns the number of lookups which were answered from memory (without accessing the persistent map).
+     * @return the number of in-memory hits
+     */
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups which were answered by the persistent map (and deserialized).
+     * @return the number of persistent hits
+     */
+    public long getPersistentHitCount() {
+        return this.persistentHits.sum();
+    }
+
+    /**
+     * Returns the number of lookups for keys which do not exist (these are cached as well).
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Returns the share of lookups which were answered from memory.
+     * @return the in-memory hit rate (between 0 and 1)
+     */
+    public double getHitRate() {
+        long hitCount = getHitCount();
+        long total = hitCount + getPersistentHitCount() + getMissCount();
+        return total == 0 ? 1.0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CachedPersistenceMap(hits=" + getHitCount() + ", persistentHits=" + getPersistentHitCount()
+                + ", misses=" + getMissCount() + ", bufferedChanges=" + getNumberOfBufferedChanges() + ")";
+    }
+}
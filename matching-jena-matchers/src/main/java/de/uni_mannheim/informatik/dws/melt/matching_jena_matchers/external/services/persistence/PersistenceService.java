@@ -1,6 +1,7 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.dataStructures.StringString;
+import de.uni_mannheim.informatik.dws.melt.matching_ml.python.nlptransformers.TransformersPredictionCache;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
 import org.mapdb.Serializer;
@@ -11,11 +12,21 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 
 /**
  * A simple persistence service offering stripped-down database operations to other applications.
+ * <p>
+ * By default, each map is wrapped in a {@link CachedPersistenceMap}: an on-heap cache (see {@link #setInMemoryCacheSize(long)})
+ * with write-behind buffering. The buffered changes are written and committed periodically in a background thread
+ * (see {@link #setCommitIntervalInMilliseconds(long)}). Thus {@link #commit(PreconfiguredPersistences)} does not block.
+ * Closing a database or the service writes and commits all changes synchronously.
  */
 public class PersistenceService {
 
@@ -27,6 +38,16 @@ public class PersistenceService {
 
     public static String persistenceDirectory;
 
+    /**
+     * Default number of entries in the on-heap cache of each map.
+     */
+    public static final long DEFAULT_IN_MEMORY_CACHE_SIZE = 100_000;
+
+    /**
+     * Default interval between two asynchronous commits.
+     */
+    public static final long DEFAULT_COMMIT_INTERVAL_IN_MILLISECONDS = 10_000;
+
     /**
      * Logger.
      */
@@ -42,11 +63,45 @@ public class PersistenceService {
      */
     private Map<PreconfiguredPersistences, DB> activeDatabases;
 
+    /**
+     * Map of all cached maps (only if the in-memory cache is enabled).
+     */
+    private Map<PreconfiguredPersistences, CachedPersistenceMap<?, ?>> cachedMaps;
+
+    /**
+     * The persistences which should be committed in the next asynchronous commit.
+     */
+    private Set<PreconfiguredPersistences> commitRequests;
+
+    /**
+     * Number of entries in the on-heap cache of each map (zero to disable the cache).
+     */
+    private long inMemoryCacheSize;
+
+    /**
+     * Interval between two asynchronous commits.
+     */
+    private long commitIntervalInMilliseconds;
+
+    /**
+     * Executor which runs the asynchronous commits (created with the first cached map).
+     */
+    private ScheduledExecutorService commitExecutor;
+
+    /**
+     * True if the shutdown hook which closes the service is registered.
+     */
+    private boolean shutdownHookRegistered;
+
     /**
      * Private constructor, singleton pattern.
      */
     private PersistenceService(String persistenceDirectory) {
         activeDatabases = new HashMap<>();
+        cachedMaps = new ConcurrentHashMap<>();
+        commitRequests = ConcurrentHashMap.newKeySet();
+        inMemoryCacheSize = DEFAULT_IN_MEMORY_CACHE_SIZE;
+        commitIntervalInMilliseconds = DEFAULT_COMMIT_INTERVAL_IN_MILLISECONDS;
         if (persistenceDirectory != null) {
             PersistenceService.persistenceDirectory = persistenceDirectory;
         } else PersistenceService.persistenceDirectory = DEFAULT_PERSISTENCE_DIRECTORY;
@@ -98,12 +153,18 @@ public class PersistenceService {
 
     /**
      * Obtain a pre-configured persistence.
+     * If the in-memory cache is enabled, the returned map is a {@link CachedPersistenceMap} and
+     * the same instance is returned for the same persistence.
      *
      * @param desiredPersistence The persistence that shall be obtained.
      * @return Database
      */
-    public ConcurrentMap getMapDatabase(PreconfiguredPersistences desiredPersistence) {
+    public synchronized ConcurrentMap getMapDatabase(PreconfiguredPersistences desiredPersistence) {
         if (activeDatabases.containsKey(desiredPersistence)) {
+            CachedPersistenceMap<?, ?> cachedMap = cachedMaps.get(desiredPersistence);
+            if (cachedMap != null) {
+                return cachedMap;
+            }
             return activeDatabases.get(desiredPersistence)
                     .hashMap("map", desiredPersistence.getKeySerializer(), desiredPersistence.getValueSerializer())
                     .open();
@@ -112,27 +173,152 @@ public class PersistenceService {
         if (new File(desiredPersistence.getFilePath()).getParentFile().mkdir()) {
             LOGGER.info("Persistence Directory Created");
         }
-        DB db;
-        db = DBMaker
+        DBMaker.Maker maker = DBMaker
                 .fileDB(desiredPersistence.getFilePath())
                 .fileMmapEnable()
                 //.fileLockDisable() // ignore file lock
-                .transactionEnable()
+                .transactionEnable();
                 //.checksumHeaderBypass() // ignore header checksum (should work in *most* cases in which writing was interrupted
-                .closeOnJvmShutdown()
-                .make();
+        if (inMemoryCacheSize <= 0) {
+            maker = maker.closeOnJvmShutdown();
+        }
+        DB db = maker.make();
         activeDatabases.put(desiredPersistence, db);
-        return db
+        @SuppressWarnings("unchecked") // the serializers of the preconfigured persistences are not typed
+        ConcurrentMap<Object, Object> map = db
                 .hashMap("map", desiredPersistence.getKeySerializer(), desiredPersistence.getValueSerializer())
                 .createOrOpen();
+        if (inMemoryCacheSize <= 0) {
+            return map;
+        }
+        CachedPersistenceMap<Object, Object> cachedMap = new CachedPersistenceMap<>(map, inMemoryCacheSize);
+        cachedMaps.put(desiredPersistence, cachedMap);
+        startCommitExecutor();
+        return cachedMap;
     }
 
+    /**
+     * Commits the given persistence.
+     * If the in-memory cache is enabled, the commit is executed asynchronously (together with the
+     * buffered changes) in the next commit interval.
+     *
+     * @param persistence The persistence to be committed.
+     */
     public void commit(PreconfiguredPersistences persistence) {
-        if (!activeDatabases.containsKey(persistence)) {
-            LOGGER.warn("Cannot commit for " + persistence + " - DB not active.");
+        if (cachedMaps.containsKey(persistence)) {
+            commitRequests.add(persistence);
             return;
         }
-        activeDatabases.get(persistence).commit();
+        synchronized (this) {
+            if (!activeDatabases.containsKey(persistence)) {
+                LOGGER.warn("Cannot commit for " + persistence + " - DB not active.");
+                return;
+            }
+            activeDatabases.get(persistence).commit();
+        }
+    }
+
+    private void startCommitExecutor() {
+        if (commitExecutor != null) {
+            return;
+        }
+        commitExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PersistenceServiceCommit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        commitExecutor.scheduleWithFixedDelay(this::commitRequested,
+                commitIntervalInMilliseconds, commitIntervalInMilliseconds, TimeUnit.MILLISECONDS);
+        if (!shutdownHookRegistered) {
+            // the MapDB shutdown hook is not used for cached maps because the buffered changes need to be written first
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closePersistenceService, "PersistenceServiceShutdown"));
+            shutdownHookRegistered = true;
+        }
+    }
+
+    /**
+     * Writes the buffered changes and commits all persistences for which a commit was requested.
+     */
+    private synchronized void commitRequested() {
+        for (Map.Entry<PreconfiguredPersistences, CachedPersistenceMap<?, ?>> entry : cachedMaps.entrySet()) {
+            if (!commitRequests.remove(entry.getKey())) {
+                continue;
+            }
+            DB db = activeDatabases.get(entry.getKey());
+            if (db == null || db.isClosed()) {
+                continue;
+            }
+            try {
+                entry.getValue().flush();
+                db.commit();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Asynchronous commit of " + entry.getKey() + " failed. Retry in next interval.", e);
+                commitRequests.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Returns a persistent cache for the scores of transformer models which can be set in
+     * {@link de.uni_mannheim.informatik.dws.melt.matching_ml.python.nlptransformers.TransformersFilter#setPredictionCache(TransformersPredictionCache)}.
+     * The same cache can be used by multiple filters (also in different threads).
+     *
+     * @return The prediction cache backed by {@link PreconfiguredPersistences#TRANSFORMERS_PREDICTION_BUFFER}.
+     */
+    public TransformersPredictionCache getTransformersPredictionCache() {
+        ConcurrentMap<String, Double> scores = getMapDatabase(PreconfiguredPersistences.TRANSFORMERS_PREDICTION_BUFFER);
+        return new TransformersPredictionCache(scores, () -> commit(PreconfiguredPersistences.TRANSFORMERS_PREDICTION_BUFFER));
+    }
+
+    /**
+     * Returns the cached map of the given persistence (to obtain the cache statistics).
+     *
+     * @param persistence The persistence.
+     * @return The cached map or null if the persistence is not active or the in-memory cache is disabled.
+     */
+    public CachedPersistenceMap<?, ?> getCachedMap(PreconfiguredPersistences persistence) {
+        return cachedMaps.get(persistence);
+    }
+
+    /**
+     * Returns the number of entries in the on-heap cache of each map.
+     *
+     * @return The cache size (zero if the cache is disabled).
+     */
+    public long getInMemoryCacheSize() {
+        return inMemoryCacheSize;
+    }
+
+    /**
+     * Sets the number of entries in the on-heap cache of each map. Only applies to databases which are opened afterwards.
+     * Default is {@link #DEFAULT_IN_MEMORY_CACHE_SIZE}.
+     *
+     * @param inMemoryCacheSize The cache size. Zero disables the cache, the write-behind buffer and the asynchronous commits.
+     */
+    public void setInMemoryCacheSize(long inMemoryCacheSize) {
+        this.inMemoryCacheSize = inMemoryCacheSize;
+    }
+
+    /**
+     * Returns the interval between two asynchronous commits.
+     *
+     * @return Interval in milliseconds.
+     */
+    public long getCommitIntervalInMilliseconds() {
+        return commitIntervalInMilliseconds;
+    }
+
+    /**
+     * Sets the interval between two asynchronous commits. Only applies if set before the first database is opened.
+     * Default is {@link #DEFAULT_COMMIT_INTERVAL_IN_MILLISECONDS}.
+     *
+     * @param commitIntervalInMilliseconds Interval in milliseconds.
+     */
+    public void setCommitIntervalInMilliseconds(long commitIntervalInMilliseconds) {
+        if (commitIntervalInMilliseconds <= 0) {
+            throw new IllegalArgumentException("The commit interval needs to be greater than zero.");
+        }
+        this.commitIntervalInMilliseconds = commitIntervalInMilliseconds;
     }
 
     public String getPersistenceDirectory() {
@@ -144,12 +330,13 @@ public class PersistenceService {
      *
      * @param persistence The persistence to be closed.
      */
-    public void closeDatabase(PreconfiguredPersistences persistence) {
+    public synchronized void closeDatabase(PreconfiguredPersistences persistence) {
 
         if (!activeDatabases.containsKey(persistence)) {
             LOGGER.warn("Cannot close persistence " + persistence + " - not active.");
             return;
         }
+        flushCachedMap(persistence);
         if (!activeDatabases.get(persistence).isClosed()) {
             activeDatabases.get(persistence).commit();
         }
@@ -157,13 +344,24 @@ public class PersistenceService {
         activeDatabases.remove(persistence);
     }
 
+    private void flushCachedMap(PreconfiguredPersistences persistence) {
+        CachedPersistenceMap<?, ?> cachedMap = cachedMaps.remove(persistence);
+        commitRequests.remove(persistence);
+        if (cachedMap != null && !activeDatabases.get(persistence).isClosed()) {
+            cachedMap.flush();
+            LOGGER.info("Closing {}: {}", persistence, cachedMap);
+        }
+    }
+
     /**
      * Close all opened databases and shut down service.
      * Make sure that dependent services are also closed.
      */
-    public void closePersistenceService() {
+    public synchronized void closePersistenceService() {
         // close all databases
-        for (DB db : activeDatabases.values()) {
+        for (Map.Entry<PreconfiguredPersistences, DB> entry : activeDatabases.entrySet()) {
+            flushCachedMap(entry.getKey());
+            DB db = entry.getValue();
             if (!db.isClosed()) {
                 db.commit();
                 db.close();
@@ -171,6 +369,10 @@ public class PersistenceService {
         }
         // remove all active DBs
         activeDatabases = new HashMap<>();
+        if (commitExecutor != null) {
+            commitExecutor.shutdownNow();
+            commitExecutor = null;
+        }
     }
 
     /**
@@ -225,7 +427,13 @@ public class PersistenceService {
          * Stores the synonyms of BabelNet
          * Data Structure: String -&gt; {@code HashSet<String>}.
          */
-        BABELNET_HYPERNYMY_BUFFER;
+        BABELNET_HYPERNYMY_BUFFER,
+
+        /**
+         * Stores the scores which a transformer model predicts for a text pair (see {@link TransformersPredictionCache}).
+         * Data Structure: String -&gt; Double
+         */
+        TRANSFORMERS_PREDICTION_BUFFER;
 
         public Class getKeyClass() {
             switch (this) {
@@ -254,6 +462,7 @@ public class PersistenceService {
                 case WIKTIONARY_ASK_BUFFER:
                 case WIKTIONARY_TRANSLATION_BUFFER:
                 case WIKTIONARY_TRANSLATION_OF_BUFFER:
+                case TRANSFORMERS_PREDICTION_BUFFER:
                     return String.class;
             }
             return null;
@@ -286,6 +495,7 @@ public class PersistenceService {
                 case WIKTIONARY_ASK_BUFFER:
                 case WIKTIONARY_TRANSLATION_BUFFER:
                 case WIKTIONARY_TRANSLATION_OF_BUFFER:
+                case TRANSFORMERS_PREDICTION_BUFFER:
                     return Serializer.STRING;
             }
             return null;
@@ -320,6 +530,8 @@ public class PersistenceService {
                 case ALOD_CLASSIC_LABEL_URI_BUFFER:
                 case ALOD_XL_LABEL_URI_BUFFER:
                     return Serializer.STRING;
+                case TRANSFORMERS_PREDICTION_BUFFER:
+                    return Serializer.DOUBLE;
             }
             return null;
         }
@@ -379,6 +591,8 @@ public class PersistenceService {
                     return persistenceDirectory + File.separator + "wiktionary_translation_buffer.mapdb";
                 case WIKTIONARY_TRANSLATION_OF_BUFFER:
                     return persistenceDirectory + File.separator + "wiktionary_translation_of_buffer.mapdb";
+                case TRANSFORMERS_PREDICTION_BUFFER:
+                    return persistenceDirectory + File.separator + "transformers_prediction_buffer.mapdb";
             }
             return null;
         }
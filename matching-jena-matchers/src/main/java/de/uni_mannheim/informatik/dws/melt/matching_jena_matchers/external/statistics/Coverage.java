@@ -10,6 +10,9 @@ import java.util.Set;
 
 /**
  * This class allows to analyze the concept coverage given a data source.
+ * All entities are linked in one bulk operation of the linker.
+ * To reuse the links over multiple calls, wrap the linker in a
+ * {@link de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.CachingLabelToConceptLinker}.
  */
 public class Coverage {
 
@@ -24,8 +27,9 @@ public class Coverage {
     public static CoverageResult getCoveragePartialLabel(LabelToConceptLinker linker, Set<String> entities){
         Map<String, Set<String>>  conceptsFound = new HashMap<>();
         Set<String> conceptsNotFound = new HashSet<>();
+        Map<String, Set<String>> allLinks = linker.linkToPotentiallyMultipleConceptsBulk(entities);
         for (String concept : entities){
-            Set<String> links = linker.linkToPotentiallyMultipleConcepts(concept);
+            Set<String> links = allLinks.get(concept);
             if(links == null || links.size() == 0){
                 conceptsNotFound.add(concept);
             } else {
@@ -46,9 +50,10 @@ public class Coverage {
     public static CoverageResult getCoverageFullLabel(LabelToConceptLinker linker, Set<String> entities){
         Map<String, Set<String>>  conceptsFound = new HashMap<>();
         Set<String> conceptsNotFound = new HashSet<>();
+        Map<String, String> allLinks = linker.linkToSingleConceptBulk(entities);
         for (String concept : entities){
             Set<String> links = new HashSet<>();
-            String link = linker.linkToSingleConcept(concept);
+            String link = allLinks.get(concept);
             if(link == null || link.equals("")){
                 conceptsNotFound.add(concept);
             } else {
@@ -13,7 +13,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -33,6 +36,11 @@ public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(WiktionaryKnowledgeSource.class);
 
+    /**
+     * Maximal number of words which are looked up in one query by {@link #isInDictionaryBulk(Collection, Language)}.
+     */
+    public static final int BULK_QUERY_SIZE = 100;
+
     /**
      * Service responsible for disk buffers.
      */
@@ -210,6 +218,66 @@ public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
         return result;
     }
 
+    /**
+     * Looks up the existence of all given words in one set-oriented operation (one query per {@link #BULK_QUERY_SIZE}
+     * words) and stores the results in the buffer used by {@link #isInDictionary(String, Language)}.
+     * Words which are already buffered are not queried again. If a query fails, the corresponding words are not buffered
+     * and will be looked up individually later on.
+     *
+     * @param words    The words to be looked up.
+     * @param language The language of the words.
+     */
+    public void isInDictionaryBulk(Collection<String> words, Language language) {
+        if(words == null || language == null){
+            return;
+        }
+        List<String> missing = new ArrayList<>();
+        Set<String> distinct = new HashSet<>();
+        for(String word : words){
+            if(word == null)
+                continue;
+            String encoded = encodeWord(word);
+            if(encoded.isEmpty() || distinct.add(encoded) == false)
+                continue;
+            if(askBuffer.containsKey("in_dict_" + encoded + "_" + language.toSparqlChar2()) == false){
+                missing.add(encoded);
+            }
+        }
+        String prefix = "http://kaiko.getalp.org/dbnary/" + language.toWiktionaryChar3() + "/";
+        for(int start = 0; start < missing.size(); start += BULK_QUERY_SIZE){
+            List<String> chunk = missing.subList(start, Math.min(missing.size(), start + BULK_QUERY_SIZE));
+            StringBuilder queryString = new StringBuilder("SELECT DISTINCT ?w WHERE { VALUES ?w {");
+            for(String word : chunk){
+                queryString.append(" <").append(prefix).append(word).append(">");
+            }
+            queryString.append(" } ?w ?p ?o . }");
+            Set<String> found = new HashSet<>();
+            try {
+                Query query = QueryFactory.create(queryString.toString());
+                QueryExecution queryExecution;
+                if (isUseTdb) {
+                    queryExecution = QueryExecutionFactory.create(query, tdbDataset);
+                } else {
+                    queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
+                }
+                ResultSet queryResult = queryExecution.execSelect();
+                while (queryResult.hasNext()) {
+                    found.add(queryResult.next().getResource("w").getURI().substring(prefix.length()));
+                }
+                queryExecution.close();
+            } catch (Exception e){
+                LOGGER.warn("An error occurred while trying to look up {} words in bulk. They are looked up individually later on.", chunk.size());
+                continue;
+            }
+            for(String word : chunk){
+                askBuffer.put("in_dict_" + word + "_" + language.toSparqlChar2(), found.contains(word));
+            }
+        }
+        if(missing.isEmpty() == false){
+            commit(WIKTIONARY_ASK_BUFFER);
+        }
+    }
+
     /**
      * Checks for synonymy by determining whether link1 is contained in the set of synonymous words of link2 or
      * vice versa.
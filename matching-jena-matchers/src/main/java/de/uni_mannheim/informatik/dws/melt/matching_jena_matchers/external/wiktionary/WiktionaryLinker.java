@@ -10,8 +10,12 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.servi
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.stringOperations.StringOperations;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This linker can link strings to dictionary entries. 
@@ -95,6 +99,54 @@ public class WiktionaryLinker implements LabelToConceptLinker {
 		return null;
 	}
 
+	/**
+	 * All variants (of all labels) are looked up in the dictionary in bulk before the labels are linked.
+	 * @param labelsToBeLinked The labels which shall be linked.
+	 * @return Map from label to concept. Labels which could not be linked are not contained.
+	 */
+	@Override
+	public Map<String, String> linkToSingleConceptBulk(Collection<String> labelsToBeLinked) {
+		Set<String> labels = LabelToConceptLinker.distinctLabels(labelsToBeLinked);
+		dictionary.isInDictionaryBulk(getVariants(labels), Language.ENGLISH);
+		return LabelToConceptLinker.super.linkToSingleConceptBulk(labels);
+	}
+
+	/**
+	 * The variants of all token n-grams (of all labels) are looked up in the dictionary in bulk before the labels are linked.
+	 * @param labelsToBeLinked The labels which shall be linked.
+	 * @return Map from label to concepts. Labels which could not be (fully) linked are not contained.
+	 */
+	@Override
+	public Map<String, Set<String>> linkToPotentiallyMultipleConceptsBulk(Collection<String> labelsToBeLinked) {
+		Set<String> labels = LabelToConceptLinker.distinctLabels(labelsToBeLinked);
+		Set<String> nGrams = new HashSet<>();
+		for(String label : labels) {
+			String[] tokens = StringOperations.tokenizeBestGuess(label);
+			for(int start = 0; start < tokens.length; start++) {
+				for(int end = start + 1; end <= tokens.length; end++) {
+					nGrams.add(String.join("_", Arrays.copyOfRange(tokens, start, end)));
+				}
+			}
+		}
+		dictionary.isInDictionaryBulk(getVariants(nGrams), Language.ENGLISH);
+		return LabelToConceptLinker.super.linkToPotentiallyMultipleConceptsBulk(labels);
+	}
+
+	/**
+	 * Applies all string modifiers to all labels.
+	 * @param labels The labels.
+	 * @return The distinct modified labels.
+	 */
+	private Set<String> getVariants(Collection<String> labels) {
+		Set<String> variants = new HashSet<>();
+		for(String label : labels) {
+			for(StringModifier modifier : stringModificationSequence) {
+				variants.add(modifier.modifyString(label));
+			}
+		}
+		return variants;
+	}
+
 	/**
 	 * Splits the labelToBeLinked in ngrams up to infinite size and tries to link components.
 	 * This corresponds to a MAXGRAM_LEFT_TO_RIGHT_TOKENIZER or NGRAM_LEFT_TO_RIGHT_TOKENIZER OneToManyLinkingStrategy.
@@ -0,0 +1,485 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.wordNet;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.IndexWord;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.data.Pointer;
+import net.sf.extjwnl.data.PointerType;
+import net.sf.extjwnl.data.Synset;
+import net.sf.extjwnl.data.Word;
+import net.sf.extjwnl.dictionary.Dictionary;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * WordNet knowledge source which is backed by a compiled, memory mapped index instead of the extjwnl object graph.
+ * The index is created once with {@link #compile(File)} (or {@link #compile(Dictionary, File)}) and flattens the lemmas,
+ * their senses (per part of speech), the words of each synset, the direct hypernyms, and the transitive hypernym closure
+ * of each synset into primitive int arrays. All requests are answered with binary searches and array lookups.
+ * <p>
+ * The results are the same as the ones of {@link WordNetKnowledgeSource} for the dictionary which was compiled.
+ * In contrast to the latter, this knowledge source does not buffer any results and is thread safe
+ * (the linker returned by {@link #getLinker()} still uses a non synchronized buffer).
+ */
+public class CompiledWordNetKnowledgeSource extends WordNetKnowledgeSource {
+
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CompiledWordNetKnowledgeSource.class);
+
+	private static final int MAGIC = 0x4D574E54; // MWNT
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 4 * 9;
+
+	/**
+	 * The parts of speech in the order in which the senses are stored.
+	 */
+	private static final POS[] PARTS_OF_SPEECH = {POS.NOUN, POS.VERB, POS.ADJECTIVE, POS.ADVERB};
+	private static final int NOUN = 0;
+
+	private final ByteBuffer buffer;
+	private final int numberOfStrings;
+	private final int stringOffsets;
+	private final int senseOffsets;
+	private final int senses;
+	private final int wordOffsets;
+	private final int words;
+	private final int hypernymOffsets;
+	private final int hypernyms;
+	private final int closureOffsets;
+	private final int closure;
+	private final int stringData;
+
+	/**
+	 * Constructor
+	 * @param compiledIndex the file created by one of the compile methods.
+	 * @throws IOException if the file can not be read or is not a compiled WordNet index.
+	 */
+	public CompiledWordNetKnowledgeSource(File compiledIndex) throws IOException {
+		super(null);
+		try (FileChannel channel = FileChannel.open(compiledIndex.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("The compiled WordNet index is larger than 2 GB.");
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+			throw new IOException("The file is not a compiled WordNet index.");
+		if (buffer.getInt(4) != VERSION)
+			throw new IOException("The compiled WordNet index has an unsupported version: " + buffer.getInt(4));
+		this.numberOfStrings = buffer.getInt(8);
+		int numberOfSynsets = buffer.getInt(12);
+		this.stringOffsets = HEADER_SIZE;
+		this.senseOffsets = this.stringOffsets + 4 * (numberOfStrings + 1);
+		this.senses = this.senseOffsets + 4 * (PARTS_OF_SPEECH.length * numberOfStrings + 1);
+		this.wordOffsets = this.senses + 4 * buffer.getInt(16);
+		this.words = this.wordOffsets + 4 * (numberOfSynsets + 1);
+		this.hypernymOffsets = this.words + 4 * buffer.getInt(20);
+		this.hypernyms = this.hypernymOffsets + 4 * (numberOfSynsets + 1);
+		this.closureOffsets = this.hypernyms + 4 * buffer.getInt(24);
+		this.closure = this.closureOffsets + 4 * (numberOfSynsets + 1);
+		this.stringData = this.closure + 4 * buffer.getInt(28);
+		if ((long) this.stringData + buffer.getInt(32) != buffer.capacity())
+			throw new IOException("The compiled WordNet index is truncated or corrupt.");
+	}
+
+	@Override
+	public boolean isInDictionary(String word) {
+		if (word == null || word.length() == 0) {
+			return false;
+		}
+		int lemma = findLemma(word);
+		return lemma >= 0 && senseStart(lemma, 0) < senseStart(lemma, PARTS_OF_SPEECH.length);
+	}
+
+	@Override
+	public Set<String> getSynonymsLexical(String linkedConcept) {
+		return getSynonyms(linkedConcept, 0, PARTS_OF_SPEECH.length);
+	}
+
+	@Override
+	public HashSet<String> getSynonyms(String word, POS partOfSpeech) {
+		int pos = Arrays.asList(PARTS_OF_SPEECH).indexOf(partOfSpeech);
+		if (pos < 0)
+			return new HashSet<>();
+		return getSynonyms(word, pos, pos + 1);
+	}
+
+	private HashSet<String> getSynonyms(String word, int fromPos, int toPos) {
+		HashSet<String> result = new HashSet<>();
+		int lemma = word == null ? -1 : findLemma(word);
+		if (lemma < 0)
+			return result;
+		for (int i = senseStart(lemma, fromPos); i < senseStart(lemma, toPos); i++) {
+			addWords(getInt(senses, i), result);
+		}
+		return result;
+	}
+
+	@Override
+	@NotNull
+	public HashSet<String> getHypernyms(String linkedConcept) {
+		HashSet<String> result = new HashSet<>();
+		int lemma = linkedConcept == null ? -1 : findLemma(linkedConcept);
+		if (lemma < 0)
+			return result;
+		for (int i = senseStart(lemma, NOUN); i < senseStart(lemma, NOUN + 1); i++) {
+			int synset = getInt(senses, i);
+			for (int j = getInt(hypernymOffsets, synset); j < getInt(hypernymOffsets, synset + 1); j++) {
+				addWords(getInt(hypernyms, j), result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether one of the noun senses of superConcept is a (direct or indirect) hypernym of one of the noun senses
+	 * of subConcept. In contrast to {@link #isHypernym(String, String, int)}, the hypernymy is followed on the synset
+	 * level (and not on the lemma level) without any depth restriction.
+	 * @param superConcept The linked super concept.
+	 * @param subConcept The linked sub concept.
+	 * @return True if superConcept is a transitive hypernym of subConcept.
+	 */
+	public boolean isHypernymTransitive(String superConcept, String subConcept) {
+		if (superConcept == null || subConcept == null)
+			return false;
+		int superLemma = findLemma(superConcept);
+		int subLemma = findLemma(subConcept);
+		if (superLemma < 0 || subLemma < 0)
+			return false;
+		for (int i = senseStart(subLemma, NOUN); i < senseStart(subLemma, NOUN + 1); i++) {
+			int synset = getInt(senses, i);
+			int from = getInt(closureOffsets, synset);
+			int to = getInt(closureOffsets, synset + 1);
+			for (int j = senseStart(superLemma, NOUN); j < senseStart(superLemma, NOUN + 1); j++) {
+				if (binarySearch(closure, from, to, getInt(senses, j)))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	@NotNull
+	@Override
+	public Set<String> getIdGivenLink(String link) {
+		return new HashSet<>();
+	}
+
+	@Override
+	public void close() {
+		// nothing to do: the mapped buffer is released by the garbage collector
+	}
+
+	@Override
+	public String getName() {
+		return "WordNet";
+	}
+
+	private void addWords(int synset, Set<String> result) {
+		for (int i = getInt(wordOffsets, synset); i < getInt(wordOffsets, synset + 1); i++) {
+			result.add(getString(getInt(words, i)));
+		}
+	}
+
+	private int senseStart(int lemma, int pos) {
+		return getInt(senseOffsets, PARTS_OF_SPEECH.length * lemma + pos);
+	}
+
+	private int getInt(int section, int index) {
+		return buffer.getInt(section + 4 * index);
+	}
+
+	private boolean binarySearch(int section, int from, int to, int value) {
+		int low = from;
+		int high = to - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int current = getInt(section, middle);
+			if (current < value) {
+				low = middle + 1;
+			} else if (current > value) {
+				high = middle - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private String getString(int index) {
+		int start = getInt(stringOffsets, index);
+		byte[] bytes = new byte[getInt(stringOffsets, index + 1) - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(stringData + start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the index of the given lemma (normalized like extjwnl: trimmed and lowercased) or -1 if it is not contained.
+	 */
+	private int findLemma(String lemma) {
+		byte[] key = lemma.trim().toLowerCase().getBytes(StandardCharsets.UTF_8);
+		int low = 0;
+		int high = numberOfStrings - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int start = stringData + getInt(stringOffsets, middle);
+			int length = getInt(stringOffsets, middle + 1) - getInt(stringOffsets, middle);
+			int comparison = 0;
+			for (int i = 0; i < Math.min(length, key.length) && comparison == 0; i++) {
+				comparison = Integer.compare(buffer.get(start + i) & 0xFF, key[i] & 0xFF);
+			}
+			if (comparison == 0)
+				comparison = Integer.compare(length, key.length);
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Compiles the default WordNet dictionary of extjwnl into the given file.
+	 * @param output the file to write the compiled index to
+	 * @throws IOException if the file can not be written
+	 * @throws JWNLException if WordNet can not be read
+	 */
+	public static void compile(File output) throws IOException, JWNLException {
+		Dictionary dictionary = Dictionary.getDefaultResourceInstance();
+		try {
+			compile(dictionary, output);
+		} finally {
+			dictionary.close();
+		}
+	}
+
+	/**
+	 * Compiles the given WordNet dictionary into the given file.
+	 * @param dictionary the extjwnl dictionary
+	 * @param output the file to write the compiled index to
+	 * @throws IOException if the file can not be written
+	 * @throws JWNLException if WordNet can not be read
+	 */
+	public static void compile(Dictionary dictionary, File output) throws IOException, JWNLException {
+		LOGGER.info("Start compiling WordNet index.");
+		//synsets are identified by part of speech and offset
+		Map<Long, Integer> synsetIds = new HashMap<>();
+		List<List<String>> synsetWords = new ArrayList<>();
+		List<long[]> synsetHypernymKeys = new ArrayList<>();
+		for (int pos = 0; pos < PARTS_OF_SPEECH.length; pos++) {
+			Iterator<Synset> synsets = dictionary.getSynsetIterator(PARTS_OF_SPEECH[pos]);
+			while (synsets.hasNext()) {
+				Synset synset = synsets.next();
+				synsetIds.put(synsetKey(pos, synset.getOffset()), synsetWords.size());
+				List<String> lemmas = new ArrayList<>();
+				for (Word w : synset.getWords()) {
+					lemmas.add(w.getLemma());
+				}
+				synsetWords.add(lemmas);
+				List<Pointer> pointers = synset.getPointers(PointerType.HYPERNYM);
+				long[] hypernymKeys = new long[pointers.size()];
+				for (int i = 0; i < pointers.size(); i++) {
+					Pointer pointer = pointers.get(i);
+					hypernymKeys[i] = synsetKey(Arrays.asList(PARTS_OF_SPEECH).indexOf(pointer.getTargetPOS()), pointer.getTargetOffset());
+				}
+				synsetHypernymKeys.add(hypernymKeys);
+			}
+		}
+
+		//lemmas of the index words with their senses per part of speech
+		Map<String, int[][]> lemmaSenses = new HashMap<>();
+		for (int pos = 0; pos < PARTS_OF_SPEECH.length; pos++) {
+			Iterator<IndexWord> indexWords = dictionary.getIndexWordIterator(PARTS_OF_SPEECH[pos]);
+			while (indexWords.hasNext()) {
+				IndexWord indexWord = indexWords.next();
+				long[] offsets = indexWord.getSynsetOffsets();
+				int[] ids = new int[offsets.length];
+				int size = 0;
+				for (long offset : offsets) {
+					Integer id = synsetIds.get(synsetKey(pos, offset));
+					if (id != null)
+						ids[size++] = id;
+				}
+				lemmaSenses.computeIfAbsent(indexWord.getLemma(), k -> new int[PARTS_OF_SPEECH.length][])[pos] = Arrays.copyOf(ids, size);
+			}
+		}
+
+		//all strings sorted by their unsigned UTF-8 bytes
+		TreeSet<byte[]> sortedStrings = new TreeSet<>(CompiledWordNetKnowledgeSource::compareUnsigned);
+		for (String lemma : lemmaSenses.keySet())
+			sortedStrings.add(lemma.getBytes(StandardCharsets.UTF_8));
+		for (List<String> lemmas : synsetWords)
+			for (String lemma : lemmas)
+				sortedStrings.add(lemma.getBytes(StandardCharsets.UTF_8));
+		Map<String, Integer> stringIds = new HashMap<>();
+		List<byte[]> strings = new ArrayList<>(sortedStrings);
+		for (int i = 0; i < strings.size(); i++)
+			stringIds.put(new String(strings.get(i), StandardCharsets.UTF_8), i);
+
+		int numberOfSynsets = synsetWords.size();
+		int[][] synsetHypernyms = new int[numberOfSynsets][];
+		for (int i = 0; i < numberOfSynsets; i++) {
+			long[] keys = synsetHypernymKeys.get(i);
+			int[] ids = new int[keys.length];
+			int size = 0;
+			for (long key : keys) {
+				Integer id = synsetIds.get(key);
+				if (id != null)
+					ids[size++] = id;
+			}
+			synsetHypernyms[i] = Arrays.copyOf(ids, size);
+		}
+		int[][] closures = computeClosures(synsetHypernyms);
+
+		long dataLength = 0;
+		for (byte[] string : strings)
+			dataLength += string.length;
+		int senseCount = 0;
+		for (int[][] perPos : lemmaSenses.values())
+			for (int[] ids : perPos)
+				senseCount += ids == null ? 0 : ids.length;
+		int wordCount = 0;
+		for (List<String> lemmas : synsetWords)
+			wordCount += lemmas.size();
+		long hypernymCount = 0;
+		long closureCount = 0;
+		for (int i = 0; i < numberOfSynsets; i++) {
+			hypernymCount += synsetHypernyms[i].length;
+			closureCount += closures[i].length;
+		}
+		long fileLength = HEADER_SIZE + 4L * (strings.size() + 1) + 4L * (PARTS_OF_SPEECH.length * strings.size() + 1) + 4L * senseCount
+				+ 12L * (numberOfSynsets + 1) + 4L * (wordCount + hypernymCount + closureCount) + dataLength;
+		if (fileLength > Integer.MAX_VALUE)
+			throw new IOException("The compiled WordNet index would be larger than 2 GB.");
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(strings.size());
+			out.writeInt(numberOfSynsets);
+			out.writeInt(senseCount);
+			out.writeInt(wordCount);
+			out.writeInt((int) hypernymCount);
+			out.writeInt((int) closureCount);
+			out.writeInt((int) dataLength);
+			//string offsets
+			int offset = 0;
+			out.writeInt(offset);
+			for (byte[] string : strings) {
+				offset += string.length;
+				out.writeInt(offset);
+			}
+			//sense offsets and senses
+			offset = 0;
+			out.writeInt(offset);
+			List<int[]> senseArrays = new ArrayList<>();
+			for (byte[] string : strings) {
+				int[][] perPos = lemmaSenses.get(new String(string, StandardCharsets.UTF_8));
+				for (int pos = 0; pos < PARTS_OF_SPEECH.length; pos++) {
+					int[] ids = perPos == null || perPos[pos] == null ? new int[0] : perPos[pos];
+					senseArrays.add(ids);
+					offset += ids.length;
+					out.writeInt(offset);
+				}
+			}
+			for (int[] ids : senseArrays)
+				for (int id : ids)
+					out.writeInt(id);
+			//words
+			offset = 0;
+			out.writeInt(offset);
+			for (List<String> lemmas : synsetWords) {
+				offset += lemmas.size();
+				out.writeInt(offset);
+			}
+			for (List<String> lemmas : synsetWords)
+				for (String lemma : lemmas)
+					out.writeInt(stringIds.get(lemma));
+			//hypernyms and closure
+			writeAdjacency(out, synsetHypernyms);
+			writeAdjacency(out, closures);
+			for (byte[] string : strings)
+				out.write(string);
+		}
+		LOGGER.info("Finished compiling WordNet index ({} lemmas, {} synsets).", lemmaSenses.size(), numberOfSynsets);
+	}
+
+	/**
+	 * Computes the sorted transitive hypernym closure of each synset (memoized depth first search, cycles are ignored).
+	 */
+	private static int[][] computeClosures(int[][] hypernyms) {
+		int[][] closures = new int[hypernyms.length][];
+		BitSet inProgress = new BitSet(hypernyms.length);
+		for (int i = 0; i < hypernyms.length; i++)
+			computeClosure(i, hypernyms, closures, inProgress);
+		return closures;
+	}
+
+	private static int[] computeClosure(int synset, int[][] hypernyms, int[][] closures, BitSet inProgress) {
+		if (closures[synset] != null)
+			return closures[synset];
+		if (inProgress.get(synset))
+			return new int[0];
+		inProgress.set(synset);
+		TreeSet<Integer> result = new TreeSet<>();
+		for (int hypernym : hypernyms[synset]) {
+			result.add(hypernym);
+			for (int transitive : computeClosure(hypernym, hypernyms, closures, inProgress))
+				result.add(transitive);
+		}
+		inProgress.clear(synset);
+		int[] closure = result.stream().mapToInt(Integer::intValue).toArray();
+		closures[synset] = closure;
+		return closure;
+	}
+
+	private static void writeAdjacency(DataOutputStream out, int[][] adjacency) throws IOException {
+		int offset = 0;
+		out.writeInt(offset);
+		for (int[] row : adjacency) {
+			offset += row.length;
+			out.writeInt(offset);
+		}
+		for (int[] row : adjacency)
+			for (int value : row)
+				out.writeInt(value);
+	}
+
+	private static long synsetKey(int pos, long offset) {
+		return ((long) pos << 40) | offset;
+	}
+
+	private static int compareUnsigned(byte[] a, byte[] b) {
+		int length = Math.min(a.length, b.length);
+		for (int i = 0; i < length; i++) {
+			int comparison = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+			if (comparison != 0)
+				return comparison;
+		}
+		return Integer.compare(a.length, b.length);
+	}
+}
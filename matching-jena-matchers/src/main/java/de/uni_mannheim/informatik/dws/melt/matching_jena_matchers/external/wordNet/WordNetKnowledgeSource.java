@@ -54,6 +54,16 @@ public class WordNetKnowledgeSource extends SemanticWordRelationDictionary {
 			e.printStackTrace();
 		}
 	}
+
+	/**
+	 * Constructor for subclasses which answer the requests without (or with another) extjwnl dictionary.
+	 * @param dictionary The WordNet dictionary instance (can be null if all requests are answered by the subclass).
+	 */
+	protected WordNetKnowledgeSource(Dictionary dictionary){
+		this.dictionary = dictionary;
+		buffer = new HashMap<>();
+		linker = new WordNetLinker(this);
+	}
 	
 	/**
 	 * Checks whether the given word can be found in the dictionary, regardless of POS.
@@ -2,11 +2,16 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter;
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance.InstanceFeatureCache;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.SetSimilarity;
 import de.uni_mannheim.informatik.dws.melt.matching_base.Filter;
 
+import java.util.Properties;
+
 /**
  * Basic filter for instances which compares sets like neighbours or properties.
+ * The sets of the individuals can be shared between filters with an {@link InstanceFeatureCache}
+ * (see {@link #getFeatureCache(Properties)}).
  */
 public abstract class BaseFilterWithSetComparison extends MatcherYAAAJena implements Filter {
 
@@ -27,6 +32,17 @@ public abstract class BaseFilterWithSetComparison extends MatcherYAAAJena implem
         this.setSimilarity = setSimilarity;
     }
 
+    /**
+     * Returns the feature cache which is shared by all instance filters of a pipeline
+     * (given in the properties with key {@link de.uni_mannheim.informatik.dws.melt.matching_base.ParameterConfigKeys#INSTANCE_FEATURE_CACHE})
+     * or a new cache which is only used for one call of the match method.
+     * @param properties the properties given to the match method
+     * @return the feature cache (never null)
+     */
+    protected InstanceFeatureCache getFeatureCache(Properties properties) {
+        return InstanceFeatureCache.fromPropertiesOrNew(properties);
+    }
+
     public double getThreshold() {
         return threshold;
     }
@@ -15,6 +15,7 @@ import java.util.Locale;
 import java.util.Properties;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 import org.apache.jena.ontology.Individual;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Literal;
@@ -65,28 +66,44 @@ public class BagOfWordsSetSimilarityFilter extends BaseFilterWithSetComparison i
     
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
-        Alignment finalAlignment = new Alignment(inputAlignment, false);
-        for(Correspondence corr : inputAlignment){            
+        InstanceFeatureCache cache = getFeatureCache(properties);
+        Object featureKey = Arrays.asList("tokens", new HashSet<>(this.properties), this.tokenizer);
+        
+        //extract all tokens (sequentially because the models are accessed)
+        List<Correspondence> correspondences = new ArrayList<>(inputAlignment);
+        List<Set<String>> sourceTokens = new ArrayList<>(correspondences.size());
+        List<Set<String>> targetTokens = new ArrayList<>(correspondences.size());
+        for(Correspondence corr : correspondences){
             Individual sourceIndividual = source.getIndividual(corr.getEntityOne());
             Individual targetIndividual = target.getIndividual(corr.getEntityTwo());
             if(sourceIndividual == null || targetIndividual == null){
+                sourceTokens.add(null);
+                targetTokens.add(null);
+                continue;
+            }
+            sourceTokens.add(cache.get(sourceIndividual, featureKey, r -> getTokens(r.as(Individual.class))));
+            targetTokens.add(cache.get(targetIndividual, featureKey, r -> getTokens(r.as(Individual.class))));
+        }
+        
+        double[] values = new double[correspondences.size()];
+        IntStream.range(0, correspondences.size()).parallel().forEach(i -> {
+            if(sourceTokens.get(i) != null)
+                values[i] = this.setSimilarity.compute(sourceTokens.get(i), targetTokens.get(i));
+        });
+        
+        Alignment finalAlignment = new Alignment(inputAlignment, false);
+        for(int i = 0; i < correspondences.size(); i++){
+            Correspondence corr = correspondences.get(i);
+            if(sourceTokens.get(i) == null){
                 finalAlignment.add(corr);
                 continue;
             }
-            
-            Set<String> sourceTokens = getTokens(sourceIndividual);
-            Set<String> targetTokens = getTokens(targetIndividual);
-            
-            double value = this.setSimilarity.compute(sourceTokens, targetTokens);
-            if(value >= this.threshold){
+            if(values[i] >= this.threshold){
                 //DEBUG
-                //corr.addExtensionValue(DefaultExtensions.MeltExtensions.CONFIGURATION_BASE + "sourceTokens", getSortedTokens(sourceTokens));
-                //corr.addExtensionValue(DefaultExtensions.MeltExtensions.CONFIGURATION_BASE + "targetTokens", getSortedTokens(targetTokens));
-                //Set<String> intersection = new HashSet<String>(sourceTokens);
-                //intersection.retainAll(targetTokens);
-                //corr.addExtensionValue(DefaultExtensions.MeltExtensions.CONFIGURATION_BASE + "intersectionTokens", getSortedTokens(intersection));
+                //corr.addExtensionValue(DefaultExtensions.MeltExtensions.CONFIGURATION_BASE + "sourceTokens", getSortedTokens(sourceTokens.get(i)));
+                //corr.addExtensionValue(DefaultExtensions.MeltExtensions.CONFIGURATION_BASE + "targetTokens", getSortedTokens(targetTokens.get(i)));
             
-                corr.addAdditionalConfidence(this.getClass(), value);
+                corr.addAdditionalConfidence(this.getClass(), values[i]);
                 finalAlignment.add(corr);
             }
         }
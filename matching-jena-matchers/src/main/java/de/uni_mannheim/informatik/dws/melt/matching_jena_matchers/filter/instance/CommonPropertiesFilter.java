@@ -2,17 +2,23 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instan
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.BaseFilterWithSetComparison;
 import de.uni_mannheim.informatik.dws.melt.matching_base.Filter;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance.NeighbourhoodIndex.Adjacency;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance.NeighbourhoodIndex.Neighbourhood;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.SetSimilarity;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.stream.IntStream;
 import org.apache.jena.ontology.Individual;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.StmtIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +43,11 @@ public class CommonPropertiesFilter extends BaseFilterWithSetComparison implemen
      * The minimum confidence for which a property mapping is counted.
      */
     private double minPropertyConfidence;
+    
+    /**
+     * The key of the property sets in the {@link InstanceFeatureCache}.
+     */
+    private static final String PROPERTIES_FEATURE = "properties";
 
     /**
      * Constructor with all necessary parameters.
@@ -80,22 +91,68 @@ public class CommonPropertiesFilter extends BaseFilterWithSetComparison implemen
 
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
-        return filter(source, target, inputAlignment);
+        return filter(source, target, inputAlignment, getFeatureCache(properties));
     }
     
     public Alignment filter(OntModel source, OntModel target, Alignment inputAlignment){
-        Alignment finalAlignment = new Alignment();
-        for(Correspondence c : inputAlignment){
+        return filter(source, target, inputAlignment, new InstanceFeatureCache());
+    }
+    
+    /**
+     * Filters the alignment.
+     * @param source the source model
+     * @param target the target model
+     * @param inputAlignment the alignment to filter
+     * @param cache the cache for the property sets of the individuals (can be shared with other filters).
+     * @return the filtered alignment
+     */
+    public Alignment filter(OntModel source, OntModel target, Alignment inputAlignment, InstanceFeatureCache cache){
+        NeighbourhoodIndex.NeighbourExtractor extractor = (resource, resources, literals) -> {
+            for(String property : cache.get(resource, PROPERTIES_FEATURE, CommonPropertiesFilter::getDistinctProperties)){
+                resources.accept(property);
+            }
+        };
+        NeighbourhoodIndex sourceIndex = new NeighbourhoodIndex(extractor);
+        NeighbourhoodIndex targetIndex = new NeighbourhoodIndex(extractor, sourceIndex);
+        
+        //extract all properties (sequentially because the models are accessed)
+        List<Correspondence> correspondences = new ArrayList<>(inputAlignment);
+        Neighbourhood[] sourceProperties = new Neighbourhood[correspondences.size()];
+        Neighbourhood[] targetProperties = new Neighbourhood[correspondences.size()];
+        for(int i = 0; i < correspondences.size(); i++){
+            Correspondence c = correspondences.get(i);
             Individual individualSource = source.getIndividual(c.getEntityOne());
             Individual individualTarget = target.getIndividual(c.getEntityTwo());
-            if(individualSource == null || individualTarget == null){
+            if(individualSource == null || individualTarget == null)
+                continue;
+            sourceProperties[i] = sourceIndex.get(individualSource);
+            targetProperties[i] = targetIndex.get(individualTarget);
+        }
+        Adjacency propertyAdjacency = sourceIndex.createAdjacency(inputAlignment, propCorrespondence -> 
+                propCorrespondence.getRelation() == CorrespondenceRelation.EQUIVALENCE &&
+                propCorrespondence.getConfidence() >= this.minPropertyConfidence &&
+                (this.excludeSameURIMapping == false || propCorrespondence.getEntityOne().equals(propCorrespondence.getEntityTwo()) == false));
+        
+        double[] similarities = new double[correspondences.size()];
+        IntStream.range(0, correspondences.size()).parallel().forEach(i -> {
+            if(sourceProperties[i] == null)
+                return;
+            int count = 0;
+            for(int sourceProperty : sourceProperties[i].getResources()){
+                count += NeighbourhoodIndex.intersectionSize(propertyAdjacency.getTargets(sourceProperty), targetProperties[i].getResources());
+            }
+            similarities[i] = this.setSimilarity.compute(count, sourceProperties[i].getResources().length, targetProperties[i].getResources().length);
+        });
+        
+        Alignment finalAlignment = new Alignment();
+        for(int i = 0; i < correspondences.size(); i++){
+            Correspondence c = correspondences.get(i);
+            if(sourceProperties[i] == null){
                 finalAlignment.add(c);
                 continue;
             }
-            
-            double sim = sharedProperties(individualSource, individualTarget, inputAlignment, this.excludeSameURIMapping, this.minPropertyConfidence, this.setSimilarity);
-            if(sim >= this.threshold){
-                c.addAdditionalConfidence(this.getClass(), sim);
+            if(similarities[i] >= this.threshold){
+                c.addAdditionalConfidence(this.getClass(), similarities[i]);
                 finalAlignment.add(c);
             }else{
                 LOGGER.trace("InstanceFilterBasedOnCommonProperties removed the following correspondence because number of shared properties is less than threshold: {}", c);
@@ -104,8 +161,6 @@ public class CommonPropertiesFilter extends BaseFilterWithSetComparison implemen
         return finalAlignment;
     }
     
-    
-    
     /**
      * Return the number of overlapping distinct properties.
      * @param individualSource the individual source
@@ -135,7 +190,7 @@ public class CommonPropertiesFilter extends BaseFilterWithSetComparison implemen
         return setComparator.compute(count, sourceProperties.size(), targetProperties.size());
     }
     
-    private static Set<String> getDistinctProperties(Individual resource){ 
+    private static Set<String> getDistinctProperties(Resource resource){ 
         Set<String> properties = new HashSet<>();  
         StmtIterator stmts = resource.listProperties();
         while(stmts.hasNext()){
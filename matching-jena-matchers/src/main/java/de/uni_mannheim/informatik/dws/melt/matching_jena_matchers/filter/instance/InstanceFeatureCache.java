@@ -0,0 +1,139 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.ParameterConfigKeys;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.rdf.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache for features of individuals like the tokens of {@link BagOfWordsSetSimilarityFilter}, the types of
+ * {@link SimilarTypeFilter}, the properties of {@link CommonPropertiesFilter}, or the hierarchy weights of
+ * {@link SimilarHierarchyFilter}.
+ * The features are stored per model (based on the identity of its graph), per feature key (based on its equals method),
+ * and per individual URI. Thus the features of an individual are computed only once, even if it appears in many
+ * correspondences or if multiple instance filters are stacked in a pipeline.
+ * <p>
+ * The cache can be shared between all filters of a pipeline by putting it in the properties
+ * (key {@link ParameterConfigKeys#INSTANCE_FEATURE_CACHE}). If no cache is given, each filter uses a new cache for one
+ * call of the match method (see {@link #fromPropertiesOrNew(Properties)}).
+ * <p>
+ * The cache is thread safe. The cached features should not be modified and the models should not be modified while
+ * the cache is used.
+ */
+public class InstanceFeatureCache {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstanceFeatureCache.class);
+
+    /**
+     * Maps each graph to the features of this graph (feature key to individual URI to feature).
+     * Weak keys are used such that removed models can be garbage collected.
+     */
+    private final Map<Graph, Map<Object, Map<String, Object>>> features;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * Constructor
+     */
+    public InstanceFeatureCache() {
+        this.features = Collections.synchronizedMap(new WeakHashMap<>());
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Returns the feature of the given individual or computes it with the given function if it is not cached.
+     * Resources without a URI or without a model are not cached.
+     * @param <T> the type of the feature
+     * @param individual the individual
+     * @param featureKey the key which identifies the feature and all parameters of its computation (e.g. a list of the feature name and the used properties).
+     * @param computation the function which computes the feature
+     * @return the (cached) feature
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Resource individual, Object featureKey, Function<Resource, T> computation) {
+        if(individual.isURIResource() == false || individual.getModel() == null)
+            return computation.apply(individual);
+        Map<String, Object> individualFeatures = this.features
+                .computeIfAbsent(individual.getModel().getGraph(), g -> new ConcurrentHashMap<>())
+                .computeIfAbsent(featureKey, k -> new ConcurrentHashMap<>());
+        Object feature = individualFeatures.get(individual.getURI());
+        if(feature != null){
+            this.hits.incrementAndGet();
+            return (T) feature;
+        }
+        this.misses.incrementAndGet();
+        T computed = computation.apply(individual);
+        Object previous = individualFeatures.putIfAbsent(individual.getURI(), computed);
+        return previous == null ? computed : (T) previous;
+    }
+
+    /**
+     * Returns the number of cache hits.
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of cache misses (which corresponds to the number of feature computations).
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Removes all cached features.
+     */
+    public void clear() {
+        this.features.clear();
+        this.hits.set(0);
+        this.misses.set(0);
+    }
+
+    /**
+     * Logs the hit and miss statistics of this cache.
+     */
+    public void logStatistics() {
+        LOGGER.info("InstanceFeatureCache: {} hits, {} misses", getHitCount(), getMissCount());
+    }
+
+    /**
+     * Returns the cache given in the properties (key {@link ParameterConfigKeys#INSTANCE_FEATURE_CACHE}) or null if none is given.
+     * @param properties the properties
+     * @return the cache or null
+     */
+    public static InstanceFeatureCache fromProperties(Properties properties) {
+        if(properties == null)
+            return null;
+        Object cache = properties.get(ParameterConfigKeys.INSTANCE_FEATURE_CACHE);
+        if(cache == null)
+            return null;
+        if(cache instanceof InstanceFeatureCache)
+            return (InstanceFeatureCache) cache;
+        LOGGER.warn("The value provided by ParameterConfigKeys.INSTANCE_FEATURE_CACHE is not of type InstanceFeatureCache. No shared cache is used.");
+        return null;
+    }
+
+    /**
+     * Returns the cache given in the properties or a new cache if none is given.
+     * @param properties the properties
+     * @return the cache (never null)
+     */
+    public static InstanceFeatureCache fromPropertiesOrNew(Properties properties) {
+        InstanceFeatureCache cache = fromProperties(properties);
+        return cache == null ? new InstanceFeatureCache() : cache;
+    }
+}
@@ -0,0 +1,288 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * An index which stores the neighbourhood of resources as sorted int arrays.
+ * All URIs and (processed) literals are interned in a dictionary which maps them to an int id.
+ * Which elements belong to the neighbourhood of a resource is defined by a {@link NeighbourExtractor}
+ * (e.g. the neighbours in the graph for {@link SimilarNeighboursFilter} or the properties for {@link CommonPropertiesFilter}).
+ * The neighbourhood of each resource is computed only once and cached.
+ * <p>
+ * Two indices (usually one for the source and one for the target) can share the same dictionary such that the ids
+ * are comparable. Together with an {@link Adjacency} of an alignment (source id to sorted target ids) the number of
+ * matched neighbours can be computed with sorted array intersections instead of alignment queries.
+ * <p>
+ * Reading from the index (including the adjacency) is thread safe. The neighbour extraction accesses the model and
+ * thus the neighbourhoods should be created (with {@link #get(Resource)}) before the index is used by multiple threads.
+ */
+public class NeighbourhoodIndex {
+
+
+    private static final int[] EMPTY = new int[0];
+
+    private final NeighbourExtractor extractor;
+    private final Dictionary dictionary;
+    private final Map<Resource, Neighbourhood> neighbourhoods;
+
+    /**
+     * Constructor which creates a new dictionary.
+     * @param extractor the extractor which defines the neighbourhood of a resource.
+     */
+    public NeighbourhoodIndex(NeighbourExtractor extractor) {
+        this(extractor, new Dictionary());
+    }
+
+    /**
+     * Constructor which shares the dictionary with the other index (the ids of both indices are comparable).
+     * @param extractor the extractor which defines the neighbourhood of a resource.
+     * @param shareDictionaryWith the index whose dictionary is used.
+     */
+    public NeighbourhoodIndex(NeighbourExtractor extractor, NeighbourhoodIndex shareDictionaryWith) {
+        this(extractor, shareDictionaryWith.dictionary);
+    }
+
+    private NeighbourhoodIndex(NeighbourExtractor extractor, Dictionary dictionary) {
+        this.extractor = extractor;
+        this.dictionary = dictionary;
+        this.neighbourhoods = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the (cached) neighbourhood of the given resource.
+     * @param resource the resource
+     * @return the neighbourhood
+     */
+    public Neighbourhood get(Resource resource) {
+        if(resource == null)
+            return new Neighbourhood(EMPTY, EMPTY);
+        return this.neighbourhoods.computeIfAbsent(resource, this::extract);
+    }
+
+    private Neighbourhood extract(Resource resource) {
+        IntList resourceIds = new IntList();
+        IntList literalIds = new IntList();
+        this.extractor.extract(resource,
+                uri -> resourceIds.add(this.dictionary.intern(uri)),
+                literal -> literalIds.add(this.dictionary.intern(literal)));
+        return new Neighbourhood(resourceIds.toSortedDistinctArray(), literalIds.toSortedDistinctArray());
+    }
+
+    /**
+     * Returns the id of the given URI or literal.
+     * @param element the URI or (processed) literal
+     * @return the id or -1 if the element is not in the dictionary.
+     */
+    public int getId(Object element) {
+        return this.dictionary.getId(element);
+    }
+
+    /**
+     * Returns the element (URI or processed literal) of the given id.
+     * @param id the id
+     * @return the element
+     */
+    public Object getElement(int id) {
+        return this.dictionary.getElement(id);
+    }
+
+    /**
+     * Creates the adjacency (source URI to target URIs) of the given correspondences using the dictionary of this index.
+     * @param correspondences the correspondences (usually an alignment)
+     * @param shouldBeUsed predicate which decides if a correspondence is part of the adjacency (e.g. based on the confidence).
+     * @return the adjacency
+     */
+    public Adjacency createAdjacency(Iterable<Correspondence> correspondences, Predicate<Correspondence> shouldBeUsed) {
+        Map<Integer, IntList> adjacency = new HashMap<>();
+        for(Correspondence c : correspondences){
+            if(shouldBeUsed.test(c) == false)
+                continue;
+            adjacency.computeIfAbsent(this.dictionary.intern(c.getEntityOne()), id -> new IntList())
+                    .add(this.dictionary.intern(c.getEntityTwo()));
+        }
+        Map<Integer, int[]> sortedAdjacency = new HashMap<>();
+        for(Map.Entry<Integer, IntList> entry : adjacency.entrySet()){
+            sortedAdjacency.put(entry.getKey(), entry.getValue().toSortedDistinctArray());
+        }
+        return new Adjacency(sortedAdjacency);
+    }
+
+    /**
+     * Returns the number of common elements in two sorted arrays (without duplicates).
+     * @param one sorted array one
+     * @param two sorted array two
+     * @return the size of the intersection
+     */
+    public static int intersectionSize(int[] one, int[] two) {
+        int i = 0, j = 0, count = 0;
+        while(i < one.length && j < two.length){
+            if(one[i] < two[j]){
+                i++;
+            }else if(one[i] > two[j]){
+                j++;
+            }else{
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the common elements in two sorted arrays (without duplicates).
+     * @param one sorted array one
+     * @param two sorted array two
+     * @return the intersection as sorted array
+     */
+    public static int[] intersection(int[] one, int[] two) {
+        int[] result = new int[Math.min(one.length, two.length)];
+        int i = 0, j = 0, count = 0;
+        while(i < one.length && j < two.length){
+            if(one[i] < two[j]){
+                i++;
+            }else if(one[i] > two[j]){
+                j++;
+            }else{
+                result[count++] = one[i];
+                i++;
+                j++;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Extracts the neighbourhood of a resource.
+     */
+    @FunctionalInterface
+    public interface NeighbourExtractor {
+        /**
+         * Extracts the neighbours of the given resource.
+         * @param resource the resource
+         * @param resourceNeighbours consumer for all neighbours which are resources (URI)
+         * @param literalNeighbours consumer for all neighbours which are literals (usually processed to some comparable representation).
+         */
+        void extract(Resource resource, Consumer<String> resourceNeighbours, Consumer<Object> literalNeighbours);
+    }
+
+    /**
+     * The neighbourhood of one resource: sorted ids of resource neighbours and literal neighbours.
+     */
+    public static class Neighbourhood {
+        private final int[] resources;
+        private final int[] literals;
+
+        Neighbourhood(int[] resources, int[] literals) {
+            this.resources = resources;
+            this.literals = literals;
+        }
+
+        /**
+         * Returns the sorted ids of all neighbours which are resources. The array should not be modified.
+         * @return sorted ids
+         */
+        public int[] getResources() {
+            return resources;
+        }
+
+        /**
+         * Returns the sorted ids of all neighbours which are literals. The array should not be modified.
+         * @return sorted ids
+         */
+        public int[] getLiterals() {
+            return literals;
+        }
+
+        /**
+         * Returns the number of all neighbours (resources and literals).
+         * @return number of neighbours
+         */
+        public int size() {
+            return resources.length + literals.length;
+        }
+    }
+
+    /**
+     * The adjacency of an alignment: maps the id of a source URI to the sorted ids of all target URIs.
+     */
+    public static class Adjacency {
+        private final Map<Integer, int[]> targets;
+
+        Adjacency(Map<Integer, int[]> targets) {
+            this.targets = targets;
+        }
+
+        /**
+         * Returns the sorted ids of the targets which are matched to the given source. The array should not be modified.
+         * @param sourceId the id of the source URI
+         * @return the sorted target ids (empty if not matched)
+         */
+        public int[] getTargets(int sourceId) {
+            return this.targets.getOrDefault(sourceId, EMPTY);
+        }
+    }
+
+    /**
+     * Dictionary which assigns each URI and literal a consecutive id.
+     */
+    private static class Dictionary {
+        private final Map<Object, Integer> ids = new ConcurrentHashMap<>();
+        private final List<Object> elements = new ArrayList<>();
+
+        int intern(Object element) {
+            Integer id = this.ids.get(element);
+            if(id != null)
+                return id;
+            synchronized(this){
+                return this.ids.computeIfAbsent(element, e -> {
+                    this.elements.add(e);
+                    return this.elements.size() - 1;
+                });
+            }
+        }
+
+        int getId(Object element) {
+            return this.ids.getOrDefault(element, -1);
+        }
+
+        synchronized Object getElement(int id) {
+            return this.elements.get(id);
+        }
+    }
+
+    /**
+     * Growable list of primitive ints.
+     */
+    private static class IntList {
+        private int[] values = new int[8];
+        private int size = 0;
+
+        void add(int value) {
+            if(size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toSortedDistinctArray() {
+            if(size == 0)
+                return EMPTY;
+            Arrays.sort(values, 0, size);
+            int distinct = 1;
+            for(int i = 1; i < size; i++){
+                if(values[i] != values[distinct - 1])
+                    values[distinct++] = values[i];
+            }
+            return Arrays.copyOf(values, distinct);
+        }
+    }
+}
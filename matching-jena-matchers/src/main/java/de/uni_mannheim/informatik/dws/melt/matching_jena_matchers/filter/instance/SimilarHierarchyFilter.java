@@ -1,13 +1,14 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance;
 
-import com.googlecode.cqengine.query.QueryFactory;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
 import de.uni_mannheim.informatik.dws.melt.matching_base.Filter;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance.NeighbourhoodIndex.Adjacency;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.structurelevel.hierarchical.agony.Agony;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -18,6 +19,7 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Queue;
 import java.util.Set;
+import java.util.stream.IntStream;
 import org.apache.jena.ontology.Individual;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Property;
@@ -89,58 +91,93 @@ public class SimilarHierarchyFilter extends MatcherYAAAJena implements Filter {
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
         Alignment hierarchyMatches = this.hierarchyMatcher.match(source, target, inputAlignment, properties);
-        Alignment finalAlignment = new Alignment(inputAlignment, false);
-        for(Correspondence correspondence : inputAlignment){            
+        
+        //the hierarchy weights are computed only once per individual (and shared with other filters via the cache)
+        //and the hierarchy elements are indexed as neighbours
+        InstanceFeatureCache cache = InstanceFeatureCache.fromPropertiesOrNew(properties);
+        NeighbourhoodIndex sourceIndex = new NeighbourhoodIndex(createHierarchyExtractor(cache));
+        NeighbourhoodIndex targetIndex = new NeighbourhoodIndex(createHierarchyExtractor(cache), sourceIndex);
+        Adjacency adjacency = sourceIndex.createAdjacency(hierarchyMatches, c -> true);
+        
+        //extract all hierarchies (sequentially because the models are accessed)
+        List<Correspondence> correspondences = new ArrayList<>(inputAlignment);
+        List<Individual> sourceIndividuals = new ArrayList<>(correspondences.size());
+        List<Individual> targetIndividuals = new ArrayList<>(correspondences.size());
+        for(Correspondence correspondence : correspondences){
             Individual sourceIndividual = source.getIndividual(correspondence.getEntityOne());
             Individual targetIndividual = target.getIndividual(correspondence.getEntityTwo());
             if(sourceIndividual == null || targetIndividual == null){
-                finalAlignment.add(correspondence);
+                sourceIndividuals.add(null);
+                targetIndividuals.add(null);
                 continue;
             }
-
-            Map<String, Double> sourceHierarchyWeights;
-            Map<String, Double> targetHierarchyWeights;
-            if(this.approach == SimilarHierarchyFilterApproach.HIERARCHY_LEVEL_DEPENDED_MATCHES){
-                sourceHierarchyWeights = getNormalizedHierarchyLevels(sourceIndividual);
-                targetHierarchyWeights = getNormalizedHierarchyLevels(targetIndividual);
-            }else{
-                sourceHierarchyWeights = getNormalizedDepths(sourceIndividual);
-                targetHierarchyWeights = getNormalizedDepths(targetIndividual);
-            }
-            
-            Iterable<Correspondence> i = hierarchyMatches.retrieve(
-                QueryFactory.and(
-                    QueryFactory.in(Correspondence.SOURCE, sourceHierarchyWeights.keySet()),
-                    QueryFactory.in(Correspondence.TARGET, targetHierarchyWeights.keySet())
-                ));
+            sourceIndex.get(sourceIndividual);
+            targetIndex.get(targetIndividual);
+            sourceIndividuals.add(sourceIndividual);
+            targetIndividuals.add(targetIndividual);
+        }
+        
+        double[] confidences = new double[correspondences.size()];
+        IntStream.range(0, correspondences.size()).parallel().forEach(i -> {
+            Individual sourceIndividual = sourceIndividuals.get(i);
+            Individual targetIndividual = targetIndividuals.get(i);
+            if(sourceIndividual == null)
+                return;
+            int[] targetHierarchy = targetIndex.get(targetIndividual).getResources();
+            Map<String, Double> sourceHierarchyWeights = getHierarchyWeights(cache, sourceIndividual);
+            Map<String, Double> targetHierarchyWeights = getHierarchyWeights(cache, targetIndividual);
             
             double maxWeigth = 0;
             int absoluteMatches = 0;
-            for(Correspondence c : i){
-                double sourceWeight = sourceHierarchyWeights.get(c.getEntityOne());
-                double targetWeight = targetHierarchyWeights.get(c.getEntityTwo());
-                double averageWeight = (sourceWeight + targetWeight) / 2.0d;
-                if(averageWeight > maxWeigth){
-                    maxWeigth = averageWeight;
+            for(int sourceHierarchyElement : sourceIndex.get(sourceIndividual).getResources()){
+                for(int targetHierarchyElement : NeighbourhoodIndex.intersection(adjacency.getTargets(sourceHierarchyElement), targetHierarchy)){
+                    double sourceWeight = sourceHierarchyWeights.get((String) sourceIndex.getElement(sourceHierarchyElement));
+                    double targetWeight = targetHierarchyWeights.get((String) sourceIndex.getElement(targetHierarchyElement));
+                    double averageWeight = (sourceWeight + targetWeight) / 2.0d;
+                    if(averageWeight > maxWeigth){
+                        maxWeigth = averageWeight;
+                    }
+                    absoluteMatches++;
                 }
-                absoluteMatches++;
             }
             
-            double confidence;
             if(this.approach == SimilarHierarchyFilterApproach.ABSOLUTE_MATCHES){
-                confidence = absoluteMatches;
+                confidences[i] = absoluteMatches;
             }else{
-                confidence = maxWeigth;
+                confidences[i] = maxWeigth;
             }
-            
-            if(confidence >= this.threshold){
-                correspondence.addAdditionalConfidence(this.getClass(), confidence);
+        });
+        
+        Alignment finalAlignment = new Alignment(inputAlignment, false);
+        for(int i = 0; i < correspondences.size(); i++){
+            Correspondence correspondence = correspondences.get(i);
+            if(sourceIndividuals.get(i) == null){
+                finalAlignment.add(correspondence);
+                continue;
+            }
+            if(confidences[i] >= this.threshold){
+                correspondence.addAdditionalConfidence(this.getClass(), confidences[i]);
                 finalAlignment.add(correspondence);
             }
         }
         return finalAlignment;
     }
     
+    private NeighbourhoodIndex.NeighbourExtractor createHierarchyExtractor(InstanceFeatureCache cache){
+        return (r, resources, literals) -> {
+            for(String hierarchyElement : getHierarchyWeights(cache, r).keySet()){
+                resources.accept(hierarchyElement);
+            }
+        };
+    }
+    
+    private Map<String, Double> getHierarchyWeights(InstanceFeatureCache cache, Resource individual){
+        boolean hierarchyLevels = this.approach == SimilarHierarchyFilterApproach.HIERARCHY_LEVEL_DEPENDED_MATCHES;
+        Object featureKey = Arrays.asList(hierarchyLevels ? "hierarchyLevels" : "depths", this.instanceToHierarchyProperty, this.hierarchyProperty);
+        return cache.get(individual, featureKey, r -> hierarchyLevels ?
+                getNormalizedHierarchyLevels(r.as(Individual.class)) : getNormalizedDepths(r.as(Individual.class)));
+    }
+    
     /**
      * Returns the hierarchy levels computed by the agony algorithm.
      * @param i the individual to start with.
@@ -1,20 +1,26 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance;
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.BaseFilterWithSetComparison;
-import com.googlecode.cqengine.query.QueryFactory;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance.NeighbourhoodIndex.Adjacency;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance.NeighbourhoodIndex.Neighbourhood;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.SetSimilarity;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 import org.apache.jena.ontology.Individual;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
@@ -30,6 +36,8 @@ import org.apache.jena.rdf.model.StmtIterator;
  *      |                                         |
  * Target_Subject ------Target_Property------Target_Object
  * </pre>
+ * The neighbourhoods are extracted only once per resource (see {@link NeighbourhoodIndex}) and all correspondences are
+ * evaluated in parallel with sorted array intersections.
  */
 public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
 
@@ -127,78 +135,110 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
     
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
-        Alignment filteredAlignment = new Alignment(inputAlignment, false);
-        for(Correspondence correspondence : inputAlignment){
+        NeighbourhoodIndex sourceIndex = new NeighbourhoodIndex(this::extractNeighbours);
+        NeighbourhoodIndex targetIndex = new NeighbourhoodIndex(this::extractNeighbours, sourceIndex);
+        
+        //extract all neighbourhoods (sequentially because the models are accessed)
+        List<Correspondence> correspondences = new ArrayList<>(inputAlignment);
+        Neighbourhood[] sourceNeighbourhoods = new Neighbourhood[correspondences.size()];
+        Neighbourhood[] targetNeighbourhoods = new Neighbourhood[correspondences.size()];
+        for(int i = 0; i < correspondences.size(); i++){
+            Correspondence correspondence = correspondences.get(i);
             Individual sourceIndividual = source.getIndividual(correspondence.getEntityOne());
             Individual targetIndividual = target.getIndividual(correspondence.getEntityTwo());
-            if(sourceIndividual == null || targetIndividual == null){
-                filteredAlignment.add(correspondence);
+            if(sourceIndividual == null || targetIndividual == null)
                 continue;
+            sourceNeighbourhoods[i] = sourceIndex.get(sourceIndividual);
+            targetNeighbourhoods[i] = targetIndex.get(targetIndividual);
+        }
+        Adjacency adjacency = sourceIndex.createAdjacency(inputAlignment, c -> c.getConfidence() >= minResourceConfidence);
+        
+        //compare the neighbourhoods in parallel
+        boolean[] keep = new boolean[correspondences.size()];
+        IntStream.range(0, correspondences.size()).parallel().forEach(i -> {
+            if(sourceNeighbourhoods[i] == null){
+                keep[i] = true;
+                return;
             }
-            
-            Neighbours sourceNeighbours = getNeighbours(source, sourceIndividual);
-            Neighbours targetNeighbours = getNeighbours(target, targetIndividual);
-            
-            Set<Object> literalIntersection = new HashSet(sourceNeighbours.getLiterals());
-            literalIntersection.retainAll(targetNeighbours.getLiterals());
-            
-            
-            Iterable<Correspondence> i = inputAlignment.retrieve(
-                QueryFactory.and(
-                    QueryFactory.in(Correspondence.SOURCE, sourceNeighbours.getUriResources()),
-                    QueryFactory.in(Correspondence.TARGET, targetNeighbours.getUriResources()),
-                    QueryFactory.greaterThanOrEqualTo(Correspondence.CONFIDENCE, minResourceConfidence)
-                ));
-            Set<String> mappedSources = new HashSet<>();
-            Set<String> mappedTargets = new HashSet<>();            
-            for(Correspondence c : i){
-                mappedSources.add(c.getEntityOne());
-                mappedTargets.add(c.getEntityTwo());
-            }
-            //in case of n:m mappings only the minimum amount of resource is the number of the intersection.
-            int resourceIntersection = Math.min(mappedSources.size(), mappedTargets.size());
-            
-            if(this.addNeighboursToCorrespondence){
-                Set<String> neighboursPrint = new HashSet();
-                if(mappedSources.size() < mappedTargets.size()){
-                    neighboursPrint.addAll(mappedSources);
-                }else{
-                    neighboursPrint.addAll(mappedTargets);
-                }
-                for(Object o : literalIntersection){
-                    neighboursPrint.add(o.toString());
-                }
-                //reduce to max 20
-                if(neighboursPrint.size() > 20){
-                    StringJoiner sj = new StringJoiner(",");
-                    Iterator<String> iter = neighboursPrint.iterator();
-                    for (int j = 0; j < 20; j++) {
-                        sj.add(iter.next());
-                    }
-                    correspondence.addAdditionalExplanation(this.getClass(), "[" + sj.toString() + "] (reduced to max 20 neighbours)");
+            keep[i] = evaluate(correspondences.get(i), sourceNeighbourhoods[i], targetNeighbourhoods[i], adjacency, sourceIndex);
+        });
+        
+        Alignment filteredAlignment = new Alignment(inputAlignment, false);
+        for(int i = 0; i < correspondences.size(); i++){
+            if(keep[i])
+                filteredAlignment.add(correspondences.get(i));
+        }
+        return filteredAlignment;
+    }
+    
+    private boolean evaluate(Correspondence correspondence, Neighbourhood sourceNeighbours, Neighbourhood targetNeighbours, Adjacency adjacency, NeighbourhoodIndex index){
+        int[] literalIntersection = NeighbourhoodIndex.intersection(sourceNeighbours.getLiterals(), targetNeighbours.getLiterals());
+        
+        //mapped neighbours: all source neighbours which are matched to at least one target neighbour (and vice versa)
+        int[] targetResources = targetNeighbours.getResources();
+        boolean[] mappedTargetPositions = new boolean[targetResources.length];
+        List<Integer> mappedSources = new ArrayList<>();
+        for(int sourceNeighbour : sourceNeighbours.getResources()){
+            boolean mapped = false;
+            int[] matchedTargets = adjacency.getTargets(sourceNeighbour);
+            int j = 0, k = 0;
+            while(j < matchedTargets.length && k < targetResources.length){
+                if(matchedTargets[j] < targetResources[k]){
+                    j++;
+                }else if(matchedTargets[j] > targetResources[k]){
+                    k++;
                 }else{
-                    correspondence.addAdditionalExplanation(this.getClass(), "[" + String.join(",", neighboursPrint) + "]");
+                    mappedTargetPositions[k] = true;
+                    mapped = true;
+                    j++;
+                    k++;
                 }
-                
             }
-            
-            //sum up resource mappings and literal mappings
-            int countSourceNeighbours = sourceNeighbours.getUriResources().size() + sourceNeighbours.getLiterals().size();
-            int countTargetNeighbours = targetNeighbours.getUriResources().size() + targetNeighbours.getLiterals().size();
-            int countIntersection = resourceIntersection + literalIntersection.size();
-            
-            double value = setSimilarity.compute(countIntersection, countSourceNeighbours, countTargetNeighbours);
-            if(value >= this.threshold){
-                correspondence.addAdditionalConfidence(this.getClass(), value);
-                filteredAlignment.add(correspondence);
+            if(mapped)
+                mappedSources.add(sourceNeighbour);
+        }
+        List<Integer> mappedTargets = new ArrayList<>();
+        for(int k = 0; k < targetResources.length; k++){
+            if(mappedTargetPositions[k])
+                mappedTargets.add(targetResources[k]);
+        }
+        //in case of n:m mappings only the minimum amount of resource is the number of the intersection.
+        int resourceIntersection = Math.min(mappedSources.size(), mappedTargets.size());
+        
+        if(this.addNeighboursToCorrespondence){
+            Set<String> neighboursPrint = new HashSet();
+            for(int id : mappedSources.size() < mappedTargets.size() ? mappedSources : mappedTargets){
+                neighboursPrint.add(index.getElement(id).toString());
+            }
+            for(int id : literalIntersection){
+                neighboursPrint.add(index.getElement(id).toString());
+            }
+            //reduce to max 20
+            if(neighboursPrint.size() > 20){
+                StringJoiner sj = new StringJoiner(",");
+                Iterator<String> iter = neighboursPrint.iterator();
+                for (int j = 0; j < 20; j++) {
+                    sj.add(iter.next());
+                }
+                correspondence.addAdditionalExplanation(this.getClass(), "[" + sj.toString() + "] (reduced to max 20 neighbours)");
+            }else{
+                correspondence.addAdditionalExplanation(this.getClass(), "[" + String.join(",", neighboursPrint) + "]");
             }
         }
-        return filteredAlignment;
+        
+        //sum up resource mappings and literal mappings
+        int countIntersection = resourceIntersection + literalIntersection.length;
+        
+        double value = setSimilarity.compute(countIntersection, sourceNeighbours.size(), targetNeighbours.size());
+        if(value >= this.threshold){
+            correspondence.addAdditionalConfidence(this.getClass(), value);
+            return true;
+        }
+        return false;
     }
     
-    
-    private Neighbours getNeighbours(OntModel model, Individual individual){
-        Neighbours neighbours = new Neighbours();
+    private void extractNeighbours(Resource individual, Consumer<String> resourceNeighbours, Consumer<Object> literalNeighbours){
+        Model model = individual.getModel();
         Set<Object> ignoreNeighbours = this.excludeNeighbours.apply(individual);
         if(useOutgoing){
             StmtIterator outgoingStmts = model.listStatements(individual, null, (RDFNode) null );
@@ -210,12 +250,12 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
                 if(object.isURIResource() && useResource) {
                     if(object.asResource().equals(individual) == false){ // check for reflexive edges
                         if(ignoreNeighbours.contains(object.asResource().getURI()) == false)
-                            neighbours.addResource(object.asResource().getURI());
+                            resourceNeighbours.accept(object.asResource().getURI());
                     }
                 } else if(object.isLiteral() && useLiteral) {
                     Object processedLiteral = literalProcessingFunction.apply(object.asLiteral());
                     if(ignoreNeighbours.contains(processedLiteral) == false)
-                        neighbours.addLiteral(processedLiteral);
+                        literalNeighbours.accept(processedLiteral);
                 }
             }
         }
@@ -230,12 +270,11 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
                 if(subject.isURIResource()){
                     if(subject.equals(individual) == false){ // check for reflexive edges
                         if(ignoreNeighbours.contains(subject.getURI()) == false)
-                            neighbours.addResource(subject.getURI());
+                            resourceNeighbours.accept(subject.getURI());
                     }
                 }//can not be a literal (no outgoing edges)
             }
         }
-        return neighbours;
     }
 
     //getter and setter
@@ -325,29 +364,3 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
         return "SimilarNeighboursFilter";
     }
 }
-
-class Neighbours{
-    private Set<String> uriResources;
-    private Set<Object> literals;
-    
-    public Neighbours(){
-        this.uriResources = new HashSet<>();
-        this.literals = new HashSet<>();
-    }
-    
-    public void addResource(String resourceURI){
-        uriResources.add(resourceURI);
-    }
-    
-    public void addLiteral(Object literal){
-        literals.add(literal);
-    }
-
-    public Set<String> getUriResources() {
-        return uriResources;
-    }
-
-    public Set<Object> getLiterals() {
-        return literals;
-    }
-}
\ No newline at end of file
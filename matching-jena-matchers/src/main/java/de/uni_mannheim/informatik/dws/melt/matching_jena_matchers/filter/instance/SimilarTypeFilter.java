@@ -6,12 +6,17 @@ import de.uni_mannheim.informatik.dws.melt.matching_base.Filter;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.SetSimilarity;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.stream.IntStream;
 import org.apache.jena.ontology.Individual;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.rdf.model.StmtIterator;
 import org.apache.jena.vocabulary.RDF;
@@ -48,44 +53,66 @@ public class SimilarTypeFilter extends BaseFilterWithSetComparison implements Fi
     
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
-        Alignment filteredAlignment = new Alignment(inputAlignment, false);
-        for(Correspondence correspondence : inputAlignment){
+        InstanceFeatureCache cache = getFeatureCache(properties);
+        Object featureKey = Arrays.asList("types", this.typeProperty);
+        
+        //extract all types (sequentially because the models are accessed)
+        List<Correspondence> correspondences = new ArrayList<>(inputAlignment);
+        List<Set<String>> sourceTypes = new ArrayList<>(correspondences.size());
+        List<Set<String>> targetTypes = new ArrayList<>(correspondences.size());
+        for(Correspondence correspondence : correspondences){
             Individual sourceIndividual = source.getIndividual(correspondence.getEntityOne());
             Individual targetIndividual = target.getIndividual(correspondence.getEntityTwo());
             if(sourceIndividual == null || targetIndividual == null){
-                filteredAlignment.add(correspondence);
+                sourceTypes.add(null);
+                targetTypes.add(null);
                 continue;
             }
-            
-            Set<String> sourceTypes = getTypes(sourceIndividual);
-            Set<String> targetTypes = getTypes(targetIndividual);
-            
-            Iterable<Correspondence> i = inputAlignment.retrieve(
-                QueryFactory.and(
-                    QueryFactory.in(Correspondence.SOURCE, sourceTypes),
-                    QueryFactory.in(Correspondence.TARGET, targetTypes),
-                    QueryFactory.greaterThanOrEqualTo(Correspondence.CONFIDENCE, minClassConfidence)
-                ));
-            Set<String> mappedSources = new HashSet<>();
-            Set<String> mappedTargets = new HashSet<>();            
-            for(Correspondence c : i){
-                mappedSources.add(c.getEntityOne());
-                mappedTargets.add(c.getEntityTwo());
+            sourceTypes.add(cache.get(sourceIndividual, featureKey, this::getTypes));
+            targetTypes.add(cache.get(targetIndividual, featureKey, this::getTypes));
+        }
+        
+        double[] values = new double[correspondences.size()];
+        IntStream.range(0, correspondences.size()).parallel().forEach(i -> {
+            if(sourceTypes.get(i) != null)
+                values[i] = computeSimilarity(inputAlignment, sourceTypes.get(i), targetTypes.get(i));
+        });
+        
+        Alignment filteredAlignment = new Alignment(inputAlignment, false);
+        for(int i = 0; i < correspondences.size(); i++){
+            Correspondence correspondence = correspondences.get(i);
+            if(sourceTypes.get(i) == null){
+                filteredAlignment.add(correspondence);
+                continue;
             }
-            //in case of n:m mappings only the minimum amount of resource is the number of the intersection.
-            int resourceIntersection = Math.min(mappedSources.size(), mappedTargets.size());
-            
-            double value = setSimilarity.compute(resourceIntersection, sourceTypes.size(), targetTypes.size());
-            if(value >= this.threshold){
-                correspondence.addAdditionalConfidence(this.getClass(), value);
+            if(values[i] >= this.threshold){
+                correspondence.addAdditionalConfidence(this.getClass(), values[i]);
                 filteredAlignment.add(correspondence);
             }
         }
         return filteredAlignment;
     }
     
+    private double computeSimilarity(Alignment inputAlignment, Set<String> sourceTypes, Set<String> targetTypes){
+        Iterable<Correspondence> i = inputAlignment.retrieve(
+            QueryFactory.and(
+                QueryFactory.in(Correspondence.SOURCE, sourceTypes),
+                QueryFactory.in(Correspondence.TARGET, targetTypes),
+                QueryFactory.greaterThanOrEqualTo(Correspondence.CONFIDENCE, minClassConfidence)
+            ));
+        Set<String> mappedSources = new HashSet<>();
+        Set<String> mappedTargets = new HashSet<>();            
+        for(Correspondence c : i){
+            mappedSources.add(c.getEntityOne());
+            mappedTargets.add(c.getEntityTwo());
+        }
+        //in case of n:m mappings only the minimum amount of resource is the number of the intersection.
+        int resourceIntersection = Math.min(mappedSources.size(), mappedTargets.size());
+        return setSimilarity.compute(resourceIntersection, sourceTypes.size(), targetTypes.size());
+    }
+    
     
-    private Set<String> getTypes(Individual individual){
+    private Set<String> getTypes(Resource individual){
         Set<String> types = new HashSet();
         StmtIterator stmts = individual.listProperties(this.typeProperty);
         while(stmts.hasNext()){
@@ -0,0 +1,129 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.instancelevel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.vocabulary.OWL;
+
+/**
+ * An index which maps each instance URI to the ids of its classes and each class to its number of instances.
+ * It is built in one pass over all statements with the given property (usually rdf:type).
+ * Classes which are blank nodes and owl:Thing are not included in the class set of an instance.
+ * <p>
+ * After construction the index is read only and thus thread safe.
+ */
+public class InstanceTypeIndex {
+
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<String, Integer> classIds;
+    private final List<String> classURIs;
+    private final int[] instanceCounts;
+    private final Map<String, int[]> instanceClasses;
+
+    /**
+     * Builds the index for the given model.
+     * @param model the model
+     * @param instanceToHierarchyProperty property connecting the instance to the hierarchy (usually rdf:type).
+     */
+    public InstanceTypeIndex(Model model, Property instanceToHierarchyProperty) {
+        this.classIds = new HashMap<>();
+        this.classURIs = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        Map<String, List<Integer>> classesPerInstance = new HashMap<>();
+        StmtIterator i = model.listStatements(null, instanceToHierarchyProperty, (RDFNode) null);
+        while(i.hasNext()){
+            Statement s = i.next();
+            RDFNode node = s.getObject();
+            if(node.isURIResource() == false)
+                continue;
+            if(node.equals(OWL.Thing))
+                continue;
+            String classURI = node.asResource().getURI();
+            Integer classId = this.classIds.get(classURI);
+            if(classId == null){
+                classId = this.classURIs.size();
+                this.classIds.put(classURI, classId);
+                this.classURIs.add(classURI);
+                counts.add(0);
+            }
+            //each statement is unique, thus each statement is a distinct instance of the class
+            counts.set(classId, counts.get(classId) + 1);
+            if(s.getSubject().isURIResource())
+                classesPerInstance.computeIfAbsent(s.getSubject().getURI(), __ -> new ArrayList<>()).add(classId);
+        }
+        this.instanceCounts = counts.stream().mapToInt(Integer::intValue).toArray();
+        this.instanceClasses = new HashMap<>(classesPerInstance.size());
+        for(Map.Entry<String, List<Integer>> entry : classesPerInstance.entrySet()){
+            this.instanceClasses.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).sorted().distinct().toArray());
+        }
+    }
+
+    /**
+     * Returns the sorted ids of all classes of the given instance. The array should not be modified.
+     * @param instanceURI the URI of the instance
+     * @return the class ids (empty if the instance has no class)
+     */
+    public int[] getClasses(String instanceURI) {
+        return this.instanceClasses.getOrDefault(instanceURI, EMPTY);
+    }
+
+    /**
+     * Returns the number of instances of the given class.
+     * @param classId the id of the class
+     * @return the number of instances
+     */
+    public int getInstanceCount(int classId) {
+        return this.instanceCounts[classId];
+    }
+
+    /**
+     * Returns the number of instances of the given class.
+     * @param classURI the URI of the class
+     * @return the number of instances (zero if the class is unknown)
+     */
+    public int getInstanceCount(String classURI) {
+        Integer classId = this.classIds.get(classURI);
+        if(classId == null)
+            return 0;
+        return this.instanceCounts[classId];
+    }
+
+    /**
+     * Returns the URI of the class with the given id.
+     * @param classId the id of the class
+     * @return the URI of the class
+     */
+    public String getClassURI(int classId) {
+        return this.classURIs.get(classId);
+    }
+
+    /**
+     * Returns the id of the given class.
+     * @param classURI the URI of the class
+     * @return the id or -1 if the class is unknown
+     */
+    public int getClassId(String classURI) {
+        return this.classIds.getOrDefault(classURI, -1);
+    }
+
+    /**
+     * Returns the number of classes in this index.
+     * @return number of classes
+     */
+    public int getNumberOfClasses() {
+        return this.classURIs.size();
+    }
+
+    @Override
+    public String toString() {
+        return "InstanceTypeIndex(" + this.classURIs.size() + " classes, " + this.instanceClasses.size() + " instances)";
+    }
+}
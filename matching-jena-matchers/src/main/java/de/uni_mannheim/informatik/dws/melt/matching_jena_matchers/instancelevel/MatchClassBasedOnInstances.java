@@ -8,29 +8,25 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.DecimalFormat;
-import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
-import org.apache.jena.ontology.Individual;
+import java.util.stream.Collectors;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Property;
-import org.apache.jena.rdf.model.RDFNode;
-import org.apache.jena.rdf.model.Resource;
-import org.apache.jena.rdf.model.StmtIterator;
-import org.apache.jena.vocabulary.OWL;
 import org.apache.jena.vocabulary.RDF;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * A matcher which matches classes based on already instance matches.
+ * The classes and instance counts are computed in one pass over the models (see {@link InstanceTypeIndex})
+ * and the class overlap is computed in parallel.
  * @see <a href="https://docserv.uni-duesseldorf.de/servlets/DerivateServlet/Derivate-18253/DissKatrinZaiß.pdf">https://docserv.uni-duesseldorf.de/servlets/DerivateServlet/Derivate-18253/DissKatrinZaiß.pdf</a>
  * @see <a>https://dbs.uni-leipzig.de/file/rev-ontomatch-dils-2007-final.pdf</a>
  * @see <a>http://cs.emis.de/LNI/Proceedings/Proceedings103/gi-proc-103-026.pdf</a>
@@ -120,69 +116,77 @@ public class MatchClassBasedOnInstances extends MatcherYAAAJena {
     }
     
     public Alignment getClassMatches(OntModel source, OntModel target, Alignment inputAlignment) throws IOException{
-        Map<Correspondence, ClassMatchInfo> classAlignment = new HashMap<>(); // a map from (class source, class target) to number of shared/matched instances
-        Map<String, Integer> instanceCounts = new HashMap<>(); // a map from class to number of instances
+        InstanceTypeIndex sourceIndex = new InstanceTypeIndex(source, this.instanceToHierarchyProperty);
+        InstanceTypeIndex targetIndex = new InstanceTypeIndex(target, this.instanceToHierarchyProperty);
         
-        Set<String> sourceInstanceMappings = new HashSet<>();
-        Set<String> targetInstanceMappings = new HashSet<>(); 
+        //collect the instance matches (each individual is checked only once)
+        Map<String, Integer> sourceInstanceIds = new HashMap<>();
+        Map<String, Integer> targetInstanceIds = new HashMap<>();
+        List<InstanceMatch> instanceMatches = new ArrayList<>();
         for(Correspondence c : inputAlignment){
             if(c.getConfidence() < this.instanceMinConfidence)
                 continue;
-            Individual individualSource = source.getIndividual(c.getEntityOne());
-            Individual individualTarget = target.getIndividual(c.getEntityTwo());
-            if(individualSource == null || individualTarget == null){
+            int sourceInstance = getInstanceId(sourceInstanceIds, source, c.getEntityOne());
+            int targetInstance = getInstanceId(targetInstanceIds, target, c.getEntityTwo());
+            if(sourceInstance < 0 || targetInstance < 0){
                 continue;
             }
-            sourceInstanceMappings.add(c.getEntityOne());
-            targetInstanceMappings.add(c.getEntityTwo());
-            Set<String> sourceTypes = getClassesOfInstance(individualSource);
-            Set<String> targetTypes = getClassesOfInstance(individualTarget);
-            for(String sourceType : sourceTypes){
-                instanceCounts.computeIfAbsent(sourceType, classUri -> getInstancesOfClass(source.getResource(classUri)).size());
-                for(String targetType : targetTypes){
-                    instanceCounts.computeIfAbsent(targetType, classUri -> getInstancesOfClass(target.getResource(classUri)).size());
-                    Correspondence classCorrespondence = new Correspondence(sourceType, targetType);
-                    classAlignment.computeIfAbsent(classCorrespondence, x->new ClassMatchInfo()).addInstanceMatch(c.getEntityOne(), c.getEntityTwo());
-                }
-            }
+            instanceMatches.add(new InstanceMatch(sourceInstance, targetInstance, 
+                    sourceIndex.getClasses(c.getEntityOne()), targetIndex.getClasses(c.getEntityTwo())));
         }
         //in case of n:m instance mappings only the minimum amount of source or target instances is the number of 1:1 matches
-        int instanceMappings = Math.min(sourceInstanceMappings.size(), targetInstanceMappings.size());
+        int instanceMappings = Math.min(
+                (int) instanceMatches.stream().mapToInt(m -> m.sourceInstance).distinct().count(), 
+                (int) instanceMatches.stream().mapToInt(m -> m.targetInstance).distinct().count());
+        
+        // a map from (class source id, class target id) to shared/matched instances
+        Map<Long, ClassMatchInfo> classMatches = instanceMatches.parallelStream().collect(HashMap::new, (map, m) -> {
+            for(int sourceType : m.sourceClasses){
+                for(int targetType : m.targetClasses){
+                    map.computeIfAbsent(((long) sourceType << 32) | targetType, x -> new ClassMatchInfo()).addInstanceMatch(m.sourceInstance, m.targetInstance);
+                }
+            }
+        }, (one, two) -> two.forEach((key, info) -> one.merge(key, info, ClassMatchInfo::merge)));
+        
+        List<ClassPair> classPairs = classMatches.entrySet().parallelStream().map(entry -> {
+            int sourceClass = (int) (entry.getKey() >>> 32);
+            int targetClass = (int) (entry.getKey() & 0xFFFFFFFFL);
+            return new ClassPair(sourceIndex.getClassURI(sourceClass), targetIndex.getClassURI(targetClass),
+                    sourceIndex.getInstanceCount(sourceClass), targetIndex.getInstanceCount(targetClass), entry.getValue().getOverlap());
+        }).collect(Collectors.toList());
  
-        saveValuesToFile(classAlignment, instanceCounts, instanceMappings); // DEBUG
+        saveValuesToFile(classPairs, instanceMappings); // DEBUG
         
         Alignment alignment = new Alignment(inputAlignment, false);
-        for(Entry<Correspondence, ClassMatchInfo> t : classAlignment.entrySet()){
-            int instancesOne = instanceCounts.getOrDefault(t.getKey().getEntityOne(), 0);
-            int instancesTwo = instanceCounts.getOrDefault(t.getKey().getEntityTwo(), 0);
-            int instancesOverlap = t.getValue().getOverlap();
-            
+        for(ClassPair t : classPairs){
             double simValue = 0.0;
             switch (this.metric) {
                 case BASE:
-                    simValue = getSimValueBase(instancesOverlap, instancesOne, instancesTwo);
+                    simValue = getSimValueBase(t.instancesOverlap, t.instancesOne, t.instancesTwo);
                     break;                    
                 case MIN:
-                    simValue = getSimValueMin(instancesOverlap, instancesOne, instancesTwo);
+                    simValue = getSimValueMin(t.instancesOverlap, t.instancesOne, t.instancesTwo);
                     break;
                 case DICE:
-                    simValue = getSimValueDice(instancesOverlap, instancesOne, instancesTwo);
+                    simValue = getSimValueDice(t.instancesOverlap, t.instancesOne, t.instancesTwo);
                     break;
                 case MATCH_BASED:
-                    simValue = getSimValueMatchBased(instancesOverlap, instanceMappings);
+                    simValue = getSimValueMatchBased(t.instancesOverlap, instanceMappings);
                     break;
                 default:
                     throw new IllegalArgumentException("Metric is not implmented");
             }
             if(simValue >= threshold){
-                Correspondence c = t.getKey();
-                c.setConfidence(simValue);
-                alignment.add(c);
+                alignment.add(new Correspondence(t.sourceURI, t.targetURI, simValue));
                 //LOGGER.trace("Add correspondence with MatchClassBasedOnInstances " + c.toString());
             }
         }        
         return alignment;
     }
+    
+    private static int getInstanceId(Map<String, Integer> instanceIds, OntModel model, String uri){
+        return instanceIds.computeIfAbsent(uri, u -> model.getIndividual(u) == null ? -1 : instanceIds.size());
+    }
         
     //SIM metrics:
     
@@ -213,54 +217,28 @@ public class MatchClassBasedOnInstances extends MatcherYAAAJena {
     
     //Util methods
     
-    private void saveValuesToFile(Map<Correspondence, ClassMatchInfo> classAlignment, Map<String, Integer> instanceCounts, int instanceMappings) throws IOException {
+    private void saveValuesToFile(List<ClassPair> classPairs, int instanceMappings) throws IOException {
         if(this.debugFile == null)
             return;
-        List<Entry<Correspondence, Integer>> list = new ArrayList<>();
-        for(Entry<Correspondence, ClassMatchInfo> entry : classAlignment.entrySet()){
-            list.add(new SimpleEntry<>(entry.getKey(), entry.getValue().getOverlap()));
-        }
-        list.sort(Entry.comparingByValue());
-        Collections.reverse(list);
+        List<ClassPair> list = new ArrayList<>(classPairs);
+        list.sort(Comparator.comparingInt((ClassPair p) -> p.instancesOverlap).reversed());
         DecimalFormat df = new DecimalFormat("#0.000"); 
         
         try(BufferedWriter writer = new BufferedWriter(new FileWriter(this.debugFile))){
             writer.write("source URI;target URI;source instances;target instances;overlap;base;min;dice;matchbased");
             writer.newLine();
-            for(Entry<Correspondence, Integer> t : list){
-                int instancesOne = instanceCounts.getOrDefault(t.getKey().getEntityOne(), 0);
-                int instancesTwo = instanceCounts.getOrDefault(t.getKey().getEntityTwo(), 0);
-                int instancesOverlap = t.getValue();
-                
-                writer.write(t.getKey().getEntityOne() + ";" + t.getKey().getEntityTwo() + ";" + 
-                        instancesOne + ";" + instancesTwo + ";" + instancesOverlap + ";" +
-                        df.format(getSimValueBase(instancesOverlap, instancesOne, instancesTwo)) + ";" + 
-                        df.format(getSimValueMin(instancesOverlap, instancesOne, instancesTwo)) + ";" + 
-                        df.format(getSimValueDice(instancesOverlap, instancesOne, instancesTwo)) + ";" + 
-                        df.format(getSimValueMatchBased(instancesOverlap, instanceMappings)));
+            for(ClassPair t : list){
+                writer.write(t.sourceURI + ";" + t.targetURI + ";" + 
+                        t.instancesOne + ";" + t.instancesTwo + ";" + t.instancesOverlap + ";" +
+                        df.format(getSimValueBase(t.instancesOverlap, t.instancesOne, t.instancesTwo)) + ";" + 
+                        df.format(getSimValueMin(t.instancesOverlap, t.instancesOne, t.instancesTwo)) + ";" + 
+                        df.format(getSimValueDice(t.instancesOverlap, t.instancesOne, t.instancesTwo)) + ";" + 
+                        df.format(getSimValueMatchBased(t.instancesOverlap, instanceMappings)));
                 writer.newLine();
             }
         }
     }
     
-    private Set<Resource> getInstancesOfClass(Resource clazz){
-        return clazz.getModel().listSubjectsWithProperty(this.instanceToHierarchyProperty, clazz).toSet();
-    }
-    
-    private Set<String> getClassesOfInstance(Resource resource){
-        Set<String> classes = new HashSet<>();
-        StmtIterator i = resource.listProperties(this.instanceToHierarchyProperty);
-        while(i.hasNext()){
-            RDFNode node = i.next().getObject();
-            if(node.isURIResource() == false)
-                continue;
-            if(node.equals(OWL.Thing))
-                continue;
-            classes.add(node.asResource().getURI());            
-        }
-        return classes;
-    }
-    
     //getter setter
 
     public double getThreshold() {
@@ -295,23 +273,65 @@ public class MatchClassBasedOnInstances extends MatcherYAAAJena {
         this.debugFile = debugFile;
     }
     
-    class ClassMatchInfo{
-        private final Set<String> sourceInstances;
-        private final Set<String> targetInstances;
+    static class ClassMatchInfo{
+        private final Set<Integer> sourceInstances;
+        private final Set<Integer> targetInstances;
         
         public ClassMatchInfo(){
             this.sourceInstances = new HashSet<>();
             this.targetInstances = new HashSet<>();
         }
         
-        public void addInstanceMatch(String source, String target){
+        public void addInstanceMatch(int source, int target){
             sourceInstances.add(source);
             targetInstances.add(target);
         }
         
+        public ClassMatchInfo merge(ClassMatchInfo other){
+            sourceInstances.addAll(other.sourceInstances);
+            targetInstances.addAll(other.targetInstances);
+            return this;
+        }
+        
         public int getOverlap(){
             //in case of n:m instance mappings only the minimum amount of resource is the number of the intersection
             return Math.min(sourceInstances.size(), targetInstances.size());
         }
     }
+    
+    /**
+     * An instance correspondence with the class ids of both instances.
+     */
+    private static class InstanceMatch{
+        private final int sourceInstance;
+        private final int targetInstance;
+        private final int[] sourceClasses;
+        private final int[] targetClasses;
+
+        InstanceMatch(int sourceInstance, int targetInstance, int[] sourceClasses, int[] targetClasses) {
+            this.sourceInstance = sourceInstance;
+            this.targetInstance = targetInstance;
+            this.sourceClasses = sourceClasses;
+            this.targetClasses = targetClasses;
+        }
+    }
+    
+    /**
+     * A pair of classes with their instance counts and the number of matched instances.
+     */
+    private static class ClassPair{
+        private final String sourceURI;
+        private final String targetURI;
+        private final int instancesOne;
+        private final int instancesTwo;
+        private final int instancesOverlap;
+
+        ClassPair(String sourceURI, String targetURI, int instancesOne, int instancesTwo, int instancesOverlap) {
+            this.sourceURI = sourceURI;
+            this.targetURI = targetURI;
+            this.instancesOne = instancesOne;
+            this.instancesTwo = instancesTwo;
+            this.instancesOverlap = instancesOverlap;
+        }
+    }
 }
@@ -1,7 +1,6 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.instancelevel;
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
-import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.DefaultHashMap;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import java.io.BufferedWriter;
@@ -10,27 +9,32 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
 import org.apache.jena.ontology.Individual;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntProperty;
-import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.RDFNode;
-import org.apache.jena.rdf.model.Statement;
-import org.apache.jena.rdf.model.StmtIterator;
 import org.apache.jena.util.iterator.ExtendedIterator;
 
 /**
  * Matches properties based on same subject and object and the distribution.
+ * The statements of both models are indexed once (see {@link PropertyIndex}) and the overlaps are counted in parallel
+ * partitions of the instance correspondences.
  */
 public class MatchPropBasedOnInstances extends MatcherYAAAJena {
 
+    /**
+     * Minimum number of instance correspondences per parallel partition.
+     */
+    private static final int MIN_PARTITION_SIZE = 1000;
+
     private File debugFile;
     
     public MatchPropBasedOnInstances(){
@@ -49,66 +53,115 @@ public class MatchPropBasedOnInstances extends MatcherYAAAJena {
     
     
     public Alignment getPropertyAlignment(OntModel source, OntModel target, Alignment inputAlignment) throws Exception {
-        
-        Map<String, Integer> sourceProperties = getPropertyURIs(source);
-        Map<String, Integer> targetProperties = getPropertyURIs(target);
-        
-        
-        Map<Correspondence, Integer> counter = new HashMap(); //map correspondence (prop-prop) to how often they overlap
-        
-        for(Correspondence corr : inputAlignment){            
+        PropertyIndex sourceIndex = new PropertyIndex(source, true);
+        return getPropertyAlignment(source, target, inputAlignment, sourceIndex, new PropertyIndex(target, sourceIndex));
+    }
+    
+    /**
+     * Computes the property alignment with already built indices.
+     * The same indices can be passed afterwards to
+     * {@link de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.structurelevel.MatchPropBasedOnClass#getPropertyMatches(PropertyIndex, PropertyIndex, Alignment)}
+     * such that the statements are indexed only once.
+     * @param source the source model
+     * @param target the target model
+     * @param inputAlignment the alignment which contains the instance correspondences
+     * @param sourceIndex the index of the source model (with postings)
+     * @param targetIndex the index of the target model which shares the object dictionary with the source index
+     * @return the property alignment
+     * @throws Exception in case the debug file cannot be written
+     */
+    public Alignment getPropertyAlignment(OntModel source, OntModel target, Alignment inputAlignment,
+            PropertyIndex sourceIndex, PropertyIndex targetIndex) throws Exception {
+        Map<Correspondence, Integer> counter = getOverlapCounts(source, target, inputAlignment, sourceIndex, targetIndex);
+        saveValuesToFile(counter, sourceIndex.getStatementCounts(), targetIndex.getStatementCounts());
+        return new Alignment();
+    }
+    
+    /**
+     * Counts for each pair of properties (source, target) how often they share the same object (URI or lexical form of a literal)
+     * for two matched individuals (given by the input alignment).
+     * @param source the source model
+     * @param target the target model
+     * @param inputAlignment the alignment which contains the instance correspondences
+     * @return map from the property correspondence to the number of overlapping statements
+     */
+    public Map<Correspondence, Integer> getOverlapCounts(OntModel source, OntModel target, Alignment inputAlignment) {
+        PropertyIndex sourceIndex = new PropertyIndex(source, true);
+        return getOverlapCounts(source, target, inputAlignment, sourceIndex, new PropertyIndex(target, sourceIndex));
+    }
+    
+    /**
+     * Counts the overlapping statements with already built indices (see {@link #getOverlapCounts(OntModel, OntModel, Alignment)}).
+     * @param source the source model
+     * @param target the target model
+     * @param inputAlignment the alignment which contains the instance correspondences
+     * @param sourceIndex the index of the source model (with postings)
+     * @param targetIndex the index of the target model which shares the object dictionary with the source index
+     * @return map from the property correspondence to the number of overlapping statements
+     */
+    public Map<Correspondence, Integer> getOverlapCounts(OntModel source, OntModel target, Alignment inputAlignment,
+            PropertyIndex sourceIndex, PropertyIndex targetIndex) {
+        //resolve the individuals sequentially (jena models are not necessarily thread safe)
+        List<long[]> sourcePostings = new ArrayList<>();
+        List<long[]> targetPostings = new ArrayList<>();
+        for(Correspondence corr : inputAlignment){
             Individual sourceIndividual = source.getIndividual(corr.getEntityOne());
             Individual targetIndividual = target.getIndividual(corr.getEntityTwo());
             if(sourceIndividual == null || targetIndividual == null)
                 continue;
-            
-            Map<String, Set<Property>> objectToProperty = new DefaultHashMap(HashSet.class);
-            
-            StmtIterator targetStmts = targetIndividual.listProperties();
-            while(targetStmts.hasNext()){
-                Statement s = targetStmts.next();
-                Property p = s.getPredicate();
-                if(p.isURIResource() == false)
-                    continue;
-                if(targetProperties.keySet().contains(p.getURI()) == false)
-                    continue;
-                RDFNode object = s.getObject();
-                if(object.isURIResource()){
-                    objectToProperty.get(object.asResource().getURI()).add(p);
-                }else if(object.isLiteral()){
-                    objectToProperty.get(object.asLiteral().getLexicalForm()).add(p);
-                }
+            sourcePostings.add(sourceIndex.getPostings(sourceIndividual.getURI()));
+            targetPostings.add(targetIndex.getPostings(targetIndividual.getURI()));
+        }
+        
+        //count the overlaps in parallel partitions of the instance correspondences and merge the counters afterwards
+        int partitions = Math.max(1, Math.min(sourcePostings.size() / MIN_PARTITION_SIZE, Runtime.getRuntime().availableProcessors() * 4));
+        int partitionSize = (sourcePostings.size() + partitions - 1) / partitions;
+        PairCounter counter = IntStream.range(0, partitions).parallel().mapToObj(partition -> {
+            PairCounter partitionCounter = new PairCounter();
+            int end = Math.min(sourcePostings.size(), (partition + 1) * partitionSize);
+            for(int i = partition * partitionSize; i < end; i++){
+                countOverlaps(sourcePostings.get(i), targetPostings.get(i), partitionCounter);
             }
-            
-            StmtIterator stmts = sourceIndividual.listProperties();
-            while(stmts.hasNext()){
-                Statement s = stmts.next();
-                Property pSource = s.getPredicate();
-                if(pSource.isURIResource() == false)
-                    continue;
-                if(sourceProperties.keySet().contains(pSource.getURI()) == false)
-                    continue;
-                RDFNode object = s.getObject();
-                if(object.isURIResource()){
-                    //object properties
-                    for(Property pTarget : objectToProperty.get(object.asResource().getURI())){
-                        Correspondence c = new Correspondence(pSource.getURI(), pTarget.getURI());
-                        counter.put(c, counter.getOrDefault(c, 0) + 1);
-                    }
-                }else if(object.isLiteral()){
-                    //datatype properties
-                    for(Property pTarget : objectToProperty.get(object.asLiteral().getLexicalForm())){
-                        Correspondence c = new Correspondence(pSource.getURI(), pTarget.getURI());
-                        counter.put(c, counter.getOrDefault(c, 0) + 1);
+            return partitionCounter;
+        }).reduce(PairCounter::merge).orElseGet(PairCounter::new);
+        
+        Map<Correspondence, Integer> result = new HashMap<>();
+        counter.forEach((pair, count) -> result.put(new Correspondence(
+                sourceIndex.getPropertyURI((int) (pair >>> 32)), targetIndex.getPropertyURI((int) pair.longValue())), count));
+        return result;
+    }
+    
+    /**
+     * Merge join of the sorted postings on the object id.
+     * Each source statement is counted once for every distinct target property with the same object.
+     */
+    private static void countOverlaps(long[] source, long[] target, PairCounter counter){
+        int i = 0;
+        int j = 0;
+        while(i < source.length && j < target.length){
+            int sourceObject = PropertyIndex.getObjectId(source[i]);
+            int targetObject = PropertyIndex.getObjectId(target[j]);
+            if(sourceObject < targetObject){
+                i++;
+            }else if(sourceObject > targetObject){
+                j++;
+            }else{
+                int targetEnd = j;
+                while(targetEnd < target.length && PropertyIndex.getObjectId(target[targetEnd]) == targetObject)
+                    targetEnd++;
+                for(; i < source.length && PropertyIndex.getObjectId(source[i]) == sourceObject; i++){
+                    long sourceProperty = PropertyIndex.getPropertyId(source[i]);
+                    for(int k = j; k < targetEnd; k++){
+                        if(k > j && target[k] == target[k - 1])
+                            continue; //same target property with same object (e.g. literals with different language tags)
+                        counter.increment((sourceProperty << 32) | PropertyIndex.getPropertyId(target[k]));
                     }
                 }
+                j = targetEnd;
             }
         }
-        saveValuesToFile(counter, sourceProperties, targetProperties);
-        return new Alignment();
     }
     
-    
     private void saveValuesToFile(Map<Correspondence, Integer> propertyAlignment, Map<String, Integer> sourceProperties, Map<String, Integer> targetProperties) throws IOException {
         if(this.debugFile == null)
             return;
@@ -154,4 +207,82 @@ public class MatchPropBasedOnInstances extends MatcherYAAAJena {
         return false;        
     }
     */
+    
+    /**
+     * Open addressing hash map from a pair of property ids (encoded as non negative long) to a count.
+     */
+    private static class PairCounter {
+        private long[] keys;
+        private int[] counts;
+        private int size;
+
+        PairCounter() {
+            this.keys = new long[64];
+            this.counts = new int[64];
+            Arrays.fill(this.keys, -1L);
+            this.size = 0;
+        }
+
+        void increment(long key) {
+            add(key, 1);
+        }
+
+        void add(long key, int count) {
+            int slot = find(key);
+            if(keys[slot] == -1L){
+                keys[slot] = key;
+                size++;
+                if(size * 2 > keys.length){
+                    counts[slot] = count;
+                    grow();
+                    return;
+                }
+            }
+            counts[slot] += count;
+        }
+
+        private int find(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) (mix(key) & mask);
+            while(keys[slot] != -1L && keys[slot] != key)
+                slot = (slot + 1) & mask;
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            Arrays.fill(keys, -1L);
+            for(int i = 0; i < oldKeys.length; i++){
+                if(oldKeys[i] != -1L){
+                    int slot = find(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        PairCounter merge(PairCounter other) {
+            PairCounter smaller = other.size < this.size ? other : this;
+            PairCounter larger = smaller == this ? other : this;
+            smaller.forEach((key, count) -> larger.add(key, count));
+            return larger;
+        }
+
+        void forEach(BiConsumer<Long, Integer> consumer) {
+            for(int i = 0; i < keys.length; i++){
+                if(keys[i] != -1L)
+                    consumer.accept(keys[i], counts[i]);
+            }
+        }
+
+        private static long mix(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return key;
+        }
+    }
 }
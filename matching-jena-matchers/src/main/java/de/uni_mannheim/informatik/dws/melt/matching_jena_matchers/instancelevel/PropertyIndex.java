@@ -0,0 +1,262 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.instancelevel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntProperty;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+/**
+ * An index of the properties of a model (all URI properties returned by {@link OntModel#listAllOntProperties()}).
+ * For each property it stores the domains and ranges (URIs).
+ * Optionally, it also indexes the statements of the model in one pass: it stores the number of statements per property
+ * and for each subject URI the postings of its statements: the (object id, property id) pairs encoded
+ * as sorted longs. Objects are URIs or the lexical form of literals, both interned in a dictionary which can be shared
+ * between two indices (usually source and target) such that the object ids are comparable.
+ * Without postings only the property declarations are read, which is all {@link
+ * de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.structurelevel.MatchPropBasedOnClass} needs.
+ * An index with postings can be used for both instance and class based property matching.
+ * <p>
+ * After construction the index is read only and thus thread safe
+ * (the shared dictionary is only modified while constructing an index).
+ */
+public class PropertyIndex {
+
+
+    private static final long[] EMPTY = new long[0];
+
+    private final Map<String, Integer> propertyIds;
+    private final List<String> propertyURIs;
+    private final int[] statementCounts;
+    private final List<Set<String>> domains;
+    private final List<Set<String>> ranges;
+    private final Map<String, Integer> objectIds;
+    private final Map<String, long[]> postings;
+
+    /**
+     * Builds the index for the given model with a new object dictionary.
+     * @param model the model
+     * @param withPostings if true, the statements are indexed (postings of all subjects and statement counts),
+     *                     otherwise only the property declarations are read.
+     */
+    public PropertyIndex(OntModel model, boolean withPostings) {
+        this(model, withPostings, new HashMap<>());
+    }
+
+    /**
+     * Builds the index for the given model and shares the object dictionary with the other index (the object ids of both indices are comparable).
+     * @param model the model
+     * @param shareDictionaryWith the index whose object dictionary is used.
+     */
+    public PropertyIndex(OntModel model, PropertyIndex shareDictionaryWith) {
+        this(model, true, shareDictionaryWith.objectIds);
+    }
+
+    private PropertyIndex(OntModel model, boolean withPostings, Map<String, Integer> objectIds) {
+        this.propertyIds = new HashMap<>();
+        this.propertyURIs = new ArrayList<>();
+        this.domains = new ArrayList<>();
+        this.ranges = new ArrayList<>();
+        this.objectIds = objectIds;
+        ExtendedIterator<OntProperty> properties = model.listAllOntProperties();
+        while(properties.hasNext()){
+            OntProperty p = properties.next();
+            if(p.isURIResource() == false || this.propertyIds.containsKey(p.getURI()))
+                continue;
+            this.propertyIds.put(p.getURI(), this.propertyURIs.size());
+            this.propertyURIs.add(p.getURI());
+            this.domains.add(getObjectURIs(p.listProperties(model.getProfile().DOMAIN())));
+            this.ranges.add(getObjectURIs(p.listProperties(model.getProfile().RANGE())));
+        }
+        if(withPostings == false){
+            this.statementCounts = null;
+            this.postings = Collections.emptyMap();
+            return;
+        }
+        this.statementCounts = new int[this.propertyURIs.size()];
+
+        Map<String, LongList> subjectPostings = new HashMap<>();
+        StmtIterator i = model.listStatements();
+        while(i.hasNext()){
+            Statement s = i.next();
+            Integer propertyId = this.propertyIds.get(s.getPredicate().getURI());
+            if(propertyId == null)
+                continue;
+            this.statementCounts[propertyId]++;
+            if(s.getSubject().isURIResource() == false)
+                continue;
+            RDFNode object = s.getObject();
+            String objectKey;
+            if(object.isURIResource()){
+                objectKey = object.asResource().getURI();
+            }else if(object.isLiteral()){
+                objectKey = object.asLiteral().getLexicalForm();
+            }else{
+                continue;
+            }
+            long objectId = this.objectIds.computeIfAbsent(objectKey, k -> this.objectIds.size());
+            subjectPostings.computeIfAbsent(s.getSubject().getURI(), k -> new LongList()).add((objectId << 32) | propertyId);
+        }
+        this.postings = new HashMap<>(subjectPostings.size());
+        for(Map.Entry<String, LongList> entry : subjectPostings.entrySet()){
+            this.postings.put(entry.getKey(), entry.getValue().toSortedArray());
+        }
+    }
+
+    /**
+     * Returns true if the statements of the model are indexed (postings and statement counts).
+     * @return true if the index is built with postings
+     */
+    public boolean hasPostings() {
+        return this.statementCounts != null;
+    }
+
+    /**
+     * Returns the sorted postings of the given subject: each posting is a long where the upper 32 bits are the object id
+     * and the lower 32 bits are the property id (see {@link #getObjectId(long)} and {@link #getPropertyId(long)}).
+     * Literals with the same lexical form (but e.g. different language tags) lead to the same posting which is contained multiple times.
+     * The array should not be modified.
+     * @param subjectURI the URI of the subject
+     * @return the sorted postings (empty if the subject has no statement with an indexed property or the index has no postings)
+     */
+    public long[] getPostings(String subjectURI) {
+        return this.postings.getOrDefault(subjectURI, EMPTY);
+    }
+
+    /**
+     * Returns the object id of a posting.
+     * @param posting the posting
+     * @return the object id
+     */
+    public static int getObjectId(long posting) {
+        return (int) (posting >>> 32);
+    }
+
+    /**
+     * Returns the property id of a posting.
+     * @param posting the posting
+     * @return the property id
+     */
+    public static int getPropertyId(long posting) {
+        return (int) posting;
+    }
+
+    /**
+     * Returns the id of the given property.
+     * @param propertyURI the URI of the property
+     * @return the id or -1 if the property is unknown
+     */
+    public int getPropertyId(String propertyURI) {
+        return this.propertyIds.getOrDefault(propertyURI, -1);
+    }
+
+    /**
+     * Returns the URI of the property with the given id.
+     * @param propertyId the id of the property
+     * @return the URI of the property
+     */
+    public String getPropertyURI(int propertyId) {
+        return this.propertyURIs.get(propertyId);
+    }
+
+    /**
+     * Returns the number of properties in this index.
+     * @return number of properties
+     */
+    public int getNumberOfProperties() {
+        return this.propertyURIs.size();
+    }
+
+    /**
+     * Returns the number of statements of the given property (regardless of the subject).
+     * @param propertyId the id of the property
+     * @return the number of statements
+     * @throws IllegalStateException if the index is built without postings
+     */
+    public int getStatementCount(int propertyId) {
+        checkPostings();
+        return this.statementCounts[propertyId];
+    }
+
+    /**
+     * Returns the URIs of the domains of the given property. The set should not be modified.
+     * @param propertyId the id of the property
+     * @return the domain URIs
+     */
+    public Set<String> getDomains(int propertyId) {
+        return this.domains.get(propertyId);
+    }
+
+    /**
+     * Returns the URIs of the ranges of the given property. The set should not be modified.
+     * @param propertyId the id of the property
+     * @return the range URIs
+     */
+    public Set<String> getRanges(int propertyId) {
+        return this.ranges.get(propertyId);
+    }
+
+    /**
+     * Returns the number of statements for each property URI.
+     * @return map from property URI to the number of statements
+     * @throws IllegalStateException if the index is built without postings
+     */
+    public Map<String, Integer> getStatementCounts() {
+        checkPostings();
+        Map<String, Integer> counts = new HashMap<>();
+        for(int i = 0; i < this.propertyURIs.size(); i++){
+            counts.put(this.propertyURIs.get(i), this.statementCounts[i]);
+        }
+        return counts;
+    }
+
+    private void checkPostings() {
+        if(hasPostings() == false)
+            throw new IllegalStateException("The statements are only counted if the property index is built with postings.");
+    }
+
+    private static Set<String> getObjectURIs(StmtIterator i) {
+        Set<String> set = new HashSet<>();
+        while (i.hasNext()) {
+            RDFNode o = i.next().getObject();
+            if (o.isURIResource()) {
+                set.add(o.asResource().getURI());
+            }
+        }
+        return set.isEmpty() ? Collections.emptySet() : set;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyIndex(" + this.propertyURIs.size() + " properties, " + this.postings.size() + " subjects)";
+    }
+
+    /**
+     * Growable list of primitive longs.
+     */
+    private static class LongList {
+        private long[] values = new long[4];
+        private int size = 0;
+
+        void add(long value) {
+            if(size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        long[] toSortedArray() {
+            long[] array = Arrays.copyOf(values, size);
+            Arrays.sort(array);
+            return array;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import de.uni_mannheim.informatik.dws.melt.matching_base.Filter;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -16,21 +17,38 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.jena.ontology.OntModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import weka.classifiers.AbstractClassifier;
 import weka.classifiers.Classifier;
 import weka.classifiers.Evaluation;
+import weka.classifiers.bayes.NaiveBayes;
+import weka.classifiers.functions.Logistic;
 import weka.classifiers.trees.J48;
+import weka.classifiers.trees.RandomForest;
 import weka.core.Attribute;
 import weka.core.DenseInstance;
 import weka.core.Instances;
+import weka.core.OptionHandler;
+import weka.core.SerializationHelper;
+import weka.core.Utils;
 
 /**
- * Non functional code.
+ * This filter learns and applies a WEKA classifier given a training sample and an existing alignment (the pure Java
+ * counterpart of the MachineLearningScikitFilter in the matching-ml module).
+ * <p>
+ * The additional confidences of the correspondences are the features. They are extracted in one pass over the alignment
+ * into a column oriented matrix. The candidate classifiers (see {@link #getClassifiers()}) are evaluated with a
+ * stratified cross validation where all classifier/fold combinations run concurrently on a pool of
+ * {@code numberOfParallelJobs} threads. The classifier with the best F-measure (positive class) is trained on the whole
+ * training set and serialized together with the dataset header. Large alignments are then scored in batches of
+ * {@link #getBatchSize()} correspondences such that only one batch per thread is materialized as WEKA instances.
  */
-public class MachineLearningWEKAFilter extends MatcherYAAAJena {
+public class MachineLearningWEKAFilter extends MatcherYAAAJena implements Filter {
     /**
      * Default logger.
      */
@@ -57,7 +75,25 @@ public class MachineLearningWEKAFilter extends MatcherYAAAJena {
      */
     private int numberOfParallelJobs;
     
+    /**
+     * Number of correspondences which are converted to WEKA instances and classified at once.
+     */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    
+    /**
+     * The default batch size.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100_000;
+    
+    /**
+     * Seed for the randomization of the cross validation folds.
+     */
+    private static final long SEED = 1324;
     
+    /**
+     * Index of the positive class value in the class attribute.
+     */
+    private static final int POSITIVE = 1;
     
     
     public MachineLearningWEKAFilter() {
@@ -116,73 +152,231 @@ public class MachineLearningWEKAFilter extends MatcherYAAAJena {
     
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
-        //Alignment trainingAlignment = trainingGenerator.match(source, target, inputAlignment, properties);
-        //File model = trainModel(trainingAlignment);
-        //return applyModel(model, inputAlignment);
-        return inputAlignment;
+        Alignment trainingAlignment = trainingGenerator.match(source, target, inputAlignment, properties);
+        File model = File.createTempFile("weka_model", ".model");
+        try{
+            if(trainModel(trainingAlignment, model) == null)
+                return inputAlignment;
+            return applyModel(model, inputAlignment);
+        }finally{
+            model.delete();
+        }
     }
     
-    
+    /**
+     * Trains a model based on the given alignment and stores it in a temporary file (deleted on exit).
+     * @param trainingAlignment Correspondences with an EQUIVALENCE relation are treated as positives. All other relations are treated as negatives.
+     * @return the file which contains the serialized model or null if no model could be trained.
+     * @throws Exception in case the training or serialization fails.
+     */
     public File trainModel(Alignment trainingAlignment) throws Exception{
-        
+        File modelFile = File.createTempFile("weka_model", ".model");
+        modelFile.deleteOnExit();
+        if(trainModel(trainingAlignment, modelFile) == null){
+            modelFile.delete();
+            return null;
+        }
+        return modelFile;
+    }
+    
+    /**
+     * Selects the best classifier with a cross validation, trains it on the whole training alignment and
+     * serializes it (together with the dataset header which contains the confidence names) to the given file.
+     * @param trainingAlignment Correspondences with an EQUIVALENCE relation are treated as positives. All other relations are treated as negatives.
+     * @param modelFile the file to store the best model.
+     * @return the trained classifier or null if no features are available.
+     * @throws Exception in case the training or serialization fails.
+     */
+    public Classifier trainModel(Alignment trainingAlignment, File modelFile) throws Exception{
         Instances trainingInstances = getTrainingInstances(trainingAlignment);
+        if(trainingInstances.numAttributes() == 0)
+            return null;
+        Classifier classifier = AbstractClassifier.makeCopy(selectClassifier(trainingInstances));
+        classifier.buildClassifier(trainingInstances);
+        SerializationHelper.writeAll(modelFile.getAbsolutePath(), new Object[]{classifier, new Instances(trainingInstances, 0)});
+        LOGGER.info("Stored model {} in file {}", describe(classifier), modelFile);
+        return classifier;
+    }
+    
+    /**
+     * Evaluates all classifiers returned by {@link #getClassifiers()} with a stratified cross validation and returns
+     * the one with the highest F-measure of the positive class. All classifier/fold combinations are executed on a
+     * pool with {@code numberOfParallelJobs} threads.
+     * @param data the training instances
+     * @return the best (untrained) classifier
+     * @throws Exception in case the evaluation fails.
+     */
+    protected Classifier selectClassifier(Instances data) throws Exception{
+        List<Classifier> candidates = getClassifiers();
+        if(candidates.isEmpty())
+            throw new IllegalStateException("No classifiers are available for training.");
+        int folds = Math.min(this.crossValidationNumber, data.numInstances());
+        if(candidates.size() == 1 || folds < 2)
+            return candidates.get(0);
         
-        //10 fold cross validation
-        
-        int folds = 10;
-        int seed = 1324;
-        Random rand = new Random(seed);
-        Instances randData = new Instances(trainingInstances);
-        randData.randomize(rand);
+        Instances randData = new Instances(data);
+        randData.randomize(new Random(SEED));
         randData.stratify(folds);
-        
-        Classifier cls = new J48();
-        
-        // perform cross-validation
-        Evaluation eval = new Evaluation(randData);
+        List<Instances> trainFolds = new ArrayList<>(folds);
+        List<Instances> testFolds = new ArrayList<>(folds);
         for (int n = 0; n < folds; n++) {
-          Instances train = randData.trainCV(folds, n, rand);
-          Instances test = randData.testCV(folds, n);
-          // the above code is used by the StratifiedRemoveFolds filter, the
-          // code below by the Explorer/Experimenter:
-          // Instances train = randData.trainCV(folds, n, rand);
-
-          // build and evaluate classifier
-          Classifier clsCopy = AbstractClassifier.makeCopy(cls);
-          clsCopy.buildClassifier(train);
-          eval.evaluateModel(clsCopy, test);
+            trainFolds.add(randData.trainCV(folds, n, new Random(SEED + n)));
+            testFolds.add(randData.testCV(folds, n));
         }
         
-        //eval.crossValidateModel(cls, randData, folds, rand);
-
-        
-        return null;
+        int threads = Math.max(1, Math.min(this.numberOfParallelJobs, candidates.size() * folds));
+        LOGGER.info("Run {}-fold cross validation for {} classifiers ({} threads).", folds, candidates.size(), threads);
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        try{
+            List<List<Future<double[]>>> futures = new ArrayList<>(candidates.size());
+            for(Classifier candidate : candidates){
+                List<Future<double[]>> candidateFutures = new ArrayList<>(folds);
+                for (int n = 0; n < folds; n++) {
+                    Instances train = trainFolds.get(n);
+                    Instances test = testFolds.get(n);
+                    candidateFutures.add(exec.submit(() -> evaluateFold(candidate, train, test)));
+                }
+                futures.add(candidateFutures);
+            }
+            
+            Classifier best = null;
+            double bestFMeasure = -1.0;
+            for(int i = 0; i < candidates.size(); i++){
+                double[] counts = new double[3];
+                for(Future<double[]> future : futures.get(i)){
+                    double[] foldCounts = future.get();
+                    for(int k = 0; k < counts.length; k++){
+                        counts[k] += foldCounts[k];
+                    }
+                }
+                double denominator = 2 * counts[0] + counts[1] + counts[2];
+                double fMeasure = denominator == 0 ? 0.0 : (2 * counts[0]) / denominator;
+                LOGGER.info("Cross validation F-measure {} for {}", fMeasure, describe(candidates.get(i)));
+                if(fMeasure > bestFMeasure){
+                    bestFMeasure = fMeasure;
+                    best = candidates.get(i);
+                }
+            }
+            LOGGER.info("Selected {} (F-measure {})", describe(best), bestFMeasure);
+            return best;
+        }finally{
+            exec.shutdownNow();
+        }
+    }
+    
+    /**
+     * Trains a copy of the classifier on one fold and returns the true positives, false positives and false negatives of the positive class.
+     */
+    private static double[] evaluateFold(Classifier classifier, Instances train, Instances test) throws Exception{
+        Classifier copy = AbstractClassifier.makeCopy(classifier);
+        copy.buildClassifier(new Instances(train));
+        Evaluation eval = new Evaluation(train);
+        eval.evaluateModel(copy, test);
+        return new double[]{eval.numTruePositives(POSITIVE), eval.numFalsePositives(POSITIVE), eval.numFalseNegatives(POSITIVE)};
+    }
+    
+    /**
+     * Returns the candidate classifiers (untrained) which are compared in the cross validation.
+     * Subclasses can override this method to change the candidates or their hyperparameters.
+     * @return the list of candidate classifiers.
+     */
+    protected List<Classifier> getClassifiers(){
+        List<Classifier> classifiers = new ArrayList<>();
+        classifiers.add(new J48());
+        J48 unpruned = new J48();
+        unpruned.setUnpruned(true);
+        classifiers.add(unpruned);
+        classifiers.add(new RandomForest());
+        classifiers.add(new Logistic());
+        classifiers.add(new NaiveBayes());
+        return classifiers;
     }
     
+    /**
+     * Loads a model (trained/generated with trainModel) and applies it to the alignment which is then filtered.
+     * @param model the file to load the model from.
+     * @param alignment the alignment which should be filtered.
+     * @return the filtered alignment (only correspondences which are classified as positive).
+     */
     public Alignment applyModel(File model, Alignment alignment){
-        List<Correspondence> predictAlignmentOrdered = new ArrayList(alignment); // make order explicit
-        Instances wekaTestInstances = getTestInstances(predictAlignmentOrdered);
-
-        //TODO: load model from file and predict wekaTestInstances
-        
-        
-        //set confidence of correspondence which is the confidence of the model
-        List<Double> predictions = Arrays.asList();
-        
-        if(predictAlignmentOrdered.size() != predictions.size()){
-            LOGGER.warn("Size of correspondences and predictions do not have the same size. Return unfiltered alignment.");
+        if(model == null || model.exists() == false){
+            LOGGER.error("Model file does not exist. Return unfiltered alignment.");
             return alignment;
         }
-        Alignment filteredAlignment = new Alignment(alignment, false);
-        for(int i=0; i < predictions.size(); i++){
-            /*
-            if(predictions.get(i) == 1){//positive class
-                filteredAlignment.add(orderedAlignment.get(i));
+        try{
+            Object[] stored = SerializationHelper.readAll(model.getAbsolutePath());
+            return applyModel((Classifier) stored[0], (Instances) stored[1], alignment);
+        } catch (Exception ex) {
+            LOGGER.error("applyModel failed. Return unfiltered alignment.", ex);
+            return alignment;
+        }
+    }
+    
+    /**
+     * Applies the trained classifier to the alignment which is then filtered.
+     * The correspondences are classified in batches which are distributed over {@code numberOfParallelJobs} threads
+     * (each thread uses its own copy of the classifier).
+     * @param classifier the trained classifier
+     * @param header the header of the training instances (defines the confidence names and the class attribute).
+     * @param alignment the alignment which should be filtered.
+     * @return the filtered alignment (only correspondences which are classified as positive).
+     * @throws Exception in case the classification fails.
+     */
+    public Alignment applyModel(Classifier classifier, Instances header, Alignment alignment) throws Exception{
+        List<String> names = new ArrayList<>();
+        for(int i = 0; i < header.numAttributes(); i++){
+            if(i != header.classIndex())
+                names.add(header.attribute(i).name());
+        }
+        List<Correspondence> predictAlignmentOrdered = new ArrayList<>(alignment); // make order explicit
+        FeatureMatrix matrix = new FeatureMatrix(predictAlignmentOrdered, names, false);
+        boolean[] positive = new boolean[predictAlignmentOrdered.size()];
+        
+        int batches = (predictAlignmentOrdered.size() + this.batchSize - 1) / this.batchSize;
+        int threads = Math.max(1, Math.min(this.numberOfParallelJobs, batches));
+        if(threads == 1){
+            for(int batch = 0; batch < batches; batch++){
+                classifyBatch(classifier, header, matrix, batch, positive);
             }
-            */
-        }        
+        }else{
+            Classifier[] copies = AbstractClassifier.makeCopies(classifier, threads);
+            ExecutorService exec = Executors.newFixedThreadPool(threads);
+            try{
+                List<Future<?>> futures = new ArrayList<>(threads);
+                for(int t = 0; t < threads; t++){
+                    int thread = t;
+                    futures.add(exec.submit(() -> {
+                        for(int batch = thread; batch < batches; batch += threads){
+                            classifyBatch(copies[thread], header, matrix, batch, positive);
+                        }
+                        return null;
+                    }));
+                }
+                for(Future<?> future : futures){
+                    future.get();
+                }
+            }finally{
+                exec.shutdownNow();
+            }
+        }
         
-        return null;
+        Alignment filteredAlignment = new Alignment(alignment, false);
+        for(int i = 0; i < positive.length; i++){
+            if(positive[i]){
+                filteredAlignment.add(predictAlignmentOrdered.get(i));
+            }
+        }
+        LOGGER.info("Classified {} correspondences in {} batch(es): {} are positive.", positive.length, batches, filteredAlignment.size());
+        return filteredAlignment;
+    }
+    
+    private void classifyBatch(Classifier classifier, Instances header, FeatureMatrix matrix, int batch, boolean[] positive) throws Exception{
+        int from = batch * this.batchSize;
+        int to = Math.min(from + this.batchSize, positive.length);
+        Instances instances = matrix.toInstances(header, from, to);
+        for(int i = 0; i < instances.numInstances(); i++){
+            positive[from + i] = classifier.classifyInstance(instances.instance(i)) == POSITIVE;
+        }
     }
     
     /**
@@ -193,45 +387,17 @@ public class MachineLearningWEKAFilter extends MatcherYAAAJena {
      */
     public Instances getTrainingInstances(Alignment alignment){
         if(confidenceNames == null || confidenceNames.isEmpty()){
-            confidenceNames = new ArrayList(alignment.getDistinctCorrespondenceConfidenceKeys());
+            confidenceNames = new ArrayList<>(alignment.getDistinctCorrespondenceConfidenceKeys());
             LOGGER.info("Confidence named used for traning the model, are all set to all available confidences in the training alignment.");
         }        
         if(confidenceNames.isEmpty()){
             LOGGER.warn("No confidences are available for learning. Returning empty dataset.");
-            return new Instances("Empy", new ArrayList(), 0);
-        }
-        
-        // 1. set up attributes
-        ArrayList<Attribute> attributes = new ArrayList<>();
-        for(String confidenceName : confidenceNames){
-            attributes.add(new Attribute(confidenceName));
-        }
-        attributes.add(new Attribute("Class", Arrays.asList("negative", "positive")));
-        
-        // 2. create Instances object
-        Instances dataset = new Instances("Train" , attributes, alignment.size());
-        dataset.setClassIndex(confidenceNames.size());
-        
-        // 3. fill with data
-        int positive = 0;
-        int negative = 0;
-
-        for(Correspondence c : alignment){
-            double[] vals = new double[confidenceNames.size() + 1];
-            for (int i = 0; i < confidenceNames.size(); i++) {
-                vals[i] = c.getAdditionalConfidence(confidenceNames.get(i));
-            }
-            if(c.getRelation() == CorrespondenceRelation.EQUIVALENCE){
-                vals[confidenceNames.size()] = 1.0; // index position - "positive"
-                positive++;
-            }else{
-                vals[confidenceNames.size()] = 0.0;// index position - "negative"
-                negative++;
-            }
-            dataset.add(new DenseInstance(1.0, vals));
+            return new Instances("Empy", new ArrayList<>(), 0);
         }
-        LOGGER.info("Created training set with {} positive and {} negative examples ({} attribute(s)).", positive, negative, confidenceNames.size());
-
+        FeatureMatrix matrix = new FeatureMatrix(alignment, confidenceNames, true);
+        Instances dataset = matrix.toInstances(createHeader("Train", confidenceNames, true, alignment.size()), 0, alignment.size());
+        int positive = matrix.countPositives();
+        LOGGER.info("Created training set with {} positive and {} negative examples ({} attribute(s)).", positive, alignment.size() - positive, confidenceNames.size());
         return dataset;
     }
     
@@ -243,30 +409,87 @@ public class MachineLearningWEKAFilter extends MatcherYAAAJena {
     public Instances getTestInstances(Collection<Correspondence> alignment){
         if((confidenceNames == null || confidenceNames.isEmpty())){
             LOGGER.warn("No confidences are available for learning. Returning empty dataset.");
-            return new Instances("Empy", new ArrayList(), 0);
+            return new Instances("Empy", new ArrayList<>(), 0);
         }
-        
-        // 1. set up attributes
+        FeatureMatrix matrix = new FeatureMatrix(alignment, confidenceNames, false);
+        Instances dataset = matrix.toInstances(createHeader("Test", confidenceNames, false, alignment.size()), 0, alignment.size());
+        LOGGER.info("Created test set with {} examples ({} attribute(s)).", alignment.size(), confidenceNames.size());
+        return dataset;
+    }
+    
+    private static Instances createHeader(String name, List<String> confidenceNames, boolean withClass, int capacity){
         ArrayList<Attribute> attributes = new ArrayList<>();
         for(String confidenceName : confidenceNames){
             attributes.add(new Attribute(confidenceName));
         }
+        if(withClass)
+            attributes.add(new Attribute("Class", Arrays.asList("negative", "positive")));
+        Instances header = new Instances(name, attributes, capacity);
+        if(withClass)
+            header.setClassIndex(confidenceNames.size());
+        return header;
+    }
+    
+    private static String describe(Classifier classifier){
+        if(classifier instanceof OptionHandler)
+            return classifier.getClass().getSimpleName() + " " + Utils.joinOptions(((OptionHandler) classifier).getOptions());
+        return classifier.getClass().getSimpleName();
+    }
+    
+    
+    /**
+     * Column oriented feature matrix which is filled in one pass over the correspondences.
+     * Missing additional confidences are set to zero.
+     */
+    private static class FeatureMatrix {
+        private final double[][] columns;
+        private final double[] labels;
+
+        FeatureMatrix(Collection<Correspondence> correspondences, List<String> confidenceNames, boolean withLabels) {
+            this.columns = new double[confidenceNames.size()][correspondences.size()];
+            this.labels = withLabels ? new double[correspondences.size()] : null;
+            int row = 0;
+            for(Correspondence c : correspondences){
+                for (int k = 0; k < confidenceNames.size(); k++) {
+                    this.columns[k][row] = c.getAdditionalConfidenceOrDefault(confidenceNames.get(k), 0.0);
+                }
+                if(withLabels)
+                    this.labels[row] = c.getRelation() == CorrespondenceRelation.EQUIVALENCE ? 1.0 : 0.0;
+                row++;
+            }
+        }
         
-        // 2. create Instances object
-        Instances dataset = new Instances("Test", attributes, alignment.size());
-        for(Correspondence c : alignment){
-            double[] vals = new double[confidenceNames.size()];
-            for (int i = 0; i < confidenceNames.size(); i++) {
-                vals[i] = c.getAdditionalConfidence(confidenceNames.get(i));
+        int countPositives(){
+            int positive = 0;
+            for(double label : this.labels){
+                if(label == 1.0)
+                    positive++;
             }
-            dataset.add(new DenseInstance(1.0, vals));
+            return positive;
+        }
+
+        /**
+         * Converts the rows from (inclusive) to (exclusive) to weka instances with the structure of the given header.
+         * The features are expected to be the first attributes. If the header has a class attribute, it is set to
+         * the label (or missing if no labels are available).
+         */
+        Instances toInstances(Instances header, int from, int to) {
+            Instances dataset = new Instances(header, to - from);
+            int classIndex = header.classIndex();
+            for(int row = from; row < to; row++){
+                double[] vals = new double[header.numAttributes()];
+                for (int k = 0; k < this.columns.length; k++) {
+                    vals[k] = this.columns[k][row];
+                }
+                if(classIndex >= 0)
+                    vals[classIndex] = this.labels == null ? Utils.missingValue() : this.labels[row];
+                dataset.add(new DenseInstance(1.0, vals));
+            }
+            return dataset;
         }
-        LOGGER.info("Created test set with {} examples ({} attribute(s)).", alignment.size(), confidenceNames.size());
-        return dataset;
     }
     
     
-       
     /**
      * Helper method to write an arff formatted file.
      * @param data the instances to write to file
@@ -288,6 +511,7 @@ public class MachineLearningWEKAFilter extends MatcherYAAAJena {
     }
     
     
+    
     /*
     visualize decison tree
         // train classifier
@@ -308,51 +532,27 @@ public class MachineLearningWEKAFilter extends MatcherYAAAJena {
         jf.setVisible(true);
         tv.fitToScreen();
         */
-    
-    
-    /*
-    private List<Classifier> getClassifiers(){
-        List<Classifier> classifiers = new ArrayList();
-        
-        LibSVM svm = new LibSVM();
-        for()
-        svm.setOptions(options);
-        
-        //for()
-        //LibSVM
-        //classifiers.add(e)
+
+    public List<String> getConfidenceNames() {
+        return confidenceNames;
     }
-    
-    
-    
-    class WekaModel{
-        
-        private Classifier cls;
-        private String[] hyperparamter;
 
-        public WekaModel(Classifier cls, String[] hyperparamter) {
-            this.cls = cls;
-            this.hyperparamter = hyperparamter;
-        }
-        public WekaModel(Classifier cls, String hyperparamter) {
-            this.cls = cls;
-            this.hyperparamter = Utils.splitOptions(hyperparamter);
-        }        
-        
-        public Classifier getClassifier(){
-            
-            //Utils.forName(Classifier.class, "J48", "-U")
-            //cls.se
-            
-            if ((cls instanceof OptionHandler)) {
-              ((OptionHandler) cls).setOptions(hyperparamter);
-            }
-        }
+    /**
+     * Returns the number of correspondences which are converted to WEKA instances and classified at once.
+     * @return the batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
     }
-*/
 
-    public List<String> getConfidenceNames() {
-        return confidenceNames;
+    /**
+     * Sets the number of correspondences which are converted to WEKA instances and classified at once.
+     * @param batchSize the batch size (at least one)
+     */
+    public void setBatchSize(int batchSize) {
+        if(batchSize < 1)
+            throw new IllegalArgumentException("The batch size has to be at least one.");
+        this.batchSize = batchSize;
     }
     
 }
@@ -8,15 +8,22 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena.TdbUtil;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphUtil;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.graph.Triple;
@@ -44,6 +51,11 @@ public class MergeExecutor implements Callable<MergeResult>{
     private final boolean removeUnusedJenaModels;
     private final CopyMode copyMode;
     private final String labelOfMergeTask;
+    
+    /**
+     * The default number of triples which are rewritten and added to the target together.
+     */
+    public static final int DEFAULT_PARTITION_SIZE = 100_000;
 
     public MergeExecutor(Supplier<Object> matcherSupplier, Set<Object> kgOne, Set<Object> kgTwo, Object inputAlignment, Properties parameters, 
             boolean addInformationToUnion, int newPos, boolean removeUnusedJenaModels, CopyMode copyMode, String labelOfMergeTask) {
@@ -174,12 +186,123 @@ public class MergeExecutor implements Callable<MergeResult>{
     
     /**
      * Merges all triples from the source model into the target model.
+     * The replacement map (source URI to target URI) is built once from the alignment and the source triples
+     * are rewritten in parallel partitions which are then added in bulk to the target
+     * (see {@link #mergeSourceIntoTargetBulk(Model, Model, Alignment, boolean, int)}).
      * @param source the source where all triples originates
      * @param target the target model where all triples should end up
      * @param alignment the alignment which is used.
      * @param addInformationToUnion if true, all information will be added to the merged ontology
      */
     public static void mergeSourceIntoTarget(Model source, Model target, Alignment alignment, boolean addInformationToUnion){
+        mergeSourceIntoTargetBulk(source, target, alignment, addInformationToUnion, DEFAULT_PARTITION_SIZE);
+    }
+    
+    /**
+     * Merges all triples from the source model into the target model.
+     * The replacement map (source URI to target URI) is built once from the alignment.
+     * The source triples are read in partitions of the given size. Each partition is rewritten in parallel
+     * (the model is only accessed sequentially) and afterwards added to the target graph in one bulk operation.
+     * The result is the same as {@link #mergeSourceIntoTargetPerTriple(Model, Model, Alignment, boolean) }.
+     * @param source the source where all triples originates
+     * @param target the target model where all triples should end up
+     * @param alignment the alignment which is used.
+     * @param addInformationToUnion if true, all information will be added to the merged ontology
+     * @param partitionSize the number of triples which are rewritten and added together (bounds the additional memory).
+     */
+    public static void mergeSourceIntoTargetBulk(Model source, Model target, Alignment alignment, boolean addInformationToUnion, int partitionSize){
+        if(partitionSize < 1)
+            throw new IllegalArgumentException("The partition size needs to be greater than zero.");
+        Map<String, Node> replacements = getReplacementMap(alignment);
+        Graph targetGraph = target.getGraph();
+        List<Triple> partition = new ArrayList<>(Math.min(partitionSize, 10_000));
+        ExtendedIterator<Triple> it = source.getGraph().find();
+        try{
+            while(it.hasNext()){
+                partition.add(it.next());
+                if(partition.size() >= partitionSize){
+                    GraphUtil.add(targetGraph, rewrite(partition, replacements, addInformationToUnion));
+                    partition.clear();
+                }
+            }
+        }finally{
+            it.close();
+        }
+        if(!partition.isEmpty()){
+            GraphUtil.add(targetGraph, rewrite(partition, replacements, addInformationToUnion));
+        }
+    }
+    
+    /**
+     * Builds the replacement map from the alignment: each source URI which has an equivalence correspondence
+     * is mapped to the node of the (canonical) target URI.
+     * @param alignment the alignment
+     * @return map from source URI to target node
+     */
+    static Map<String, Node> getReplacementMap(Alignment alignment){
+        Map<String, Node> replacements = new HashMap<>();
+        int multipleTargets = 0;
+        for(String sourceURI : alignment.getDistinctSources()){
+            Iterator<Correspondence> correspondences = alignment.getCorrespondencesSourceRelation(sourceURI, CorrespondenceRelation.EQUIVALENCE).iterator();
+            if(correspondences.hasNext()){
+                replacements.put(sourceURI, NodeFactory.createURI(correspondences.next().getEntityTwo()));
+                if(correspondences.hasNext()){
+                    multipleTargets++;
+                }
+            }
+        }
+        if(multipleTargets > 0){
+            LOGGER.info("The alignment matches {} source entities to multiple target entities. "
+                    + "Currently uing the canonical one. Better filter the alignment in the base matcher to select the correct one.", multipleTargets);
+        }
+        return replacements;
+    }
+    
+    private static List<Triple> rewrite(List<Triple> triples, Map<String, Node> replacements, boolean addInformationToUnion){
+        return triples.parallelStream()
+                .map(t -> rewrite(t, replacements, addInformationToUnion))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    
+    private static Triple rewrite(Triple t, Map<String, Node> replacements, boolean addInformationToUnion){
+        Node newSubject = replace(replacements, t.getSubject());
+        Node newObject = replace(replacements, t.getObject());
+        if(addInformationToUnion == false && (newSubject != null || newObject != null)){
+            //we do not add it if subject or obj etc is already matched.
+            return null;
+        }
+        Node newPredicate = replace(replacements, t.getPredicate());
+        if(newSubject == null && newPredicate == null && newObject == null){
+            return t;
+        }
+        return new Triple(
+                newSubject == null ? t.getSubject() : newSubject,
+                newPredicate == null ? t.getPredicate() : newPredicate,
+                newObject == null ? t.getObject() : newObject
+        );
+    }
+    
+    /**
+     * Returns the replacement of the node or null if it should not be replaced.
+     */
+    private static Node replace(Map<String, Node> replacements, Node node){
+        if(node.isURI()){
+            return replacements.get(node.getURI());
+        }
+        return null;
+    }
+    
+    /**
+     * Merges all triples from the source model into the target model.
+     * This is the previous implementation which queries the alignment for each triple and adds the triples one by one.
+     * Usually {@link #mergeSourceIntoTarget(Model, Model, Alignment, boolean) } is faster.
+     * @param source the source where all triples originates
+     * @param target the target model where all triples should end up
+     * @param alignment the alignment which is used.
+     * @param addInformationToUnion if true, all information will be added to the merged ontology
+     */
+    public static void mergeSourceIntoTargetPerTriple(Model source, Model target, Alignment alignment, boolean addInformationToUnion){
         if(addInformationToUnion){
             mergeSourceIntoTargetFullInformation(source, target, alignment);
         }else{
@@ -1,6 +1,7 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers;
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers.clustermerge.ClusterLinkage;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers.clustermerge.SparseFeatures;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformerRegistry;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.typetransformation.JenaTransformerHelper;
@@ -13,13 +14,17 @@ import java.io.IOException;
 import java.text.BreakIterator;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import org.apache.commons.lang.StringUtils;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
 import org.apache.jena.ontology.OntModel;
@@ -32,7 +37,6 @@ import org.apache.jena.rdf.model.StmtIterator;
 import org.apache.jena.vocabulary.RDF;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import smile.math.MathEx;
 import smile.nlp.dictionary.EnglishPunctuations;
 import smile.nlp.dictionary.EnglishStopWords;
 import smile.nlp.normalizer.SimpleNormalizer;
@@ -88,8 +92,35 @@ public class MultiSourceDispatcherIncrementalMergeByClusterText extends MultiSou
         this(matcherSupplier, ClusterLinkage.SINGLE, 0.0, 1.0);
     }
     
+    @Override
+    public MergeOrder getMergeTree(List<Set<Object>> models, Object parameters){
+        LOGGER.info("Compute cluster features");
+        SparseFeatures features = getSparseClusterFeatures(models, parameters);
+        LOGGER.info("Run clustering");
+        return this.getClusterer().run(features, this.getLinkage(), this.getDistance());
+    }
+    
+    /**
+     * Returns the dense TF-IDF vectors of all models.
+     * Be careful because the matrix has one column for each selected word.
+     * {@link #getSparseClusterFeatures(List, Object) } is usually the better choice.
+     * @param models the models
+     * @param parameters the parameters
+     * @return the dense TF-IDF vectors (one row per model)
+     */
     @Override
     public double[][] getClusterFeatures(List<Set<Object>> models, Object parameters){
+        return getSparseClusterFeatures(models, parameters).toDense();
+    }
+    
+    /**
+     * Returns the TF-IDF vectors of all models as sparse features (only the words which appear in a model are stored).
+     * Each vector is normalized to unit length.
+     * @param models the models
+     * @param parameters the parameters
+     * @return the sparse TF-IDF vectors (one row per model)
+     */
+    public SparseFeatures getSparseClusterFeatures(List<Set<Object>> models, Object parameters){
         Properties p = TypeTransformerRegistry.getTransformedPropertiesOrNewInstance(parameters);
         
         LOGGER.info("Compute BOW for each KG.");
@@ -103,7 +134,7 @@ public class MultiSourceDispatcherIncrementalMergeByClusterText extends MultiSou
                 Model m = (Model)TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(modelRepresentations, OntModel.class, p);
                 if(m == null){
                     LOGGER.warn("Initial model is null. Can't compute the similarities between the ontologies/knowledge graphs.");
-                    return new double[0][0];
+                    return SparseFeatures.fromDense(new double[0][0]);
                 }
                 //LOGGER.debug("Compute BOW");
                 Counter<String> bow = getBagOfWords(m);
@@ -115,7 +146,7 @@ public class MultiSourceDispatcherIncrementalMergeByClusterText extends MultiSou
                 }
             }catch(TypeTransformationException ex){
                 LOGGER.warn("Conversion to OntModel/Model did not work. Can't compute the similarities between the ontologies/knowledge graphs.", ex);
-                return new double[0][0];
+                return SparseFeatures.fromDense(new double[0][0]);
             }
             if(i % 500 == 0)
                 LOGGER.info("Computing BOW {}/{}", i, models.size());
@@ -140,27 +171,71 @@ public class MultiSourceDispatcherIncrementalMergeByClusterText extends MultiSou
             LOGGER.info("The selection of words results in no features. Use all words as features (backup version). This results in {} words/features.", selectedWords.size());
         }
         
-        String[] features = selectedWords.toArray(new String[0]);
+        Map<String, Integer> featureIndex = new HashMap<>();
+        for(String word : selectedWords){
+            featureIndex.put(word, featureIndex.size());
+        }
         //tf-idf
         LOGGER.info("Compute TF-IDF vector for each KG.");
         long n = documents.size();
-        int[] featuresDocumentFrequency = Arrays.stream(features).mapToInt(f->documentFrequency.getCount(f)).toArray();
-        double[][] data = documents.stream().map(bag -> {
-                double[] featureVector = new double[features.length];
-                for (int i = 0; i < featureVector.length; i++)
-                    featureVector[i] = bag.getCount(features[i]);
-                double maxtf = MathEx.max(featureVector);
-                double[] x = new double[featureVector.length];
+        //only iterate over the words of each document (and not over all features)
+        List<SparseRow> rows = documents.parallelStream().map(bag -> {
+                Map<Integer, String> wordsByColumn = new TreeMap<>();
+                for(String word : bag.getDistinctElements()){
+                    Integer column = featureIndex.get(word);
+                    if(column != null)
+                        wordsByColumn.put(column, word);
+                }
+                int[] sortedColumns = new int[wordsByColumn.size()];
+                String[] words = new String[wordsByColumn.size()];
+                int maxtf = 0;
+                int k = 0;
+                for(Map.Entry<Integer, String> entry : wordsByColumn.entrySet()){
+                    sortedColumns[k] = entry.getKey();
+                    words[k] = entry.getValue();
+                    maxtf = Math.max(maxtf, bag.getCount(entry.getValue()));
+                    k++;
+                }
+                double[] x = new double[sortedColumns.length];
                 if(maxtf != 0){
+                    double norm = 0;
                     for (int i = 0; i < x.length; i++) {
-                        x[i] = (featureVector[i] / maxtf) * Math.log((1.0 + n) / (1.0 + featuresDocumentFrequency[i]));
+                        x[i] = ((double)bag.getCount(words[i]) / maxtf) * Math.log((1.0 + n) / (1.0 + documentFrequency.getCount(words[i])));
+                        norm += x[i] * x[i];
+                    }
+                    if(norm > 0){
+                        norm = Math.sqrt(norm);
+                        for (int i = 0; i < x.length; i++)
+                            x[i] /= norm;
                     }
-                    MathEx.unitize(x);
                 }
-                return x;
-        }).toArray(double[][]::new);
-        LOGGER.info("Finished computing TF-IDF vector for each KG.");
-        return data;
+                return new SparseRow(sortedColumns, x);
+        }).collect(Collectors.toList());
+        
+        int[] rowPointers = new int[rows.size() + 1];
+        for(int i = 0; i < rows.size(); i++){
+            rowPointers[i + 1] = rowPointers[i] + rows.get(i).columns.length;
+        }
+        int[] columns = new int[rowPointers[rows.size()]];
+        double[] values = new double[rowPointers[rows.size()]];
+        for(int i = 0; i < rows.size(); i++){
+            SparseRow row = rows.get(i);
+            System.arraycopy(row.columns, 0, columns, rowPointers[i], row.columns.length);
+            System.arraycopy(row.values, 0, values, rowPointers[i], row.values.length);
+        }
+        SparseFeatures features = new SparseFeatures(rowPointers, columns, values, featureIndex.size());
+        LOGGER.info("Finished computing TF-IDF vector for each KG ({} non zero values).", features.getNumberOfNonZeros());
+        return features;
+    }
+    
+    private static class SparseRow {
+        private final int[] columns;
+        private final double[] values;
+
+        SparseRow(int[] columns, double[] values) {
+            this.columns = columns;
+            this.values = values;
+        }
     }
     
     
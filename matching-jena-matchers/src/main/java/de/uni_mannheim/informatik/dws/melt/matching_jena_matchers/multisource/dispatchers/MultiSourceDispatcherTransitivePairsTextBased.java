@@ -6,6 +6,8 @@ import de.uni_mannheim.informatik.dws.melt.matching_base.multisource.MultiSource
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AlignmentAndParameters;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.GenericMatcherCaller;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformerRegistry;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers.clustermerge.ClusterDistance;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers.clustermerge.SparseFeatures;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.TransitiveClosure;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import java.net.URL;
@@ -17,7 +19,6 @@ import java.util.List;
 import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import smile.math.MathEx;
 
 /**
  * This dispatcher will compare the texts in a model and match the ones which are textually the clostest such that a connection between all ontologies exists.
@@ -59,16 +60,14 @@ public class MultiSourceDispatcherTransitivePairsTextBased extends MatcherMultiS
         LOGGER.info("Match {} one to one matches", combinations);
         Alignment finalAlignment = new Alignment();
         
-        //just get the double[][] of features:
+        //just get the sparse features:
         MultiSourceDispatcherIncrementalMergeByClusterText m = new MultiSourceDispatcherIncrementalMergeByClusterText(null, null, this.mindf, this.maxdf);
-        double[][] data = m.getClusterFeatures(models, parameters);
+        SparseFeatures data = m.getSparseClusterFeatures(models, parameters);
         
         List<MatchingPair> list = new ArrayList<>();
-        for(int i = 0; i < data.length - 1; i++){
-            double[] left = data[i];
+        for(int i = 0; i < data.getNumberOfRows() - 1; i++){
             for(int j = i + 1; j < models.size(); j++){
-                double[] right = data[j];
-                list.add(new MatchingPair(i, j, MathEx.cos(left, right)));
+                list.add(new MatchingPair(i, j, 1.0 - data.distance(i, j, ClusterDistance.COSINE)));
             }
         }
         list.sort(Comparator.comparing(MatchingPair::getDistance).reversed());
@@ -21,4 +21,9 @@ public enum ClusterDistance {
      * Manhattan distance for double arrays.
      */
     MANHATTAN,
+    
+    /**
+     * Cosine distance (one minus the cosine similarity). Usually used for text features like TF-IDF vectors.
+     */
+    COSINE,
 }
@@ -9,4 +9,16 @@ public interface Clusterer {
     
     public MergeOrder run(double[][] features, ClusterLinkage linkage, ClusterDistance distance);
     
+    /**
+     * Runs the clustering on sparse features.
+     * The default implementation converts the features to a dense matrix.
+     * Implementations should override it to compute the distances directly on the sparse representation.
+     * @param features the sparse features
+     * @param linkage the linkage
+     * @param distance the distance
+     * @return the merge order
+     */
+    public default MergeOrder run(SparseFeatures features, ClusterLinkage linkage, ClusterDistance distance){
+        return run(features.toDense(), linkage, distance);
+    }
 }
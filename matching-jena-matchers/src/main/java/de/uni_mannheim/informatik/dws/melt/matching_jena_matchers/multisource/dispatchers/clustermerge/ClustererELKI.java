@@ -23,12 +23,16 @@ import de.lmu.ifi.dbs.elki.database.datastore.DataStoreUtil;
 import de.lmu.ifi.dbs.elki.database.datastore.DoubleDataStore;
 import de.lmu.ifi.dbs.elki.database.datastore.WritableIntegerDataStore;
 import de.lmu.ifi.dbs.elki.database.ids.ArrayDBIDs;
+import de.lmu.ifi.dbs.elki.database.ids.DBID;
 import de.lmu.ifi.dbs.elki.database.ids.DBIDArrayIter;
 import de.lmu.ifi.dbs.elki.database.ids.DBIDRange;
 import de.lmu.ifi.dbs.elki.database.ids.DBIDUtil;
 import de.lmu.ifi.dbs.elki.database.ids.DBIDVar;
 import de.lmu.ifi.dbs.elki.datasource.ArrayAdapterDatabaseConnection;
+import de.lmu.ifi.dbs.elki.datasource.DBIDRangeDatabaseConnection;
 import de.lmu.ifi.dbs.elki.datasource.DatabaseConnection;
+import de.lmu.ifi.dbs.elki.distance.distancefunction.AbstractDBIDRangeDistanceFunction;
+import de.lmu.ifi.dbs.elki.distance.distancefunction.CosineDistanceFunction;
 import de.lmu.ifi.dbs.elki.distance.distancefunction.DistanceFunction;
 import de.lmu.ifi.dbs.elki.distance.distancefunction.minkowski.EuclideanDistanceFunction;
 import de.lmu.ifi.dbs.elki.distance.distancefunction.minkowski.ManhattanDistanceFunction;
@@ -70,25 +74,40 @@ public class ClustererELKI implements Clusterer {
         db.initialize();
         
         DistanceFunction<NumberVector> elkiDistance = getDistance(distance);
-        Linkage elkiLinkage = getLinkage(linkage);
+        return transformPointerHierarchy(getClusteringAlgorithm(elkiDistance, linkage).run(db));
+    }
+    
+    /**
+     * Runs the clustering on sparse features.
+     * The database only contains the ids of the rows and the distances are computed directly on the sparse rows.
+     * @param features the sparse features
+     * @param linkage the linkage
+     * @param distance the distance
+     * @return the merge order
+     */
+    @Override
+    public MergeOrder run(SparseFeatures features, ClusterLinkage linkage, ClusterDistance distance) {
+        //make sure that the DBIDs start from zero (first parameter)
+        DatabaseConnection dbc = new DBIDRangeDatabaseConnection(0, features.getNumberOfRows());
+        Database db = new StaticArrayDatabase(dbc, null);
+        db.initialize();
         
-        HierarchicalClusteringAlgorithm clusterer;
+        DistanceFunction<DBID> elkiDistance = new SparseDistanceFunction(features, distance);
+        return transformPointerHierarchy(getClusteringAlgorithm(elkiDistance, linkage).run(db));
+    }
+    
+    private <O> HierarchicalClusteringAlgorithm getClusteringAlgorithm(DistanceFunction<? super O> elkiDistance, ClusterLinkage linkage){
         if(alwaysUseAnderberg){
-            clusterer = new AnderbergHierarchicalClustering<>(elkiDistance, elkiLinkage);
-        }else{
-            switch(linkage){
-                case SINGLE:
-                    clusterer = new SLINK<>(elkiDistance);
-                    break;
-                case COMPLETE:
-                    clusterer = new CLINK<>(elkiDistance);
-                    break;
-                default:
-                    clusterer = new AnderbergHierarchicalClustering<>(elkiDistance, elkiLinkage);
-                    break;
-            }
+            return new AnderbergHierarchicalClustering<>(elkiDistance, getLinkage(linkage));
+        }
+        switch(linkage){
+            case SINGLE:
+                return new SLINK<>(elkiDistance);
+            case COMPLETE:
+                return new CLINK<>(elkiDistance);
+            default:
+                return new AnderbergHierarchicalClustering<>(elkiDistance, getLinkage(linkage));
         }
-        return transformPointerHierarchy(clusterer.run(db));
     }
     
     
@@ -140,6 +159,8 @@ public class ClustererELKI implements Clusterer {
                 return SquaredEuclideanDistanceFunction.STATIC;
             case MANHATTAN:
                 return ManhattanDistanceFunction.STATIC;
+            case COSINE:
+                return CosineDistanceFunction.STATIC;
             default:{
                 LOGGER.warn("Distance was not found. Defaulting to EUCLIDEAN.");
                 return EuclideanDistanceFunction.STATIC;
@@ -169,4 +190,34 @@ public class ClustererELKI implements Clusterer {
             }
         }
     }
+    
+    /**
+     * ELKI distance function which computes the distance between the rows of sparse features (identified by their offset).
+     */
+    private static class SparseDistanceFunction extends AbstractDBIDRangeDistanceFunction {
+        private final SparseFeatures features;
+        private final ClusterDistance distance;
+
+        SparseDistanceFunction(SparseFeatures features, ClusterDistance distance) {
+            this.features = features;
+            this.distance = distance;
+        }
+
+        @Override
+        public double distance(int i1, int i2) {
+            return this.features.distance(i1, i2, this.distance);
+        }
+
+        @Override
+        public void checkRange(DBIDRange range) {
+            if(range.size() != this.features.getNumberOfRows())
+                throw new IllegalArgumentException("The number of ids (" + range.size() + ") does not match the number of rows in the features ("
+                        + this.features.getNumberOfRows() + ").");
+        }
+        
+        @Override
+        public boolean isMetric() {
+            return this.distance == ClusterDistance.EUCLIDEAN || this.distance == ClusterDistance.MANHATTAN;
+        }
+    }
 }
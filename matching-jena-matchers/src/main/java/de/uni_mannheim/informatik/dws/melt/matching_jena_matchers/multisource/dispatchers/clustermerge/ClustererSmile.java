@@ -112,6 +112,30 @@ public class ClustererSmile implements Clusterer {
         return new MergeOrder(clusters.getTree(), clusters.getHeight());
     }
 
+    @Override
+    public MergeOrder run(SparseFeatures features, ClusterLinkage linkage, ClusterDistance distance) {
+        if(features.getNumberOfRows() == 0){
+            LOGGER.warn("Features for clustering is empty and do not contain any rows. Return empty merge order.");
+            return new MergeOrder(new int[0][0]);
+        }
+        long n = features.getNumberOfRows();
+        long distanceMatrixLength = n * (n+1) / 2;
+        
+        String featureMatrix = HumanReadbleByteCount.convert(12L * features.getNumberOfNonZeros()); //double and int index need 12 bytes
+        String distanceMatrix = HumanReadbleByteCount.convert(4 * distanceMatrixLength); // float needs 4 bytes
+        LOGGER.info("Compute distance matrix for {} instances/rows with {} features/columns and {} non zero values (sparse feature matrix requires {})."
+                + "The distance matrix will have {} entries (requires {}).",
+                n, features.getNumberOfColumns(), features.getNumberOfNonZeros(), featureMatrix, distanceMatrixLength, distanceMatrix);
+        float[] proximity = getProximity(features, distance);
+        
+        LOGGER.info("Compute the linkage based on the distance matrix.");
+        Linkage hacLinkage = getLinkage((int) n, proximity, linkage);
+        HierarchicalClustering clusters = HierarchicalClustering.fit(hacLinkage);
+        
+        LOGGER.info("Finished computing the linkage.");
+        return new MergeOrder(clusters.getTree(), clusters.getHeight());
+    }
+
     /**
      * Return the linkage which can be used to calculate the hierarchical
      * clustering.
@@ -170,6 +194,21 @@ public class ClustererSmile implements Clusterer {
         }
     }
         
+    /**
+     * Calculates the proximity (the lower triangular part of the distance matrix) of sparse features.
+     * The distances are computed directly on the sparse rows.
+     * @param features the sparse features to use
+     * @param distance the distance matric to use
+     * @return the proximity
+     */
+    public float[] getProximity(SparseFeatures features, ClusterDistance distance){
+        if(this.numberOfThreads > 1){
+            return proximityParallel(features, distance);
+        }else{
+            return proximity(features, distance);
+        }
+    }
+    
     private static Distance<double[]> getSmileDistanceFunction(ClusterDistance distance) {
         switch (distance) {
             case EUCLIDEAN:                
@@ -178,6 +217,8 @@ public class ClustererSmile implements Clusterer {
                 return MathEx::squaredDistance;
             case MANHATTAN:
                 return new ManhattanDistance();
+            case COSINE:
+                return (x, y) -> SparseFeatures.cosineDistance(MathEx.dot(x, y), MathEx.dot(x, x), MathEx.dot(y, y));
             default:
                 LOGGER.warn("ClusterDistance was not found. Defaulting to EuclideanDistance.");
                 return MathEx::distance;
@@ -220,6 +261,38 @@ public class ClustererSmile implements Clusterer {
         return proximity;
     }
     
+    public static float[] proximity(SparseFeatures data, ClusterDistance clusterDistance) {
+        long n = data.getNumberOfRows();
+        if(n > 46340) {
+            throw new IllegalArgumentException("This implementation does not scale to datasets which has more than 46340 instances");
+        }
+        long length = n * (n + 1) / 2;
+        float[] proximity = new float[(int)length];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                int k = (int)(length - (n - j) * (n - j + 1) / 2 + i - j);
+                proximity[k] = (float) data.distance(i, j, clusterDistance);
+            }
+        }
+        return proximity;
+    }
+    
+    public static float[] proximityParallel(SparseFeatures data, ClusterDistance clusterDistance){
+        long n = data.getNumberOfRows();
+        if(n > 46340) {
+            throw new IllegalArgumentException("This implementation does not scale to datasets which has more than 46340 instances");
+        }
+        long length = n * (n+1) / 2;
+        float[] proximity = new float[(int)length];
+        IntStream.range(0, (int)n).parallel().forEach(i -> {
+            for (int j = 0; j < i; j++) {
+                int k = (int) (length - (n-j)*(n-j+1)/2 + i - j);
+                proximity[k] = (float) data.distance(i, j, clusterDistance);
+            }
+        });
+        return proximity;
+    }
+    
     public static float[] proximityEuclideanParallel(double[][] data, int numberOfThreads, int numberOfExamplesPerThread, boolean squared){
         ExecutorService exec = Executors.newFixedThreadPool(numberOfThreads);
         long n = data.length;
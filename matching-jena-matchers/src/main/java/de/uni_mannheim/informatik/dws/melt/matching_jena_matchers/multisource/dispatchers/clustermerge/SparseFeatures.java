@@ -0,0 +1,245 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers.clustermerge;
+
+import java.util.Arrays;
+
+/**
+ * A sparse feature matrix in compressed sparse row (CSR) format.
+ * Only the non zero values of each row are stored (together with their column index in ascending order).
+ * The distances between two rows are computed by merging the non zero entries of both rows.
+ * Thus the cost depends on the number of non zero entries and not on the number of columns (e.g. vocabulary size).
+ * <p>
+ * The matrix is immutable and thus thread safe.
+ */
+public class SparseFeatures {
+
+    /**
+     * Position of the first non zero entry of each row in {@link #columns} and {@link #values}.
+     * Has length number of rows + 1.
+     */
+    private final int[] rowPointers;
+    private final int[] columns;
+    private final double[] values;
+    private final int numberOfColumns;
+    private final double[] squaredNorms;
+
+    /**
+     * Constructor which directly uses the CSR arrays (they are not copied).
+     * @param rowPointers the position of the first entry of each row in columns and values (length is number of rows + 1).
+     * @param columns the column index of each non zero entry (ascending within a row).
+     * @param values the value of each non zero entry.
+     * @param numberOfColumns the number of columns (features).
+     */
+    public SparseFeatures(int[] rowPointers, int[] columns, double[] values, int numberOfColumns) {
+        if(rowPointers.length == 0 || columns.length != values.length || rowPointers[rowPointers.length - 1] != columns.length)
+            throw new IllegalArgumentException("The CSR arrays are not consistent.");
+        this.rowPointers = rowPointers;
+        this.columns = columns;
+        this.values = values;
+        this.numberOfColumns = numberOfColumns;
+        this.squaredNorms = new double[rowPointers.length - 1];
+        for(int row = 0; row < this.squaredNorms.length; row++){
+            double sum = 0;
+            for(int k = rowPointers[row]; k < rowPointers[row + 1]; k++){
+                if(k > rowPointers[row] && columns[k] <= columns[k - 1])
+                    throw new IllegalArgumentException("The column indices of row " + row + " are not in ascending order.");
+                sum += values[k] * values[k];
+            }
+            this.squaredNorms[row] = sum;
+        }
+    }
+
+    /**
+     * Creates a sparse feature matrix from a dense one (all zero values are removed).
+     * @param dense the dense matrix
+     * @return the sparse matrix
+     */
+    public static SparseFeatures fromDense(double[][] dense){
+        int numberOfColumns = dense.length == 0 ? 0 : dense[0].length;
+        int[] rowPointers = new int[dense.length + 1];
+        for(int row = 0; row < dense.length; row++){
+            int nonZeros = 0;
+            for(double v : dense[row]){
+                if(v != 0)
+                    nonZeros++;
+            }
+            rowPointers[row + 1] = rowPointers[row] + nonZeros;
+        }
+        int[] columns = new int[rowPointers[dense.length]];
+        double[] values = new double[rowPointers[dense.length]];
+        for(int row = 0; row < dense.length; row++){
+            int k = rowPointers[row];
+            for(int column = 0; column < dense[row].length; column++){
+                if(dense[row][column] != 0){
+                    columns[k] = column;
+                    values[k] = dense[row][column];
+                    k++;
+                }
+            }
+        }
+        return new SparseFeatures(rowPointers, columns, values, numberOfColumns);
+    }
+
+    /**
+     * Returns the dense representation of this matrix.
+     * Be careful because this requires number of rows times number of columns doubles.
+     * @return the dense matrix
+     */
+    public double[][] toDense(){
+        double[][] dense = new double[getNumberOfRows()][this.numberOfColumns];
+        for(int row = 0; row < dense.length; row++){
+            for(int k = this.rowPointers[row]; k < this.rowPointers[row + 1]; k++){
+                dense[row][this.columns[k]] = this.values[k];
+            }
+        }
+        return dense;
+    }
+
+    /**
+     * Returns the number of rows (examples).
+     * @return number of rows
+     */
+    public int getNumberOfRows() {
+        return this.rowPointers.length - 1;
+    }
+
+    /**
+     * Returns the number of columns (features).
+     * @return number of columns
+     */
+    public int getNumberOfColumns() {
+        return this.numberOfColumns;
+    }
+
+    /**
+     * Returns the number of non zero entries of the whole matrix.
+     * @return number of non zero entries
+     */
+    public int getNumberOfNonZeros() {
+        return this.values.length;
+    }
+
+    /**
+     * Returns the column indices of the non zero entries of the given row.
+     * @param row the row
+     * @return column indices in ascending order
+     */
+    public int[] getColumns(int row){
+        return Arrays.copyOfRange(this.columns, this.rowPointers[row], this.rowPointers[row + 1]);
+    }
+
+    /**
+     * Returns the non zero values of the given row (in the same order as {@link #getColumns(int) }).
+     * @param row the row
+     * @return non zero values
+     */
+    public double[] getValues(int row){
+        return Arrays.copyOfRange(this.values, this.rowPointers[row], this.rowPointers[row + 1]);
+    }
+
+    /**
+     * Computes the dot product of two rows.
+     * @param one the first row
+     * @param two the second row
+     * @return the dot product
+     */
+    public double dot(int one, int two){
+        int i = this.rowPointers[one], iEnd = this.rowPointers[one + 1];
+        int j = this.rowPointers[two], jEnd = this.rowPointers[two + 1];
+        double sum = 0;
+        while(i < iEnd && j < jEnd){
+            if(this.columns[i] < this.columns[j]){
+                i++;
+            }else if(this.columns[i] > this.columns[j]){
+                j++;
+            }else{
+                sum += this.values[i] * this.values[j];
+                i++;
+                j++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the distance between two rows.
+     * @param one the first row
+     * @param two the second row
+     * @param distance the distance measure
+     * @return the distance
+     */
+    public double distance(int one, int two, ClusterDistance distance){
+        switch(distance){
+            case EUCLIDEAN:
+                return Math.sqrt(squaredEuclidean(one, two));
+            case SQUARED_EUCLIDEAN:
+                return squaredEuclidean(one, two);
+            case MANHATTAN:
+                return manhattan(one, two);
+            case COSINE:
+                return cosine(one, two);
+            default:
+                throw new IllegalArgumentException("Distance " + distance + " is not supported for sparse features.");
+        }
+    }
+
+    private double squaredEuclidean(int one, int two){
+        int i = this.rowPointers[one], iEnd = this.rowPointers[one + 1];
+        int j = this.rowPointers[two], jEnd = this.rowPointers[two + 1];
+        double sum = 0;
+        while(i < iEnd && j < jEnd){
+            double d;
+            if(this.columns[i] < this.columns[j]){
+                d = this.values[i++];
+            }else if(this.columns[i] > this.columns[j]){
+                d = this.values[j++];
+            }else{
+                d = this.values[i++] - this.values[j++];
+            }
+            sum += d * d;
+        }
+        for(; i < iEnd; i++)
+            sum += this.values[i] * this.values[i];
+        for(; j < jEnd; j++)
+            sum += this.values[j] * this.values[j];
+        return sum;
+    }
+
+    private double manhattan(int one, int two){
+        int i = this.rowPointers[one], iEnd = this.rowPointers[one + 1];
+        int j = this.rowPointers[two], jEnd = this.rowPointers[two + 1];
+        double sum = 0;
+        while(i < iEnd && j < jEnd){
+            if(this.columns[i] < this.columns[j]){
+                sum += Math.abs(this.values[i++]);
+            }else if(this.columns[i] > this.columns[j]){
+                sum += Math.abs(this.values[j++]);
+            }else{
+                sum += Math.abs(this.values[i++] - this.values[j++]);
+            }
+        }
+        for(; i < iEnd; i++)
+            sum += Math.abs(this.values[i]);
+        for(; j < jEnd; j++)
+            sum += Math.abs(this.values[j]);
+        return sum;
+    }
+
+    private double cosine(int one, int two){
+        return cosineDistance(dot(one, two), this.squaredNorms[one], this.squaredNorms[two]);
+    }
+
+    /**
+     * Computes the cosine distance (one minus cosine similarity) given the dot product and the squared norms.
+     * If both vectors are zero vectors, the distance is zero and if only one of them is a zero vector, the distance is one.
+     * @param dot the dot product
+     * @param squaredNormOne the squared norm of the first vector
+     * @param squaredNormTwo the squared norm of the second vector
+     * @return the cosine distance
+     */
+    static double cosineDistance(double dot, double squaredNormOne, double squaredNormTwo){
+        if(squaredNormOne == 0 || squaredNormTwo == 0)
+            return squaredNormOne == squaredNormTwo ? 0.0 : 1.0;
+        double distance = 1.0 - dot / Math.sqrt(squaredNormOne * squaredNormTwo);
+        return distance < 0 ? 0.0 : distance;
+    }
+}
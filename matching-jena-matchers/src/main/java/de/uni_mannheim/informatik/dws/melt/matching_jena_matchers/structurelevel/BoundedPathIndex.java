@@ -0,0 +1,159 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.structurelevel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * Index of the hierarchy of one model for one {@link BoundedPathMatchingConfiguration}.
+ * Each resource is mapped to an int id and its successors are requested only once from the configuration
+ * (only up to the maximum depth which is needed for the bounded paths).
+ * The bounded paths starting at a resource are computed only once and are memoized.
+ * <p>
+ * The hierarchy has to be expanded with {@link #addStart(Resource) } (which accesses the model) before
+ * {@link #getPaths(int) } is called. The latter is thread safe and can be called in parallel.
+ */
+class BoundedPathIndex {
+
+
+    private final BoundedPathMatchingConfiguration config;
+    private final Set<String> matchedURIs;
+
+    /**
+     * The maximum number of edges in a path.
+     */
+    private final int maxEdges;
+
+    private final Map<Resource, Integer> ids;
+    private final List<Resource> resources;
+    private final List<int[]> successors;
+    private final List<Boolean> matched;
+
+    /**
+     * The largest remaining depth with which a node was already expanded (-1 if not yet expanded).
+     */
+    private final List<Integer> expandedDepth;
+
+    private final Map<Integer, List<int[]>> paths;
+
+    /**
+     * Constructor
+     * @param config the configuration which defines the successors and the maximum number of intermediate nodes.
+     * @param matchedURIs the URIs of all matched resources in this model (possible ends of a path).
+     */
+    BoundedPathIndex(BoundedPathMatchingConfiguration config, Set<String> matchedURIs) {
+        this.config = config;
+        this.matchedURIs = matchedURIs;
+        this.maxEdges = config.getMaxIntermediateNodes() + 1;
+        this.ids = new HashMap<>();
+        this.resources = new ArrayList<>();
+        this.successors = new ArrayList<>();
+        this.matched = new ArrayList<>();
+        this.expandedDepth = new ArrayList<>();
+        this.paths = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds the resource as a start of paths and expands the hierarchy (breadth first search up to the maximum depth).
+     * This method accesses the model and is not thread safe.
+     * @param start the start resource
+     * @return the id of the start resource
+     */
+    int addStart(Resource start) {
+        int startId = getId(start);
+        Queue<int[]> queue = new ArrayDeque<>();
+        queue.add(new int[]{startId, this.maxEdges});
+        while(!queue.isEmpty()){
+            int[] current = queue.poll();
+            int node = current[0];
+            int remainingDepth = current[1];
+            if(remainingDepth <= this.expandedDepth.get(node))
+                continue;
+            this.expandedDepth.set(node, remainingDepth);
+            int[] nodeSuccessors = this.successors.get(node);
+            if(nodeSuccessors == null){
+                List<Integer> successorIds = new ArrayList<>();
+                for(Resource successor : this.config.getSuccesors(this.resources.get(node))){
+                    successorIds.add(getId(successor));
+                }
+                nodeSuccessors = successorIds.stream().mapToInt(Integer::intValue).toArray();
+                this.successors.set(node, nodeSuccessors);
+            }
+            if(remainingDepth > 1){
+                for(int successor : nodeSuccessors){
+                    queue.add(new int[]{successor, remainingDepth - 1});
+                }
+            }
+        }
+        return startId;
+    }
+
+    private int getId(Resource r) {
+        Integer id = this.ids.get(r);
+        if(id == null){
+            id = this.resources.size();
+            this.ids.put(r, id);
+            this.resources.add(r);
+            this.successors.add(null);
+            this.matched.add(r.getURI() != null && this.matchedURIs.contains(r.getURI()));
+            this.expandedDepth.add(-1);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the URI of the resource with the given id.
+     * @param id the id
+     * @return the URI or null in case of a blank node.
+     */
+    String getURI(int id) {
+        return this.resources.get(id).getURI();
+    }
+
+    /**
+     * Returns all paths (without cycles) which start at the given node and end at a matched node.
+     * Each path contains at least one intermediate node and at most the maximum number of intermediate nodes.
+     * The result is memoized.
+     * @param start the id of the start node (which was added with {@link #addStart(Resource) }).
+     * @return the paths as arrays of ids (first element is the start).
+     */
+    List<int[]> getPaths(int start) {
+        return this.paths.computeIfAbsent(start, s -> {
+            List<int[]> results = new ArrayList<>();
+            int[] currentPath = new int[this.maxEdges + 1];
+            currentPath[0] = s;
+            dfs(currentPath, 1, results);
+            return results.isEmpty() ? Collections.emptyList() : results;
+        });
+    }
+
+    private void dfs(int[] currentPath, int size, List<int[]> results) {
+        int last = currentPath[size - 1];
+        if(size > 2 && this.matched.get(last))
+            results.add(Arrays.copyOf(currentPath, size));
+        if(size > this.maxEdges)
+            return;
+        for(int successor : this.successors.get(last)){
+            if(contains(currentPath, size, successor) == false){
+                currentPath[size] = successor;
+                dfs(currentPath, size + 1, results);
+            }
+        }
+    }
+
+    private static boolean contains(int[] path, int size, int node) {
+        for(int i = 0; i < size; i++){
+            if(path[i] == node)
+                return true;
+        }
+        return false;
+    }
+}
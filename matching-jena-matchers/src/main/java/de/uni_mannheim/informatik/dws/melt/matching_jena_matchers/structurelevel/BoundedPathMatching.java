@@ -6,15 +6,15 @@ import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Corresponde
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntResource;
-import org.apache.jena.rdf.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +37,8 @@ import org.slf4j.LoggerFactory;
  *
  * Per default it only matches the class hierarchy but it can be customized for further
  * hierarchies like properties via the configurations object within this class.
+ * The hierarchy of each model is indexed only once per configuration (see {@link BoundedPathIndex}) and the
+ * start correspondences are evaluated in parallel.
  */
 public class BoundedPathMatching extends MatcherYAAAJena {
 
@@ -58,99 +60,116 @@ public class BoundedPathMatching extends MatcherYAAAJena {
 
         Set<String> matchedSources = inputAlignment.getDistinctSourcesAsSet();
         Set<String> matchedTargets = inputAlignment.getDistinctTargetsAsSet();
-        for(Correspondence startCorrespondence : inputAlignment){                    
-            OntResource sourceResource = source.getOntResource(startCorrespondence.getEntityOne());
-            OntResource targetResource = target.getOntResource(startCorrespondence.getEntityTwo());
-            if(sourceResource == null || targetResource == null){
-                continue;
-            }
-            
-            for(BoundedPathMatchingConfiguration config : this.configurations){
-                if(config.isOfInterest(sourceResource, targetResource) == false)
+        
+        //the hierarchy of each model is indexed once per configuration (sequentially because the models are accessed)
+        List<PathStart> starts = new ArrayList<>();
+        for(BoundedPathMatchingConfiguration config : this.configurations){
+            BoundedPathIndex sourceIndex = new BoundedPathIndex(config, matchedSources);
+            BoundedPathIndex targetIndex = new BoundedPathIndex(config, matchedTargets);
+            for(Correspondence startCorrespondence : inputAlignment){
+                OntResource sourceResource = source.getOntResource(startCorrespondence.getEntityOne());
+                OntResource targetResource = target.getOntResource(startCorrespondence.getEntityTwo());
+                if(sourceResource == null || targetResource == null){
                     continue;
-                //compute possible path in each graph
-                List<List<Resource>> sourcePaths = runDfs(sourceResource, matchedSources, config);
-                List<List<Resource>> targetPaths = runDfs(targetResource, matchedTargets, config);
-
-                // fill lastResourceToPaths
-                Map<String, Set<List<Resource>>> lastResourceToTargetPaths = new HashMap<>();
-                for(List<Resource> targetPath : targetPaths){
-                    String lastElementURI = targetPath.get(targetPath.size()-1).getURI();
-                    if(lastElementURI == null)
-                        continue;
-                    lastResourceToTargetPaths.computeIfAbsent(lastElementURI, __-> new HashSet<>()).add(targetPath);
-                }
-
-                //search for paths which match
-                for(List<Resource> sourcePath : sourcePaths){
-                    String lastElementURI = sourcePath.get(sourcePath.size()-1).getURI();
-                    if(lastElementURI == null)
-                        continue;
-
-                    for(Correspondence endCorrespondence : inputAlignment.getCorrespondencesSourceRelation(lastElementURI, CorrespondenceRelation.EQUIVALENCE)){
-                        for(List<Resource> targetPath : lastResourceToTargetPaths.getOrDefault(endCorrespondence.getEntityTwo(), new HashSet<>())){
-                            //decide which paths should be matched -> only those with same length...
-                            if(sourcePath.size() == targetPath.size()){
-                                //match
-                                LOGGER.info("Found matching paths where start and end are already matched. Thus matching all in between:");
-                                LOGGER.info("Found path in source: {}", sourcePath);
-                                LOGGER.info("Found path in target: {}", targetPath);
-                                //start and end does not need to be matched.
-                                double averagedConfidence = (startCorrespondence.getConfidence() + endCorrespondence.getConfidence()) / 2.0d;
-                                for(int i = 1; i < sourcePath.size() - 1; i++){
-                                    String sourcePathElementURI = sourcePath.get(i).getURI();
-                                    String targetPathElementURI = targetPath.get(i).getURI();
-                                    if(sourcePathElementURI == null ||targetPathElementURI == null)
-                                        continue;
-                                    inputAlignment.add(sourcePathElementURI, targetPathElementURI, averagedConfidence);
-                                }
-                            }
-                        }
-                    }
                 }
+                if(config.isOfInterest(sourceResource, targetResource) == false)
+                    continue;
+                starts.add(new PathStart(startCorrespondence, 
+                        sourceIndex, sourceIndex.addStart(sourceResource),
+                        targetIndex, targetIndex.addStart(targetResource)));
+            }
+        }
+        
+        //possible end correspondences
+        Map<String, List<Correspondence>> endCorrespondences = new HashMap<>();
+        for(Correspondence c : inputAlignment){
+            if(c.getRelation() == CorrespondenceRelation.EQUIVALENCE)
+                endCorrespondences.computeIfAbsent(c.getEntityOne(), __ -> new ArrayList<>()).add(c);
+        }
+        
+        //search for paths which match (in parallel)
+        List<List<Correspondence>> newCorrespondences = starts.parallelStream()
+                .map(start -> matchPaths(start, endCorrespondences))
+                .collect(Collectors.toList());
+        
+        for(List<Correspondence> correspondences : newCorrespondences){
+            for(Correspondence c : correspondences){
+                inputAlignment.add(c);
             }
         }
         return inputAlignment;
     }
     
-    private List<List<Resource>> runDfs(OntResource start, Set<String> targetNodes, BoundedPathMatchingConfiguration config){
-        List<Resource> currentPath = new ArrayList<>();
-        currentPath.add(start);
+    private List<Correspondence> matchPaths(PathStart start, Map<String, List<Correspondence>> endCorrespondences){
+        List<Correspondence> newCorrespondences = new ArrayList<>();
+        List<int[]> sourcePaths = start.sourceIndex.getPaths(start.sourceId);
+        if(sourcePaths.isEmpty())
+            return newCorrespondences;
+        List<int[]> targetPaths = start.targetIndex.getPaths(start.targetId);
+        if(targetPaths.isEmpty())
+            return newCorrespondences;
         
-        Set<Resource> visited = new HashSet<>();
-        visited.add(start);
-        
-        Set<String> updatedTargetNodes = new HashSet<>(targetNodes);
-        String startURI = start.getURI();
-        if(startURI != null){
-            updatedTargetNodes.remove(startURI);
+        // fill lastResourceToPaths
+        Map<String, List<int[]>> lastResourceToTargetPaths = new HashMap<>();
+        for(int[] targetPath : targetPaths){
+            String lastElementURI = start.targetIndex.getURI(targetPath[targetPath.length - 1]);
+            if(lastElementURI == null)
+                continue;
+            lastResourceToTargetPaths.computeIfAbsent(lastElementURI, __-> new ArrayList<>()).add(targetPath);
         }
         
-        List<List<Resource>> results = new ArrayList<>();
-        if(updatedTargetNodes.isEmpty())
-            return results;
-        dfs(currentPath, updatedTargetNodes, visited, results, config);
-        return results;
+        for(int[] sourcePath : sourcePaths){
+            String lastElementURI = start.sourceIndex.getURI(sourcePath[sourcePath.length - 1]);
+            if(lastElementURI == null)
+                continue;
+            for(Correspondence endCorrespondence : endCorrespondences.getOrDefault(lastElementURI, Collections.emptyList())){
+                for(int[] targetPath : lastResourceToTargetPaths.getOrDefault(endCorrespondence.getEntityTwo(), Collections.emptyList())){
+                    //decide which paths should be matched -> only those with same length...
+                    if(sourcePath.length == targetPath.length){
+                        //match
+                        LOGGER.info("Found matching paths where start and end are already matched. Thus matching all in between:");
+                        LOGGER.info("Found path in source: {}", getURIs(start.sourceIndex, sourcePath));
+                        LOGGER.info("Found path in target: {}", getURIs(start.targetIndex, targetPath));
+                        //start and end does not need to be matched.
+                        double averagedConfidence = (start.correspondence.getConfidence() + endCorrespondence.getConfidence()) / 2.0d;
+                        for(int i = 1; i < sourcePath.length - 1; i++){
+                            String sourcePathElementURI = start.sourceIndex.getURI(sourcePath[i]);
+                            String targetPathElementURI = start.targetIndex.getURI(targetPath[i]);
+                            if(sourcePathElementURI == null ||targetPathElementURI == null)
+                                continue;
+                            newCorrespondences.add(new Correspondence(sourcePathElementURI, targetPathElementURI, averagedConfidence));
+                        }
+                    }
+                }
+            }
+        }
+        return newCorrespondences;
     }
     
-    private void dfs(List<Resource> currentPath, Set<String> targetNodes, Set<Resource> visited, List<List<Resource>> results, BoundedPathMatchingConfiguration config){
-        Resource lastResource = currentPath.get(currentPath.size() - 1);
-        String lastResourceURI = lastResource.getURI();
-        if(lastResourceURI != null && targetNodes.contains(lastResourceURI)){
-            if(currentPath.size() > 2)
-                results.add(new ArrayList<>(currentPath));
+    private static List<String> getURIs(BoundedPathIndex index, int[] path){
+        List<String> uris = new ArrayList<>(path.length);
+        for(int id : path){
+            uris.add(index.getURI(id));
         }
-        
-        if(currentPath.size() > (config.getMaxIntermediateNodes() + 1))
-            return;
-        for (Resource node : config.getSuccesors(lastResource)) {
-            if (visited.contains(node) == false) {
-                currentPath.add(node);
-                visited.add(node);
-                dfs(currentPath, targetNodes, visited, results, config);
-                currentPath.remove(currentPath.size() - 1);
-                visited.remove(node);
-            }
+        return uris;
+    }
+    
+    /**
+     * A start correspondence together with the ids of the start resources in the path indices.
+     */
+    private static class PathStart {
+        private final Correspondence correspondence;
+        private final BoundedPathIndex sourceIndex;
+        private final int sourceId;
+        private final BoundedPathIndex targetIndex;
+        private final int targetId;
+
+        PathStart(Correspondence correspondence, BoundedPathIndex sourceIndex, int sourceId, BoundedPathIndex targetIndex, int targetId) {
+            this.correspondence = correspondence;
+            this.sourceIndex = sourceIndex;
+            this.sourceId = sourceId;
+            this.targetIndex = targetIndex;
+            this.targetId = targetId;
         }
     }
     
@@ -1,19 +1,18 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.structurelevel;
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.instancelevel.PropertyIndex;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import org.apache.jena.ontology.OntModel;
-import org.apache.jena.ontology.OntProperty;
-import org.apache.jena.rdf.model.RDFNode;
-import org.apache.jena.rdf.model.StmtIterator;
-import org.apache.jena.util.iterator.ExtendedIterator;
 
 /**
  * Graph-based Matcher: Checks all matched classes and matches also properties
@@ -29,6 +28,7 @@ import org.apache.jena.util.iterator.ExtendedIterator;
  * </pre>
  *
  *  In the example blub and bla are properties.
+ *  The domains and ranges are taken from a {@link PropertyIndex} and the class correspondences are grouped once.
  */
 public class MatchPropBasedOnClass extends MatcherYAAAJena {
 
@@ -38,89 +38,86 @@ public class MatchPropBasedOnClass extends MatcherYAAAJena {
         return inputAlignment;
     }
 
+    /**
+     * Computes the property matches based on the domains and ranges of the properties.
+     * Only the property declarations are read (the indices are built without postings).
+     * @param source the source model
+     * @param target the target model
+     * @param inputAlignment the alignment which contains the class correspondences
+     * @return the property matches
+     */
     public Alignment getPropertyMatches(OntModel source, OntModel target, Alignment inputAlignment) {
+        return getPropertyMatches(new PropertyIndex(source, false), new PropertyIndex(target, false), inputAlignment);
+    }
+    
+    /**
+     * Computes the property matches based on the domains and ranges stored in the given indices.
+     * The indices can be built with or without postings, e.g. the indices which are already built for
+     * {@link de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.instancelevel.MatchPropBasedOnInstances#getPropertyAlignment(OntModel, OntModel, Alignment, PropertyIndex, PropertyIndex)}
+     * can be reused.
+     * @param sourceIndex the property index of the source model
+     * @param targetIndex the property index of the target model
+     * @param inputAlignment the alignment which contains the class correspondences
+     * @return the property matches
+     */
+    public Alignment getPropertyMatches(PropertyIndex sourceIndex, PropertyIndex targetIndex, Alignment inputAlignment) {
         Alignment result = new Alignment();
         
         //Build up index of domain of properties from onto2 / target
-        Map<String, Set<MatchObject>> domainTarget2PropTarget = new HashMap<>();
-        ExtendedIterator<OntProperty> allPropsTarget = target.listAllOntProperties();
-        while (allPropsTarget.hasNext()) {
-            OntProperty propTarget = allPropsTarget.next();
-            if(propTarget.isURIResource() == false)
-                continue;
-            Set<String> targetDomains = getObjectURIs(propTarget.listProperties(source.getProfile().DOMAIN()));
-            Set<String> targetRange = getObjectURIs(propTarget.listProperties(source.getProfile().RANGE()));
-            
-            for(String targetDomain : targetDomains){
-                Set<MatchObject> set = domainTarget2PropTarget.get(targetDomain);
-                if (set == null) {
-                    set = new HashSet<>();
-                    domainTarget2PropTarget.put(targetDomain, set);
-                }
-                set.add(new MatchObject(propTarget, targetRange));
+        Map<String, List<MatchObject>> domainTarget2PropTarget = new HashMap<>();
+        for(int propTarget = 0; propTarget < targetIndex.getNumberOfProperties(); propTarget++){
+            MatchObject matchObject = new MatchObject(targetIndex.getPropertyURI(propTarget), targetIndex.getRanges(propTarget));
+            for(String targetDomain : targetIndex.getDomains(propTarget)){
+                domainTarget2PropTarget.computeIfAbsent(targetDomain, k -> new ArrayList<>()).add(matchObject);
             }
         }
         
+        //Group the equivalence correspondences once by source and target entity
+        Map<String, List<Correspondence>> sourceEquivalences = new HashMap<>();
+        Map<String, List<Correspondence>> targetEquivalences = new HashMap<>();
+        for(Correspondence c : inputAlignment){
+            if(c.getRelation() != CorrespondenceRelation.EQUIVALENCE)
+                continue;
+            sourceEquivalences.computeIfAbsent(c.getEntityOne(), k -> new ArrayList<>()).add(c);
+            targetEquivalences.computeIfAbsent(c.getEntityTwo(), k -> new ArrayList<>()).add(c);
+        }
+        
         //Iterate over all properties of source onto        
-        ExtendedIterator<OntProperty> allPropsSource = source.listAllOntProperties();
-        while (allPropsSource.hasNext()) {
-            OntProperty propSource = allPropsSource.next();
-            if(propSource.isURIResource() == false)
+        for(int propSource = 0; propSource < sourceIndex.getNumberOfProperties(); propSource++){
+            Set<String> sourceRanges = sourceIndex.getRanges(propSource);
+            if(sourceRanges.isEmpty())
                 continue;
-
-            Set<String> sourceDomains = getObjectURIs(propSource.listProperties(source.getProfile().DOMAIN()));
-            Set<String> sourceRanges = getObjectURIs(propSource.listProperties(source.getProfile().RANGE()));
-
-            for (String sourceDomain : sourceDomains) {
-                for (Correspondence domainCorrespondence : inputAlignment.getCorrespondencesSourceRelation(sourceDomain, CorrespondenceRelation.EQUIVALENCE)) {
+            for (String sourceDomain : sourceIndex.getDomains(propSource)) {
+                for (Correspondence domainCorrespondence : sourceEquivalences.getOrDefault(sourceDomain, Collections.emptyList())) {
                     String targetDomain = domainCorrespondence.getEntityTwo();
-                    for(MatchObject propTarget : domainTarget2PropTarget.getOrDefault(targetDomain, new HashSet<MatchObject>())){
+                    for(MatchObject propTarget : domainTarget2PropTarget.getOrDefault(targetDomain, Collections.emptyList())){
                         for(String targetRange : propTarget.getRange()){
-                            for (Correspondence rangeCorrespondence : inputAlignment.getCorrespondencesTargetRelation(targetRange, CorrespondenceRelation.EQUIVALENCE)) {
+                            for (Correspondence rangeCorrespondence : targetEquivalences.getOrDefault(targetRange, Collections.emptyList())) {
                                 if(sourceRanges.contains(rangeCorrespondence.getEntityOne())){
                                     //create property match
                                     double confidence = (domainCorrespondence.getConfidence() + rangeCorrespondence.getConfidence()) / 2.0;
-                                    Correspondence propCorrespodence = new Correspondence(propSource.getURI(), propTarget.getP().getURI(), confidence);
-                                    //String reason = String.format("Property %s has domain %s which matches to %s (conf: %d) which is domain of property %s. "
-                                    //        + "Range %s matches to %s (conf: %d).",
-                                    //        propSource.getURI(), sourceDomain, targetDomain, domainCorrespondence.getConfidence(), propTarget.getP().getURI(), 
-                                    //        rangeCorrespondence.getEntityOne(), targetRange, rangeCorrespondence.getConfidence());
-                                    //propCorrespodence.addExtensionValue(DefaultExtensions.Argumentation.REASON.toString(), "Property ");
-                                    result.add(propCorrespodence);
+                                    result.add(new Correspondence(sourceIndex.getPropertyURI(propSource), propTarget.getP(), confidence));
                                 }
                             }
                         }
                     }
                 }
             }
-            
         }
         return result;
     }
     
     
-    private static Set<String> getObjectURIs(StmtIterator i) {
-        Set<String> set = new HashSet<>();
-        while (i.hasNext()) {
-            RDFNode o = i.next().getObject();
-            if (o.isURIResource()) {
-                set.add(o.asResource().getURI());
-            }
-        }
-        return set;
-    }
-    
-    
-    private class MatchObject{
-        private OntProperty p;
+    private static class MatchObject{
+        private String p;
         private Set<String> range;
 
-        public MatchObject(OntProperty p, Set<String> range) {
+        public MatchObject(String p, Set<String> range) {
             this.p = p;
             this.range = range;
         }
 
-        public OntProperty getP() {
+        public String getP() {
             return p;
         }
 
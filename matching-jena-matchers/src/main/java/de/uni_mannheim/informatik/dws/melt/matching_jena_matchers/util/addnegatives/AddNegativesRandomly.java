@@ -3,6 +3,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.addnegat
 import de.uni_mannheim.informatik.dws.melt.matching_base.AddNegatives;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.ConceptType;
+import java.util.Random;
 import java.util.Set;
 import org.apache.jena.ontology.OntModel;
 
@@ -23,12 +24,32 @@ public abstract class AddNegativesRandomly extends MatcherYAAAJena implements Ad
      * any entities which are already used in the alignment or are randomly sampled before.
      */
     protected boolean withRepetitions;
+    
+    /**
+     * The seed for the random number generator. If null (default), a different sample is drawn in each run.
+     */
+    protected Long randomSeed;
 
     public AddNegativesRandomly(boolean homogenousDraw, boolean withRepetitions) {
         this.homogenousDraw = homogenousDraw;
         this.withRepetitions = withRepetitions;
     }
 
+    /**
+     * Creates the random sample models for source and target. Both use the same random number generator which is
+     * initialized with the random seed (if set) such that the negatives are repeatable.
+     * @param source the source model
+     * @param target the target model
+     * @return array of two elements: the random sample model for the source and for the target
+     */
+    protected RandomSampleOntModel[] createRandomSampleModels(OntModel source, OntModel target){
+        Random rnd = this.randomSeed == null ? new Random() : new Random(this.randomSeed);
+        return new RandomSampleOntModel[]{
+            new RandomSampleOntModel(source, rnd),
+            new RandomSampleOntModel(target, rnd)
+        };
+    }
+
     /**
      * Returns the correct sampler for the given resource contained in given model.
      * In case homogenousDraw is set to true, it will sample from same same entity e.g. sample a class for a class.
@@ -114,4 +135,20 @@ public abstract class AddNegativesRandomly extends MatcherYAAAJena implements Ad
     public void setWithRepetitions(boolean withRepetitions) {
         this.withRepetitions = withRepetitions;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the seed for the random number generator.
+     * @return the seed or null if no seed is set
+     */
+    public Long getRandomSeed() {
+        return randomSeed;
+    }
+
+    /**
+     * Sets the seed for the random number generator such that the negatives are repeatable.
+     * @param randomSeed the seed or null to draw different samples in each run
+     */
+    public void setRandomSeed(Long randomSeed) {
+        this.randomSeed = randomSeed;
+    }
+}
@@ -2,6 +2,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.addnegat
 
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
@@ -15,6 +16,13 @@ public class AddNegativesRandomlyAbsolute extends AddNegativesRandomly {
 
 
     private final int numberOfNegatives;
+    
+    /**
+     * If true and the negatives are drawn without repetitions, the entities for which a negative is sampled are drawn
+     * stratified: classes, properties and instances are represented proportionally to their share in the ontology
+     * (see {@link RandomSampleOntModel#getStratifiedRandomElements(int, Set)}).
+     */
+    private boolean stratifiedDraw;
 
     /**
      * This component adds {@code numberOfNegatives} negative samples to the alignment
@@ -33,8 +41,9 @@ public class AddNegativesRandomlyAbsolute extends AddNegativesRandomly {
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties parameters) throws Exception {
         
-        RandomSampleOntModel sourceRandomSample = new RandomSampleOntModel(source);
-        RandomSampleOntModel targetRandomSample = new RandomSampleOntModel(target);
+        RandomSampleOntModel[] randomSamples = createRandomSampleModels(source, target);
+        RandomSampleOntModel sourceRandomSample = randomSamples[0];
+        RandomSampleOntModel targetRandomSample = randomSamples[1];
         
         int left = (int)Math.ceil(this.numberOfNegatives/(double)2);
         int right = (int)Math.floor(this.numberOfNegatives/(double)2);
@@ -57,14 +66,14 @@ public class AddNegativesRandomlyAbsolute extends AddNegativesRandomly {
             Set<String> excludeTargets = inputAlignment.getDistinctTargetsAsSet();
             //TODO: improve because the random sampled elements are not excluded from being sampled once again (only elements from the alignment are excluded).
             
-            for(String entityOne : sourceRandomSample.getGlobalSampler().getRandomElementsWithoutRepetition(left, excludeSources)){
+            for(String entityOne : drawWithoutRepetition(sourceRandomSample, left, excludeSources)){
                 inputAlignment.add(
                         entityOne, 
                         sampleResource(entityOne, source, targetRandomSample, excludeTargets),
                         CorrespondenceRelation.INCOMPAT);
             }
             
-            for(String entityTwo : targetRandomSample.getGlobalSampler().getRandomElementsWithoutRepetition(right, excludeTargets)){
+            for(String entityTwo : drawWithoutRepetition(targetRandomSample, right, excludeTargets)){
                 inputAlignment.add(
                         sampleResource(entityTwo, target, sourceRandomSample, excludeSources),
                         entityTwo,
@@ -134,4 +143,30 @@ public class AddNegativesRandomlyAbsolute extends AddNegativesRandomly {
         */
         return inputAlignment;
     }
+    
+    private List<String> drawWithoutRepetition(RandomSampleOntModel sampleModel, int countOfElements, Set<String> exclude){
+        if(this.stratifiedDraw == false)
+            return sampleModel.getGlobalSampler().getRandomElementsWithoutRepetition(countOfElements, exclude);
+        if(countOfElements <= 0)
+            return Collections.emptyList();
+        return sampleModel.getStratifiedRandomElements(countOfElements, exclude);
+    }
+
+    /**
+     * If true and the negatives are drawn without repetitions, the classes, properties and instances are represented
+     * proportionally to their share in the ontology.
+     * @return true, if the entities are drawn stratified
+     */
+    public boolean isStratifiedDraw() {
+        return stratifiedDraw;
+    }
+
+    /**
+     * Sets the stratifiedDraw value. If true and the negatives are drawn without repetitions, the classes, properties
+     * and instances are represented proportionally to their share in the ontology.
+     * @param stratifiedDraw true, if the entities should be drawn stratified
+     */
+    public void setStratifiedDraw(boolean stratifiedDraw) {
+        this.stratifiedDraw = stratifiedDraw;
+    }
 }
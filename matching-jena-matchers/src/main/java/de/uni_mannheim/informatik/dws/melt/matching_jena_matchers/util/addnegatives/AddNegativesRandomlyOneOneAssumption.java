@@ -29,8 +29,9 @@ public class AddNegativesRandomlyOneOneAssumption extends AddNegativesRandomly {
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties parameters) throws Exception {
         
-        RandomSampleOntModel sourceRandomSample = new RandomSampleOntModel(source);
-        RandomSampleOntModel targetRandomSample = new RandomSampleOntModel(target);
+        RandomSampleOntModel[] randomSamples = createRandomSampleModels(source, target);
+        RandomSampleOntModel sourceRandomSample = randomSamples[0];
+        RandomSampleOntModel targetRandomSample = randomSamples[1];
         
         if(this.withRepetitions){
             for(Correspondence correspondence : inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.EQUIVALENCE)){
@@ -50,8 +51,8 @@ public class AddNegativesRandomlyOneOneAssumption extends AddNegativesRandomly {
             Set<String> targetExclude = inputAlignment.getDistinctTargetsAsSet();
             for(Correspondence correspondence : inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.EQUIVALENCE)){
                 for(int i = 0; i < numberOfNegativesPerPositiveCorrespondence; i++){
-                    String entityOne = sampleResource(correspondence.getEntityTwo(), target, sourceRandomSample);
-                    String entityTwo = sampleResource(correspondence.getEntityOne(), source, targetRandomSample);
+                    String entityOne = sampleResource(correspondence.getEntityTwo(), target, sourceRandomSample, sourceExclude);
+                    String entityTwo = sampleResource(correspondence.getEntityOne(), source, targetRandomSample, targetExclude);
                     sourceExclude.add(entityOne);
                     targetExclude.add(entityTwo);
                     inputAlignment.add(
@@ -27,8 +27,9 @@ public class AddNegativesRandomlyShare extends AddNegativesRandomly{
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties parameters) throws Exception {
         
-        RandomSampleOntModel sourceRandomSample = new RandomSampleOntModel(source);
-        RandomSampleOntModel targetRandomSample = new RandomSampleOntModel(target);
+        RandomSampleOntModel[] randomSamples = createRandomSampleModels(source, target);
+        RandomSampleOntModel sourceRandomSample = randomSamples[0];
+        RandomSampleOntModel targetRandomSample = randomSamples[1];
         
         
         long negatives = Alignment.iterableSize(inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.INCOMPAT));
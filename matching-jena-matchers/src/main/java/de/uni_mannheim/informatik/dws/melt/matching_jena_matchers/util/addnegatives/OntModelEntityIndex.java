@@ -0,0 +1,171 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.addnegatives;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.ConceptType;
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.WeakHashMap;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntResource;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A compact index of the URI resources of an {@link OntModel} which is used for random sampling.
+ * Each distinct URI is stored once and gets an id; for each {@link ConceptType} only a sorted int array of ids is stored.
+ * The entities of a type are accessible as a read only list view (see {@link #getEntities(ConceptType)}) which can be
+ * used for sampling without copying any collection.
+ * <p>
+ * The index of a model is built once and reused (see {@link #get(OntModel)}) as long as the size of the graph of the
+ * model does not change. It is read only and thread safe.
+ */
+public class OntModelEntityIndex {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OntModelEntityIndex.class);
+
+    /**
+     * Indices per graph (weak keys such that removed models can be garbage collected).
+     */
+    private static final Map<Graph, OntModelEntityIndex> INDICES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final String[] uris;
+    private final Map<ConceptType, int[]> idsPerType;
+    private final Map<ConceptType, int[]> idsPerStratum;
+    private final long graphSize;
+
+    /**
+     * Builds the index for the given model.
+     * @param m the model
+     */
+    public OntModelEntityIndex(OntModel m) {
+        Map<String, Integer> ids = new HashMap<>();
+        this.idsPerType = new EnumMap<>(ConceptType.class);
+        this.idsPerType.put(ConceptType.INSTANCE, collectIds(m.listIndividuals(), ids));
+        this.idsPerType.put(ConceptType.RDF_PROPERTY, collectIds(m.listOntProperties(), ids));
+        this.idsPerType.put(ConceptType.DATATYPE_PROPERTY, collectIds(m.listDatatypeProperties(), ids));
+        this.idsPerType.put(ConceptType.OBJECT_PROPERTY, collectIds(m.listObjectProperties(), ids));
+        this.idsPerType.put(ConceptType.ANNOTATION_PROPERTY, collectIds(m.listAnnotationProperties(), ids));
+        this.idsPerType.put(ConceptType.CLASS, collectIds(m.listClasses(), ids));
+        this.uris = new String[ids.size()];
+        for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+            this.uris[entry.getValue()] = entry.getKey();
+        }
+
+        //disjoint strata: each entity is assigned to exactly one of class, property, or instance (in this order)
+        BitSet assigned = new BitSet(this.uris.length);
+        this.idsPerStratum = new EnumMap<>(ConceptType.class);
+        this.idsPerStratum.put(ConceptType.CLASS, unassigned(assigned, this.idsPerType.get(ConceptType.CLASS)));
+        this.idsPerStratum.put(ConceptType.RDF_PROPERTY, unassigned(assigned,
+                this.idsPerType.get(ConceptType.RDF_PROPERTY), this.idsPerType.get(ConceptType.DATATYPE_PROPERTY),
+                this.idsPerType.get(ConceptType.OBJECT_PROPERTY), this.idsPerType.get(ConceptType.ANNOTATION_PROPERTY)));
+        this.idsPerStratum.put(ConceptType.INSTANCE, unassigned(assigned, this.idsPerType.get(ConceptType.INSTANCE)));
+        this.graphSize = m.getGraph().size();
+    }
+
+    /**
+     * Returns the (cached) index of the given model. The index is rebuilt if the size of the graph changed.
+     * @param m the model
+     * @return the index
+     */
+    public static OntModelEntityIndex get(OntModel m) {
+        Graph graph = m.getGraph();
+        OntModelEntityIndex index = INDICES.get(graph);
+        if (index == null || index.graphSize != graph.size()) {
+            LOGGER.debug("Build entity index for sampling.");
+            index = new OntModelEntityIndex(m);
+            INDICES.put(graph, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns all distinct entities of the given type as a read only list (without copying).
+     * For {@link ConceptType#UNKNOWN} all entities of the model are returned.
+     * @param type the concept type
+     * @return read only list of URIs
+     */
+    public List<String> getEntities(ConceptType type) {
+        int[] ids = this.idsPerType.get(type);
+        if (ids == null) {
+            if (type == ConceptType.UNKNOWN)
+                return new EntityList(null);
+            throw new IllegalArgumentException("ConceptType enum is not recognized.");
+        }
+        return new EntityList(ids);
+    }
+
+    /**
+     * Returns the entities partitioned into disjoint strata: {@link ConceptType#CLASS}, {@link ConceptType#RDF_PROPERTY}
+     * (all kinds of properties) and {@link ConceptType#INSTANCE}. An entity with multiple types is only contained in the
+     * first of these strata. The lists are read only views.
+     * @return map from stratum to read only list of URIs
+     */
+    public Map<ConceptType, List<String>> getStrata() {
+        Map<ConceptType, List<String>> strata = new EnumMap<>(ConceptType.class);
+        for (Map.Entry<ConceptType, int[]> entry : this.idsPerStratum.entrySet()) {
+            strata.put(entry.getKey(), new EntityList(entry.getValue()));
+        }
+        return strata;
+    }
+
+    /**
+     * Returns the number of distinct entities in this index.
+     * @return number of entities
+     */
+    public int size() {
+        return this.uris.length;
+    }
+
+    private static int[] collectIds(ExtendedIterator<? extends OntResource> iterator, Map<String, Integer> ids) {
+        BitSet contained = new BitSet();
+        while (iterator.hasNext()) {
+            OntResource r = iterator.next();
+            if (r.isURIResource()) {
+                contained.set(ids.computeIfAbsent(r.getURI(), k -> ids.size()));
+            }
+        }
+        return contained.stream().toArray();
+    }
+
+    private static int[] unassigned(BitSet assigned, int[]... idArrays) {
+        BitSet stratum = new BitSet();
+        for (int[] idArray : idArrays) {
+            for (int id : idArray) {
+                if (assigned.get(id) == false) {
+                    stratum.set(id);
+                }
+            }
+        }
+        assigned.or(stratum);
+        return stratum.stream().toArray();
+    }
+
+    /**
+     * List view of a sorted id array (or of all ids if the array is null).
+     */
+    private class EntityList extends AbstractList<String> implements RandomAccess {
+        private final int[] ids;
+
+        EntityList(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public String get(int index) {
+            return this.ids == null ? uris[index] : uris[this.ids[index]];
+        }
+
+        @Override
+        public int size() {
+            return this.ids == null ? uris.length : this.ids.length;
+        }
+    }
+}
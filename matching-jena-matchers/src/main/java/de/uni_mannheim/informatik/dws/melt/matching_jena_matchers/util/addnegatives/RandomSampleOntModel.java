@@ -1,24 +1,25 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.addnegatives;
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.ConceptType;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Random;
 import java.util.Set;
 import org.apache.jena.ontology.OntModel;
-import org.apache.jena.ontology.OntResource;
-import org.apache.jena.util.iterator.ExtendedIterator;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * This helper class is used to randomly sample resources from an {@link OntModel}.
- * When created, it will retrieve all instances, classes and properties and keep them in memory.
+ * It is backed by the (cached) {@link OntModelEntityIndex} of the model, thus the instances, classes and properties
+ * are listed only once per model and no further collections are created.
+ * All samplers use the same random number generator such that the sampling is repeatable when a seed is given.
  */
 public class RandomSampleOntModel {
 
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(RandomSampleOntModel.class);
-    
     private final RandomSampleSet<String> individuals;
     private final RandomSampleSet<String> allProperties;
     private final RandomSampleSet<String> datatypeProperties;
@@ -26,35 +27,27 @@ public class RandomSampleOntModel {
     private final RandomSampleSet<String> annotationProperties;
     private final RandomSampleSet<String> classes;
     private final RandomSampleSet<String> all;
+    private final Map<ConceptType, RandomSampleSet<String>> strata;
+    private final Random rnd;
     
     
     public RandomSampleOntModel(OntModel m, Random rnd){
-        
-        Set<String> individualsString = getUriSet(m.listIndividuals());
-        Set<String> allPropertiesString = getUriSet(m.listOntProperties());
-        Set<String> datatypePropertiesString = getUriSet(m.listDatatypeProperties());
-        Set<String> objectPropertiesString = getUriSet(m.listObjectProperties());
-        Set<String> annotationPropertiesString = getUriSet(m.listAnnotationProperties());
-        Set<String> classesString = getUriSet(m.listClasses());
-        
-        this.individuals = new RandomSampleSet<>(individualsString, rnd);
-        this.allProperties = new RandomSampleSet<>(allPropertiesString, rnd);
-        this.datatypeProperties = new RandomSampleSet<>(datatypePropertiesString, rnd);
-        this.objectProperties = new RandomSampleSet<>(objectPropertiesString, rnd);
-        this.annotationProperties = new RandomSampleSet<>(annotationPropertiesString, rnd);
-        this.classes = new RandomSampleSet<>(classesString, rnd);
-        
-        Set<String> allString = new HashSet<>(individualsString.size() + allPropertiesString.size() +
-                datatypePropertiesString.size() + objectPropertiesString.size() + 
-                annotationPropertiesString.size() + classesString.size());
-        allString.addAll(individualsString);
-        allString.addAll(allPropertiesString);
-        allString.addAll(datatypePropertiesString);
-        allString.addAll(objectPropertiesString);
-        allString.addAll(annotationPropertiesString);
-        allString.addAll(classesString);
-        
-        this.all = new RandomSampleSet<>(allString);
+        this(OntModelEntityIndex.get(m), rnd);
+    }
+    
+    public RandomSampleOntModel(OntModelEntityIndex index, Random rnd){
+        this.rnd = rnd;
+        this.individuals = RandomSampleSet.fromDistinctList(index.getEntities(ConceptType.INSTANCE), rnd);
+        this.allProperties = RandomSampleSet.fromDistinctList(index.getEntities(ConceptType.RDF_PROPERTY), rnd);
+        this.datatypeProperties = RandomSampleSet.fromDistinctList(index.getEntities(ConceptType.DATATYPE_PROPERTY), rnd);
+        this.objectProperties = RandomSampleSet.fromDistinctList(index.getEntities(ConceptType.OBJECT_PROPERTY), rnd);
+        this.annotationProperties = RandomSampleSet.fromDistinctList(index.getEntities(ConceptType.ANNOTATION_PROPERTY), rnd);
+        this.classes = RandomSampleSet.fromDistinctList(index.getEntities(ConceptType.CLASS), rnd);
+        this.all = RandomSampleSet.fromDistinctList(index.getEntities(ConceptType.UNKNOWN), rnd);
+        this.strata = new EnumMap<>(ConceptType.class);
+        for(Map.Entry<ConceptType, List<String>> stratum : index.getStrata().entrySet()){
+            this.strata.put(stratum.getKey(), RandomSampleSet.fromDistinctList(stratum.getValue(), rnd));
+        }
     }
     
     public RandomSampleOntModel(OntModel m){
@@ -95,15 +88,48 @@ public class RandomSampleOntModel {
         }
     }
     
-    private static Set<String> getUriSet(ExtendedIterator<? extends OntResource> iterator){
-        Set<String> resourceURIs = new HashSet<>(); // just to make sure that we have unique elements
-        while(iterator.hasNext()){
-            OntResource r = iterator.next();
-            if(r.isURIResource()){
-                resourceURIs.add(r.getURI());
-            }
+    /**
+     * Draws elements without repetition such that the classes, properties and instances are represented
+     * proportionally to their share in the model (stratified sampling).
+     * The number of elements per stratum is allocated with the largest remainder method.
+     * @param countOfElements the number of elements to draw
+     * @param exclude elements which should not be drawn (e.g. positives or already drawn elements)
+     * @return the drawn elements in random order
+     * @throws NoSuchElementException if a stratum does not contain enough elements which are not excluded
+     */
+    public List<String> getStratifiedRandomElements(int countOfElements, Set<String> exclude){
+        if(countOfElements <= 0)
+            throw new IllegalArgumentException("countOfElements to return should be greater than zero");
+        int total = 0;
+        for(RandomSampleSet<String> sampler : this.strata.values()){
+            total += sampler.size();
+        }
+        if(total == 0)
+            throw new NoSuchElementException("The model contains no entities and thus no random element can be returned.");
+        
+        Map<ConceptType, Integer> allocation = new EnumMap<>(ConceptType.class);
+        List<ConceptType> byRemainder = new ArrayList<>(this.strata.keySet());
+        Map<ConceptType, Double> remainder = new EnumMap<>(ConceptType.class);
+        int allocated = 0;
+        for(Map.Entry<ConceptType, RandomSampleSet<String>> stratum : this.strata.entrySet()){
+            double share = (double) countOfElements * stratum.getValue().size() / total;
+            int count = (int) share;
+            allocation.put(stratum.getKey(), count);
+            remainder.put(stratum.getKey(), share - count);
+            allocated += count;
+        }
+        byRemainder.sort((a, b) -> Double.compare(remainder.get(b), remainder.get(a)));
+        for(int i = 0; allocated < countOfElements; i++, allocated++){
+            ConceptType type = byRemainder.get(i % byRemainder.size());
+            allocation.put(type, allocation.get(type) + 1);
         }
-        return resourceURIs;
+        
+        List<String> generated = new ArrayList<>(countOfElements);
+        for(Map.Entry<ConceptType, Integer> stratum : allocation.entrySet()){
+            if(stratum.getValue() > 0)
+                generated.addAll(this.strata.get(stratum.getKey()).getRandomElementsWithoutRepetition(stratum.getValue(), exclude));
+        }
+        Collections.shuffle(generated, this.rnd);
+        return generated;
     }
 }
-
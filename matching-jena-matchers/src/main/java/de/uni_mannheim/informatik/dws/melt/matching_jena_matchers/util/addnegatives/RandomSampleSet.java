@@ -1,6 +1,7 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.addnegatives;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -10,6 +11,9 @@ import java.util.Set;
 
 /**
  * A helper class to randomly sample elements from an initial set.
+ * Elements to exclude (e.g. positives or already drawn elements) are rejected with a constant time lookup.
+ * In case most of the elements are excluded or many elements should be drawn, reservoir sampling is used
+ * such that the memory is bounded by the number of requested elements (the list of elements is never copied).
  * @param <E> the type of element in the set
  */
 public class RandomSampleSet <E> {
@@ -22,24 +26,47 @@ public class RandomSampleSet <E> {
      * Thus we can make sure, that the list contains no two same elements.
      */
     private final List<E> list;
-    private double listSize;
     
     public RandomSampleSet(Set<E> set){
         this.list = new ArrayList<>(set);
         this.rand = new Random();
-        this.listSize = this.list.size();
     }
     
     public RandomSampleSet(Set<E> set, Random rand){
         this.list = new ArrayList<>(set);
         this.rand = rand;
-        this.listSize = this.list.size();
     }
     
     public RandomSampleSet(Set<E> set, long seed){
         this(set, new Random(seed));
     }
     
+    private RandomSampleSet(List<E> distinctElements, Random rand){
+        this.list = distinctElements;
+        this.rand = rand;
+    }
+    
+    /**
+     * Creates a sampler which directly works on the given list (the list is not copied).
+     * The list should not contain duplicates and should be efficiently accessible by index
+     * (e.g. the views of {@link OntModelEntityIndex}).
+     * @param <E> the type of element in the list
+     * @param distinctElements list of distinct elements which is not modified
+     * @param rand the random number generator
+     * @return the sampler
+     */
+    public static <E> RandomSampleSet<E> fromDistinctList(List<E> distinctElements, Random rand){
+        return new RandomSampleSet<>(distinctElements, rand);
+    }
+    
+    /**
+     * Returns the number of elements to sample from.
+     * @return number of elements
+     */
+    public int size(){
+        return this.list.size();
+    }
+    
     
     public E getRandomElement(){
         if(this.list.isEmpty()){
@@ -52,13 +79,11 @@ public class RandomSampleSet <E> {
         if(this.list.isEmpty()){
             throw new NoSuchElementException("The list is empty and thus no random element can be returned.");
         }
-        if((exclude.size() / this.listSize) > 0.9){ // if excludes makes 90% of the list
-            Set<E> s = new LinkedHashSet<>(this.list);
-            s.removeAll(exclude);
-            if(s.isEmpty())
+        if(getShare(exclude.size()) > 0.9){ // if excludes makes 90% of the list
+            List<E> sample = reservoirSample(1, exclude);
+            if(sample.isEmpty())
                 throw new NoSuchElementException("The list is empty and thus no random element can be returned.");
-            List<E> k = new ArrayList<>(s);
-            return k.get(this.rand.nextInt(k.size()));
+            return sample.get(0);
         }else{
             while(true){
                 E element = list.get(this.rand.nextInt(list.size()));
@@ -90,16 +115,35 @@ public class RandomSampleSet <E> {
         //we assume here, that all values in exclude also appears in the set/list given in the constructor
         //but even when this is not the case, the algorithm just takes longer
         
-        if((exclude.size() / this.listSize) > 0.9){ // if excludes makes 90% of the list
-            Set<E> s = new LinkedHashSet<>(this.list);
-            s.removeAll(exclude);
-            if(s.isEmpty())
+        if(getShare(exclude.size()) > 0.9){ // if excludes makes 90% of the list
+            //draw ranks among the not excluded elements and resolve them in one scan over the list
+            int remaining = 0;
+            for(E element : this.list){
+                if(exclude.contains(element) == false)
+                    remaining++;
+            }
+            if(remaining == 0)
                 throw new NoSuchElementException("The list is empty and thus no random element can be returned.");
-            List<E> k = new ArrayList<>(s);
-            List<E> generated = new ArrayList<>();
+            int[] ranks = new int[countOfElements];
             for(int i=0; i < countOfElements; i++){
-                generated.add(k.get(this.rand.nextInt(k.size())));
+                ranks[i] = this.rand.nextInt(remaining);
             }
+            Arrays.sort(ranks);
+            List<E> generated = new ArrayList<>(countOfElements);
+            int rank = 0;
+            int position = 0;
+            for(E element : this.list){
+                if(position >= countOfElements)
+                    break;
+                if(exclude.contains(element))
+                    continue;
+                while(position < countOfElements && ranks[position] == rank){
+                    generated.add(element);
+                    position++;
+                }
+                rank++;
+            }
+            Collections.shuffle(generated, this.rand);
             return generated;
         }else{
             List<E> generated = new ArrayList<>();
@@ -122,10 +166,8 @@ public class RandomSampleSet <E> {
             throw new NoSuchElementException("There are not enough elements in the list to return random elements.");
         }
         //decide between the sampling methods
-        if((countOfElements / this.listSize) > 0.1){ // more than 10 percent of the whole list
-            List<E> l = new ArrayList<>(this.list);
-            Collections.shuffle(l, this.rand);
-            return new ArrayList<>(l.subList(0, countOfElements));
+        if(getShare(countOfElements) > 0.1){ // more than 10 percent of the whole list
+            return reservoirSample(countOfElements, Collections.emptySet());
         }else{
             Set<E> generated = new LinkedHashSet<>(); // LinkedHashSet to maintain insertion order
             while (generated.size() < countOfElements){
@@ -142,17 +184,14 @@ public class RandomSampleSet <E> {
             throw new NoSuchElementException("The list is empty and thus no random element can be returned.");
         }
         
-        if((exclude.size() / this.listSize) > 0.9 || // if excludes makes 90% of the list
+        if(getShare(exclude.size()) > 0.9 || // if excludes makes 90% of the list
             this.list.size() == exclude.size() || // to prevent zero division below
             countOfElements / (double) (this.list.size() - exclude.size())  > 0.1 ){ //or if the remaining elements are too less to be randomly drawn 
             
-            Set<E> s = new LinkedHashSet<>(this.list);
-            s.removeAll(exclude);
-            if(s.size() < countOfElements)
+            List<E> sample = reservoirSample(countOfElements, exclude);
+            if(sample.size() < countOfElements)
                 throw new NoSuchElementException("There are not enough elements in the list to return random elements.");
-            List<E> k = new ArrayList<>(s);
-            Collections.shuffle(k, this.rand);
-            return new ArrayList<>(k.subList(0, countOfElements));
+            return sample;
         }else{
             Set<E> generated = new LinkedHashSet<>(); // LinkedHashSet to maintain insertion order
             while (generated.size() < countOfElements){
@@ -164,5 +203,38 @@ public class RandomSampleSet <E> {
             return new ArrayList<>(generated);
         }        
     }
+    
+    /**
+     * Returns the share of the given number of elements relative to the size of the list (floating point division).
+     */
+    private double getShare(int numberOfElements){
+        return (double) numberOfElements / this.list.size();
+    }
+    
+    /**
+     * Reservoir sampling (algorithm R) of elements which are not excluded.
+     * It needs one scan over the list and the memory is bounded by the number of requested elements.
+     * @param countOfElements the number of elements to draw
+     * @param exclude the elements which should not be drawn
+     * @return the drawn elements in random order (fewer than requested if not enough elements are available)
+     */
+    private List<E> reservoirSample(int countOfElements, Set<E> exclude){
+        List<E> reservoir = new ArrayList<>(countOfElements);
+        int seen = 0;
+        for(E element : this.list){
+            if(exclude.contains(element))
+                continue;
+            seen++;
+            if(reservoir.size() < countOfElements){
+                reservoir.add(element);
+            }else{
+                int position = this.rand.nextInt(seen);
+                if(position < countOfElements)
+                    reservoir.set(position, element);
+            }
+        }
+        Collections.shuffle(reservoir, this.rand);
+        return reservoir;
+    }
 
 }
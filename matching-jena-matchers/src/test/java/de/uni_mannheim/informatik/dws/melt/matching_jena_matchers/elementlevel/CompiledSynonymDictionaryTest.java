@@ -0,0 +1,82 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledSynonymDictionaryTest {
+
+    private static final String NAMESPACE_SOURCE = "http://melt.dws.informatik.uni-mannheim.de/source/";
+    private static final String NAMESPACE_TARGET = "http://melt.dws.informatik.uni-mannheim.de/target/";
+
+    @Test
+    void testCompileAndLookup(@TempDir File directory) throws IOException {
+        File csv = writeCsv(directory);
+        File compiled = new File(directory, "synonyms.bin");
+        CompiledSynonymDictionary.compile(csv, compiled);
+        assertTrue(CompiledSynonymDictionary.isCompiled(compiled));
+        assertFalse(CompiledSynonymDictionary.isCompiled(csv));
+
+        CompiledSynonymDictionary dictionary = CompiledSynonymDictionary.open(compiled);
+        assertSame(dictionary, CompiledSynonymDictionary.open(compiled));
+
+        Map<String, Long> expected = SynonymTextMatcher.parseCommonSynonymCsvFile(csv);
+        assertEquals(expected.size(), dictionary.size());
+        for (Map.Entry<String, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), dictionary.get(entry.getKey()), entry.getKey());
+        }
+        assertNull(dictionary.get("unknown"));
+        assertNull(dictionary.get(""));
+        assertNull(dictionary.get("car "));
+    }
+
+    @Test
+    void testMatcher(@TempDir File directory) throws Exception {
+        File csv = writeCsv(directory);
+        File compiled = new File(directory, "synonyms.bin");
+        CompiledSynonymDictionary.compile(csv, compiled);
+
+        OntModel source = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        source.createClass(NAMESPACE_SOURCE + "Car").addLabel("Car", "en");
+        source.createClass(NAMESPACE_SOURCE + "Street").addLabel("street", null);
+        source.createClass(NAMESPACE_SOURCE + "Tree").addLabel("tree", null);
+        OntModel target = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        target.createClass(NAMESPACE_TARGET + "Automobile").addLabel("automobile", null);
+        target.createClass(NAMESPACE_TARGET + "Road").addLabel("Road", null);
+        target.createClass(NAMESPACE_TARGET + "Plant").addLabel("plant", null);
+
+        Alignment fromCsv = new SynonymTextMatcher(csv).match(source, target, new Alignment(), new Properties());
+        Alignment fromCompiled = new SynonymTextMatcher(compiled).match(source, target, new Alignment(), new Properties());
+        Alignment fromDictionary = new SynonymTextMatcher(CompiledSynonymDictionary.open(compiled), RDFS.label)
+                .match(source, target, new Alignment(), new Properties());
+        assertEquals(2, fromCsv.size());
+        assertNotNull(fromCsv.getCorrespondence(NAMESPACE_SOURCE + "Car", NAMESPACE_TARGET + "Automobile", CorrespondenceRelation.EQUIVALENCE));
+        assertEquals(fromCsv, fromCompiled);
+        assertEquals(fromCsv, fromDictionary);
+    }
+
+    private static File writeCsv(File directory) throws IOException {
+        File csv = new File(directory, "synonyms.csv");
+        Files.write(csv.toPath(), Arrays.asList(
+                "car,automobile,Auto",
+                "street,road,\"avenue, boulevard\"",
+                "Zürich,Zurich",
+                " naïve , naive"
+        ), StandardCharsets.UTF_8);
+        return csv;
+    }
+}
@@ -0,0 +1,111 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.statistics.Coverage;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.statistics.CoverageResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingLabelToConceptLinkerTest {
+
+
+    @Test
+    void testDefaultBulkMethods() {
+        CountingLinker linker = new CountingLinker();
+        Map<String, String> links = linker.linkToSingleConceptBulk(Arrays.asList("Car", "car", "Car", "tree", null, " "));
+        assertEquals(2, links.size());
+        assertEquals("car", links.get("Car"));
+        assertEquals("car", links.get("car"));
+        assertFalse(links.containsKey("tree"));
+        assertEquals(3, linker.calls);
+
+        Map<String, Set<String>> multipleLinks = linker.linkToPotentiallyMultipleConceptsBulk(Arrays.asList("Car Truck", "tree"));
+        assertEquals(1, multipleLinks.size());
+        assertEquals(new HashSet<>(Arrays.asList("car", "truck")), multipleLinks.get("Car Truck"));
+    }
+
+    @Test
+    void testCache() {
+        CountingLinker countingLinker = new CountingLinker();
+        CachingLabelToConceptLinker linker = new CachingLabelToConceptLinker(countingLinker);
+        List<String> labels = Arrays.asList("Car", "car", "tree", "Truck");
+
+        Map<String, String> links = linker.linkToSingleConceptBulk(labels);
+        assertEquals(3, links.size());
+        assertEquals(4, countingLinker.calls);
+
+        //everything is cached, also negative results
+        assertEquals(links, linker.linkToSingleConceptBulk(labels));
+        assertEquals("truck", linker.linkToSingleConcept("Truck"));
+        assertNull(linker.linkToSingleConcept("tree"));
+        assertEquals(4, countingLinker.calls);
+
+        //only new labels are linked
+        assertEquals(Collections.singletonMap("Bus", "bus"), linker.linkToSingleConceptBulk(Arrays.asList("Bus", "tree")));
+        assertEquals(5, countingLinker.calls);
+
+        assertEquals(new HashSet<>(Arrays.asList("car", "bus")), linker.linkToPotentiallyMultipleConcepts("Car Bus"));
+        assertNull(linker.linkToPotentiallyMultipleConcepts("Car Tree"));
+        int calls = countingLinker.calls;
+        linker.linkToPotentiallyMultipleConceptsBulk(Arrays.asList("Car Bus", "Car Tree"));
+        assertEquals(calls, countingLinker.calls);
+
+        linker.clear();
+        assertEquals(0, linker.getCacheSize());
+        assertEquals(countingLinker.getNameOfLinker(), linker.getNameOfLinker());
+    }
+
+    @Test
+    void testCoverage() {
+        Set<String> entities = new HashSet<>(Arrays.asList("Car", "tree", "Car Truck"));
+        CoverageResult full = Coverage.getCoverageFullLabel(new CountingLinker(), entities);
+        assertEquals(1.0f / 3, full.getCoverageScore(), 0.0001);
+        CoverageResult partial = Coverage.getCoveragePartialLabel(new CountingLinker(), entities);
+        assertEquals(2.0f / 3, partial.getCoverageScore(), 0.0001);
+    }
+
+    /**
+     * Links every label to its lowercased form except for labels containing "tree".
+     */
+    private static class CountingLinker implements LabelToConceptLinker {
+        int calls = 0;
+
+        @Override
+        public String linkToSingleConcept(String labelToBeLinked) {
+            calls++;
+            if (labelToBeLinked.contains(" ") || labelToBeLinked.toLowerCase().contains("tree")) {
+                return null;
+            }
+            return labelToBeLinked.toLowerCase();
+        }
+
+        @Override
+        public Set<String> linkToPotentiallyMultipleConcepts(String labelToBeLinked) {
+            Set<String> result = new HashSet<>();
+            for (String token : labelToBeLinked.split(" ")) {
+                String link = linkToSingleConcept(token);
+                if (link == null) {
+                    return null;
+                }
+                result.add(link);
+            }
+            return result;
+        }
+
+        @Override
+        public String getNameOfLinker() {
+            return "CountingLinker";
+        }
+
+        @Override
+        public void setNameOfLinker(String nameOfLinker) {
+        }
+    }
+}
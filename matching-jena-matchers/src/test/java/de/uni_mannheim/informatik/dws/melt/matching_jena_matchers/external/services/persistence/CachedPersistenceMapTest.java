@@ -0,0 +1,103 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedPersistenceMapTest {
+
+
+    @Test
+    void writeBehind(){
+        ConcurrentMap<String, String> persistent = new ConcurrentHashMap<>();
+        persistent.put("existing", "value");
+        CachedPersistenceMap<String, String> map = new CachedPersistenceMap<>(persistent, 10);
+
+        assertEquals("value", map.get("existing"));
+        assertEquals("value", map.get("existing"));
+        assertFalse(map.containsKey("unknown"));
+        assertFalse(map.containsKey("unknown"));
+        assertEquals(1, map.getPersistentHitCount());
+        assertEquals(1, map.getMissCount());
+        assertEquals(2, map.getHitCount());
+
+        //changes are only visible in the persistent map after the flush
+        map.put("new", "newValue");
+        assertNull(map.remove("unknown"));
+        assertEquals("value", map.remove("existing"));
+        assertEquals("newValue", map.get("new"));
+        assertFalse(map.containsKey("existing"));
+        assertEquals(2, map.getNumberOfBufferedChanges());
+        assertFalse(persistent.containsKey("new"));
+        assertTrue(persistent.containsKey("existing"));
+
+        assertEquals(2, map.flush());
+        assertEquals(0, map.getNumberOfBufferedChanges());
+        assertEquals("newValue", persistent.get("new"));
+        assertFalse(persistent.containsKey("existing"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void evictedEntriesAreReadFromBuffer(){
+        ConcurrentMap<Integer, Integer> persistent = new ConcurrentHashMap<>();
+        CachedPersistenceMap<Integer, Integer> map = new CachedPersistenceMap<>(persistent, 2);
+        for(int i = 0; i < 100; i++){
+            map.put(i, i * 2);
+        }
+        long misses = map.getMissCount();
+        for(int i = 0; i < 100; i++){
+            assertEquals(i * 2, map.get(i));
+        }
+        assertEquals(misses, map.getMissCount());
+        assertEquals(0, map.getPersistentHitCount());
+        assertNull(map.putIfAbsent(200, 1));
+        assertEquals(1, map.putIfAbsent(200, 2));
+        assertTrue(map.replace(200, 1, 3));
+        assertEquals(3, map.get(200));
+        map.flush();
+        assertEquals(101, persistent.size());
+    }
+
+    @Test
+    void concurrentFlushesDoNotWriteStaleValues() throws Exception {
+        CountDownLatch firstFlushWriting = new CountDownLatch(1);
+        CountDownLatch releaseFirstFlush = new CountDownLatch(1);
+        ConcurrentMap<String, String> persistent = new ConcurrentHashMap<String, String>(){
+            @Override
+            public String put(String key, String value) {
+                if(value.equals("old")){
+                    firstFlushWriting.countDown();
+                    try {
+                        releaseFirstFlush.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.put(key, value);
+            }
+        };
+        CachedPersistenceMap<String, String> map = new CachedPersistenceMap<>(persistent, 10);
+        map.put("key", "old");
+        Thread first = new Thread(map::flush);
+        first.start();
+        assertTrue(firstFlushWriting.await(10, TimeUnit.SECONDS));
+
+        //the first flush already read the old value - a second flush must not overtake it
+        map.put("key", "new");
+        Thread second = new Thread(map::flush);
+        second.start();
+        second.join(200);
+        releaseFirstFlush.countDown();
+        first.join();
+        second.join();
+
+        map.flush();
+        assertEquals("new", persistent.get("key"));
+        assertEquals(0, map.getNumberOfBufferedChanges());
+    }
+}
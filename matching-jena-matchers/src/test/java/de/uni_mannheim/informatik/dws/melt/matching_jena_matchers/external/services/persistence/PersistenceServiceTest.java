@@ -1,6 +1,10 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
 
+import de.uni_mannheim.informatik.dws.melt.matching_ml.python.nlptransformers.TransformersPredictionCache;
+import java.io.File;
+import java.util.concurrent.ConcurrentMap;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -35,4 +39,38 @@ class PersistenceServiceTest {
         service.closePersistenceService();
     }
 
-}
\ No newline at end of file
+    @Test
+    void cachedMapIsDurableOnClose(@TempDir File directory){
+        PersistenceService service = PersistenceService.getService(directory.getAbsolutePath());
+        service.setCommitIntervalInMilliseconds(1_000_000);
+        ConcurrentMap<String, Boolean> map = service.getMapDatabase(PersistenceService.PreconfiguredPersistences.WIKTIONARY_ASK_BUFFER);
+        assertTrue(map instanceof CachedPersistenceMap);
+        assertSame(map, service.getMapDatabase(PersistenceService.PreconfiguredPersistences.WIKTIONARY_ASK_BUFFER));
+        map.put("query", true);
+        service.commit(PersistenceService.PreconfiguredPersistences.WIKTIONARY_ASK_BUFFER);
+        service.closeDatabase(PersistenceService.PreconfiguredPersistences.WIKTIONARY_ASK_BUFFER);
+
+        service.setInMemoryCacheSize(0);
+        map = service.getMapDatabase(PersistenceService.PreconfiguredPersistences.WIKTIONARY_ASK_BUFFER);
+        assertFalse(map instanceof CachedPersistenceMap);
+        assertTrue(map.get("query"));
+        service.closePersistenceService();
+        PersistenceService.getService(PersistenceService.DEFAULT_PERSISTENCE_DIRECTORY);
+    }
+
+    @Test
+    void transformersPredictionCacheIsPersistent(@TempDir File directory){
+        PersistenceService service = PersistenceService.getService(directory.getAbsolutePath());
+        TransformersPredictionCache cache = service.getTransformersPredictionCache();
+        String key = TransformersPredictionCache.getKey(TransformersPredictionCache.getModelIdentifier("my-model", false), "left", "right");
+        assertNull(cache.get(key));
+        cache.put(key, 0.75);
+        cache.commit();
+        service.closePersistenceService();
+
+        //the database is opened again
+        assertEquals(0.75, service.getTransformersPredictionCache().get(key), 0.0);
+        service.closePersistenceService();
+        PersistenceService.getService(PersistenceService.DEFAULT_PERSISTENCE_DIRECTORY);
+    }
+}
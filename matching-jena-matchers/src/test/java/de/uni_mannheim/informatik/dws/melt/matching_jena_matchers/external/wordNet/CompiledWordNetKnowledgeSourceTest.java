@@ -0,0 +1,75 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.wordNet;
+
+import net.sf.extjwnl.data.POS;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledWordNetKnowledgeSourceTest {
+
+
+    private static final List<String> WORDS = Arrays.asList("dog", "Dog", " cat ", "equity", "car", "automobile", "run",
+            "quick", "quickly", "sports car", "european union", "animal", "unknownwordxyz", "");
+
+    @TempDir
+    static File directory;
+
+    private static WordNetKnowledgeSource wordnet;
+    private static CompiledWordNetKnowledgeSource compiled;
+
+    @BeforeAll
+    static void setup() throws Exception {
+        File index = new File(directory, "wordnet.bin");
+        CompiledWordNetKnowledgeSource.compile(index);
+        wordnet = new WordNetKnowledgeSource();
+        compiled = new CompiledWordNetKnowledgeSource(index);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        wordnet.close();
+        compiled.close();
+    }
+
+    @Test
+    void testSameResultsAsWordNetKnowledgeSource() {
+        for (String word : WORDS) {
+            assertEquals(wordnet.isInDictionary(word), compiled.isInDictionary(word), word);
+            assertEquals(wordnet.getSynonymsLexical(word), compiled.getSynonymsLexical(word), word);
+            assertEquals(wordnet.getSynonyms(word, POS.VERB), compiled.getSynonyms(word, POS.VERB), word);
+            assertEquals(wordnet.getHypernyms(word), compiled.getHypernyms(word), word);
+            assertEquals(wordnet.getLinker().linkToSingleConcept(word), compiled.getLinker().linkToSingleConcept(word), word);
+        }
+        assertTrue(compiled.isStrongFormSynonymous("car", "automobile"));
+        assertTrue(compiled.isHypernym("canine", "dog"));
+    }
+
+    @Test
+    void testHypernymTransitive() {
+        assertTrue(compiled.isHypernymTransitive("animal", "dog"));
+        assertTrue(compiled.isHypernymTransitive("canine", "dog"));
+        assertFalse(compiled.isHypernymTransitive("dog", "animal"));
+        assertFalse(compiled.isHypernymTransitive("car", "dog"));
+        assertFalse(compiled.isHypernymTransitive("unknownwordxyz", "dog"));
+        assertFalse(compiled.isHypernymTransitive(null, "dog"));
+    }
+
+    @Test
+    void testConcurrentAccess() {
+        Map<String, Set<String>> synonyms = new ConcurrentHashMap<>();
+        WORDS.parallelStream().forEach(word -> synonyms.put(word, compiled.getSynonymsLexical(word)));
+        for (String word : WORDS) {
+            assertEquals(wordnet.getSynonymsLexical(word), synonyms.get(word), word);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.ParameterConfigKeys;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.util.Properties;
+import org.apache.jena.ontology.OntClass;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstanceFeatureCacheTest {
+    private static final String NAMESPACE_SOURCE = "http://melt.dws.informatik.uni-mannheim.de/source/";
+    private static final String NAMESPACE_TARGET = "http://melt.dws.informatik.uni-mannheim.de/target/";
+    private static final int INSTANCES = 20;
+
+    @Test
+    void testSharedCache() throws Exception {
+        OntModel source = generate(NAMESPACE_SOURCE);
+        OntModel target = generate(NAMESPACE_TARGET);
+
+        //without a shared cache
+        Alignment expected = runFilters(source, target, new Properties());
+
+        //with a shared cache, each individual is processed only once per feature
+        InstanceFeatureCache cache = new InstanceFeatureCache();
+        Properties properties = new Properties();
+        properties.put(ParameterConfigKeys.INSTANCE_FEATURE_CACHE, cache);
+        assertEquals(expected, runFilters(source, target, properties));
+        long misses = cache.getMissCount();
+        //four features (tokens, types, properties, depths) for all source and target individuals
+        assertEquals(4 * 2 * INSTANCES, misses);
+        assertTrue(cache.getHitCount() > 0);
+
+        //a second pipeline run does not compute any feature again
+        assertEquals(expected, runFilters(source, target, properties));
+        assertEquals(misses, cache.getMissCount());
+
+        cache.clear();
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    void testFromProperties() {
+        assertNull(InstanceFeatureCache.fromProperties(null));
+        assertNull(InstanceFeatureCache.fromProperties(new Properties()));
+        Properties properties = new Properties();
+        properties.put(ParameterConfigKeys.INSTANCE_FEATURE_CACHE, "wrong type");
+        assertNull(InstanceFeatureCache.fromProperties(properties));
+        assertNotNull(InstanceFeatureCache.fromPropertiesOrNew(properties));
+    }
+
+    private static Alignment runFilters(OntModel source, OntModel target, Properties properties) throws Exception {
+        Alignment alignment = new Alignment();
+        alignment.add(NAMESPACE_SOURCE + "Class", NAMESPACE_TARGET + "Class");
+        alignment.add(NAMESPACE_SOURCE + "SuperClass", NAMESPACE_TARGET + "SuperClass");
+        alignment.add(NAMESPACE_SOURCE + "label", NAMESPACE_TARGET + "label");
+        //every source individual is a candidate for three target individuals
+        for (int i = 0; i < INSTANCES; i++) {
+            for (int j = i; j < i + 3; j++) {
+                alignment.add(NAMESPACE_SOURCE + "instance" + i, NAMESPACE_TARGET + "instance" + (j % INSTANCES));
+            }
+        }
+        alignment = new BagOfWordsSetSimilarityFilter().match(source, target, alignment, properties);
+        alignment = new SimilarTypeFilter().match(source, target, alignment, properties);
+        alignment = new CommonPropertiesFilter().match(source, target, alignment, properties);
+        alignment = new SimilarHierarchyFilter().match(source, target, alignment, properties);
+        return alignment;
+    }
+
+    private static OntModel generate(String namespace) {
+        OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        OntClass superClass = model.createClass(namespace + "SuperClass");
+        OntClass clazz = model.createClass(namespace + "Class");
+        clazz.addProperty(RDFS.subClassOf, superClass);
+        Property label = model.createProperty(namespace + "label");
+        for (int i = 0; i < INSTANCES; i++) {
+            model.createIndividual(namespace + "instance" + i, clazz)
+                    .addProperty(label, "instance number " + i);
+        }
+        return model;
+    }
+}
@@ -0,0 +1,69 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.SetSimilarity;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.Properties;
+import org.apache.jena.ontology.OntClass;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimilarNeighboursFilterTest {
+    private static final String namespaceSource = "http://melt.dws.informatik.uni-mannheim.de/source/";
+    private static final String namespaceTarget = "http://melt.dws.informatik.uni-mannheim.de/target/";
+
+    @Test
+    void testFilter() throws Exception {
+        OntModel source = generate(namespaceSource);
+        OntModel target = generate(namespaceTarget);
+
+        Alignment alignment = new Alignment();
+        alignment.add(namespaceSource + "berlin", namespaceTarget + "berlin", 0.9);
+        alignment.add(namespaceSource + "germany", namespaceTarget + "germany", 0.9);
+        alignment.add(namespaceSource + "paris", namespaceTarget + "berlin", 0.5);
+        alignment.add(namespaceSource + "france", namespaceTarget + "germany", 0.3);
+
+        //berlin - berlin: neighbours germany (matched) and literal "Berlin"
+        //paris - berlin: neighbour france is matched to germany and no common literal
+        SimilarNeighboursFilter filter = new SimilarNeighboursFilter(0.0, SetSimilarity.ABSOLUTE);
+        filter.setAddNeighboursToCorrespondence(true);
+        Alignment filtered = filter.match(source, target, alignment, new Properties());
+        Correspondence berlin = filtered.getCorrespondence(namespaceSource + "berlin", namespaceTarget + "berlin", CorrespondenceRelation.EQUIVALENCE);
+        assertNotNull(berlin);
+        assertEquals(2.0, berlin.getAdditionalConfidence(SimilarNeighboursFilter.class));
+        assertEquals(1.0, filtered.getCorrespondence(namespaceSource + "paris", namespaceTarget + "berlin", CorrespondenceRelation.EQUIVALENCE).getAdditionalConfidence(SimilarNeighboursFilter.class));
+        assertTrue(berlin.getAdditionalExplanation(SimilarNeighboursFilter.class).contains("Berlin"));
+
+        //with a higher minimum confidence, the neighbour france is not counted
+        filter = new SimilarNeighboursFilter(0.5, p -> true, 1.0, SetSimilarity.ABSOLUTE);
+        filtered = filter.match(source, target, alignment, new Properties());
+        assertNotNull(filtered.getCorrespondence(namespaceSource + "berlin", namespaceTarget + "berlin", CorrespondenceRelation.EQUIVALENCE));
+        assertNull(filtered.getCorrespondence(namespaceSource + "paris", namespaceTarget + "berlin", CorrespondenceRelation.EQUIVALENCE));
+    }
+
+    private OntModel generate(String namespace){
+        OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        OntClass city = model.createClass(namespace + "City");
+        OntClass country = model.createClass(namespace + "Country");
+        Property capitalOf = model.createObjectProperty(namespace + "capitalOf");
+        Property name = model.createDatatypeProperty(namespace + "name");
+
+        model.createIndividual(namespace + "germany", country);
+        model.createIndividual(namespace + "berlin", city)
+                .addProperty(capitalOf, model.getResource(namespace + "germany"))
+                .addProperty(name, "Berlin");
+        if(namespace.equals(namespaceSource)){
+            model.createIndividual(namespace + "france", country);
+            model.createIndividual(namespace + "paris", city)
+                    .addProperty(capitalOf, model.getResource(namespace + "france"))
+                    .addProperty(name, "Paris");
+        }
+        return model;
+    }
+}
@@ -36,6 +36,22 @@ public class MatchClassBasedOnInstancesTest {
         assertCorrespondenceBetweenClass(1.0, SimInstanceMetric.MATCH_BASED, 0.0, inputAlignment, 1.0);
         
     }
+    
+    @Test
+    void instanceCounts() throws IOException {
+        Alignment inputAlignment = new Alignment();
+        inputAlignment.add(namespaceSource + "instance0", namespaceTarget + "instance0", 0.5);
+        inputAlignment.add(namespaceSource + "instance1", namespaceTarget + "instance1", 0.5);
+        //n:m mapping counts only once
+        inputAlignment.add(namespaceSource + "instance1", namespaceTarget + "instance2", 0.5);
+        //not an individual in the source
+        inputAlignment.add(namespaceSource + "unknown", namespaceTarget + "instance3", 0.5);
+        
+        //20 source instances and 50 target instances
+        assertCorrespondenceBetweenClass(0.0, SimInstanceMetric.MIN, 0.0, inputAlignment, 2.0 / 20.0);
+        assertCorrespondenceBetweenClass(0.0, SimInstanceMetric.DICE, 0.0, inputAlignment, 4.0 / 70.0);
+        assertCorrespondenceBetweenClass(0.0, SimInstanceMetric.MATCH_BASED, 0.0, inputAlignment, 1.0);
+    }
 
     
     private void assertCorrespondenceBetweenClass(double metricConfidence, SimInstanceMetric metric, double instanceMinConfidence, Alignment inputAlignment, double expectedConfidence) throws IOException{
@@ -3,11 +3,16 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.instancelevel
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntModelSpec;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 
 public class MatchPropBasedOnInstancesTest {
@@ -42,4 +47,82 @@ public class MatchPropBasedOnInstancesTest {
     }
     */
     
+    @Test
+    void testOverlapCounts() throws Exception {
+        OntModel source = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        OntModel target = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        Property propA = source.createDatatypeProperty(namespaceSource + "propA");
+        Property propC = source.createObjectProperty(namespaceSource + "propC");
+        Property propB = target.createDatatypeProperty(namespaceTarget + "propB");
+        Property propD = target.createDatatypeProperty(namespaceTarget + "propD");
+        Property propE = target.createObjectProperty(namespaceTarget + "propE");
+        
+        source.createIndividual(namespaceSource + "John", source.createClass(namespaceSource + "Person"))
+                .addProperty(propA, "test")
+                .addProperty(propA, "bla")
+                .addProperty(propA, "onlySource")
+                .addProperty(propC, source.createResource("http://example.com/Mannheim"));
+        target.createIndividual(namespaceTarget + "Jonny", target.createClass(namespaceTarget + "Person"))
+                .addProperty(propB, "test")
+                .addProperty(propB, "bla")
+                .addProperty(propB, "bla", "en")
+                .addProperty(propD, "test")
+                .addProperty(propE, target.createResource("http://example.com/Mannheim"));
+        //not matched, thus not counted
+        source.createIndividual(namespaceSource + "Mary", source.createClass(namespaceSource + "Person"))
+                .addProperty(propA, "test");
+        target.createIndividual(namespaceTarget + "Maria", target.createClass(namespaceTarget + "Person"))
+                .addProperty(propB, "test");
+        
+        Alignment inputAlignment = new Alignment();
+        inputAlignment.add(namespaceSource + "John", namespaceTarget + "Jonny", 0.9);
+        //not an individual in the target
+        inputAlignment.add(namespaceSource + "Mary", namespaceTarget + "Unknown", 0.9);
+        
+        Map<Correspondence, Integer> counts = new MatchPropBasedOnInstances().getOverlapCounts(source, target, inputAlignment);
+        assertEquals(3, counts.size());
+        assertEquals(2, counts.get(new Correspondence(namespaceSource + "propA", namespaceTarget + "propB")));
+        assertEquals(1, counts.get(new Correspondence(namespaceSource + "propA", namespaceTarget + "propD")));
+        assertEquals(1, counts.get(new Correspondence(namespaceSource + "propC", namespaceTarget + "propE")));
+    }
+    
+    @Test
+    void testIndexWithoutPostings() {
+        OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        Property propA = model.createDatatypeProperty(namespaceSource + "propA");
+        model.createIndividual(namespaceSource + "John", model.createClass(namespaceSource + "Person"))
+                .addProperty(propA, "test");
+        
+        PropertyIndex withPostings = new PropertyIndex(model, true);
+        assertTrue(withPostings.hasPostings());
+        assertEquals(1, withPostings.getStatementCount(withPostings.getPropertyId(namespaceSource + "propA")));
+        assertEquals(1, withPostings.getPostings(namespaceSource + "John").length);
+        
+        //only the property declarations are read
+        PropertyIndex withoutPostings = new PropertyIndex(model, false);
+        assertFalse(withoutPostings.hasPostings());
+        assertEquals(withPostings.getNumberOfProperties(), withoutPostings.getNumberOfProperties());
+        assertEquals(0, withoutPostings.getPostings(namespaceSource + "John").length);
+        assertThrows(IllegalStateException.class, () -> withoutPostings.getStatementCounts());
+    }
+    
+    @Test
+    void testDebugFile(@TempDir File directory) throws Exception {
+        OntModel source = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        OntModel target = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        source.createIndividual(namespaceSource + "John", source.createClass(namespaceSource + "Person"))
+                .addProperty(source.createDatatypeProperty(namespaceSource + "propA"), "test");
+        target.createIndividual(namespaceTarget + "Jonny", target.createClass(namespaceTarget + "Person"))
+                .addProperty(target.createDatatypeProperty(namespaceTarget + "propB"), "test");
+        Alignment inputAlignment = new Alignment();
+        inputAlignment.add(namespaceSource + "John", namespaceTarget + "Jonny", 0.9);
+        
+        File debugFile = new File(directory, "debug.csv");
+        Alignment a = new MatchPropBasedOnInstances(debugFile).match(source, target, inputAlignment, null);
+        assertEquals(1, a.size());
+        List<String> lines = Files.readAllLines(debugFile.toPath());
+        assertEquals(2, lines.size());
+        assertEquals(namespaceSource + "propA," + namespaceTarget + "propB,1,1,1", lines.get(1));
+    }
+    
 }
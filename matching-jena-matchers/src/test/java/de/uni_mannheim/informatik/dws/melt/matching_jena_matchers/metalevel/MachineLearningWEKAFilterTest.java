@@ -0,0 +1,85 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.metalevel;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.io.File;
+import java.util.Properties;
+import java.util.Random;
+import org.apache.jena.ontology.OntModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import weka.classifiers.Classifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MachineLearningWEKAFilterTest {
+
+
+    @Test
+    void testTrainAndApply(@TempDir File directory) throws Exception {
+        Alignment training = createAlignment(400, 1, true);
+        MachineLearningWEKAFilter filter = new MachineLearningWEKAFilter(training, 5, 4);
+        File modelFile = new File(directory, "weka.model");
+        Classifier classifier = filter.trainModel(training, modelFile);
+        assertNotNull(classifier);
+        assertTrue(modelFile.exists());
+
+        Alignment test = createAlignment(1000, 2, false);
+        filter.setBatchSize(64);
+        Alignment filtered = filter.applyModel(modelFile, test);
+        assertFiltered(test, filtered);
+
+        //sequential scoring in one batch leads to the same result
+        MachineLearningWEKAFilter sequential = new MachineLearningWEKAFilter(training, 5, 1);
+        assertEquals(filtered, sequential.applyModel(modelFile, test));
+    }
+
+    @Test
+    void testMatch() throws Exception {
+        Alignment training = createAlignment(300, 3, true);
+        Alignment test = createAlignment(500, 4, false);
+        Alignment filtered = new MachineLearningWEKAFilter(training, 3, 2).match((OntModel) null, null, test, new Properties());
+        assertFiltered(test, filtered);
+    }
+
+    @Test
+    void testNoConfidences() throws Exception {
+        Alignment alignment = new Alignment();
+        alignment.add("http://source.com/1", "http://target.com/1");
+        alignment.add("http://source.com/2", "http://target.com/2", CorrespondenceRelation.INCOMPAT);
+        MachineLearningWEKAFilter filter = new MachineLearningWEKAFilter(alignment);
+        assertNull(filter.trainModel(alignment));
+        assertSame(alignment, filter.match((OntModel) null, null, alignment, new Properties()));
+    }
+
+    /**
+     * The feature "signal" separates positives (above 0.5) from negatives, "noise" is random.
+     */
+    private static Alignment createAlignment(int size, long seed, boolean withLabels) {
+        Random random = new Random(seed);
+        Alignment alignment = new Alignment();
+        for (int i = 0; i < size; i++) {
+            double signal = random.nextDouble();
+            CorrespondenceRelation relation = !withLabels || signal > 0.5 ? CorrespondenceRelation.EQUIVALENCE : CorrespondenceRelation.INCOMPAT;
+            Correspondence c = new Correspondence("http://source.com/" + i, "http://target.com/" + i, 1.0, relation);
+            c.addAdditionalConfidence("signal", signal);
+            c.addAdditionalConfidence("noise", random.nextDouble());
+            alignment.add(c);
+        }
+        return alignment;
+    }
+
+    private static void assertFiltered(Alignment input, Alignment filtered) {
+        assertTrue(filtered.size() > 0);
+        assertTrue(filtered.size() < input.size());
+        for (Correspondence c : input) {
+            double signal = c.getAdditionalConfidence("signal");
+            if (signal > 0.6) {
+                assertTrue(filtered.contains(c), "Missing positive " + c);
+            } else if (signal < 0.4) {
+                assertFalse(filtered.contains(c), "Wrong positive " + c);
+            }
+        }
+    }
+}
@@ -265,6 +265,45 @@ public class MergeExecutorTest {
     }
     
     
+    @Test
+    public void testBulkMergeEqualsPerTripleMerge(){
+        //synthetic multi source setting: three sources are merged one after the other into the same target
+        Alignment alignment = new Alignment();
+        for(int i = 0; i < 50; i++){
+            alignment.add("http://source0.com/e" + i, "http://target.com/e" + i);
+            alignment.add("http://source1.com/e" + (i * 2), "http://target.com/e" + i);
+        }
+        alignment.add("http://source0.com/p0", "http://target.com/p0");
+        //source entity which is matched to multiple target entities
+        alignment.add("http://source2.com/e1", "http://target.com/e1");
+        alignment.add("http://source2.com/e1", "http://target.com/e2");
+        
+        for(boolean addInformationToUnion : new boolean[]{true, false}){
+            Model bulkTarget = getSyntheticKg("http://target.com/", 200);
+            Model perTripleTarget = getSyntheticKg("http://target.com/", 200);
+            for(int s = 0; s < 3; s++){
+                Model source = getSyntheticKg("http://source" + s + ".com/", 150);
+                MergeExecutor.mergeSourceIntoTargetBulk(source, bulkTarget, alignment, addInformationToUnion, 7);
+                MergeExecutor.mergeSourceIntoTargetPerTriple(source, perTripleTarget, alignment, addInformationToUnion);
+            }
+            assertTrue(bulkTarget.size() > 200 * 3);
+            assertTrue(bulkTarget.isIsomorphicWith(perTripleTarget));
+        }
+    }
+    
+    private static Model getSyntheticKg(String namespace, int numberOfEntities){
+        Model model = ModelFactory.createDefaultModel();
+        Property p0 = model.createProperty(namespace + "p0");
+        Property p1 = model.createProperty(namespace + "p1");
+        for(int i = 0; i < numberOfEntities; i++){
+            Resource r = model.createResource(namespace + "e" + i);
+            r.addProperty(RDFS.label, "Entity " + i);
+            r.addProperty(p0, model.createResource(namespace + "e" + ((i * 7) % numberOfEntities)));
+            r.addProperty(p1, model.createResource().addProperty(RDFS.comment, "blank " + i));
+        }
+        return model;
+    }
+    
     private static Model getSourcePath(){
         Model source = ModelFactory.createDefaultModel();
         Resource alice = source.createResource("http://source.com/alice");
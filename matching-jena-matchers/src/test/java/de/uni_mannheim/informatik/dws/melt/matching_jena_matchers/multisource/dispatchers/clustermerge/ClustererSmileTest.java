@@ -56,6 +56,53 @@ public class ClustererSmileTest {
     }
     
     
+    @Test
+    void testSparseSameResult() {
+        double[][] features = getRandomSparseDoubleMatrix(120, 500, 0.02, 123);
+        SparseFeatures sparse = SparseFeatures.fromDense(features);
+        assertTrue(Arrays.deepEquals(features, sparse.toDense()));
+        assertTrue(sparse.getNumberOfNonZeros() < 120 * 500 / 10);
+        
+        for(ClusterDistance distance : ClusterDistance.values()){
+            float[] prox = ClustererSmile.proximity(features, distance);
+            float[] proxSparse = ClustererSmile.proximity(sparse, distance);
+            assertTrue(equalsFloatArray(prox, proxSparse, 0.00001f), "Sparse proximity differs for " + distance);
+            assertTrue(Arrays.equals(proxSparse, ClustererSmile.proximityParallel(sparse, distance)));
+        }
+    }
+    
+    @Test
+    void sparseSameMergeOrderAsDense() {
+        double[][] features = getRandomSparseDoubleMatrix(100, 300, 0.05, 123);
+        SparseFeatures sparse = SparseFeatures.fromDense(features);
+        
+        ClustererSmile smile = new ClustererSmile();
+        assertEquals(smile.run(features, ClusterLinkage.SINGLE, ClusterDistance.EUCLIDEAN), 
+                smile.run(sparse, ClusterLinkage.SINGLE, ClusterDistance.EUCLIDEAN));
+        assertEquals(smile.run(features, ClusterLinkage.AVERAGE, ClusterDistance.COSINE), 
+                smile.run(sparse, ClusterLinkage.AVERAGE, ClusterDistance.COSINE));
+        
+        for(boolean alwaysUseAnderberg : new boolean[]{true, false}){
+            ClustererELKI elki = new ClustererELKI(alwaysUseAnderberg);
+            assertEquals(elki.run(features, ClusterLinkage.SINGLE, ClusterDistance.EUCLIDEAN), 
+                    elki.run(sparse, ClusterLinkage.SINGLE, ClusterDistance.EUCLIDEAN));
+            assertEquals(elki.run(features, ClusterLinkage.COMPLETE, ClusterDistance.MANHATTAN), 
+                    elki.run(sparse, ClusterLinkage.COMPLETE, ClusterDistance.MANHATTAN));
+        }
+    }
+    
+    private static double[][] getRandomSparseDoubleMatrix(int rows, int columns, double density, long seed){
+        double[][] array = new double[rows][columns];
+        Random rnd = new Random(seed);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                if(rnd.nextDouble() < density)
+                    array[i][j] = rnd.nextDouble();
+            }
+        }
+        return array;
+    }
+    
     private static double[][] getRandomDoubleMatrix(int rows, int columns, long seed){
         double[][] array = new double[rows][columns];
         Random rnd = new Random(seed);
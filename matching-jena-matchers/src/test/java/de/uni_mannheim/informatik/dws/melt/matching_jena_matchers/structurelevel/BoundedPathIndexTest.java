@@ -0,0 +1,121 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.structurelevel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.jena.ontology.OntClass;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+
+public class BoundedPathIndexTest {
+
+    private static final String NS = "http://source.com/";
+
+    @Test
+    void testSamePathsAsDfs() {
+        /*
+        A -> B -> C -> D -> E
+        A -> F -> D
+        C -> A (cycle)
+        G -> H
+        */
+        OntModel m = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        addSubClassOf(m, "A", "B");
+        addSubClassOf(m, "B", "C");
+        addSubClassOf(m, "C", "D");
+        addSubClassOf(m, "D", "E");
+        addSubClassOf(m, "A", "F");
+        addSubClassOf(m, "F", "D");
+        addSubClassOf(m, "C", "A");
+        addSubClassOf(m, "G", "H");
+        Set<String> matched = new HashSet<>(Arrays.asList(NS + "A", NS + "C", NS + "D", NS + "E", NS + "H"));
+
+        for(int maxIntermediateNodes = 1; maxIntermediateNodes <= 3; maxIntermediateNodes++){
+            BoundedPathMatchingConfiguration config = BoundedPathMatchingConfiguration.createClassHierarchyConfiguration(maxIntermediateNodes);
+            BoundedPathIndex index = new BoundedPathIndex(config, matched);
+            List<String> starts = Arrays.asList("A", "B", "C", "F", "G");
+            int[] ids = new int[starts.size()];
+            for(int i = 0; i < starts.size(); i++){
+                ids[i] = index.addStart(m.getOntClass(NS + starts.get(i)));
+            }
+            for(int i = 0; i < starts.size(); i++){
+                Set<List<String>> expected = runDfs(m.getOntClass(NS + starts.get(i)), matched, config);
+                Set<List<String>> actual = new HashSet<>();
+                for(int[] path : index.getPaths(ids[i])){
+                    List<String> uris = new ArrayList<>();
+                    for(int id : path){
+                        uris.add(index.getURI(id));
+                    }
+                    actual.add(uris);
+                }
+                assertEquals(expected, actual, "Paths differ for start " + starts.get(i) + " and max intermediate nodes " + maxIntermediateNodes);
+                assertSame(index.getPaths(ids[i]), index.getPaths(ids[i]));
+            }
+        }
+    }
+
+    @Test
+    void testPathsOfToyModel() {
+        OntModel m = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        addSubClassOf(m, "A", "B");
+        addSubClassOf(m, "B", "C");
+        addSubClassOf(m, "A", "C");
+        BoundedPathIndex index = new BoundedPathIndex(BoundedPathMatchingConfiguration.createClassHierarchyConfiguration(1),
+                new HashSet<>(Arrays.asList(NS + "A", NS + "C")));
+        int start = index.addStart(m.getOntClass(NS + "A"));
+        //the direct edge A -> C is not a path because it has no intermediate node
+        List<int[]> paths = index.getPaths(start);
+        assertEquals(1, paths.size());
+        assertEquals(NS + "B", index.getURI(paths.get(0)[1]));
+        assertEquals(NS + "C", index.getURI(paths.get(0)[2]));
+    }
+
+    private static void addSubClassOf(OntModel m, String sub, String sup){
+        OntClass subClass = m.createClass(NS + sub);
+        subClass.addSuperClass(m.createClass(NS + sup));
+    }
+
+    /**
+     * The path finding of BoundedPathMatching before the index was introduced.
+     */
+    private static Set<List<String>> runDfs(Resource start, Set<String> targetNodes, BoundedPathMatchingConfiguration config){
+        List<Resource> currentPath = new ArrayList<>();
+        currentPath.add(start);
+        Set<Resource> visited = new HashSet<>();
+        visited.add(start);
+        Set<String> updatedTargetNodes = new HashSet<>(targetNodes);
+        updatedTargetNodes.remove(start.getURI());
+        Set<List<String>> results = new HashSet<>();
+        dfs(currentPath, updatedTargetNodes, visited, results, config);
+        return results;
+    }
+
+    private static void dfs(List<Resource> currentPath, Set<String> targetNodes, Set<Resource> visited, Set<List<String>> results, BoundedPathMatchingConfiguration config){
+        Resource lastResource = currentPath.get(currentPath.size() - 1);
+        if(lastResource.getURI() != null && targetNodes.contains(lastResource.getURI()) && currentPath.size() > 2){
+            List<String> uris = new ArrayList<>();
+            for(Resource r : currentPath){
+                uris.add(r.getURI());
+            }
+            results.add(uris);
+        }
+        if(currentPath.size() > (config.getMaxIntermediateNodes() + 1))
+            return;
+        for (Resource node : config.getSuccesors(lastResource)) {
+            if (visited.contains(node) == false) {
+                currentPath.add(node);
+                visited.add(node);
+                dfs(currentPath, targetNodes, visited, results, config);
+                currentPath.remove(currentPath.size() - 1);
+                visited.remove(node);
+            }
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.structurelevel;
 
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.instancelevel.MatchPropBasedOnInstances;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.instancelevel.PropertyIndex;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.structurelevel.MatchPropBasedOnClass;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import org.apache.jena.ontology.ObjectProperty;
 import org.apache.jena.ontology.OntClass;
 import org.apache.jena.ontology.OntModel;
@@ -40,6 +43,35 @@ public class MatchPropBasedOnClassTest {
         assertEquals(0.75, output.iterator().next().getConfidence());
     }
     
+    @Test
+    void testReuseIndicesOfInstanceMatching() throws Exception {
+        OntModel source = generate(namespaceSource);
+        OntModel target = generate(namespaceTarget);
+        source.createIndividual(namespaceSource + "a", source.getOntClass(namespaceSource + "domain"))
+                .addProperty(source.getProperty(namespaceSource + "prop"), source.createIndividual(namespaceSource + "b", source.getOntClass(namespaceSource + "range")));
+        target.createIndividual(namespaceTarget + "a", target.getOntClass(namespaceTarget + "domain"))
+                .addProperty(target.getProperty(namespaceTarget + "prop"), target.createIndividual(namespaceTarget + "b", target.getOntClass(namespaceTarget + "range")));
+        
+        Alignment inputAlignment = new Alignment();
+        inputAlignment.add(namespaceSource + "domain", namespaceTarget + "domain", 0.5);
+        inputAlignment.add(namespaceSource + "range", namespaceTarget + "range", 1.0);
+        Alignment instanceAlignment = new Alignment();
+        instanceAlignment.add(namespaceSource + "a", namespaceTarget + "a");
+        
+        //index the statements once and use the indices for instance and class based property matching
+        PropertyIndex sourceIndex = new PropertyIndex(source, true);
+        PropertyIndex targetIndex = new PropertyIndex(target, sourceIndex);
+        new MatchPropBasedOnInstances().getPropertyAlignment(source, target, instanceAlignment, sourceIndex, targetIndex);
+        Alignment output = new MatchPropBasedOnClass().getPropertyMatches(sourceIndex, targetIndex, inputAlignment);
+        
+        assertEquals(new MatchPropBasedOnClass().getPropertyMatches(source, target, inputAlignment), output);
+        assertEquals(1, output.size());
+        Correspondence c = output.iterator().next();
+        assertEquals(namespaceSource + "prop", c.getEntityOne());
+        assertEquals(namespaceTarget + "prop", c.getEntityTwo());
+        assertEquals(0.75, c.getConfidence());
+    }
+    
     
     private OntModel generate(String namespace){
         OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);        
@@ -0,0 +1,199 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.addnegatives;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.ConceptType;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import org.apache.jena.ontology.OntClass;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class RandomSampleOntModelTest {
+
+    private static OntModel createModel(String prefix){
+        OntModel m = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+        OntClass first = null;
+        for(int i = 0; i < 60; i++){
+            OntClass c = m.createClass(prefix + "class" + i);
+            if(first == null)
+                first = c;
+        }
+        for(int i = 0; i < 10; i++){
+            m.createObjectProperty(prefix + "property" + i);
+        }
+        for(int i = 0; i < 30; i++){
+            m.createIndividual(prefix + "individual" + i, first);
+        }
+        return m;
+    }
+
+    @Test
+    void testIndex(){
+        OntModel m = createModel("http://source.com/");
+        OntModelEntityIndex index = OntModelEntityIndex.get(m);
+        assertSame(index, OntModelEntityIndex.get(m));
+        assertEquals(100, index.size());
+        assertEquals(60, index.getEntities(ConceptType.CLASS).size());
+        assertEquals(10, index.getEntities(ConceptType.OBJECT_PROPERTY).size());
+        assertEquals(30, index.getEntities(ConceptType.INSTANCE).size());
+        assertEquals(100, new HashSet<>(index.getEntities(ConceptType.UNKNOWN)).size());
+        assertEquals(60, index.getStrata().get(ConceptType.CLASS).size());
+        assertEquals(10, index.getStrata().get(ConceptType.RDF_PROPERTY).size());
+
+        //the index is rebuilt when the model changes
+        m.createClass("http://source.com/newClass");
+        assertNotSame(index, OntModelEntityIndex.get(m));
+        assertEquals(61, OntModelEntityIndex.get(m).getEntities(ConceptType.CLASS).size());
+    }
+
+    @Test
+    void testStratifiedSampling(){
+        RandomSampleOntModel sampleModel = new RandomSampleOntModel(createModel("http://source.com/"), 1234);
+        Set<String> exclude = new HashSet<>();
+        exclude.add("http://source.com/class1");
+        exclude.add("http://source.com/property1");
+        List<String> sample = sampleModel.getStratifiedRandomElements(20, exclude);
+        assertEquals(20, sample.size());
+        assertEquals(20, new HashSet<>(sample).size());
+        assertEquals(12, sample.stream().filter(s -> s.contains("class")).count());
+        assertEquals(2, sample.stream().filter(s -> s.contains("property")).count());
+        assertEquals(6, sample.stream().filter(s -> s.contains("individual")).count());
+        assertFalse(sample.contains("http://source.com/class1"));
+        assertFalse(sample.contains("http://source.com/property1"));
+    }
+
+    @Test
+    void testExcludeMostElements(){
+        RandomSampleSet<String> sampler = new RandomSampleOntModel(createModel("http://source.com/"), 1234)
+                .getSampler(ConceptType.CLASS);
+        Set<String> exclude = new HashSet<>();
+        for(int i = 0; i < 58; i++){
+            exclude.add("http://source.com/class" + i);
+        }
+        Set<String> expected = new HashSet<>();
+        expected.add("http://source.com/class58");
+        expected.add("http://source.com/class59");
+        assertEquals(expected, new HashSet<>(sampler.getRandomElementsWithoutRepetition(2, exclude)));
+        assertTrue(expected.containsAll(sampler.getRandomElementsWithRepetition(100, exclude)));
+        assertEquals(100, sampler.getRandomElementsWithRepetition(100, exclude).size());
+        assertTrue(expected.contains(sampler.getRandomElement(exclude)));
+    }
+
+    @Test
+    void testScanBasedSamplingWhenMostElementsAreExcluded(){
+        RandomSampleSet<String> sampler = new RandomSampleOntModel(createModel("http://source.com/"), 1234)
+                .getSampler(ConceptType.CLASS);
+        //55 of 60 elements are excluded (more than 90 percent): the list is scanned instead of rejecting random elements
+        CountingSet exclude = new CountingSet();
+        Set<String> expected = new HashSet<>();
+        for(int i = 0; i < 60; i++){
+            if(i < 55)
+                exclude.add("http://source.com/class" + i);
+            else
+                expected.add("http://source.com/class" + i);
+        }
+        
+        //reservoir sampling: exactly one lookup per element
+        List<String> withoutRepetition = sampler.getRandomElementsWithoutRepetition(3, exclude);
+        assertEquals(60, exclude.lookups);
+        assertEquals(3, new HashSet<>(withoutRepetition).size());
+        assertTrue(expected.containsAll(withoutRepetition));
+        
+        exclude.lookups = 0;
+        assertTrue(expected.contains(sampler.getRandomElement(exclude)));
+        assertEquals(60, exclude.lookups);
+        
+        //rank drawing: at most two scans over the list
+        exclude.lookups = 0;
+        List<String> withRepetition = sampler.getRandomElementsWithRepetition(100, exclude);
+        assertTrue(exclude.lookups <= 120);
+        assertEquals(100, withRepetition.size());
+        assertTrue(expected.containsAll(withRepetition));
+        
+        //more than 10 percent of the list is drawn
+        assertEquals(30, new HashSet<>(sampler.getRandomElementsWithoutRepetition(30)).size());
+    }
+
+    @Test
+    void testStratifiedDraw() throws Exception {
+        OntModel source = createModel("http://source.com/");
+        OntModel target = createModel("http://target.com/");
+        Alignment alignment = new Alignment();
+        alignment.add("http://source.com/class0", "http://target.com/class0");
+        AddNegativesRandomlyAbsolute addNegatives = new AddNegativesRandomlyAbsolute(20, true, false);
+        addNegatives.setRandomSeed(42L);
+        addNegatives.setStratifiedDraw(true);
+        Alignment result = addNegatives.match(source, target, alignment, new Properties());
+        
+        //10 entities are drawn from each ontology: 6 classes, 1 property, 3 individuals (60/10/30 of 100 entities)
+        List<Correspondence> negatives = new ArrayList<>();
+        result.getCorrespondencesRelation(CorrespondenceRelation.INCOMPAT).forEach(negatives::add);
+        assertEquals(20, negatives.size());
+        assertEquals(12, negatives.stream().filter(c -> c.getEntityOne().contains("class")).count());
+        assertEquals(2, negatives.stream().filter(c -> c.getEntityOne().contains("property")).count());
+        assertEquals(6, negatives.stream().filter(c -> c.getEntityOne().contains("individual")).count());
+    }
+
+    @Test
+    void testRepeatableWithSeed() throws Exception {
+        OntModel source = createModel("http://source.com/");
+        OntModel target = createModel("http://target.com/");
+
+        Alignment first = generateNegatives(source, target, 42L);
+        Alignment second = generateNegatives(source, target, 42L);
+        assertEquals(first, second);
+        //negatives are drawn without repetition and never contain the positive
+        Set<String> sampledTargets = new HashSet<>();
+        Set<String> sampledSources = new HashSet<>();
+        for(Correspondence c : first){
+            if(c.getRelation() == CorrespondenceRelation.INCOMPAT){
+                if(c.getEntityOne().equals("http://source.com/class0"))
+                    sampledTargets.add(c.getEntityTwo());
+                else
+                    sampledSources.add(c.getEntityOne());
+            }
+        }
+        assertEquals(10, sampledTargets.size());
+        assertEquals(10, sampledSources.size());
+        assertFalse(sampledTargets.contains("http://target.com/class0"));
+        assertFalse(sampledSources.contains("http://source.com/class0"));
+
+        RandomSampleOntModel a = new RandomSampleOntModel(source, new Random(7));
+        RandomSampleOntModel b = new RandomSampleOntModel(source, new Random(7));
+        assertEquals(a.getGlobalSampler().getRandomElementsWithoutRepetition(50),
+                b.getGlobalSampler().getRandomElementsWithoutRepetition(50));
+    }
+
+    /**
+     * Set which counts the lookups.
+     */
+    private static class CountingSet extends HashSet<String> {
+        private int lookups = 0;
+
+        @Override
+        public boolean contains(Object o) {
+            lookups++;
+            return super.contains(o);
+        }
+    }
+
+    private static Alignment generateNegatives(OntModel source, OntModel target, long seed) throws Exception {
+        Alignment alignment = new Alignment();
+        alignment.add("http://source.com/class0", "http://target.com/class0");
+        AddNegativesRandomlyOneOneAssumption addNegatives = new AddNegativesRandomlyOneOneAssumption(10, true, false);
+        addNegatives.setRandomSeed(seed);
+        Alignment result = addNegatives.match(source, target, alignment, new Properties());
+        assertEquals(21, result.size());
+        return result;
+    }
+}
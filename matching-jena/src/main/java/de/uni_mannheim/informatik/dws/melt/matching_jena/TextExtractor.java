@@ -32,6 +32,8 @@ public interface TextExtractor {
     }
     
     public static TextExtractor wrapTextExtractorMap(TextExtractorMap e){
+        if(e instanceof TextExtractorAsMap)
+            return ((TextExtractorAsMap) e).getExtractor();
         return (Resource r) -> e.extract(r).values().stream().flatMap(Set::stream).collect(Collectors.toSet());
     }
     
@@ -0,0 +1,59 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * A {@link TextExtractorMap} which wraps a {@link TextExtractor} and returns all texts with the key {@link #KEY}.
+ * In contrast to a lambda, two wrappers of the same extractor are equal which allows to share cached texts
+ * (see {@link TextExtractorCache}).
+ */
+class TextExtractorAsMap implements TextExtractorMap {
+
+    /**
+     * The key which is used in the returned map.
+     */
+    static final String KEY = "TextExtractor";
+
+    private final TextExtractor extractor;
+
+    TextExtractorAsMap(TextExtractor extractor) {
+        this.extractor = extractor;
+    }
+
+    @Override
+    public Map<String, Set<String>> extract(Resource r) {
+        Map<String, Set<String>> returnMap = new HashMap<>();
+        returnMap.put(KEY, extractor.extract(r));
+        return returnMap;
+    }
+
+    public TextExtractor getExtractor() {
+        return extractor;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 5;
+        hash = 23 * hash + Objects.hashCode(this.extractor);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final TextExtractorAsMap other = (TextExtractorAsMap) obj;
+        return Objects.equals(this.extractor, other.extractor);
+    }
+}
@@ -0,0 +1,291 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.ParameterConfigKeys;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.rdf.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache for the texts which are extracted by {@link TextExtractor} and {@link TextExtractorMap}.
+ * The key is the extractor (based on its equals method), the model (based on the identity of its graph),
+ * and the resource (URI or blank node label).
+ * <p>
+ * The cache can be shared between multiple matchers in a pipeline by putting it in the properties
+ * (key {@link ParameterConfigKeys#TEXT_EXTRACTOR_CACHE}). Matchers then use {@link #wrapTextExtractor(TextExtractor, Properties) }
+ * and {@link #wrapTextExtractorMap(TextExtractorMap, Properties) } which return the unchanged extractor in case no cache is given.
+ * Thus the same extractor instance (or an equal one) should be used in all matchers to profit from the cache.
+ * <p>
+ * The default store is an in-memory LRU map with a maximum number of entries.
+ * Any other map can be used as a store as well, e.g. an off-heap MapDB map
+ * ({@code DBMaker.memoryDirectDB().make().hashMap("texts", Serializer.STRING, Serializer.JAVA).expireMaxSize(...).create()}).
+ * The store should be empty when it is given to the cache because the keys are only valid within this cache instance.
+ * <p>
+ * The returned texts are unmodifiable. The models should not be modified while they are extracted (or cached).
+ */
+public class TextExtractorCache {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TextExtractorCache.class);
+
+    /**
+     * The default maximum number of cached resources (per extractor and model).
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1_000_000;
+
+    /**
+     * The store which maps the key (extractor, model, resource) to the extracted texts.
+     */
+    private final Map<String, Map<String, Set<String>>> store;
+
+    /**
+     * Maps each extractor to a small id which is used in the key.
+     */
+    private final Map<Object, Integer> extractorIds;
+
+    /**
+     * Maps each graph to a small id which is used in the key.
+     * Weak keys are used such that removed models can be garbage collected.
+     */
+    private final Map<Graph, Integer> graphIds;
+
+    private final AtomicInteger idCounter;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * Constructor which creates an in-memory LRU store with the given maximum number of entries.
+     * @param maximumSize the maximum number of entries (one entry per extractor, model, and resource).
+     */
+    public TextExtractorCache(int maximumSize) {
+        this(Collections.synchronizedMap(new LinkedHashMap<String, Map<String, Set<String>>>(16, 0.75f, true){
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, Set<String>>> eldest) {
+                return size() > maximumSize;
+            }
+        }));
+    }
+
+    /**
+     * Constructor which creates an in-memory LRU store with {@link #DEFAULT_MAXIMUM_SIZE} entries.
+     */
+    public TextExtractorCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Constructor which uses the given map as a store.
+     * The map has to be thread safe if the cache is used by multiple threads (e.g. in {@link #extractAll(TextExtractor, Collection, boolean) }).
+     * It is responsible for bounding the number of entries.
+     * @param store the store which maps the internal keys to the texts (e.g. an off-heap MapDB map).
+     */
+    public TextExtractorCache(Map<String, Map<String, Set<String>>> store) {
+        this.store = store;
+        this.extractorIds = new ConcurrentHashMap<>();
+        this.graphIds = Collections.synchronizedMap(new WeakHashMap<>());
+        this.idCounter = new AtomicInteger();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Extracts the texts of the given resource with the given extractor or returns them from the cache.
+     * @param extractor the extractor
+     * @param r the resource
+     * @return the (unmodifiable) set of texts
+     */
+    public Set<String> extract(TextExtractor extractor, Resource r) {
+        return extractMap(TextExtractorMap.wrapTextExtractor(extractor), r).getOrDefault(TextExtractorAsMap.KEY, Collections.emptySet());
+    }
+
+    /**
+     * Extracts the texts of the given resource with the given extractor or returns them from the cache.
+     * @param extractor the extractor
+     * @param r the resource
+     * @return the (unmodifiable) map of texts
+     */
+    public Map<String, Set<String>> extractMap(TextExtractorMap extractor, Resource r) {
+        String key = getKey(extractor, r);
+        if(key == null){
+            return extractor.extract(r);
+        }
+        Map<String, Set<String>> texts = this.store.get(key);
+        if(texts != null){
+            this.hits.incrementAndGet();
+            return texts;
+        }
+        this.misses.incrementAndGet();
+        texts = makeUnmodifiable(extractor.extract(r));
+        this.store.put(key, texts);
+        return texts;
+    }
+
+    /**
+     * Extracts the texts of all given resources (and fills the cache).
+     * If parallel is true, the resources are processed in parallel which requires that the underlying model is not modified.
+     * @param extractor the extractor
+     * @param resources the resources
+     * @param parallel true, if the texts should be extracted in parallel
+     * @return a map from resource to the (unmodifiable) set of texts
+     */
+    public Map<Resource, Set<String>> extractAll(TextExtractor extractor, Collection<? extends Resource> resources, boolean parallel) {
+        Stream<? extends Resource> stream = parallel ? resources.parallelStream() : resources.stream();
+        return stream.distinct().collect(Collectors.toConcurrentMap(r -> r, r -> extract(extractor, r)));
+    }
+
+    /**
+     * Extracts the texts of all given resources (and fills the cache).
+     * If parallel is true, the resources are processed in parallel which requires that the underlying model is not modified.
+     * @param extractor the extractor
+     * @param resources the resources
+     * @param parallel true, if the texts should be extracted in parallel
+     * @return a map from resource to the (unmodifiable) map of texts
+     */
+    public Map<Resource, Map<String, Set<String>>> extractMapAll(TextExtractorMap extractor, Collection<? extends Resource> resources, boolean parallel) {
+        Stream<? extends Resource> stream = parallel ? resources.parallelStream() : resources.stream();
+        return stream.distinct().collect(Collectors.toConcurrentMap(r -> r, r -> extractMap(extractor, r)));
+    }
+
+    /**
+     * Returns a text extractor which uses this cache.
+     * @param extractor the extractor to wrap
+     * @return the caching text extractor
+     */
+    public TextExtractor wrapTextExtractor(TextExtractor extractor) {
+        return r -> extract(extractor, r);
+    }
+
+    /**
+     * Returns a text extractor map which uses this cache.
+     * @param extractor the extractor to wrap
+     * @return the caching text extractor map
+     */
+    public TextExtractorMap wrapTextExtractorMap(TextExtractorMap extractor) {
+        return r -> extractMap(extractor, r);
+    }
+
+    /**
+     * Returns the number of cache hits.
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of cache misses (which corresponds to the number of extractions).
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of entries in the store.
+     * @return the number of entries
+     */
+    public int size() {
+        return this.store.size();
+    }
+
+    /**
+     * Removes all cached texts.
+     */
+    public void clear() {
+        this.store.clear();
+        this.extractorIds.clear();
+        this.graphIds.clear();
+        this.hits.set(0);
+        this.misses.set(0);
+    }
+
+    /**
+     * Logs the hit and miss statistics of this cache.
+     */
+    public void logStatistics() {
+        LOGGER.info("TextExtractorCache: {} hits, {} misses, {} entries", getHitCount(), getMissCount(), size());
+    }
+
+    private String getKey(TextExtractorMap extractor, Resource r) {
+        String resourceKey;
+        if(r.isURIResource()){
+            resourceKey = r.getURI();
+        }else if(r.isAnon()){
+            resourceKey = "_:" + r.getId().getLabelString();
+        }else{
+            return null;
+        }
+        if(r.getModel() == null)
+            return null;
+        int extractorId = this.extractorIds.computeIfAbsent(extractor, e -> this.idCounter.incrementAndGet());
+        int graphId = this.graphIds.computeIfAbsent(r.getModel().getGraph(), g -> this.idCounter.incrementAndGet());
+        return extractorId + " " + graphId + " " + resourceKey;
+    }
+
+    private static Map<String, Set<String>> makeUnmodifiable(Map<String, Set<String>> texts) {
+        Map<String, Set<String>> map = new HashMap<>();
+        for(Map.Entry<String, Set<String>> entry : texts.entrySet()){
+            map.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Returns the cache given in the properties (key {@link ParameterConfigKeys#TEXT_EXTRACTOR_CACHE}) or null if none is given.
+     * @param properties the properties
+     * @return the cache or null
+     */
+    public static TextExtractorCache fromProperties(Properties properties) {
+        if(properties == null)
+            return null;
+        Object cache = properties.get(ParameterConfigKeys.TEXT_EXTRACTOR_CACHE);
+        if(cache == null)
+            return null;
+        if(cache instanceof TextExtractorCache)
+            return (TextExtractorCache) cache;
+        LOGGER.warn("The value provided by ParameterConfigKeys.TEXT_EXTRACTOR_CACHE is not of type TextExtractorCache. No cache is used.");
+        return null;
+    }
+
+    /**
+     * Wraps the extractor such that it uses the cache given in the properties.
+     * If no cache is given, the extractor is returned unchanged.
+     * @param extractor the extractor
+     * @param properties the properties which may contain a cache
+     * @return the (possibly caching) extractor
+     */
+    public static TextExtractor wrapTextExtractor(TextExtractor extractor, Properties properties) {
+        TextExtractorCache cache = fromProperties(properties);
+        if(cache == null)
+            return extractor;
+        return cache.wrapTextExtractor(extractor);
+    }
+
+    /**
+     * Wraps the extractor such that it uses the cache given in the properties.
+     * If no cache is given, the extractor is returned unchanged.
+     * @param extractor the extractor
+     * @param properties the properties which may contain a cache
+     * @return the (possibly caching) extractor
+     */
+    public static TextExtractorMap wrapTextExtractorMap(TextExtractorMap extractor, Properties properties) {
+        TextExtractorCache cache = fromProperties(properties);
+        if(cache == null)
+            return extractor;
+        return cache.wrapTextExtractorMap(extractor);
+    }
+}
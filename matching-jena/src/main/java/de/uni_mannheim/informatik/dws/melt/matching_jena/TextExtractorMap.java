@@ -40,11 +40,7 @@ public interface TextExtractorMap {
     }
     
     public static TextExtractorMap wrapTextExtractor(TextExtractor e){
-        return (Resource r) -> {
-            Map<String, Set<String>> returnMap = new HashMap<>();
-            returnMap.put("TextExtractor", e.extract(r));
-            return returnMap;
-        };
+        return new TextExtractorAsMap(e);
     }
     
     public static TextExtractorMap appendStringPostProcessing(TextExtractorMap e, Function<String, String> postprocessing){
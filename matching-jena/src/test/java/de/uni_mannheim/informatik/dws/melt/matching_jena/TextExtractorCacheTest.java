@@ -0,0 +1,90 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.ParameterConfigKeys;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextExtractorCacheTest {
+
+    @Test
+    void extractFromCache() {
+        Model model = ModelFactory.createDefaultModel();
+        Resource one = model.createResource("http://example.com/one").addProperty(RDFS.label, "One");
+        Resource two = model.createResource("http://example.com/two").addProperty(RDFS.label, "Two");
+
+        AtomicInteger calls = new AtomicInteger();
+        TextExtractor extractor = r -> {
+            calls.incrementAndGet();
+            return new HashSet<>(Arrays.asList(r.getProperty(RDFS.label).getString()));
+        };
+
+        TextExtractorCache cache = new TextExtractorCache();
+        assertEquals(new HashSet<>(Arrays.asList("One")), cache.extract(extractor, one));
+        assertEquals(new HashSet<>(Arrays.asList("One")), cache.extract(extractor, one));
+        assertEquals(new HashSet<>(Arrays.asList("Two")), cache.extract(extractor, two));
+        assertEquals(2, calls.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+
+        //same extractor wrapped as map uses the same entries
+        Map<String, Set<String>> map = cache.extractMap(TextExtractorMap.wrapTextExtractor(extractor), one);
+        assertEquals(1, map.size());
+        assertEquals(2, calls.get());
+
+        //another model is a different key
+        Model otherModel = ModelFactory.createDefaultModel();
+        Resource otherOne = otherModel.createResource("http://example.com/one").addProperty(RDFS.label, "Other");
+        assertEquals(new HashSet<>(Arrays.asList("Other")), cache.extract(extractor, otherOne));
+        assertEquals(3, calls.get());
+
+        assertThrows(UnsupportedOperationException.class, () -> cache.extract(extractor, one).add("modified"));
+    }
+
+    @Test
+    void boundedSize() {
+        Model model = ModelFactory.createDefaultModel();
+        TextExtractorCache cache = new TextExtractorCache(10);
+        TextExtractor extractor = r -> new HashSet<>(Arrays.asList(r.getURI()));
+        for(int i = 0; i < 100; i++){
+            cache.extract(extractor, model.createResource("http://example.com/" + i));
+        }
+        assertEquals(10, cache.size());
+    }
+
+    @Test
+    void extractAllInParallel() {
+        Model model = ModelFactory.createDefaultModel();
+        List<Resource> resources = Arrays.asList(
+                model.createResource("http://example.com/one").addProperty(RDFS.label, "One"),
+                model.createResource("http://example.com/two").addProperty(RDFS.label, "Two"),
+                model.createResource("http://example.com/three").addProperty(RDFS.label, "Three"));
+        TextExtractorCache cache = new TextExtractorCache();
+        TextExtractor extractor = r -> new HashSet<>(Arrays.asList(r.getProperty(RDFS.label).getString()));
+        Map<Resource, Set<String>> texts = cache.extractAll(extractor, resources, true);
+        assertEquals(3, texts.size());
+        assertEquals(new HashSet<>(Arrays.asList("Two")), texts.get(resources.get(1)));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void wrapWithProperties() {
+        TextExtractor extractor = r -> new HashSet<>();
+        assertSame(extractor, TextExtractorCache.wrapTextExtractor(extractor, new Properties()));
+
+        Properties properties = new Properties();
+        properties.put(ParameterConfigKeys.TEXT_EXTRACTOR_CACHE, new TextExtractorCache());
+        assertNotSame(extractor, TextExtractorCache.wrapTextExtractor(extractor, properties));
+    }
+}
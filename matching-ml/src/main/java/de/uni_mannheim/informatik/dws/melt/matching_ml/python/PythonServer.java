@@ -199,6 +199,21 @@ public class PythonServer {
         }
     }
     
+    /**
+     * Opens a stream for transformers prediction. The text pairs are sent in binary frames while they are added to the
+     * stream and the python server already predicts the first batches while the remaining pairs are generated.
+     * The result of {@link TextPairStream#finish() } contains one confidence for each added pair.
+     * @param filter the filter which provides the model and training arguments.
+     * @param batchSize the number of pairs in one frame.
+     * @return the stream which is already connected to the server.
+     */
+    public TextPairStream<double[]> transformersPredictionStream(TransformersFilter filter, int batchSize) {
+        HttpPost request = new HttpPost(serverUrl + "/transformers-prediction-stream");
+        transformersUpdateBaseRequest(filter, request);
+        request.addHeader("change-class", Boolean.toString(filter.isChangeClass()));
+        return new TextPairStream<>(httpClient, request, batchSize, TextPairStream.scoreReader());
+    }
+    
     /**
      * Run sentence transformers prediction.
      * @param matcher the matcher
@@ -214,12 +229,7 @@ public class PythonServer {
         
         request.addHeader("corpus-file-name", getCanonicalPath(corpusFile));
         request.addHeader("queries-file-name", getCanonicalPath(queriesFile));
-        
-        request.addHeader("query-chunk-size", Integer.toString(matcher.getQueryChunkSize()));
-        request.addHeader("corpus-chunk-size", Integer.toString(matcher.getCorpusChunkSize()));
-        request.addHeader("topk", Integer.toString(matcher.getTopK()));
-        request.addHeader("both-directions", Boolean.toString(matcher.isBothDirections()));
-        request.addHeader("topk-per-resource", Boolean.toString(matcher.isTopkPerResource()));
+        sentenceTransformersUpdateRequest(matcher, request);
 
         String resultString = runRequest(request);
         try {
@@ -229,6 +239,38 @@ public class PythonServer {
         }
     }
     
+    /**
+     * Opens a stream for sentence transformers prediction. The pairs consist of the URI and the text representation.
+     * First all pairs of the corpus are added, then {@link TextPairStream#endSection() } is called and afterwards
+     * all pairs of the queries are added. The python server computes the embeddings of each batch while the
+     * remaining pairs are generated. The result of {@link TextPairStream#finish() } is the generated alignment.
+     * @param matcher the matcher
+     * @param batchSize the number of pairs in one frame.
+     * @return the stream which is already connected to the server.
+     */
+    public TextPairStream<Alignment> sentenceTransformersPredictionStream(SentenceTransformersMatcher matcher, int batchSize) {
+        HttpPost request = new HttpPost(serverUrl + "/sentencetransformers-prediction-stream");
+        transformersUpdateBaseRequest(matcher, request);
+        sentenceTransformersUpdateRequest(matcher, request);
+        TextPairStream.ResponseReader<String> textReader = TextPairStream.textReader();
+        return new TextPairStream<>(httpClient, request, batchSize, response -> {
+            String resultString = textReader.read(response);
+            try {
+                return parseJSON(resultString);
+            } catch (Exception ex) {
+                throw new PythonServerException("Could not parse JSON", ex);
+            }
+        });
+    }
+    
+    private void sentenceTransformersUpdateRequest(SentenceTransformersMatcher matcher, HttpUriRequest request){
+        request.addHeader("query-chunk-size", Integer.toString(matcher.getQueryChunkSize()));
+        request.addHeader("corpus-chunk-size", Integer.toString(matcher.getCorpusChunkSize()));
+        request.addHeader("topk", Integer.toString(matcher.getTopK()));
+        request.addHeader("both-directions", Boolean.toString(matcher.isBothDirections()));
+        request.addHeader("topk-per-resource", Boolean.toString(matcher.isTopkPerResource()));
+    }
+    
     /**
      * Run fine tuning for sentence transformers.
      * @param fineTuner the matcher
@@ -286,7 +328,7 @@ public class PythonServer {
         request.addHeader("training-file", getCanonicalPath(trainingFile));
     }
     
-    private void transformersUpdateBaseRequest(TransformersBase base, HttpGet request){
+    private void transformersUpdateBaseRequest(TransformersBase base, HttpUriRequest request){
         request.addHeader("model-name", base.getModelName());
         request.addHeader("using-tf", Boolean.toString(base.isUsingTensorflow()));
         request.addHeader("training-arguments", base.getTrainingArguments().toJsonString());
@@ -0,0 +1,344 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams pairs of texts to the python server in one HTTP request without writing them to a file.
+ * The pairs are collected in batches and each batch is sent as a length-prefixed binary frame:
+ * <ul>
+ * <li>a frame starts with the number of pairs (int32, big endian)</li>
+ * <li>followed by the two texts of each pair (each as int32 number of bytes and the UTF-8 bytes)</li>
+ * <li>a frame with zero pairs ends a section (e.g. corpus and queries) and the request ends after the last section</li>
+ * </ul>
+ * The request body is written by a background thread while the caller is still generating pairs.
+ * Thus the server can already process the first batches while the remaining ones are generated.
+ * Scores are sent back in the same way: each frame contains the number of scores (int32) followed by the scores
+ * (float64, big endian) and a frame with zero scores ends the response (see {@link #scoreReader() }).
+ * The server sends the scores of each frame as soon as they are predicted. An error which occurs after the first
+ * scores are sent is reported as frame with count -1 followed by the message (int32 number of bytes and UTF-8 bytes).
+ * <p>
+ * The methods {@link #add(java.lang.String, java.lang.String) }, {@link #endSection() } and {@link #finish() }
+ * should be called by one thread only.
+ * @param <T> the type of the result
+ */
+public class TextPairStream<T> implements AutoCloseable {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TextPairStream.class);
+
+    /**
+     * The default number of pairs in one frame.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * Content type of the binary frames (request and response).
+     */
+    public static final ContentType BINARY_CONTENT_TYPE = ContentType.APPLICATION_OCTET_STREAM;
+
+    /**
+     * The number of batches which can be buffered before {@link #add(java.lang.String, java.lang.String) } blocks.
+     */
+    private static final int QUEUE_CAPACITY = 8;
+
+    private static final Object SECTION_END = new Object();
+    private static final Object BODY_END = new Object();
+
+    private final HttpPost request;
+    private final int batchSize;
+    private final BlockingQueue<Object> queue;
+    private final FutureTask<T> task;
+    private List<String> batch;
+    private int numberOfPairs;
+    private boolean finished;
+
+    /**
+     * Constructor which immediately starts the request (the body is sent while pairs are added).
+     * @param httpClient the client to execute the request
+     * @param request the request (the body is set by this class)
+     * @param batchSize the number of pairs in one frame
+     * @param responseReader the reader which parses the response
+     */
+    public TextPairStream(CloseableHttpClient httpClient, HttpPost request, int batchSize, ResponseReader<T> responseReader) {
+        if(batchSize < 1)
+            throw new IllegalArgumentException("The batch size needs to be greater than zero.");
+        this.request = request;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.batch = new ArrayList<>(batchSize * 2);
+        this.numberOfPairs = 0;
+        this.finished = false;
+        this.request.setEntity(new FrameEntity());
+        this.task = new FutureTask<>(() -> {
+            try (CloseableHttpResponse response = httpClient.execute(this.request)) {
+                return responseReader.read(response);
+            }
+        });
+        Thread thread = new Thread(this.task, "TextPairStream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Adds a pair of texts. Blocks if the server cannot keep up with the generation of pairs.
+     * @param first the first text
+     * @param second the second text
+     * @throws IOException in case the request failed
+     */
+    public void add(String first, String second) throws IOException {
+        if(this.finished)
+            throw new IllegalStateException("The stream is already finished.");
+        this.batch.add(first);
+        this.batch.add(second);
+        this.numberOfPairs++;
+        if(this.batch.size() >= this.batchSize * 2){
+            enqueue(this.batch);
+            this.batch = new ArrayList<>(this.batchSize * 2);
+        }
+    }
+
+    /**
+     * Ends the current section (e.g. the corpus) such that the following pairs belong to the next section (e.g. the queries).
+     * @throws IOException in case the request failed
+     */
+    public void endSection() throws IOException {
+        if(this.finished)
+            throw new IllegalStateException("The stream is already finished.");
+        if(!this.batch.isEmpty()){
+            enqueue(this.batch);
+            this.batch = new ArrayList<>(this.batchSize * 2);
+        }
+        enqueue(SECTION_END);
+    }
+
+    /**
+     * Ends the last section and the request and waits for the response.
+     * @return the result parsed by the response reader
+     * @throws PythonServerException in case the request failed or the server returned an error
+     */
+    public T finish() throws PythonServerException {
+        try {
+            endSection();
+            enqueue(BODY_END);
+        } catch (IOException ex) {
+            throw new PythonServerException("Could not stream the text pairs to the python server.", ex);
+        }
+        this.finished = true;
+        try {
+            return this.task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PythonServerException("Interrupted while waiting for the python server.", ex);
+        } catch (ExecutionException ex) {
+            throw toPythonServerException(ex.getCause());
+        }
+    }
+
+    /**
+     * Returns the number of pairs added so far.
+     * @return the number of pairs
+     */
+    public int getNumberOfPairs() {
+        return numberOfPairs;
+    }
+
+    /**
+     * Aborts the request if it is not finished.
+     */
+    @Override
+    public void close() {
+        if(this.task.isDone())
+            return;
+        this.finished = true;
+        this.request.abort();
+        this.task.cancel(true);
+    }
+
+    private void enqueue(Object element) throws IOException {
+        try {
+            while(!this.queue.offer(element, 100, TimeUnit.MILLISECONDS)){
+                if(this.task.isDone()){
+                    //the request already failed - the body is no longer consumed
+                    try {
+                        this.task.get();
+                    } catch (ExecutionException ex) {
+                        throw new IOException("The request to the python server failed.", ex.getCause());
+                    } catch (Exception ex) {
+                        throw new IOException("The request to the python server failed.", ex);
+                    }
+                    throw new IOException("The python server answered before the request was sent completely.");
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while streaming to the python server.", ex);
+        }
+    }
+
+    private static PythonServerException toPythonServerException(Throwable cause) {
+        if(cause instanceof PythonServerException)
+            return (PythonServerException) cause;
+        return new PythonServerException("Could not execute python server request", cause);
+    }
+
+    /**
+     * The request body which writes all queued batches as frames.
+     */
+    private class FrameEntity extends AbstractHttpEntity {
+
+        FrameEntity() {
+            setContentType(BINARY_CONTENT_TYPE.toString());
+            setChunked(true);
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream) throws IOException {
+            DataOutputStream out = new DataOutputStream(outStream);
+            try {
+                while(true){
+                    Object element = queue.take();
+                    if(element == BODY_END){
+                        break;
+                    }else if(element == SECTION_END){
+                        out.writeInt(0);
+                        //sections are flushed such that the server can start processing them
+                        out.flush();
+                    }else{
+                        @SuppressWarnings("unchecked")
+                        List<String> texts = (List<String>) element;
+                        out.writeInt(texts.size() / 2);
+                        for(String text : texts){
+                            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                            out.writeInt(bytes.length);
+                            out.write(bytes);
+                        }
+                        out.flush();
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while streaming to the python server.", ex);
+            }
+            out.flush();
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public long getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public InputStream getContent() {
+            throw new UnsupportedOperationException("The content can only be written.");
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return true;
+        }
+    }
+
+    /**
+     * Parses the response of the python server.
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface ResponseReader<T> {
+        /**
+         * Parses the response.
+         * @param response the response
+         * @return the result
+         * @throws IOException in case the response cannot be read
+         * @throws PythonServerException in case the server returned an error
+         */
+        T read(HttpResponse response) throws IOException, PythonServerException;
+    }
+
+    /**
+     * Returns a response reader which reads the scores frame by frame as soon as they arrive.
+     * An error frame (count -1) is thrown as {@link PythonServerException}.
+     * @return the reader which returns one score for each pair (in the order in which they are added).
+     */
+    public static ResponseReader<double[]> scoreReader() {
+        return response -> {
+            HttpEntity entity = getBinaryEntity(response);
+            double[] scores = new double[1024];
+            int size = 0;
+            try (DataInputStream in = new DataInputStream(entity.getContent())) {
+                while(true){
+                    int count = in.readInt();
+                    if(count == 0)
+                        break;
+                    if(count < 0){
+                        byte[] message = new byte[in.readInt()];
+                        in.readFully(message);
+                        throw new PythonServerException(new String(message, StandardCharsets.UTF_8));
+                    }
+                    if(size + count > scores.length)
+                        scores = Arrays.copyOf(scores, Math.max(scores.length * 2, size + count));
+                    for(int i = 0; i < count; i++){
+                        scores[size++] = in.readDouble();
+                    }
+                }
+            }
+            LOGGER.debug("Received {} scores from the python server.", size);
+            return Arrays.copyOf(scores, size);
+        };
+    }
+
+    /**
+     * Returns a response reader which reads the whole response as text (e.g. JSON).
+     * @return the reader which returns the text of the response
+     */
+    public static ResponseReader<String> textReader() {
+        return response -> {
+            HttpEntity entity = response.getEntity();
+            if (entity == null)
+                throw new PythonServerException("No server response.");
+            String resultString = EntityUtils.toString(entity, StandardCharsets.UTF_8);
+            if (resultString.startsWith("ERROR") || resultString.contains("500 Internal Server Error"))
+                throw new PythonServerException(resultString);
+            return resultString;
+        };
+    }
+
+    private static HttpEntity getBinaryEntity(HttpResponse response) throws IOException, PythonServerException {
+        HttpEntity entity = response.getEntity();
+        if (entity == null)
+            throw new PythonServerException("No server response.");
+        ContentType contentType = ContentType.get(entity);
+        if(contentType == null || !BINARY_CONTENT_TYPE.getMimeType().equals(contentType.getMimeType())){
+            //errors are sent as text
+            throw new PythonServerException(EntityUtils.toString(entity, StandardCharsets.UTF_8));
+        }
+        return entity;
+    }
+}
@@ -18,8 +18,10 @@ import org.apache.jena.ontology.OntModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractor;
+import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractorCache;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractorMap;
 import de.uni_mannheim.informatik.dws.melt.matching_ml.python.PythonServer;
+import de.uni_mannheim.informatik.dws.melt.matching_ml.python.TextPairStream;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import java.util.Collections;
 import java.util.Iterator;
@@ -44,6 +46,8 @@ public class SentenceTransformersMatcher extends TransformersBase {
     private int topK;
     private boolean bothDirections;
     private boolean topkPerResource;
+    private boolean streaming;
+    private int streamingBatchSize;
     
     public SentenceTransformersMatcher(TextExtractorMap extractor, String modelName){
         super(extractor, modelName);
@@ -53,6 +57,8 @@ public class SentenceTransformersMatcher extends TransformersBase {
         this.topK = 10;
         this.bothDirections = true;
         this.topkPerResource = true;
+        this.streaming = false;
+        this.streamingBatchSize = TextPairStream.DEFAULT_BATCH_SIZE;
     }
     
     public SentenceTransformersMatcher(TextExtractor extractor, String modelName){
@@ -65,6 +71,8 @@ public class SentenceTransformersMatcher extends TransformersBase {
         
         if(inputAlignment == null)
             inputAlignment = new Alignment();
+        if(this.streaming)
+            return matchStreaming(source, target, inputAlignment, parameters);
         for(ResourcesExtractor resExtractor : resourcesExtractor){
             File corpus = FileUtil.createFileWithRandomNumber("corpus", ".txt");
             File queries = FileUtil.createFileWithRandomNumber("queries", ".txt");
@@ -102,6 +110,34 @@ public class SentenceTransformersMatcher extends TransformersBase {
         return inputAlignment;
     }
 
+    /**
+     * Streams the text representations to the python server while they are extracted (no files are written).
+     * @param source the source model (corpus)
+     * @param target the target model (queries)
+     * @param inputAlignment the input alignment to which the correspondences are added.
+     * @param parameters the parameters
+     * @return the input alignment with the additional correspondences
+     * @throws Exception in case something goes wrong
+     */
+    private Alignment matchStreaming(OntModel source, OntModel target, Alignment inputAlignment, Properties parameters) throws Exception {
+        for(ResourcesExtractor resExtractor : resourcesExtractor){
+            Alignment alignment;
+            try(TextPairStream<Alignment> stream = PythonServer.getInstance().sentenceTransformersPredictionStream(this, this.streamingBatchSize)){
+                int linesWrittenSource = processTexts(source, resExtractor, parameters, stream::add);
+                stream.endSection();
+                int linesWrittenTarget = processTexts(target, resExtractor, parameters, stream::add);
+                // in case one side is empty, the server returns an empty alignment without loading the model
+                LOGGER.info("Streamed {} source and {} target text representations", linesWrittenSource, linesWrittenTarget);
+                alignment = stream.finish();
+            }
+            for(Correspondence c : alignment){
+                c.addAdditionalConfidence(this.getClass(), c.getConfidence());
+                inputAlignment.addOrModify(c);
+            }
+        }
+        return inputAlignment;
+    }
+
     private void mergeFiles(File trainingsDataDir) throws IOException, RuntimeException {
 
         // move all files contained in "/Users/D070310/Desktop/Masterthesis/neuEx/trainingsData/crawling" to /Users/D070310/Desktop/Masterthesis/neuEx/trainingsData/sentences.txt
@@ -134,43 +170,53 @@ public class SentenceTransformersMatcher extends TransformersBase {
     
     private int createTextFile(OntModel model, File file, ResourcesExtractor extractor, Properties parameters) throws IOException {
         //LOGGER.info("Write text to file {}", file);
-        int linesWritten = 0;
-        TextExtractor simpleTextExtractor = this.getExtractor();
         try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))){
-            Iterator<? extends OntResource> resourceIterator = extractor.extract(model, parameters);
-            if(this.multipleTextsToMultipleExamples){
-                while(resourceIterator.hasNext()){
-                    OntResource r = resourceIterator.next();
-                    if(!r.isURIResource())
-                        continue;
-                    for(String text : simpleTextExtractor.extract(r)){
-                        text = text.trim();
-                        if(text.isEmpty())
-                            continue;
-                        writer.write(StringEscapeUtils.escapeCsv(r.getURI()) + "," + StringEscapeUtils.escapeCsv(text) + NEWLINE);
-                        linesWritten++;
-                    }
-                }
-            }else{
-                while(resourceIterator.hasNext()){
-                    OntResource r = resourceIterator.next();
-                    if(!r.isURIResource())
-                        continue;
-                    StringBuilder sb = new StringBuilder();
-                    for(String text : simpleTextExtractor.extract(r)){
-                        sb.append(text.trim()).append(" ");
-                    }
-                    String text = sb.toString().trim();
+            return processTexts(model, extractor, parameters, (uri, text) -> 
+                    writer.write(StringEscapeUtils.escapeCsv(uri) + "," + StringEscapeUtils.escapeCsv(text) + NEWLINE));
+        }
+    }
+    
+    private int processTexts(OntModel model, ResourcesExtractor extractor, Properties parameters, TextConsumer consumer) throws IOException {
+        int linesWritten = 0;
+        TextExtractor simpleTextExtractor = TextExtractor.wrapTextExtractorMap(TextExtractorCache.wrapTextExtractorMap(this.extractor, parameters));
+        Iterator<? extends OntResource> resourceIterator = extractor.extract(model, parameters);
+        if(this.multipleTextsToMultipleExamples){
+            while(resourceIterator.hasNext()){
+                OntResource r = resourceIterator.next();
+                if(!r.isURIResource())
+                    continue;
+                for(String text : simpleTextExtractor.extract(r)){
+                    text = text.trim();
                     if(text.isEmpty())
                         continue;
-                    writer.write(StringEscapeUtils.escapeCsv(r.getURI()) + "," + StringEscapeUtils.escapeCsv(text) + NEWLINE);
+                    consumer.accept(r.getURI(), text);
                     linesWritten++;
                 }
             }
+        }else{
+            while(resourceIterator.hasNext()){
+                OntResource r = resourceIterator.next();
+                if(!r.isURIResource())
+                    continue;
+                StringBuilder sb = new StringBuilder();
+                for(String text : simpleTextExtractor.extract(r)){
+                    sb.append(text.trim()).append(" ");
+                }
+                String text = sb.toString().trim();
+                if(text.isEmpty())
+                    continue;
+                consumer.accept(r.getURI(), text);
+                linesWritten++;
+            }
         }
         return linesWritten;
     }
     
+    @FunctionalInterface
+    private interface TextConsumer {
+        void accept(String uri, String text) throws IOException;
+    }
+    
     
     //getter setter
     /**
@@ -223,6 +269,42 @@ public class SentenceTransformersMatcher extends TransformersBase {
         });
     }
 
+    /**
+     * Returns true if the text representations are streamed to the python server instead of writing them to files.
+     * @return true if the text representations are streamed.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * If set to true, the text representations are streamed in binary frames to the python server while they are extracted
+     * (instead of writing them to a corpus and queries file first). The server computes the embeddings of each batch
+     * while the remaining texts are extracted.
+     * @param streaming true if the text representations should be streamed.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Returns the number of text representations which are sent in one frame in case of streaming.
+     * @return the number of text representations in one frame.
+     */
+    public int getStreamingBatchSize() {
+        return streamingBatchSize;
+    }
+
+    /**
+     * Sets the number of text representations which are sent in one frame in case of streaming.
+     * @param streamingBatchSize the number of text representations in one frame (at least one).
+     */
+    public void setStreamingBatchSize(int streamingBatchSize) {
+        if(streamingBatchSize < 1)
+            throw new IllegalArgumentException("Streaming batch size should be at least one.");
+        this.streamingBatchSize = streamingBatchSize;
+    }
+
     public List<ResourcesExtractor> getResourcesExtractor() {
         return resourcesExtractor;
     }
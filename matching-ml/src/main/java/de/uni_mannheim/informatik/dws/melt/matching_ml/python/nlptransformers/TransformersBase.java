@@ -330,15 +330,19 @@ public abstract class TransformersBase extends MatcherYAAAJena {
     
     
     protected Map<String, Set<String>> getTextualRepresentation(Resource r, Map<Resource,Map<String, Set<String>>> cache){
+        return getTextualRepresentation(r, this.extractor, cache);
+    }
+    
+    protected Map<String, Set<String>> getTextualRepresentation(Resource r, TextExtractorMap textExtractor, Map<Resource,Map<String, Set<String>>> cache){
         Map<String, Set<String>> cacheResult = cache.get(r);
         if(cacheResult != null)
             return cacheResult;
         Map<String, Set<String>> texts = new HashMap<>();
         if(this.multipleTextsToMultipleExamples){
-            texts = this.extractor.extract(r);
+            texts = textExtractor.extract(r);
         }else{
             StringBuilder sb = new StringBuilder();
-            for(Map.Entry<String, Set<String>> groupedText : this.extractor.extract(r).entrySet()){
+            for(Map.Entry<String, Set<String>> groupedText : textExtractor.extract(r).entrySet()){
                 for(String text : groupedText.getValue()){
                     sb.append(text.trim()).append(" ");
                 }
@@ -20,14 +20,17 @@ import org.apache.jena.rdf.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractor;
+import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractorCache;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractorMap;
 import de.uni_mannheim.informatik.dws.melt.matching_ml.python.PythonServer;
 import de.uni_mannheim.informatik.dws.melt.matching_ml.python.PythonServerException;
+import de.uni_mannheim.informatik.dws.melt.matching_ml.python.TextPairStream;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.IntToDoubleFunction;
 
 /**
  * This filter extracts the corresponding text for a resource (with the specified and customizable extractor) given all correspondences in the input alignment.
@@ -42,6 +45,9 @@ public class TransformersFilter extends TransformersBase implements Filter {
     
     private boolean changeClass;
     private BatchSizeOptimization batchSizeOptimization;
+    private boolean streaming;
+    private int streamingBatchSize;
+    private TransformersPredictionCache predictionCache;
 
     /**
      * Constructor with all required parameters and default values for optional parameters (can be changed by setters).
@@ -58,6 +64,8 @@ public class TransformersFilter extends TransformersBase implements Filter {
         super(extractor, modelName);
         this.changeClass = false;
         this.batchSizeOptimization = BatchSizeOptimization.NONE;
+        this.streaming = false;
+        this.streamingBatchSize = TextPairStream.DEFAULT_BATCH_SIZE;
     }
     
     /**
@@ -75,49 +83,172 @@ public class TransformersFilter extends TransformersBase implements Filter {
         super(extractor, modelName);
         this.changeClass = false;
         this.batchSizeOptimization = BatchSizeOptimization.NONE;
+        this.streaming = false;
+        this.streamingBatchSize = TextPairStream.DEFAULT_BATCH_SIZE;
     }
 
     
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
+        if(this.streaming){
+            if(this.batchSizeOptimization == BatchSizeOptimization.NONE)
+                return matchStreaming(source, target, inputAlignment, properties);
+            LOGGER.info("Batch size optimization needs a prediction file. Thus the text pairs are not streamed.");
+        }
         File inputFile = FileUtil.createFileWithRandomNumber("alignment_transformers_predict", ".txt");
-        Map<Correspondence, List<Integer>> map;
-        try{
-            map = createPredictionFile(source, target, inputAlignment, inputFile, false);
+        PredictionRows rows = new PredictionRows();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(inputFile), StandardCharsets.UTF_8))){
+            processTextPairs(source, target, inputAlignment, properties, (c, textLeft, textRight) -> {
+                if(rows.add(c, textLeft, textRight))
+                    writer.write(StringEscapeUtils.escapeCsv(textLeft) + "," + StringEscapeUtils.escapeCsv(textRight) + NEWLINE);
+            });
         }catch (IOException ex) {
             LOGGER.warn("Could not write text to prediction file. Return unmodified input alignment.", ex);
             inputFile.delete();
             return inputAlignment;
         }
         try {
-            if(map.isEmpty()){
-                LOGGER.warn("No correspondences have enough text to be processed (the input alignment has {} " +
-                        "correspondences) - the input alignment is returned unchanged.", inputAlignment.size());
+            if(rows.isEmpty(inputAlignment))
                 return inputAlignment;
-            }
+            LOGGER.info("Wrote {} examples to prediction file {}", rows.size(), inputFile);
             
             LOGGER.info("Run prediction");
             List<Double> confidenceList = predictConfidences(inputFile);
             LOGGER.info("Finished prediction");
-
-            for(Entry<Correspondence, List<Integer>> correspondenceToLineNumber : map.entrySet()){
-                double max = 0.0;
-                for(Integer lineNumber : correspondenceToLineNumber.getValue()){
-                    Double conf = confidenceList.get(lineNumber);
-                    if(conf == null){
-                        throw new IllegalArgumentException("Could not find a confidence for a given correspondence.");
-                    }
-                    if(conf > max)
-                        max = conf;
-                }
-                correspondenceToLineNumber.getKey().addAdditionalConfidence(this.getClass(), max);
+            if(confidenceList.size() != rows.size()){
+                throw new IllegalArgumentException("Could not find a confidence for a given correspondence.");
             }
+            rows.apply(confidenceList::get);
         } finally {
             inputFile.delete();
         }
         return inputAlignment;
     }
     
+    
+    /**
+     * Streams the text pairs to the python server while they are generated (no prediction file is written).
+     * @param source The source model
+     * @param target The target model
+     * @param inputAlignment the alignment to process.
+     * @param properties the properties which may contain a shared {@link TextExtractorCache}.
+     * @return the input alignment with the additional confidences.
+     * @throws Exception in case something goes wrong.
+     */
+    private Alignment matchStreaming(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
+        PredictionRows rows = new PredictionRows();
+        double[] confidences;
+        LOGGER.info("Run prediction (streaming)");
+        try(TextPairStream<double[]> stream = PythonServer.getInstance().transformersPredictionStream(this, this.streamingBatchSize)){
+            processTextPairs(source, target, inputAlignment, properties, (c, textLeft, textRight) -> {
+                if(rows.add(c, textLeft, textRight))
+                    stream.add(textLeft, textRight);
+            });
+            if(rows.isEmpty(inputAlignment)){
+                stream.finish();
+                return inputAlignment;
+            }
+            confidences = stream.finish();
+        }
+        LOGGER.info("Finished prediction of {} examples", rows.size());
+        if(confidences.length != rows.size()){
+            throw new PythonServerException("The python server returned " + confidences.length + 
+                    " confidences but " + rows.size() + " examples were sent.");
+        }
+        rows.apply(i -> confidences[i]);
+        return inputAlignment;
+    }
+    
+    /**
+     * The examples (rows) which need to be predicted and the correspondences they belong to.
+     * If a prediction cache is set, pairs which are already cached are not added as row (their score is directly applied)
+     * and identical pairs are predicted only once.
+     */
+    private class PredictionRows {
+        private final Map<Correspondence, List<Integer>> correspondenceToRows = new HashMap<>();
+        private final List<String> keys = new ArrayList<>();
+        private final Map<String, Integer> keyToRow = new HashMap<>();
+        private final String modelIdentifier;
+        private int numberOfExamples = 0;
+        private int cached = 0;
+        
+        PredictionRows(){
+            this.modelIdentifier = predictionCache == null ? null : TransformersPredictionCache.getModelIdentifier(modelName, changeClass);
+        }
+        
+        /**
+         * Adds an example.
+         * @return true if the example needs to be predicted (it is then the next row).
+         */
+        boolean add(Correspondence c, String textLeft, String textRight){
+            this.numberOfExamples++;
+            if(predictionCache == null){
+                this.correspondenceToRows.computeIfAbsent(c, __-> new ArrayList<>()).add(this.numberOfExamples - 1);
+                return true;
+            }
+            String key = TransformersPredictionCache.getKey(this.modelIdentifier, textLeft, textRight);
+            Integer row = this.keyToRow.get(key);
+            if(row != null){
+                this.correspondenceToRows.computeIfAbsent(c, __-> new ArrayList<>()).add(row);
+                return false;
+            }
+            Double score = predictionCache.get(key);
+            if(score != null){
+                this.cached++;
+                updateConfidence(c, score);
+                return false;
+            }
+            row = this.keys.size();
+            this.keys.add(key);
+            this.keyToRow.put(key, row);
+            this.correspondenceToRows.computeIfAbsent(c, __-> new ArrayList<>()).add(row);
+            return true;
+        }
+        
+        /**
+         * Returns the number of rows which need to be predicted.
+         */
+        int size(){
+            return predictionCache == null ? this.numberOfExamples : this.keys.size();
+        }
+        
+        /**
+         * Returns true if nothing needs to be predicted and logs the reason.
+         */
+        boolean isEmpty(Alignment inputAlignment){
+            if(this.numberOfExamples == 0){
+                LOGGER.warn("No correspondences have enough text to be processed (the input alignment has {} " +
+                        "correspondences) - the input alignment is returned unchanged.", inputAlignment.size());
+                return true;
+            }
+            if(predictionCache != null)
+                LOGGER.info("{} of {} examples are found in the prediction cache.", this.cached, this.numberOfExamples);
+            return size() == 0;
+        }
+        
+        /**
+         * Applies the predicted confidences (maximum over all examples of a correspondence) and adds them to the cache.
+         */
+        void apply(IntToDoubleFunction confidences){
+            for(Entry<Correspondence, List<Integer>> correspondenceToLineNumber : this.correspondenceToRows.entrySet()){
+                for(Integer lineNumber : correspondenceToLineNumber.getValue()){
+                    updateConfidence(correspondenceToLineNumber.getKey(), confidences.applyAsDouble(lineNumber));
+                }
+            }
+            if(predictionCache != null){
+                for(int i = 0; i < this.keys.size(); i++){
+                    predictionCache.put(this.keys.get(i), confidences.applyAsDouble(i));
+                }
+                predictionCache.commit();
+            }
+        }
+        
+        private void updateConfidence(Correspondence c, double confidence){
+            //the confidence is initialized with zero, thus this computes the maximum over all examples of a correspondence
+            if(confidence > c.getAdditionalConfidence(TransformersFilter.this.getClass()))
+                c.addAdditionalConfidence(TransformersFilter.this.getClass(), confidence);
+        }
+    }
 
 
     /**
@@ -133,35 +264,73 @@ public class TransformersFilter extends TransformersBase implements Filter {
      * @throws IOException in case the writing fails.
      */
     public Map<Correspondence, List<Integer>> createPredictionFile(OntModel source, OntModel target, Alignment predictionAlignment, File outputFile, boolean append) throws IOException {
+        return createPredictionFile(source, target, predictionAlignment, outputFile, append, new Properties());
+    }
+    
+    /**
+     * Create the prediction file which is a CSV file with two columns.The first column is the text from the left resource and the second column is the text from the right resource.
+     * @param source The source model
+     * @param target The target model
+     * @param predictionAlignment the alignment to process. All correspondences which have enough text are used.
+     * @param outputFile the csv file to which the output should be written to.
+     * @param append if true, then the training alignment is append to the given file.
+     * @param properties the properties which may contain a shared {@link TextExtractorCache}.
+     * @return the map which maps the the correspondence to (possibly multiple) row numbers.
+     * In case of multipleTextsToMultipleExamples is set to true, multiple rows can correspond to one correspondence,
+     * because each text (e.g. label, comment etc) of the two resources is used as an example.
+     * @throws IOException in case the writing fails.
+     */
+    public Map<Correspondence, List<Integer>> createPredictionFile(OntModel source, OntModel target, Alignment predictionAlignment, File outputFile, boolean append, Properties properties) throws IOException {
         Map<Correspondence, List<Integer>> map = new HashMap<>();
-        int i = 0;
+        int[] i = new int[]{0};
         try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile, append), StandardCharsets.UTF_8))){
-            Map<Resource,Map<String, Set<String>>> cache = new HashMap<>();
-            for(Correspondence c : predictionAlignment){
-                c.addAdditionalConfidence(this.getClass(), 0.0d); // initialize it
-                
-                Map<String, Set<String>> sourceTexts = getTextualRepresentation(source.getResource(c.getEntityOne()), cache);
-                Map<String, Set<String>> targetTexts = getTextualRepresentation(target.getResource(c.getEntityTwo()), cache);
+            processTextPairs(source, target, predictionAlignment, properties, (c, textLeft, textRight) -> {
+                writer.write(StringEscapeUtils.escapeCsv(textLeft) + "," + StringEscapeUtils.escapeCsv(textRight) + NEWLINE);
+                map.computeIfAbsent(c, __-> new ArrayList<>()).add(i[0]);
+                i[0]++;
+            });
+        }
+        LOGGER.info("Wrote {} examples to prediction file {}", i[0], outputFile);
+        return map;
+    }
+    
+    /**
+     * Generates all text pairs (examples) for the given alignment and initializes the additional confidence of each correspondence with zero.
+     * @param source The source model
+     * @param target The target model
+     * @param predictionAlignment the alignment to process. All correspondences which have enough text are used.
+     * @param properties the properties which may contain a shared {@link TextExtractorCache}.
+     * @param consumer the consumer which receives the correspondence and the two texts of each example.
+     * @throws IOException in case the consumer fails.
+     */
+    private void processTextPairs(OntModel source, OntModel target, Alignment predictionAlignment, Properties properties, TextPairConsumer consumer) throws IOException {
+        TextExtractorMap textExtractor = TextExtractorCache.wrapTextExtractorMap(this.extractor, properties);
+        Map<Resource,Map<String, Set<String>>> cache = new HashMap<>();
+        for(Correspondence c : predictionAlignment){
+            c.addAdditionalConfidence(this.getClass(), 0.0d); // initialize it
+
+            Map<String, Set<String>> sourceTexts = getTextualRepresentation(source.getResource(c.getEntityOne()), textExtractor, cache);
+            Map<String, Set<String>> targetTexts = getTextualRepresentation(target.getResource(c.getEntityTwo()), textExtractor, cache);
 
-                for(Entry<String, Set<String>> textLeftGroup : sourceTexts.entrySet()){
-                    for(String textRight : targetTexts.get(textLeftGroup.getKey())){
-                        if(StringUtils.isBlank(textRight)){
+            for(Entry<String, Set<String>> textLeftGroup : sourceTexts.entrySet()){
+                for(String textRight : targetTexts.get(textLeftGroup.getKey())){
+                    if(StringUtils.isBlank(textRight)){
+                        continue;
+                    }
+                    for(String textLeft : textLeftGroup.getValue()){
+                        if(StringUtils.isBlank(textLeft)){
                             continue;
                         }
-                        for(String textLeft : textLeftGroup.getValue()){
-                            if(StringUtils.isBlank(textLeft)){
-                                continue;
-                            }
-                            writer.write(StringEscapeUtils.escapeCsv(textLeft) + "," + StringEscapeUtils.escapeCsv(textRight) + NEWLINE);
-                            map.computeIfAbsent(c, __-> new ArrayList<>()).add(i);
-                            i++;
-                        }
+                        consumer.accept(c, textLeft, textRight);
                     }
                 }
             }
         }
-        LOGGER.info("Wrote {} examples to prediction file {}", i, outputFile);
-        return map;
+    }
+    
+    @FunctionalInterface
+    private interface TextPairConsumer {
+        void accept(Correspondence correspondence, String textLeft, String textRight) throws IOException;
     }
         
     /**
@@ -240,6 +409,62 @@ public class TransformersFilter extends TransformersBase implements Filter {
 
     //setter and getter
 
+    /**
+     * Returns true if the text pairs are streamed to the python server instead of writing them to a prediction file.
+     * @return true if the text pairs are streamed.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * If set to true, the text pairs are streamed in binary frames to the python server while they are generated
+     * (instead of writing them to a prediction file first). Thus the generation of the examples overlaps with the prediction.
+     * This is not possible in combination with batch size optimization (in this case a prediction file is still used).
+     * @param streaming true if the text pairs should be streamed.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Returns the cache for the predicted scores.
+     * @return the prediction cache or null if no cache is used.
+     */
+    public TransformersPredictionCache getPredictionCache() {
+        return predictionCache;
+    }
+
+    /**
+     * Sets the cache for the predicted scores. Only text pairs which are not in the cache are sent to the python server.
+     * This is helpful if the same test case is matched multiple times with the same model (e.g. when searching for a threshold).
+     * The cache can be shared by multiple filters (also in different threads).
+     * A persistent cache is provided by the PersistenceService in matching-jena-matchers.
+     * @param predictionCache the prediction cache or null to disable caching (default).
+     */
+    public void setPredictionCache(TransformersPredictionCache predictionCache) {
+        this.predictionCache = predictionCache;
+    }
+
+    /**
+     * Returns the number of text pairs which are sent in one frame in case of streaming.
+     * @return the number of text pairs in one frame.
+     */
+    public int getStreamingBatchSize() {
+        return streamingBatchSize;
+    }
+
+    /**
+     * Sets the number of text pairs which are sent in one frame in case of streaming.
+     * This is independent of the batch size on the GPU.
+     * @param streamingBatchSize the number of text pairs in one frame (at least one).
+     */
+    public void setStreamingBatchSize(int streamingBatchSize) {
+        if(streamingBatchSize < 1)
+            throw new IllegalArgumentException("Streaming batch size should be at least one.");
+        this.streamingBatchSize = streamingBatchSize;
+    }
+
     /**
      * Return true if the class is changed in the classification.
      * This is useful if a pretrained model predict exactly the opposite class.
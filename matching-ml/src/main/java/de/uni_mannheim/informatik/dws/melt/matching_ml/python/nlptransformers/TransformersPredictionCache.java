@@ -0,0 +1,151 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python.nlptransformers;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A content-addressed cache for the scores which a transformer model predicts for pairs of texts.
+ * The key consists of the model identifier and a SHA-256 hash of the text pair (see {@link #getKey(java.lang.String, java.lang.String, java.lang.String) }).
+ * Thus the same pair is predicted only once per model - even across multiple runs if the backing map is persistent
+ * (e.g. the MapDB based one in the PersistenceService of matching-jena-matchers).
+ * <p>
+ * The cache is thread safe if the backing map is thread safe. Thus it can be shared by multiple filters which run in parallel.
+ */
+public class TransformersPredictionCache {
+
+
+    private final ConcurrentMap<String, Double> scores;
+    private final Runnable commitAction;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructor which creates an in-memory cache (only valid for the lifetime of the JVM).
+     */
+    public TransformersPredictionCache() {
+        this(new ConcurrentHashMap<>(), () -> {});
+    }
+
+    /**
+     * Constructor
+     * @param scores the (possibly persistent) map which stores the scores.
+     * @param commitAction the action which is executed after new scores are added (e.g. commit of a persistent map).
+     */
+    public TransformersPredictionCache(ConcurrentMap<String, Double> scores, Runnable commitAction) {
+        this.scores = scores;
+        this.commitAction = commitAction;
+    }
+
+    /**
+     * Returns the cached score.
+     * @param key the key generated by {@link #getKey(java.lang.String, java.lang.String, java.lang.String) }
+     * @return the score or null if the pair is not yet predicted.
+     */
+    public Double get(String key) {
+        Double score = this.scores.get(key);
+        if(score == null){
+            this.misses.increment();
+        }else{
+            this.hits.increment();
+        }
+        return score;
+    }
+
+    /**
+     * Adds a predicted score.
+     * @param key the key generated by {@link #getKey(java.lang.String, java.lang.String, java.lang.String) }
+     * @param score the predicted score
+     */
+    public void put(String key, double score) {
+        this.scores.put(key, score);
+    }
+
+    /**
+     * Should be called after a batch of scores is added (e.g. to commit a persistent map).
+     */
+    public void commit() {
+        this.commitAction.run();
+    }
+
+    /**
+     * Returns the identifier of a model which is used as part of the key.
+     * In case the model name is a local directory (e.g. a fine-tuned model), the last modification time of the files
+     * in this directory is added. Thus a model which is overridden (e.g. in each run of a hyperparameter search)
+     * does not reuse the scores of the old model.
+     * @param modelName the model name (hosted model id or path to a local directory).
+     * @param changeClass true if the class is changed in the classification (which results in different scores).
+     * @return the model identifier
+     */
+    public static String getModelIdentifier(String modelName, boolean changeClass) {
+        StringBuilder sb = new StringBuilder(modelName);
+        File modelDirectory = new File(modelName);
+        if(modelDirectory.isDirectory()){
+            long lastModified = modelDirectory.lastModified();
+            File[] files = modelDirectory.listFiles();
+            if(files != null){
+                for(File file : files){
+                    lastModified = Math.max(lastModified, file.lastModified());
+                }
+            }
+            sb.append("@").append(lastModified);
+        }
+        if(changeClass)
+            sb.append("#changeClass");
+        return sb.toString();
+    }
+
+    /**
+     * Returns the key for a text pair.
+     * @param modelIdentifier the model identifier (see {@link #getModelIdentifier(java.lang.String, boolean) }).
+     * @param textLeft the left text
+     * @param textRight the right text
+     * @return the key which consists of the model identifier and a hash of the text pair.
+     */
+    public static String getKey(String modelIdentifier, String textLeft, String textRight) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available.", ex);
+        }
+        byte[] left = textLeft.getBytes(StandardCharsets.UTF_8);
+        //the length of the left text is added such that the boundary between the two texts is unique
+        digest.update(Integer.toString(left.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(left);
+        digest.update(textRight.getBytes(StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder(modelIdentifier.length() + 65);
+        sb.append(modelIdentifier).append('|');
+        for(byte b : digest.digest()){
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the number of pairs which were found in the cache.
+     * @return number of cache hits
+     */
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Returns the number of pairs which were not found in the cache.
+     * @return number of cache misses
+     */
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "TransformersPredictionCache(hits=" + getHitCount() + ", misses=" + getMissCount() + ")";
+    }
+}
@@ -1,4 +1,4 @@
-from flask import Flask, request, jsonify
+from flask import Flask, Response, request, jsonify
 from gensim import corpora, models, similarities, matutils
 from scipy import linalg
 from scipy.special import softmax
@@ -13,6 +13,7 @@ from pkg_resources import DistributionNotFound
 import pathlib
 import tempfile
 import re
+import struct
 from datetime import datetime
 from collections import defaultdict
 import copy
@@ -1809,78 +1810,274 @@ def run_function_multi_process(request, func):
         return my_result
 
 
-def inner_transformers_prediction(request_headers):
+def binary_read_exactly(stream, size):
+    data = b""
+    while len(data) < size:
+        chunk = stream.read(size - len(data))
+        if not chunk:
+            raise EOFError("Unexpected end of the binary stream.")
+        data += chunk
+    return data
+
+
+def binary_read_text_pair_frames(stream):
+    """Reads the length-prefixed frames of text pairs which are sent by TextPairStream (java).
+    Each frame starts with the number of pairs (int32, big endian) followed by the two texts of each pair
+    (int32 number of bytes followed by the UTF-8 bytes). A frame with zero pairs ends a section.
+    Yields a list of (text, text) tuples for each frame and an empty list for the end of a section."""
+    while True:
+        header = stream.read(4)
+        if not header:
+            return
+        if len(header) < 4:
+            header += binary_read_exactly(stream, 4 - len(header))
+        (count,) = struct.unpack(">i", header)
+        batch = []
+        for _ in range(count):
+            texts = []
+            for _ in range(2):
+                (length,) = struct.unpack(">i", binary_read_exactly(stream, 4))
+                texts.append(binary_read_exactly(stream, length).decode("utf-8"))
+            batch.append((texts[0], texts[1]))
+        yield batch
+
+
+def binary_write_score_frames(score_batches):
+    """Writes each list of scores as frame (int32 number of scores followed by the float64 scores, big endian).
+    A frame with zero scores ends the response. A string (error message) is written as frame with count -1
+    followed by the int32 number of bytes and the UTF-8 bytes of the message and also ends the response."""
+    for scores in score_batches:
+        if isinstance(scores, str):
+            message = scores.encode("utf-8")
+            yield struct.pack(">ii", -1, len(message)) + message
+            # consume the remaining results such that the worker (process) can finish
+            for _ in score_batches:
+                pass
+            return
+        yield struct.pack(">i%sd" % len(scores), len(scores), *scores)
+    yield struct.pack(">i", 0)
+
+
+def binary_read_text_pair_frames_in_background(stream, put):
+    """Reads all frames of the stream (see binary_read_text_pair_frames) in a background thread and hands them over
+    to the put function (e.g. of a queue). None is put after the last frame.
+    The request body is thus always received completely, even while the response is written and the client
+    does not yet read it (the client only reads the response after the whole request is sent)."""
+    import threading
+
+    def read_frames():
+        try:
+            for frame in binary_read_text_pair_frames(stream):
+                put(frame)
+        except Exception:
+            app.logger.exception("Could not read the text pair frames of the request.")
+        finally:
+            put(None)
+
+    thread = threading.Thread(target=read_frames, daemon=True)
+    thread.start()
+    return thread
+
+
+def multi_process_stream_wrapper_function(input_queue, output_queue, func, argument):
+    batches = iter(input_queue.get, None)
+    result = func(argument, batches)
+    # consume the remaining batches (e.g. in case of an error) such that the sending process is not blocked
+    for _ in batches:
+        pass
+    output_queue.put(result)
+
+
+def run_stream_function_multi_process(request, func):
+    """Runs func(request_headers, batches) where batches are the frames of the request body (see binary_read_text_pair_frames).
+    The frames are handed over to func while the request body is still received."""
+    request_headers = dict(request.headers.items(lower=True))
+    frames = binary_read_text_pair_frames(request.stream)
+    multi_processing = request_headers["multi-processing"]
+    if multi_processing == "no_multi_process":
+        result = func(request_headers, frames)
+        for _ in frames:
+            pass
+        return result
+    else:
+        import multiprocessing as mp
+
+        ctx = (
+            mp.get_context()
+            if multi_processing == "default_multi_process"
+            else mp.get_context(multi_processing)
+        )
+        input_queue = ctx.Queue()
+        output_queue = ctx.Queue()
+        process = ctx.Process(
+            target=multi_process_stream_wrapper_function,
+            args=(input_queue, output_queue, func, request_headers),
+        )
+        process.start()
+        try:
+            for frame in frames:
+                input_queue.put(frame)
+        finally:
+            input_queue.put(None)
+        my_result = output_queue.get()
+        process.join()
+        return my_result
+
+
+def multi_process_stream_generator_wrapper_function(
+    input_queue, output_queue, func, argument
+):
+    batches = iter(input_queue.get, None)
     try:
+        for result in func(argument, batches):
+            output_queue.put(result)
+    finally:
+        # consume the remaining batches (e.g. in case of an error) such that the whole request is received
+        for _ in batches:
+            pass
+        output_queue.put(None)
+
+
+def run_stream_generator_multi_process(request, func):
+    """Runs the generator function func(request_headers, batches) where batches are the frames of the request body
+    (see binary_read_text_pair_frames). The frames are handed over to func while the request body is still received
+    and each result of func is returned (by the returned generator) as soon as it is computed."""
+    request_headers = dict(request.headers.items(lower=True))
+    stream = request.stream
+    multi_processing = request_headers["multi-processing"]
+    if multi_processing == "no_multi_process":
+        import queue
+
+        frames = queue.Queue()
+        binary_read_text_pair_frames_in_background(stream, frames.put)
+
+        def results():
+            batches = iter(frames.get, None)
+            try:
+                yield from func(request_headers, batches)
+            finally:
+                for _ in batches:
+                    pass
+
+        return results()
+    else:
+        import multiprocessing as mp
+
+        ctx = (
+            mp.get_context()
+            if multi_processing == "default_multi_process"
+            else mp.get_context(multi_processing)
+        )
+        input_queue = ctx.Queue()
+        output_queue = ctx.Queue()
+        process = ctx.Process(
+            target=multi_process_stream_generator_wrapper_function,
+            args=(input_queue, output_queue, func, request_headers),
+        )
+        process.start()
+        binary_read_text_pair_frames_in_background(stream, input_queue.put)
+
+        def results():
+            try:
+                # one result for each frame as soon as the worker computed it
+                for result in iter(output_queue.get, None):
+                    yield result
+            finally:
+                process.join()
+
+        return results()
+
+
+class TransformersPredictor:
+    """Loads the tokenizer and the model once and predicts the scores of (multiple batches of) text pairs."""
+
+    def __init__(self, request_headers):
         transformers_init(request_headers)
 
         model_name = request_headers["model-name"]
-        prediction_file_path = request_headers["prediction-file-path"]
         tmp_dir = request_headers["tmp-dir"]
-        using_tensorflow = request_headers["using-tf"].lower() == "true"
+        self.using_tensorflow = request_headers["using-tf"].lower() == "true"
         change_class = request_headers["change-class"].lower() == "true"
+        self.class_index = 0 if change_class else 1
         training_arguments = json.loads(request_headers["training-arguments"])
 
         from transformers import AutoTokenizer
 
-        tokenizer = AutoTokenizer.from_pretrained(model_name)
-
-        app.logger.info("Prepare transformers dataset and tokenize")
-        data_left, data_right, _ = transformers_read_file(prediction_file_path, False)
-        assert len(data_left) == len(data_right)
-        predict_dataset = transformers_create_dataset(
-            using_tensorflow, tokenizer, data_left, data_right
+        self.tokenizer = AutoTokenizer.from_pretrained(model_name)
+
+        self.tmp_dir = tempfile.TemporaryDirectory(dir=tmp_dir)
+        initial_arguments = {
+            "report_to": "none",
+            #'disable_tqdm' : True,
+        }
+        fixed_arguments = {
+            "output_dir": os.path.join(self.tmp_dir.name, "trainer_output_dir")
+        }
+        training_args = transformers_get_training_arguments(
+            self.using_tensorflow, initial_arguments, training_arguments, fixed_arguments
         )
-        app.logger.info("Transformers dataset contains %s rows.", len(data_left))
 
-        with tempfile.TemporaryDirectory(dir=tmp_dir) as tmpdirname:
-            initial_arguments = {
-                "report_to": "none",
-                #'disable_tqdm' : True,
-            }
-            fixed_arguments = {
-                "output_dir": os.path.join(tmpdirname, "trainer_output_dir")
-            }
-            training_args = transformers_get_training_arguments(
-                using_tensorflow, initial_arguments, training_arguments, fixed_arguments
-            )
+        app.logger.info("Loading transformers model")
+        if self.using_tensorflow:
+            import tensorflow as tf
 
-            app.logger.info("Loading transformers model")
-            if using_tensorflow:
-                import tensorflow as tf
+            app.logger.info(
+                "Num gpu avail: " + str(len(tf.config.list_physical_devices("GPU")))
+            )
+            from transformers import TFTrainer, TFAutoModelForSequenceClassification
 
-                app.logger.info(
-                    "Num gpu avail: " + str(len(tf.config.list_physical_devices("GPU")))
+            with training_args.strategy.scope():
+                model = TFAutoModelForSequenceClassification.from_pretrained(
+                    model_name, num_labels=2
                 )
-                from transformers import TFTrainer, TFAutoModelForSequenceClassification
 
-                with training_args.strategy.scope():
-                    model = TFAutoModelForSequenceClassification.from_pretrained(
-                        model_name, num_labels=2
-                    )
+            self.trainer = TFTrainer(
+                model=model, tokenizer=self.tokenizer, args=training_args
+            )
+        else:
+            import torch
 
-                trainer = TFTrainer(
-                    model=model, tokenizer=tokenizer, args=training_args
-                )
-            else:
-                import torch
+            app.logger.info("Is gpu used: " + str(torch.cuda.is_available()))
+            from transformers import Trainer, AutoModelForSequenceClassification
 
-                app.logger.info("Is gpu used: " + str(torch.cuda.is_available()))
-                from transformers import Trainer, AutoModelForSequenceClassification
+            model = AutoModelForSequenceClassification.from_pretrained(
+                model_name, num_labels=2
+            )
 
-                model = AutoModelForSequenceClassification.from_pretrained(
-                    model_name, num_labels=2
-                )
+            self.trainer = Trainer(
+                model=model, tokenizer=self.tokenizer, args=training_args
+            )
 
-                trainer = Trainer(model=model, tokenizer=tokenizer, args=training_args)
+    def predict(self, data_left, data_right):
+        assert len(data_left) == len(data_right)
+        predict_dataset = transformers_create_dataset(
+            self.using_tensorflow, self.tokenizer, data_left, data_right
+        )
+        app.logger.info("Transformers dataset contains %s rows.", len(data_left))
 
-            app.logger.info("Run prediction")
-            pred_out = trainer.predict(predict_dataset)
-            app.logger.info(pred_out.metrics)
-        class_index = 0 if change_class else 1
+        app.logger.info("Run prediction")
+        pred_out = self.trainer.predict(predict_dataset)
+        app.logger.info(pred_out.metrics)
         # sigmoid: scores = 1 / (1 + np.exp(-pred_out.predictions, axis=1[:, class_index]))
         # compute softmax to get class probabilities (scores between 0 and 1)
-        scores = softmax(pred_out.predictions, axis=1)[:, class_index]
+        scores = softmax(pred_out.predictions, axis=1)[:, self.class_index]
         return scores.tolist()
+
+    def close(self):
+        self.tmp_dir.cleanup()
+
+
+def inner_transformers_prediction(request_headers):
+    try:
+        prediction_file_path = request_headers["prediction-file-path"]
+
+        app.logger.info("Prepare transformers dataset and tokenize")
+        data_left, data_right, _ = transformers_read_file(prediction_file_path, False)
+        predictor = TransformersPredictor(request_headers)
+        try:
+            return predictor.predict(data_left, data_right)
+        finally:
+            predictor.close()
     except Exception as e:
         import traceback
 
@@ -1896,6 +2093,38 @@ def transformers_prediction():
         return jsonify(result)
 
 
+def inner_transformers_prediction_stream(request_headers, batches):
+    # the model is only loaded if at least one text pair is sent
+    predictor = None
+    try:
+        for batch in batches:
+            if len(batch) == 0:
+                continue  # end of section
+            if predictor is None:
+                predictor = TransformersPredictor(request_headers)
+            # the scores of each frame are sent back before the next frame is predicted
+            yield predictor.predict(
+                [pair[0] for pair in batch], [pair[1] for pair in batch]
+            )
+    except Exception as e:
+        import traceback
+
+        yield "ERROR " + traceback.format_exc()
+    finally:
+        if predictor is not None:
+            predictor.close()
+
+
+@app.route("/transformers-prediction-stream", methods=["POST"])
+def transformers_prediction_stream():
+    results = run_stream_generator_multi_process(
+        request, inner_transformers_prediction_stream
+    )
+    return Response(
+        binary_write_score_frames(results), mimetype="application/octet-stream"
+    )
+
+
 def inner_transformers_finetuning(request_headers):
     try:
         transformers_init(request_headers)
@@ -2333,30 +2562,112 @@ def transformers_finetuning_hp_search():
         return "ERROR " + traceback.format_exc()
 
 
+def sentencetransformers_load_model(request_headers):
+    from sentence_transformers import SentenceTransformer
+
+    cache_folder_path = (
+        request_headers["transformers-cache"]
+        if "transformers-cache" in request_headers
+        else None
+    )
+    return SentenceTransformer(
+        request_headers["model-name"], cache_folder=cache_folder_path
+    )
+
+
+def sentencetransformers_search(
+    request_headers,
+    corpus_embeddings,
+    corpus_pos_to_id,
+    query_embeddings,
+    queries_pos_to_id,
+):
+    from sentence_transformers import util
+    import torch
+
+    query_chunk_size = int(request_headers["query-chunk-size"])
+    corpus_chunk_size = int(request_headers["corpus-chunk-size"])
+    top_k = int(request_headers["topk"])
+    both_directions = request_headers["both-directions"].lower() == "true"
+    topk_per_resource = request_headers["topk-per-resource"].lower() == "true"
+
+    app.logger.info("Is gpu used: " + str(torch.cuda.is_available()))
+    if torch.cuda.is_available():
+        corpus_embeddings = corpus_embeddings.to("cuda")
+        query_embeddings = query_embeddings.to("cuda")
+
+    corpus_embeddings = util.normalize_embeddings(corpus_embeddings)
+    query_embeddings = util.normalize_embeddings(query_embeddings)
+
+    app.logger.info("Run semantic search with topk=%s", top_k)
+
+    hits = util.semantic_search(
+        query_embeddings,
+        corpus_embeddings,
+        query_chunk_size,
+        corpus_chunk_size,
+        top_k,
+        util.dot_score,
+    )
+
+    app.logger.info("Preparing results")
+    result_dict = defaultdict(set)
+    for query_pos, query_hits in enumerate(hits):
+        query_id = queries_pos_to_id[query_pos]
+        for hit in query_hits:
+            corpus_pos = hit["corpus_id"]
+            corpus_id = corpus_pos_to_id[corpus_pos]
+            result_dict[(corpus_id, query_id)].add(hit["score"])
+
+    if both_directions:
+        app.logger.info("Run semantic search with topk=%s in other direction", top_k)
+        hits = util.semantic_search(
+            corpus_embeddings,
+            query_embeddings,
+            query_chunk_size,
+            corpus_chunk_size,
+            top_k,
+            util.dot_score,
+        )
+
+        for corpus_pos, corpus_hits in enumerate(hits):
+            corpus_id = corpus_pos_to_id[corpus_pos]
+            for hit in corpus_hits:
+                query_pos = hit["corpus_id"]
+                query_id = queries_pos_to_id[query_pos]
+                result_dict[(corpus_id, query_id)].add(hit["score"])
+    results = []
+    for (left, right), scores in result_dict.items():
+        results.append((left, right, max(scores)))
+
+    if topk_per_resource == False:
+        return results
+
+    # if top k per resource is true, then further filter the alignment
+    source_dict = defaultdict(set)
+    target_dict = defaultdict(set)
+    for correspondence in results:
+        source_dict[correspondence[0]].add(correspondence)
+        target_dict[correspondence[1]].add(correspondence)
+
+    final_alignment = set()
+    for alignment in source_dict.values():
+        selected = sorted(alignment, key=lambda x: x[2], reverse=True)[:top_k]
+        final_alignment.update(selected)
+    for alignment in target_dict.values():
+        selected = sorted(alignment, key=lambda x: x[2], reverse=True)[:top_k]
+        final_alignment.update(selected)
+    return list(final_alignment)
+
+
 def inner_sentencetransformers_prediction(request_headers):
     try:
         transformers_init(request_headers)
 
-        model_name = request_headers["model-name"]
         corpus_file_name = request_headers["corpus-file-name"]
         queries_file_name = request_headers["queries-file-name"]
 
-        query_chunk_size = int(request_headers["query-chunk-size"])
-        corpus_chunk_size = int(request_headers["corpus-chunk-size"])
-        top_k = int(request_headers["topk"])
-        both_directions = request_headers["both-directions"].lower() == "true"
-        topk_per_resource = request_headers["topk-per-resource"].lower() == "true"
-
-        from sentence_transformers import SentenceTransformer, util
-        import torch
-
-        cache_folder_path = (
-            request_headers["transformers-cache"]
-            if "transformers-cache" in request_headers
-            else None
-        )
-
-        embedder = SentenceTransformer(model_name, cache_folder=cache_folder_path)
+        embedder = sentencetransformers_load_model(request_headers)
 
         def load_file(file_path):
             mapping_pos_to_id = dict()
@@ -2381,84 +2692,78 @@ def inner_sentencetransformers_prediction(request_headers):
         app.logger.info("Compute query embedding.")
         query_embeddings = embedder.encode(queries, convert_to_tensor=True)
 
-        app.logger.info("Is gpu used: " + str(torch.cuda.is_available()))
-        if torch.cuda.is_available():
-            corpus_embeddings = corpus_embeddings.to("cuda")
-            query_embeddings = query_embeddings.to("cuda")
+        return sentencetransformers_search(
+            request_headers,
+            corpus_embeddings,
+            corpus_pos_to_id,
+            query_embeddings,
+            queries_pos_to_id,
+        )
+    except Exception as e:
+        import traceback
 
-        corpus_embeddings = util.normalize_embeddings(corpus_embeddings)
-        query_embeddings = util.normalize_embeddings(query_embeddings)
+        return "ERROR " + traceback.format_exc()
 
-        app.logger.info("Run semantic search with topk=%s", top_k)
 
-        hits = util.semantic_search(
-            query_embeddings,
-            corpus_embeddings,
-            query_chunk_size,
-            corpus_chunk_size,
-            top_k,
-            util.dot_score,
-        )
+@app.route("/sentencetransformers-prediction", methods=["GET"])
+def sentencetransformers_prediction():
+    result = run_function_multi_process(request, inner_sentencetransformers_prediction)
+    if isinstance(result, str):
+        return result
+    else:
+        return jsonify(result)
 
-        app.logger.info("Preparing results")
-        result_dict = defaultdict(set)
-        for query_pos, query_hits in enumerate(hits):
-            query_id = queries_pos_to_id[query_pos]
-            for hit in query_hits:
-                corpus_pos = hit["corpus_id"]
-                corpus_id = corpus_pos_to_id[corpus_pos]
-                result_dict[(corpus_id, query_id)].add(hit["score"])
 
-        if both_directions:
-            app.logger.info(
-                "Run semantic search with topk=%s in other direction", top_k
-            )
-            hits = util.semantic_search(
-                corpus_embeddings,
-                query_embeddings,
-                query_chunk_size,
-                corpus_chunk_size,
-                top_k,
-                util.dot_score,
+def inner_sentencetransformers_prediction_stream(request_headers, batches):
+    try:
+        transformers_init(request_headers)
+        import torch
+
+        # first section: corpus (id, text), second section: queries (id, text)
+        ids = ([], [])
+        embeddings = ([], [])
+        section = 0
+        embedder = None
+        for batch in batches:
+            if len(batch) == 0:
+                section += 1
+                continue
+            if section > 1:
+                raise ValueError("Only two sections (corpus and queries) are allowed.")
+            if embedder is None:
+                embedder = sentencetransformers_load_model(request_headers)
+            # the embeddings are computed while the remaining texts are still received
+            ids[section].extend(pair[0] for pair in batch)
+            embeddings[section].append(
+                embedder.encode([pair[1] for pair in batch], convert_to_tensor=True)
             )
 
-            for corpus_pos, corpus_hits in enumerate(hits):
-                corpus_id = corpus_pos_to_id[corpus_pos]
-                for hit in corpus_hits:
-                    query_pos = hit["corpus_id"]
-                    query_id = queries_pos_to_id[query_pos]
-                    result_dict[(corpus_id, query_id)].add(hit["score"])
-        results = []
-        for (left, right), scores in result_dict.items():
-            results.append((left, right, max(scores)))
-
-        if topk_per_resource == False:
-            return results
-
-        # if top k per resource is true, then further filter the alignment
-        source_dict = defaultdict(set)
-        target_dict = defaultdict(set)
-        for correspondence in results:
-            source_dict[correspondence[0]].add(correspondence)
-            target_dict[correspondence[1]].add(correspondence)
-
-        final_alignment = set()
-        for alignment in source_dict.values():
-            selected = sorted(alignment, key=lambda x: x[2], reverse=True)[:top_k]
-            final_alignment.update(selected)
-        for alignment in target_dict.values():
-            selected = sorted(alignment, key=lambda x: x[2], reverse=True)[:top_k]
-            final_alignment.update(selected)
-        return list(final_alignment)
+        app.logger.info(
+            "received %s corpus documents and %s query documents.",
+            len(ids[0]),
+            len(ids[1]),
+        )
+        if len(ids[0]) == 0 or len(ids[1]) == 0:
+            return []
+
+        return sentencetransformers_search(
+            request_headers,
+            torch.cat(embeddings[0]),
+            dict(enumerate(ids[0])),
+            torch.cat(embeddings[1]),
+            dict(enumerate(ids[1])),
+        )
     except Exception as e:
         import traceback
 
         return "ERROR " + traceback.format_exc()
 
 
-@app.route("/sentencetransformers-prediction", methods=["GET"])
-def sentencetransformers_prediction():
-    result = run_function_multi_process(request, inner_sentencetransformers_prediction)
+@app.route("/sentencetransformers-prediction-stream", methods=["POST"])
+def sentencetransformers_prediction_stream():
+    result = run_stream_function_multi_process(
+        request, inner_sentencetransformers_prediction_stream
+    )
     if isinstance(result, str):
         return result
     else:
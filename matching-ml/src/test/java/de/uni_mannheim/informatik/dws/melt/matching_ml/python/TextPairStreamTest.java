@@ -0,0 +1,214 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the binary framing of {@link TextPairStream} against a local stub server which returns deterministic scores
+ * (no python and no GPU is needed).
+ */
+public class TextPairStreamTest {
+
+    private static HttpServer server;
+    private static CloseableHttpClient httpClient;
+    private static String serverUrl;
+
+    @BeforeAll
+    public static void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/scores", TextPairStreamTest::handleScores);
+        server.createContext("/sections", TextPairStreamTest::handleSections);
+        server.createContext("/error", TextPairStreamTest::handleError);
+        server.createContext("/errorFrame", TextPairStreamTest::handleErrorFrame);
+        server.start();
+        serverUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        httpClient = HttpClients.createDefault();
+    }
+
+    @AfterAll
+    public static void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testScoresInOrder() throws Exception {
+        List<String[]> pairs = new ArrayList<>();
+        for(int i = 0; i < 2500; i++){
+            pairs.add(new String[]{"text " + i, i % 3 == 0 ? "text " + i : "other text with ümläuts " + i});
+        }
+        double[] scores;
+        try(TextPairStream<double[]> stream = new TextPairStream<>(httpClient, new HttpPost(serverUrl + "/scores"), 100, TextPairStream.scoreReader())){
+            for(String[] pair : pairs){
+                stream.add(pair[0], pair[1]);
+            }
+            assertEquals(2500, stream.getNumberOfPairs());
+            scores = stream.finish();
+        }
+        assertEquals(pairs.size(), scores.length);
+        for(int i = 0; i < pairs.size(); i++){
+            assertEquals(score(pairs.get(i)[0], pairs.get(i)[1]), scores[i], 0.0);
+        }
+    }
+
+    @Test
+    void testEmptyStream() throws Exception {
+        try(TextPairStream<double[]> stream = new TextPairStream<>(httpClient, new HttpPost(serverUrl + "/scores"), 100, TextPairStream.scoreReader())){
+            assertEquals(0, stream.finish().length);
+        }
+    }
+
+    @Test
+    void testSections() throws Exception {
+        try(TextPairStream<String> stream = new TextPairStream<>(httpClient, new HttpPost(serverUrl + "/sections"), 2, TextPairStream.textReader())){
+            for(int i = 0; i < 5; i++){
+                stream.add("http://source/" + i, "text " + i);
+            }
+            stream.endSection();
+            for(int i = 0; i < 3; i++){
+                stream.add("http://target/" + i, "text " + i);
+            }
+            assertEquals("5,3", stream.finish());
+        }
+    }
+
+    @Test
+    void testServerError() {
+        try(TextPairStream<double[]> stream = new TextPairStream<>(httpClient, new HttpPost(serverUrl + "/error"), 10, TextPairStream.scoreReader())){
+            for(int i = 0; i < 50; i++){
+                stream.add("left", "right");
+            }
+            PythonServerException ex = assertThrows(PythonServerException.class, stream::finish);
+            assertTrue(ex.getMessage().startsWith("ERROR"));
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    @Test
+    void testServerErrorFrame() {
+        try(TextPairStream<double[]> stream = new TextPairStream<>(httpClient, new HttpPost(serverUrl + "/errorFrame"), 10, TextPairStream.scoreReader())){
+            for(int i = 0; i < 50; i++){
+                stream.add("left", "right");
+            }
+            PythonServerException ex = assertThrows(PythonServerException.class, stream::finish);
+            assertEquals("ERROR in the second frame", ex.getMessage());
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Deterministic score of the stub server.
+     */
+    private static double score(String left, String right){
+        if(left.equals(right))
+            return 1.0;
+        return 1.0 / (1 + Math.abs(left.length() - right.length()));
+    }
+
+    private static void handleScores(HttpExchange exchange) throws IOException {
+        List<List<String[]>> sections = readSections(exchange);
+        exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try(DataOutputStream out = new DataOutputStream(exchange.getResponseBody())){
+            for(List<String[]> section : sections){
+                //send multiple frames of different size
+                for(int start = 0; start < section.size(); start += 333){
+                    int end = Math.min(section.size(), start + 333);
+                    out.writeInt(end - start);
+                    for(String[] pair : section.subList(start, end)){
+                        out.writeDouble(score(pair[0], pair[1]));
+                    }
+                }
+            }
+            out.writeInt(0);
+        }
+    }
+
+    private static void handleSections(HttpExchange exchange) throws IOException {
+        List<List<String[]>> sections = readSections(exchange);
+        StringBuilder sb = new StringBuilder();
+        for(List<String[]> section : sections){
+            if(sb.length() > 0)
+                sb.append(",");
+            sb.append(section.size());
+        }
+        sendText(exchange, sb.toString());
+    }
+
+    private static void handleError(HttpExchange exchange) throws IOException {
+        readSections(exchange);
+        sendText(exchange, "ERROR something went wrong");
+    }
+
+    private static void handleErrorFrame(HttpExchange exchange) throws IOException {
+        readSections(exchange);
+        exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try(DataOutputStream out = new DataOutputStream(exchange.getResponseBody())){
+            //the first frame is already sent when the error occurs
+            out.writeInt(1);
+            out.writeDouble(0.5);
+            byte[] message = "ERROR in the second frame".getBytes(StandardCharsets.UTF_8);
+            out.writeInt(-1);
+            out.writeInt(message.length);
+            out.write(message);
+        }
+    }
+
+    private static void sendText(HttpExchange exchange, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try(OutputStream out = exchange.getResponseBody()){
+            out.write(bytes);
+        }
+    }
+
+    private static List<List<String[]>> readSections(HttpExchange exchange) throws IOException {
+        List<List<String[]>> sections = new ArrayList<>();
+        List<String[]> current = new ArrayList<>();
+        DataInputStream in = new DataInputStream(exchange.getRequestBody());
+        while(true){
+            int count;
+            try {
+                count = in.readInt();
+            } catch (EOFException ex) {
+                break;
+            }
+            if(count == 0){
+                sections.add(current);
+                current = new ArrayList<>();
+                continue;
+            }
+            for(int i = 0; i < count; i++){
+                current.add(new String[]{readText(in), readText(in)});
+            }
+        }
+        return sections;
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
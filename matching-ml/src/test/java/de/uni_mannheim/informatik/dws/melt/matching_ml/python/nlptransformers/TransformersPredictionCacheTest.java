@@ -0,0 +1,85 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python.nlptransformers;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransformersPredictionCacheTest {
+
+    @Test
+    void testKey() {
+        String model = TransformersPredictionCache.getModelIdentifier("bert-base-cased", false);
+        assertEquals("bert-base-cased", model);
+        assertNotEquals(model, TransformersPredictionCache.getModelIdentifier("bert-base-cased", true));
+
+        String key = TransformersPredictionCache.getKey(model, "left", "right");
+        assertTrue(key.startsWith("bert-base-cased|"));
+        assertEquals(key, TransformersPredictionCache.getKey(model, "left", "right"));
+        assertNotEquals(key, TransformersPredictionCache.getKey(model, "right", "left"));
+        //the boundary between the texts matters
+        assertNotEquals(TransformersPredictionCache.getKey(model, "ab", "c"), TransformersPredictionCache.getKey(model, "a", "bc"));
+        assertNotEquals(key, TransformersPredictionCache.getKey("roberta-base", "left", "right"));
+    }
+
+    @Test
+    void testLocalModelIsVersioned(@TempDir File modelDirectory) throws IOException {
+        File config = new File(modelDirectory, "config.json");
+        Files.write(config.toPath(), "{}".getBytes());
+        config.setLastModified(1_000_000L);
+        modelDirectory.setLastModified(1_000_000L);
+        String first = TransformersPredictionCache.getModelIdentifier(modelDirectory.getAbsolutePath(), false);
+        //a model which is overridden (e.g. by fine-tuning) should not use the old scores
+        config.setLastModified(2_000_000L);
+        assertNotEquals(first, TransformersPredictionCache.getModelIdentifier(modelDirectory.getAbsolutePath(), false));
+    }
+
+    @Test
+    void testFilterUsesCache() throws Exception {
+        String namespace = "http://example.com/";
+        OntModel source = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+        OntModel target = ModelFactory.createOntologyModel(OntModelSpec.OWL_MEM);
+        source.createResource(namespace + "source/one").addProperty(RDFS.comment, "a car").addProperty(RDFS.comment, "an automobile");
+        target.createResource(namespace + "target/one").addProperty(RDFS.comment, "a vehicle");
+        source.createResource(namespace + "source/two").addProperty(RDFS.comment, "a house");
+        target.createResource(namespace + "target/two").addProperty(RDFS.comment, "a vehicle");
+
+        AtomicInteger commits = new AtomicInteger();
+        TransformersPredictionCache cache = new TransformersPredictionCache(new ConcurrentHashMap<>(), commits::incrementAndGet);
+        String model = TransformersPredictionCache.getModelIdentifier("my-model", false);
+        cache.put(TransformersPredictionCache.getKey(model, "a car", "a vehicle"), 0.7);
+        cache.put(TransformersPredictionCache.getKey(model, "an automobile", "a vehicle"), 0.9);
+        cache.put(TransformersPredictionCache.getKey(model, "a house", "a vehicle"), 0.1);
+
+        TransformersFilter filter = new TransformersFilter(new CommentExtractor(), "my-model");
+        filter.setMultipleTextsToMultipleExamples(true);
+        filter.setPredictionCache(cache);
+
+        Alignment alignment = new Alignment();
+        alignment.add(namespace + "source/one", namespace + "target/one");
+        alignment.add(namespace + "source/two", namespace + "target/two");
+        //all pairs are cached, thus the python server is not needed
+        Alignment result = filter.match(source, target, alignment, new Properties());
+
+        Correspondence one = result.getCorrespondence(namespace + "source/one", namespace + "target/one", CorrespondenceRelation.EQUIVALENCE);
+        assertEquals(0.9, one.getAdditionalConfidence(TransformersFilter.class), 0.0);
+        Correspondence two = result.getCorrespondence(namespace + "source/two", namespace + "target/two", CorrespondenceRelation.EQUIVALENCE);
+        assertEquals(0.1, two.getAdditionalConfidence(TransformersFilter.class), 0.0);
+        assertEquals(3, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+        assertEquals(0, commits.get());
+    }
+}